@@ -0,0 +1,47 @@
+package com.mydomain.consumer_elasticsearch.config;
+
+import lombok.extern.log4j.Log4j2;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.listener.RetryListener;
+import org.springframework.util.backoff.FixedBackOff;
+
+/**
+ * Kafka listener container ayarları.
+ * Spring Boot, buradaki error handler'ı varsayılan listener container factory'sine bağlar.
+ */
+@Configuration
+@Log4j2
+public class KafkaConsumerConfig {
+
+    /**
+     * Listener istisna fırlattığında kayıtları (batch modunda tüm batch'i) sabit aralıkla
+     * süresiz yeniden dener. Offset'ler başarılı denemeye kadar commit edilmez; Elasticsearch
+     * erişilemezken veri atlanmaz.
+     *
+     * @param retryIntervalMs Denemeler arasındaki bekleme (ms)
+     * @return Error handler
+     */
+    @Bean
+    public DefaultErrorHandler kafkaErrorHandler(@Value("${consumer.kafka.retry-interval-ms:1000}") long retryIntervalMs) {
+        DefaultErrorHandler handler = new DefaultErrorHandler(new FixedBackOff(retryIntervalMs, FixedBackOff.UNLIMITED_ATTEMPTS));
+        handler.setRetryListeners(new RetryListener() {
+            @Override
+            public void failedDelivery(ConsumerRecord<?, ?> record, Exception ex, int deliveryAttempt) {
+                log.warn("🔁 Kafka record failed (offset={}, attempt {}), retrying in {} ms → {}",
+                        record.offset(), deliveryAttempt, retryIntervalMs, ex.getMessage());
+            }
+
+            @Override
+            public void failedDelivery(ConsumerRecords<?, ?> records, Exception ex, int deliveryAttempt) {
+                log.warn("🔁 Kafka batch of {} records failed (attempt {}), retrying in {} ms → {}",
+                        records.count(), deliveryAttempt, retryIntervalMs, ex.getMessage());
+            }
+        });
+        return handler;
+    }
+}
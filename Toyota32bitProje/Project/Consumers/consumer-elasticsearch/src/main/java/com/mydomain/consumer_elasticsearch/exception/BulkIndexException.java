@@ -0,0 +1,16 @@
+package com.mydomain.consumer_elasticsearch.exception;
+
+/**
+ * Bir Kafka kaydının veya batch'inin dokümanları Elasticsearch'e yazılamadığında fırlatılır.
+ * Örneğin yeniden denemelerin tükenmesi veya cluster'a erişilememesi.
+ */
+public class BulkIndexException extends RuntimeException {
+
+    public BulkIndexException(String message) {
+        super(message);
+    }
+
+    public BulkIndexException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -1,5 +1,6 @@
 package com.mydomain.consumer_elasticsearch.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.*;
 
 import java.time.Instant;
@@ -15,6 +16,8 @@ import java.util.UUID;
 @AllArgsConstructor
 public class Rate {
 
+    /** Doküman _id'si olarak kullanılır; _source'a yazılmaz */
+    @JsonIgnore
     private UUID id;
 
     private String name;
@@ -4,18 +4,235 @@ import com.mydomain.consumer_elasticsearch.model.Rate;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.stereotype.Service;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestException;
+import java.security.MessageDigest;
 import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 
 /**
- * Kafka'dan gelen PIPE formatlı mesajları parse ederek Rate nesnesine dönüştüren servis.
+ * Kafka'dan gelen mesajları parse ederek Rate nesnesine dönüştüren servis.
+ * Mesaj biçimi ilk byte'tan otomatik ayırt edilir: snapshot (0xFD), binary (0xFE) veya PIPE metin.
  */
 @Service
 @Log4j2
 public class DataProcessorService {
 
+    /** Binary mesajların ilk byte'ı; geçerli UTF-8 metnin ilk byte'ı olamaz */
+    private static final byte BINARY_MAGIC = (byte) 0xFE;
+    /** Desteklenen binary şema sürümü */
+    private static final byte BINARY_VERSION = 1;
+    /** magic + version + bid + ask + epoch nanos + ad uzunluğu */
+    private static final int BINARY_HEADER_SIZE = 27;
+
+    /** Bir hesaplama döngüsünün tüm rate'lerini taşıyan snapshot mesajlarının ilk byte'ı */
+    private static final byte SNAPSHOT_MAGIC = (byte) 0xFD;
+    /** Desteklenen snapshot şema sürümleri; v2 her rate'e freshnessMs alanı ekler */
+    private static final byte SNAPSHOT_V1 = 1;
+    private static final byte SNAPSHOT_V2 = 2;
+    /** magic + version + cycleId + döngü zamanı + rate sayısı */
+    private static final int SNAPSHOT_HEADER_SIZE = 20;
+    /** bid + ask + epoch nanos + ad uzunluğu */
+    private static final int SNAPSHOT_ENTRY_SIZE = 25;
+    /** v2'de epoch nanos'tan sonra gelen freshnessMs alanı */
+    private static final int SNAPSHOT_FRESHNESS_SIZE = 8;
+
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private final PipeMessageParser pipeParser = new PipeMessageParser();
+
+    /**
+     * Gelen Kafka mesajını biçimini tespit ederek parse eder.
+     *
+     * @param message Kafka'dan gelen ham mesaj gövdesi
+     * @return Eğer format doğruysa Rate nesnesi, değilse null
+     */
+    public Rate parseAndConvert(byte[] message) {
+        return parseAndConvert(message, new PipeMessageParser.Fields());
+    }
+
+    private Rate parseAndConvert(byte[] message, PipeMessageParser.Fields fields) {
+        if (message == null || message.length == 0) {
+            log.warn("⚠️ Empty Kafka message");
+            return null;
+        }
+        if (message[0] == BINARY_MAGIC) {
+            return parseBinary(message, fields);
+        }
+        if (pipeParser.parse(message, fields)) {
+            return parsePipe(message, fields);
+        }
+        return parseAndConvert(new String(message, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Gelen Kafka mesajını parse eder; snapshot mesajları tek çağrıda tüm rate'lerine açılır.
+     *
+     * @param message Kafka'dan gelen ham mesaj gövdesi
+     * @return Mesajdaki rate'ler, format hatalıysa boş liste
+     */
+    public List<Rate> parseAll(byte[] message) {
+        if (message != null && message.length > 0 && message[0] == SNAPSHOT_MAGIC) {
+            return parseSnapshot(message, new PipeMessageParser.Fields());
+        }
+        Rate rate = parseAndConvert(message);
+        return rate == null ? List.of() : List.of(rate);
+    }
+
+    /**
+     * {@link #parseAll(byte[])}'in batch karşılığı: rate'leri verilen listeye ekler ve aynı
+     * {@code fields} nesnesini tüm kayıtlar için kullanır.
+     *
+     * @param message Kafka'dan gelen ham mesaj gövdesi
+     * @param fields  Poll boyunca tekrar kullanılan parse nesnesi
+     * @param out     Rate'lerin ekleneceği liste
+     * @return Eklenen rate sayısı, format hatalıysa 0
+     */
+    public int parseInto(byte[] message, PipeMessageParser.Fields fields, List<Rate> out) {
+        if (message != null && message.length > 0 && message[0] == SNAPSHOT_MAGIC) {
+            List<Rate> rates = parseSnapshot(message, fields);
+            out.addAll(rates);
+            return rates.size();
+        }
+        Rate rate = parseAndConvert(message, fields);
+        if (rate == null) {
+            return 0;
+        }
+        out.add(rate);
+        return 1;
+    }
+
     /**
-     * Gelen Kafka mesajını parse eder ve Elasticsearch'e yazılabilir hale getirir.
+     * Snapshot v1/v2 mesajını parse eder: magic, version, cycleId, döngü zamanı, rate sayısı ve
+     * her rate için bid, ask, epoch nanos, (v2'de) freshnessMs, ad uzunluğu, ad. Tazelik
+     * saklanmadığı için atlanır.
+     *
+     * @param message 0xFD ile başlayan mesaj gövdesi
+     * @return Snapshot'taki rate'ler, format hatalıysa boş liste
+     */
+    private List<Rate> parseSnapshot(byte[] message, PipeMessageParser.Fields fields) {
+        if (message.length < SNAPSHOT_HEADER_SIZE || (message[1] != SNAPSHOT_V1 && message[1] != SNAPSHOT_V2)) {
+            log.warn("⚠️ Unsupported or truncated snapshot message (length={}, version={})",
+                    message.length, message.length > 1 ? message[1] : -1);
+            return List.of();
+        }
+
+        ByteBuffer buf = ByteBuffer.wrap(message, 2, message.length - 2);
+        long cycleId = buf.getLong();
+        buf.getLong(); // döngü zamanı; her rate kendi zaman damgasını taşır
+        int count = buf.getShort() & 0xFFFF;
+        boolean hasFreshness = message[1] == SNAPSHOT_V2;
+        int entrySize = SNAPSHOT_ENTRY_SIZE + (hasFreshness ? SNAPSHOT_FRESHNESS_SIZE : 0);
+
+        List<Rate> rates = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            if (buf.remaining() < entrySize) {
+                log.warn("⚠️ Truncated snapshot message (cycle={}, entry {} of {})", cycleId, i, count);
+                return List.of();
+            }
+            double bid = buf.getDouble();
+            double ask = buf.getDouble();
+            long epochNanos = buf.getLong();
+            if (hasFreshness) {
+                buf.getLong(); // freshnessMs
+            }
+            int nameLength = buf.get() & 0xFF;
+            if (buf.remaining() < nameLength) {
+                log.warn("⚠️ Truncated snapshot message (cycle={}, entry {} of {})", cycleId, i, count);
+                return List.of();
+            }
+            String rateName = new String(message, buf.position(), nameLength, StandardCharsets.UTF_8);
+            UUID id = documentId(message, buf.position(), nameLength, epochNanos, fields);
+            buf.position(buf.position() + nameLength);
+
+            rates.add(Rate.builder()
+                    .id(id)
+                    .name(rateName)
+                    .bid(bid)
+                    .ask(ask)
+                    .timestamp(epochNanos / NANOS_PER_MILLI)
+                    .build());
+        }
+
+        log.debug("✅ Parsed snapshot message → cycle={}, rates={}", cycleId, count);
+        return rates;
+    }
+
+    /**
+     * Binary v1 mesajını parse eder: magic, version, bid, ask, epoch nanos, ad uzunluğu, ad.
+     *
+     * @param message 0xFE ile başlayan mesaj gövdesi
+     * @return Eğer format doğruysa Rate nesnesi, değilse null
+     */
+    private Rate parseBinary(byte[] message, PipeMessageParser.Fields fields) {
+        if (message.length < BINARY_HEADER_SIZE || message[1] != BINARY_VERSION) {
+            log.warn("⚠️ Unsupported or truncated binary message (length={}, version={})",
+                    message.length, message.length > 1 ? message[1] : -1);
+            return null;
+        }
+
+        ByteBuffer buf = ByteBuffer.wrap(message, 2, message.length - 2);
+        double bid = buf.getDouble();
+        double ask = buf.getDouble();
+        long epochNanos = buf.getLong();
+        long timestamp = epochNanos / NANOS_PER_MILLI;
+        int nameLength = buf.get() & 0xFF;
+        if (buf.remaining() != nameLength) {
+            log.warn("⚠️ Malformed binary message (name length {} but {} bytes left)", nameLength, buf.remaining());
+            return null;
+        }
+        String rateName = new String(message, BINARY_HEADER_SIZE, nameLength, StandardCharsets.UTF_8);
+
+        Rate rate = Rate.builder()
+                .id(documentId(message, BINARY_HEADER_SIZE, nameLength, epochNanos, fields))
+                .name(rateName)
+                .bid(bid)
+                .ask(ask)
+                .timestamp(timestamp)
+                .build();
+
+        log.debug("✅ Parsed binary message → name={}, bid={}, ask={}, timestamp={}",
+                rateName, bid, ask, timestamp);
+
+        return rate;
+    }
+
+    /**
+     * {@link PipeMessageParser} tarafından byte seviyesinde okunmuş PIPE mesajını dönüştürür.
+     * Loglar kapalıyken argümanlar hazırlanmaz.
+     */
+    private Rate parsePipe(byte[] message, PipeMessageParser.Fields fields) {
+        if (log.isTraceEnabled()) {
+            log.trace("📨 Incoming raw Kafka message: {}", new String(message, StandardCharsets.UTF_8));
+        }
+
+        long epochNanos = fields.getEpochNanos();
+        byte[] nameBytes = fields.getNameBytes();
+        Rate rate = Rate.builder()
+                .id(documentId(nameBytes, 0, nameBytes.length, epochNanos, fields))
+                .name(fields.getName())
+                .bid(fields.getBid())
+                .ask(fields.getAsk())
+                .timestamp(Math.floorDiv(epochNanos, NANOS_PER_MILLI))
+                .build();
+
+        if (log.isDebugEnabled()) {
+            log.debug("✅ Parsed message → name={}, bid={}, ask={}, timestamp={}",
+                    rate.getName(), rate.getBid(), rate.getAsk(), rate.getTimestamp());
+        }
+        return rate;
+    }
+
+    /**
+     * Gelen PIPE formatlı Kafka mesajını parse eder ve Elasticsearch'e yazılabilir hale getirir.
+     * Byte dizisinden gelen mesajlar önce {@link PipeMessageParser} ile okunur; bu metot
+     * onun desteklemediği biçimler için kullanılır.
      *
      * @param rawMessage Kafka'dan gelen düz metin mesaj
      * @return Eğer format doğruysa Rate nesnesi, değilse null
@@ -33,10 +250,14 @@ public class DataProcessorService {
             String rateName = parts[0];
             double bid = Double.parseDouble(parts[1]);
             double ask = Double.parseDouble(parts[2]);
-            long timestamp = Instant.parse(parts[3]).toEpochMilli();
+            Instant time = OffsetDateTime.parse(parts[3], DateTimeFormatter.ISO_OFFSET_DATE_TIME).toInstant();
+            long timestamp = time.toEpochMilli();
+
+            byte[] nameBytes = rateName.getBytes(StandardCharsets.UTF_8);
 
             Rate rate = Rate.builder()
-                    .id(UUID.randomUUID())
+                    .id(documentId(nameBytes, 0, nameBytes.length,
+                            time.getEpochSecond() * NANOS_PER_SECOND + time.getNano(), new PipeMessageParser.Fields()))
                     .name(rateName)
                     .bid(bid)
                     .ask(ask)
@@ -56,4 +277,46 @@ public class DataProcessorService {
 
         return null;
     }
-}
\ No newline at end of file
+
+    /**
+     * Kur adı ve nanosaniye hassasiyetindeki zamandan deterministik doküman id'si üretir
+     * (isim tabanlı UUID). Aynı kayıt hangi formatta ve kaç kez gelirse gelsin aynı id'yi alır;
+     * consumer-postgresql'deki (rate_name, rate_update_time) doğal anahtarının karşılığıdır.
+     *
+     * <p>Sonuç {@code UUID.nameUUIDFromBytes(ad + epochNanos)} ile aynıdır; ancak ad mesajın
+     * içinden okunur ve MD5 örneği {@code fields} ile tekrar kullanılır.</p>
+     *
+     * @param name       Kur adının UTF-8 byte'larını içeren dizi
+     * @param offset     Adın dizideki başlangıcı
+     * @param length     Adın byte uzunluğu
+     * @param epochNanos Kurun zaman damgası (epoch nanos)
+     * @param fields     MD5 örneğini ve tamponu taşıyan parse nesnesi
+     * @return Doküman id'si
+     */
+    private static UUID documentId(byte[] name, int offset, int length, long epochNanos,
+                                   PipeMessageParser.Fields fields) {
+        MessageDigest md5 = fields.md5();
+        byte[] hash = fields.buffer();
+        for (int i = 0; i < Long.BYTES; i++) {
+            hash[i] = (byte) (epochNanos >>> (56 - 8 * i));
+        }
+        md5.update(name, offset, length);
+        md5.update(hash, 0, Long.BYTES);
+        try {
+            md5.digest(hash, 0, hash.length);
+        } catch (DigestException e) {
+            throw new IllegalStateException(e);
+        }
+        hash[6] = (byte) ((hash[6] & 0x0f) | 0x30); // sürüm 3
+        hash[8] = (byte) ((hash[8] & 0x3f) | 0x80); // IETF varyantı
+        return new UUID(readLong(hash, 0), readLong(hash, 8));
+    }
+
+    private static long readLong(byte[] b, int offset) {
+        long value = 0;
+        for (int i = offset; i < offset + Long.BYTES; i++) {
+            value = (value << 8) | (b[i] & 0xFF);
+        }
+        return value;
+    }
+}
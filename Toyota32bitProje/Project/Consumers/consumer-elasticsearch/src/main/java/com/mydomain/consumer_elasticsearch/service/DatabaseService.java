@@ -1,53 +1,402 @@
 package com.mydomain.consumer_elasticsearch.service;
 
+import co.elastic.clients.elasticsearch.ElasticsearchAsyncClient;
 import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._helpers.bulk.BulkIngester;
+import co.elastic.clients.elasticsearch._helpers.bulk.BulkListener;
+import co.elastic.clients.elasticsearch._types.ElasticsearchException;
+import co.elastic.clients.elasticsearch.core.BulkRequest;
+import co.elastic.clients.elasticsearch.core.BulkResponse;
+import co.elastic.clients.elasticsearch.core.bulk.BulkOperation;
+import co.elastic.clients.elasticsearch.core.bulk.BulkResponseItem;
+import com.mydomain.consumer_elasticsearch.exception.BulkIndexException;
 import com.mydomain.consumer_elasticsearch.model.Rate;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.log4j.Log4j2;
+import org.elasticsearch.client.ResponseException;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * Rate nesnelerini Elasticsearch'e kaydeden servis.
+ * Her rate, zaman damgasının gününe ait index'e yazılır (bkz. {@link IndexTemplateService}).
+ * Dokümanlar deterministik id ile `create` işlemiyle yazılır; zaten var olan doküman (409)
+ * tekrar teslim edilmiş kayıt sayılır ve başarılı kabul edilir.
+ *
+ * <p>Batch yolu {@link BulkIngester} kullanır: bulk istekleri işlem sayısı, byte boyutu ve
+ * süre ile sınırlanır, birden fazla bulk aynı anda gönderilir. Geçici hatalar (429, 5xx,
+ * bağlantı) doküman bazında beklenip yeniden denenir.</p>
  */
 @Service
 @Log4j2
 public class DatabaseService {
 
-    private final ElasticsearchClient client;
+    /** create işleminde doküman zaten varsa dönen durum kodu */
+    private static final int CONFLICT = 409;
 
-    @Value("${spring.elasticsearch.index}")
-    private String index;
+    private final ElasticsearchClient client;
+    private final IndexTemplateService indexTemplateService;
+    private final BulkIngester<Attempt> ingester;
+    private final ScheduledExecutorService retryScheduler;
+    private final ExecutorService callbackExecutor;
+    private final long retryBackoffMs;
+    private final int maxRetries;
 
-    public DatabaseService(ElasticsearchClient client) {
+    public DatabaseService(ElasticsearchClient client,
+                           IndexTemplateService indexTemplateService,
+                           @Value("${consumer.es.bulk.max-operations:1000}") int maxOperations,
+                           @Value("${consumer.es.bulk.max-size-bytes:5242880}") long maxSizeBytes,
+                           @Value("${consumer.es.bulk.flush-interval-ms:1000}") long flushIntervalMs,
+                           @Value("${consumer.es.bulk.max-concurrent-requests:2}") int maxConcurrentRequests,
+                           @Value("${consumer.es.bulk.max-retries:3}") int maxRetries,
+                           @Value("${consumer.es.bulk.retry-backoff-ms:1000}") long retryBackoffMs) {
         this.client = client;
+        this.indexTemplateService = indexTemplateService;
+        this.retryBackoffMs = retryBackoffMs;
+        this.maxRetries = maxRetries;
+        this.retryScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "es-bulk-retry");
+            t.setDaemon(true);
+            return t;
+        });
+        this.callbackExecutor = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "es-bulk-callback");
+            t.setDaemon(true);
+            return t;
+        });
+        ElasticsearchAsyncClient bulkClient = new ElasticsearchAsyncClient(client._transport(), client._transportOptions()) {
+            /*
+             * Bağlantı hatası REST client'ın I/O thread'inde, pool kilidi tutulurken bildirilir.
+             * Ingester sonucu kendi kilidini alarak işlediği ve aynı anda başka bir thread o
+             * kilitle yeni bulk gönderebildiği için sonuç ayrı thread'e taşınır (aksi halde
+             * Elasticsearch erişilemezken deadlock oluşur).
+             */
+            @Override
+            public CompletableFuture<BulkResponse> bulk(BulkRequest request) {
+                CompletableFuture<BulkResponse> result = new CompletableFuture<>();
+                super.bulk(request).whenCompleteAsync((response, failure) -> {
+                    if (failure != null) {
+                        result.completeExceptionally(failure);
+                    } else {
+                        result.complete(response);
+                    }
+                }, callbackExecutor);
+                return result;
+            }
+        };
+        this.ingester = BulkIngester.of(b -> b
+                .client(bulkClient)
+                .maxOperations(maxOperations)
+                .maxSize(maxSizeBytes)
+                .flushInterval(flushIntervalMs, TimeUnit.MILLISECONDS)
+                .maxConcurrentRequests(maxConcurrentRequests)
+                .listener(new RetryingBulkListener()));
+
+        log.info("⚙️ ES bulk ingester ready → maxOperations={}, maxSize={} bytes, flushInterval={} ms, concurrentRequests={}",
+                maxOperations, maxSizeBytes, flushIntervalMs, maxConcurrentRequests);
     }
 
     /**
      * Verilen Rate nesnesini Elasticsearch'e kaydeder.
      *
+     * <p>Hatalar batch yoluyla aynı şekilde ele alınır: zaten yazılmış doküman atlanır, mapping
+     * hatası gibi kalıcı hatalı doküman loglanıp atlanır, diğer hatalar fırlatılır ve kayıt
+     * error handler tarafından yeniden teslim edilir.</p>
+     *
      * @param rate Kaydedilecek veri
+     * @throws BulkIndexException Doküman geçici bir hata nedeniyle yazılamazsa
      */
     public void saveRate(Rate rate) {
         try {
             log.debug("📤 Indexing rate into Elasticsearch → name={}, bid={}, ask={}, timestamp={}",
                     rate.getName(), rate.getBid(), rate.getAsk(), rate.getTimestamp());
 
-            var resp = client.index(i -> i
-                    .index(index)
+            var resp = client.create(c -> c
+                    .index(indexTemplateService.indexFor(rate))
                     .id(rate.getId().toString())
                     .document(rate)
             );
 
             String result = resp.result().name();
 
-            if (result.equalsIgnoreCase("Created") || result.equalsIgnoreCase("Updated")) {
+            if (result.equalsIgnoreCase("Created")) {
                 log.info("✅ Indexed rate '{}' into Elasticsearch (result: {})", rate.getName(), result);
             } else {
                 log.warn("⚠️ Unexpected ES indexing result: '{}' for rate '{}'", result, rate.getName());
             }
 
         } catch (Exception e) {
-            log.error("❌ Failed to index rate into Elasticsearch → {} → rate: {}", e.getMessage(), rate, e);
+            if (isConflict(e)) {
+                log.info("♻️ Duplicate rate skipped → name={}, id={}", rate.getName(), rate.getId());
+            } else if (isPermanent(e)) {
+                log.warn("⚠️ ES rejected rate, skipped → {} → rate: {}", e.getMessage(), rate);
+            } else {
+                throw new BulkIndexException("Indexing rate " + rate.getName() + " failed → " + e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Bir snapshot mesajından gelen rate'leri tek bir bulk isteğiyle Elasticsearch'e kaydeder.
+     * Hatalar {@link #saveRate(Rate)} ile aynı şekilde ele alınır: istek başarısız olursa veya
+     * geçici hata alan doküman kalırsa mesajın tamamı yeniden teslim edilir; yazılmış olanlar
+     * o zaman tekrar olarak atlanır.
+     *
+     * @param rates Kaydedilecek veriler
+     * @throws BulkIndexException İstek başarısız olursa veya geçici hata alan doküman kalırsa
+     */
+    public void saveRates(List<Rate> rates) {
+        BulkResponse resp;
+        try {
+            log.debug("📤 Bulk indexing {} rates into Elasticsearch...", rates.size());
+
+            resp = client.bulk(b -> {
+                for (Rate rate : rates) {
+                    b.operations(op -> op.create(c -> c
+                            .index(indexTemplateService.indexFor(rate))
+                            .id(rate.getId().toString())
+                            .document(rate)));
+                }
+                return b;
+            });
+        } catch (Exception e) {
+            throw new BulkIndexException("Bulk indexing of " + rates.size() + " rates failed → " + e.getMessage(), e);
+        }
+
+        int duplicates = 0;
+        int failed = 0;
+        int retryable = 0;
+        String reason = null;
+        for (var item : resp.items()) {
+            if (item.status() == CONFLICT) {
+                duplicates++;
+            } else if (item.error() == null) {
+                continue;
+            } else if (isRetryable(item.status())) {
+                retryable++;
+                reason = item.error().reason();
+            } else {
+                failed++;
+                log.warn("⚠️ ES bulk item failed: id={} → {}", item.id(), item.error().reason());
+            }
+        }
+        if (retryable > 0) {
+            throw new BulkIndexException(retryable + " of " + rates.size() + " rates rejected by Elasticsearch → " + reason);
+        }
+
+        if (duplicates > 0) {
+            log.info("♻️ {} duplicate rates skipped", duplicates);
+        }
+        log.info("✅ Indexed {} rates into Elasticsearch", rates.size() - duplicates - failed);
+    }
+
+    /**
+     * Rate'leri bulk ingester ile yazar ve hepsi yazılana kadar bekler. Liste
+     * `consumer.es.bulk.max-operations` / `max-size-bytes` sınırlarına göre birden fazla bulk
+     * isteğine bölünür ve bunlar aynı anda gönderilir; kalan kısım beklemeden gönderilir.
+     *
+     * <p>Hatalar yutulmaz: listener'da istisna Kafka offset'lerinin commit edilmesini engeller
+     * ve batch yeniden denenir. Zaten yazılmış dokümanlar atlanır; mapping hatası gibi kalıcı
+     * hatalı dokümanlar loglanıp atlanır.</p>
+     *
+     * @param rates Kaydedilecek veriler, boş olabilir
+     * @throws BulkIndexException Yeniden denemelere rağmen yazılamayan doküman kalırsa
+     */
+    public void saveRatesBulk(List<Rate> rates) {
+        if (rates.isEmpty()) return;
+
+        PendingBatch batch = new PendingBatch(rates.size());
+        for (Rate rate : rates) {
+            ingester.add(op -> op.create(c -> c
+                    .index(indexTemplateService.indexFor(rate))
+                    .id(rate.getId().toString())
+                    .document(rate)), new Attempt(batch, 0));
+        }
+        ingester.flush();
+        log.debug("📤 Queued {} rates for bulk indexing ({} bulk requests in flight)", rates.size(), ingester.pendingRequests());
+
+        try {
+            batch.result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BulkIndexException("Interrupted while waiting for bulk indexing", e);
+        } catch (ExecutionException e) {
+            throw new BulkIndexException("Bulk indexing of " + rates.size() + " rates failed → " + e.getCause().getMessage(), e.getCause());
+        }
+        int duplicates = batch.duplicates.get();
+        if (duplicates > 0) {
+            log.info("♻️ {} duplicate rates skipped", duplicates);
+        }
+        log.info("✅ Indexed {} rates into Elasticsearch", rates.size() - duplicates);
+    }
+
+    /**
+     * Kuyruktaki dokümanları gönderir ve bekleyen bulk isteklerinin bitmesini bekler.
+     */
+    @PreDestroy
+    public void close() {
+        log.info("🛑 Flushing ES bulk ingester → {} operations pending", ingester.pendingOperations());
+        ingester.close();
+        retryScheduler.shutdownNow();
+        callbackExecutor.shutdown();
+        log.info("📊 ES bulk ingester closed → {} operations in {} bulk requests",
+                ingester.operationsCount(), ingester.requestCount());
+    }
+
+    /**
+     * Reddedilen işlemleri bekleme süresi sonunda tekrar kuyruğa alır ve flush interval'ı
+     * beklemeden gönderir. Deneme hakkı biten işlemin batch'i başarısız olur.
+     */
+    private void retryLater(List<BulkOperation> operations, List<Attempt> attempts, String reason) {
+        List<BulkOperation> retryOps = new ArrayList<>();
+        List<Attempt> retryAttempts = new ArrayList<>();
+        for (int i = 0; i < operations.size(); i++) {
+            Attempt attempt = attempts.get(i);
+            if (attempt.batch.result.isDone()) continue;
+            if (attempt.number >= maxRetries) {
+                attempt.batch.fail(reason);
+                continue;
+            }
+            retryOps.add(operations.get(i));
+            retryAttempts.add(new Attempt(attempt.batch, attempt.number + 1));
+        }
+        if (retryOps.isEmpty()) return;
+
+        retryScheduler.schedule(() -> {
+            try {
+                for (int i = 0; i < retryOps.size(); i++) {
+                    ingester.add(retryOps.get(i), retryAttempts.get(i));
+                }
+                ingester.flush();
+            } catch (IllegalStateException e) {
+                retryAttempts.forEach(attempt -> attempt.batch.fail("bulk ingester closed"));
+            }
+        }, retryBackoffMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * REST client 409'u ResponseException olarak fırlatır (transport yalnızca 400-405'i
+     * ElasticsearchException'a çevirir); ikisi de kontrol edilir.
+     */
+    private static boolean isConflict(Exception e) {
+        if (e instanceof ElasticsearchException ee) {
+            return ee.status() == CONFLICT;
+        }
+        return e instanceof ResponseException re && re.getResponse().getStatusLine().getStatusCode() == CONFLICT;
+    }
+
+    /**
+     * @return İstek mapping hatası gibi tekrar denemekle düzelmeyecek bir 4xx ile reddedildiyse true
+     */
+    private static boolean isPermanent(Exception e) {
+        int status = -1;
+        if (e instanceof ElasticsearchException ee) {
+            status = ee.status();
+        } else if (e instanceof ResponseException re) {
+            status = re.getResponse().getStatusLine().getStatusCode();
+        }
+        return status >= 400 && !isRetryable(status);
+    }
+
+    private static boolean isRetryable(int status) {
+        return status == 429 || status >= 500;
+    }
+
+    /**
+     * Bulk sonuçlarını batch'lere dağıtır; başarısız dokümanları sınıflandırıp tekrar kuyruğa alır.
+     */
+    private class RetryingBulkListener implements BulkListener<Attempt> {
+
+        @Override
+        public void beforeBulk(long executionId, BulkRequest request, List<Attempt> contexts) {
+            log.trace("🚚 Sending bulk #{} → {} operations", executionId, request.operations().size());
+        }
+
+        @Override
+        public void afterBulk(long executionId, BulkRequest request, List<Attempt> contexts, BulkResponse response) {
+            List<BulkResponseItem> items = response.items();
+            List<BulkOperation> retryOps = new ArrayList<>();
+            List<Attempt> retryAttempts = new ArrayList<>();
+            String reason = null;
+            for (int i = 0; i < items.size(); i++) {
+                BulkResponseItem item = items.get(i);
+                Attempt attempt = contexts.get(i);
+
+                if (item.error() == null) {
+                    attempt.batch.done();
+                } else if (item.status() == CONFLICT) {
+                    attempt.batch.duplicates.incrementAndGet();
+                    attempt.batch.done();
+                } else if (isRetryable(item.status())) {
+                    retryOps.add(request.operations().get(i));
+                    retryAttempts.add(attempt);
+                    reason = item.error().reason();
+                } else {
+                    log.warn("⚠️ ES bulk item failed: id={} → {}", item.id(), item.error().reason());
+                    attempt.batch.done();
+                }
+            }
+
+            if (!retryOps.isEmpty()) {
+                log.warn("🔁 Bulk #{}: {} of {} operations rejected, retrying in {} ms → {}",
+                        executionId, retryOps.size(), items.size(), retryBackoffMs, reason);
+                retryLater(retryOps, retryAttempts, reason);
+            } else {
+                log.debug("✅ Bulk #{} indexed {} operations in {} ms", executionId, items.size(), response.took());
+            }
+        }
+
+        @Override
+        public void afterBulk(long executionId, BulkRequest request, List<Attempt> contexts, Throwable failure) {
+            log.error("❌ Bulk #{} of {} operations failed, retrying in {} ms → {}",
+                    executionId, request.operations().size(), retryBackoffMs, failure.getMessage());
+            retryLater(request.operations(), contexts, failure.getMessage());
+        }
+    }
+
+    /**
+     * Bir Kafka batch'inin henüz yazılmamış doküman sayısını ve sonucunu tutar.
+     */
+    private static class PendingBatch {
+        private final AtomicInteger remaining;
+        private final AtomicInteger duplicates = new AtomicInteger();
+        private final CompletableFuture<Void> result = new CompletableFuture<>();
+
+        PendingBatch(int size) {
+            this.remaining = new AtomicInteger(size);
+        }
+
+        void done() {
+            if (remaining.decrementAndGet() == 0) {
+                result.complete(null);
+            }
+        }
+
+        void fail(String reason) {
+            result.completeExceptionally(new BulkIndexException(reason));
+        }
+    }
+
+    /**
+     * Bulk'taki tek işlemin ait olduğu batch ve kaçıncı yeniden deneme olduğu.
+     */
+    private static class Attempt {
+        private final PendingBatch batch;
+        private final int number;
+
+        Attempt(PendingBatch batch, int number) {
+            this.batch = batch;
+            this.number = number;
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,100 @@
+package com.mydomain.consumer_elasticsearch.service;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.mapping.DynamicMapping;
+import com.mydomain.consumer_elasticsearch.model.Rate;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Rate'lerin yazıldığı günlük index'leri yönetir.
+ *
+ * <p>Her rate kendi zaman damgasının (UTC) gününe ait `{index}-yyyy.MM.dd` index'ine yazılır;
+ * böylece aynı kayıt yeniden işlendiğinde hep aynı index'e düşer. Index'ler açılışta kurulan
+ * index template ile oluşturulur (açık mapping, ingest'e uygun refresh_interval) ve
+ * `{index}` alias'ı altında toplanır. Saklama süresini ILM policy yönetir: index yaşı
+ * adındaki tarihten hesaplanır ve süre dolunca index silinir.</p>
+ */
+@Service
+@Log4j2
+public class IndexTemplateService {
+
+    private static final DateTimeFormatter DAY_FORMAT = DateTimeFormatter.ofPattern("yyyy.MM.dd").withZone(ZoneOffset.UTC);
+
+    private final ElasticsearchClient client;
+    private final String alias;
+    private final String replicas;
+    private final String refreshInterval;
+    private final int retentionDays;
+
+    public IndexTemplateService(ElasticsearchClient client,
+                                @Value("${spring.elasticsearch.index}") String alias,
+                                @Value("${consumer.es.index.replicas:0}") String replicas,
+                                @Value("${consumer.es.index.refresh-interval:30s}") String refreshInterval,
+                                @Value("${consumer.es.index.retention-days:365}") int retentionDays) {
+        this.client = client;
+        this.alias = alias;
+        this.replicas = replicas;
+        this.refreshInterval = refreshInterval;
+        this.retentionDays = retentionDays;
+    }
+
+    /**
+     * Rate'in yazılacağı günlük index adını döner.
+     *
+     * @param rate Yazılacak veri
+     * @return Örn. rates-2025.01.31
+     */
+    public String indexFor(Rate rate) {
+        return alias + "-" + DAY_FORMAT.format(Instant.ofEpochMilli(rate.getTimestamp()));
+    }
+
+    /**
+     * ILM policy'sini ve index template'ini oluşturur ya da günceller. Kafka listener'ları
+     * başlamadan çalışır; template yoksa ilk yazma dinamik mapping'le index açacağından
+     * Elasticsearch'e erişilemezse uygulama açılmaz.
+     *
+     * @throws IOException Elasticsearch isteği başarısız olursa
+     */
+    @PostConstruct
+    public void installTemplates() throws IOException {
+        String policy = alias + "-policy";
+
+        client.ilm().putLifecycle(p -> p
+                .name(policy)
+                .policy(pol -> pol.phases(ph -> ph
+                        .hot(h -> h.minAge(t -> t.time("0ms"))
+                                .actions(a -> a.setPriority(s -> s.priority(100))))
+                        .delete(d -> d.minAge(t -> t.time(retentionDays + "d"))
+                                .actions(a -> a.delete(del -> del))))));
+
+        client.indices().putIndexTemplate(t -> t
+                .name(alias + "-template")
+                .indexPatterns(alias + "-*")
+                .priority(200L)
+                .template(tm -> tm
+                        .aliases(alias, a -> a)
+                        .settings(s -> s
+                                .numberOfShards("1")
+                                .numberOfReplicas(replicas)
+                                .refreshInterval(r -> r.time(refreshInterval))
+                                .codec("best_compression")
+                                .lifecycle(l -> l.name(policy).parseOriginationDate(true)))
+                        .mappings(m -> m
+                                .dynamic(DynamicMapping.False)
+                                .properties("name", p -> p.keyword(k -> k))
+                                .properties("timestamp", p -> p.date(d -> d.format("epoch_millis")))
+                                .properties("bid", p -> p.double_(d -> d.index(false)))
+                                .properties("ask", p -> p.double_(d -> d.index(false))))));
+
+        log.info("🗂️ ES index template installed → pattern={}-*, alias={}, refresh={}, retention={} days",
+                alias, alias, refreshInterval, retentionDays);
+    }
+}
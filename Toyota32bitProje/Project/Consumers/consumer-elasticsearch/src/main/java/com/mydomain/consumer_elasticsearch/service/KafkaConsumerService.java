@@ -1,5 +1,6 @@
 package com.mydomain.consumer_elasticsearch.service;
 
+import com.mydomain.consumer_elasticsearch.exception.BulkIndexException;
 import com.mydomain.consumer_elasticsearch.model.Rate;
 import lombok.extern.log4j.Log4j2;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
@@ -7,8 +8,16 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Kafka'dan gelen mesajları dinler, parse eder ve Elasticsearch'e kaydeder.
+ *
+ * <p>`consumer.kafka.batch-listener` true ise (varsayılan) bir poll'daki tüm kayıtlar
+ * {@link #consumeBatch(List)} ile eşzamanlı bulk isteklerinde yazılır; offset'ler ancak
+ * tüm dokümanlar yazıldıktan sonra commit edilir. false ise {@link #consume(ConsumerRecord)}
+ * her kaydı tek tek işler.</p>
  */
 @Service
 @Log4j2
@@ -27,34 +36,59 @@ public class KafkaConsumerService {
     }
 
     /**
-     * Kafka topic'inden gelen mesajları işler.
+     * Bir poll'daki tüm kayıtları parse eder ve bulk ingester ile yazar.
+     * Yazma hatası yukarı fırlatılır; batch error handler tarafından yeniden denenir.
      *
-     * @param record Kafka mesajı (key, value, partition, offset vs.)
+     * @param records Poll'dan gelen kayıtlar
      */
-    @KafkaListener(topics = "${consumer.kafka.topic}")
-    public void consume(ConsumerRecord<String, String> record) {
-        String rawMessage = record.value();
-
-        log.trace("📩 Raw Kafka message received (offset={}, partition={}) → {}",
-                record.offset(), record.partition(), rawMessage);
-
-        try {
-            log.debug("🔍 Parsing incoming message...");
-            Rate rate = dataProcessorService.parseAndConvert(rawMessage);
-
-            if (rate != null) {
-                log.debug("💾 Parsed rate: name={}, bid={}, ask={}",
-                        rate.getName(), rate.getBid(), rate.getAsk());
-
-                log.debug("📦 Saving rate to Elasticsearch...");
-                databaseService.saveRate(rate);
-                log.info("✅ Rate saved successfully → {}", rate.getName());
-            } else {
-                log.warn("⚠️ Message parsing returned null. Skipped → {}", rawMessage);
+    @KafkaListener(id = "rates-es-batch", idIsGroup = false, topics = "${consumer.kafka.topic}", batch = "true",
+            autoStartup = "${consumer.kafka.batch-listener:true}")
+    public void consumeBatch(List<ConsumerRecord<String, byte[]>> records) {
+        log.trace("📩 Kafka batch received → {} records", records.size());
+
+        List<Rate> rates = new ArrayList<>(records.size());
+        PipeMessageParser.Fields fields = new PipeMessageParser.Fields();
+        for (ConsumerRecord<String, byte[]> record : records) {
+            if (dataProcessorService.parseInto(record.value(), fields, rates) == 0) {
+                log.warn("⚠️ Message parsing returned no rates. Skipped → key={}, offset={}", record.key(), record.offset());
             }
+        }
+
+        databaseService.saveRatesBulk(rates);
+        log.debug("💾 Batch of {} records → {} rates indexed", records.size(), rates.size());
+    }
+
+    /**
+     * Kafka topic'inden gelen mesajları tek tek işler. Parse edilemeyen mesajlar loglanıp
+     * atlanır; yazma hatası yukarı fırlatılır, error handler kaydı yeniden dener.
+     *
+     * @param record Kafka mesajı (key, value, partition, offset vs.)
+     * @throws BulkIndexException Rate'ler Elasticsearch'e yazılamazsa
+     */
+    @KafkaListener(id = "rates-es-single", idIsGroup = false, topics = "${consumer.kafka.topic}", batch = "false",
+            autoStartup = "#{!${consumer.kafka.batch-listener:true}}")
+    public void consume(ConsumerRecord<String, byte[]> record) {
+        byte[] rawMessage = record.value();
+
+        log.trace("📩 Raw Kafka message received (offset={}, partition={}) → key={}, {} bytes",
+                record.offset(), record.partition(), record.key(), rawMessage == null ? 0 : rawMessage.length);
+
+        log.debug("🔍 Parsing incoming message...");
+        List<Rate> rates = dataProcessorService.parseAll(rawMessage);
+
+        if (rates.size() == 1) {
+            Rate rate = rates.get(0);
+            log.debug("💾 Parsed rate: name={}, bid={}, ask={}",
+                    rate.getName(), rate.getBid(), rate.getAsk());
 
-        } catch (Exception e) {
-            log.error("❌ Unexpected error during Kafka consumption → {}", e.getMessage(), e);
+            log.debug("📦 Saving rate to Elasticsearch...");
+            databaseService.saveRate(rate);
+            log.info("✅ Rate saved successfully → {}", rate.getName());
+        } else if (!rates.isEmpty()) {
+            log.debug("📦 Saving snapshot of {} rates to Elasticsearch...", rates.size());
+            databaseService.saveRates(rates);
+        } else {
+            log.warn("⚠️ Message parsing returned no rates. Skipped → key={}, offset={}", record.key(), record.offset());
         }
     }
 }
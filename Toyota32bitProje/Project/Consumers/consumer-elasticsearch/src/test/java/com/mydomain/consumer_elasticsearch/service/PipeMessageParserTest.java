@@ -0,0 +1,144 @@
+package com.mydomain.consumer_elasticsearch.service;
+
+import com.mydomain.consumer_elasticsearch.model.Rate;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link PipeMessageParser}'ın byte yolunun String yoluyla (split, Double.parseDouble,
+ * OffsetDateTime.parse) aynı sonucu (doküman id'si dahil) verdiğini ve desteklemediği biçimlerde geri düştüğünü doğrular.
+ */
+class PipeMessageParserTest {
+
+    private final PipeMessageParser parser = new PipeMessageParser();
+    private final DataProcessorService dataProcessorService = new DataProcessorService();
+
+    @Test
+    void parsesPlainMessage() {
+        PipeMessageParser.Fields fields = parse("USDTRY|32.1234|32.5678|2025-06-07T10:15:30.123Z");
+
+        assertEquals("USDTRY", fields.getName());
+        assertEquals(32.1234, fields.getBid());
+        assertEquals(32.5678, fields.getAsk());
+        assertEquals(epochNanos("2025-06-07T10:15:30.123Z"), fields.getEpochNanos());
+    }
+
+    @Test
+    void appliesOffsets() {
+        for (String time : List.of("2025-06-07T10:15:30+03:00", "2025-06-07T10:15:30-05:30",
+                "2025-06-07T10:15:30+00:00", "2025-06-07T10:15:30+18:00", "2025-06-07T10:15:30-18:00")) {
+            assertEquals(epochNanos(time), parse("EURUSD|1.1|1.2|" + time).getEpochNanos(), time);
+        }
+    }
+
+    @Test
+    void rejectsOutOfRangeOffsets() {
+        assertFallsBack("EURUSD|1.1|1.2|2025-06-07T10:15:30+18:01");
+        assertFallsBack("EURUSD|1.1|1.2|2025-06-07T10:15:30+03:60");
+        assertFallsBack("EURUSD|1.1|1.2|2025-06-07T10:15:30+0300");
+    }
+
+    @Test
+    void parsesZeroToNineFractionDigits() {
+        String digits = "123456789";
+        for (int n = 0; n <= 9; n++) {
+            String time = "2025-06-07T10:15:30" + (n == 0 ? "" : "." + digits.substring(0, n)) + "Z";
+            assertEquals(epochNanos(time), parse("EURUSD|1.1|1.2|" + time).getEpochNanos(), time);
+        }
+        assertEquals(epochNanos("2025-06-07T10:15Z"), parse("EURUSD|1.1|1.2|2025-06-07T10:15Z").getEpochNanos());
+    }
+
+    @Test
+    void rejectsTenFractionDigits() {
+        assertFallsBack("EURUSD|1.1|1.2|2025-06-07T10:15:30.1234567891Z");
+    }
+
+    @Test
+    void parsesDecimalsLikeDoubleParseDouble() {
+        for (String number : List.of("0", "1", "-1", "+2.5", "0.1", "32.123456", "1234567890.12345",
+                ".000000000000000001", "9007199254740992", "1.", ".5")) {
+            PipeMessageParser.Fields fields = parse("X|" + number + "|" + number + "|2025-06-07T10:15:30Z");
+            assertEquals(Double.parseDouble(number), fields.getBid(), number);
+            assertEquals(Double.parseDouble(number), fields.getAsk(), number);
+        }
+    }
+
+    @Test
+    void fallsBackBeyondEighteenDigits() {
+        assertFallsBack("X|1234567890.123456789|1|2025-06-07T10:15:30Z");
+        assertFallsBack("X|1|0.0000000000000000001|2025-06-07T10:15:30Z");
+        assertFallsBack("X|9007199254740993|1|2025-06-07T10:15:30Z");
+        assertFallsBack("X|1e5|1|2025-06-07T10:15:30Z");
+    }
+
+    @Test
+    void rejectsInvalidDates() {
+        assertFallsBack("X|1|2|2025-02-29T10:15:30Z");
+        assertFallsBack("X|1|2|2025-04-31T10:15:30Z");
+        assertFallsBack("X|1|2|2025-13-01T10:15:30Z");
+        assertFallsBack("X|1|2|2025-06-00T10:15:30Z");
+        assertFallsBack("X|1|2|2025-06-07T24:00:00Z");
+        assertEquals(epochNanos("2024-02-29T10:15:30Z"), parse("X|1|2|2024-02-29T10:15:30Z").getEpochNanos());
+    }
+
+    @Test
+    void rejectsTrailingSeparatorAndMissingFields() {
+        assertFallsBack("X|1|2|2025-06-07T10:15:30Z|");
+        assertFallsBack("X|1|2|2025-06-07T10:15:30Z|extra");
+        assertFallsBack("X|1|2025-06-07T10:15:30Z");
+        assertFallsBack("X|1||2025-06-07T10:15:30Z");
+    }
+
+    @Test
+    void reusesCachedNames() {
+        PipeMessageParser.Fields first = parse("GBPUSD|1|2|2025-06-07T10:15:30Z");
+        PipeMessageParser.Fields second = parse("GBPUSD|3|4|2025-06-07T10:15:31Z");
+
+        assertSame(first.getName(), second.getName());
+        assertSame(first.getNameBytes(), second.getNameBytes());
+    }
+
+    @Test
+    void matchesStringPath() {
+        for (String message : List.of(
+                "USDTRY|32.1234|32.5678|2025-06-07T10:15:30.123Z",
+                "EURUSD|1.08|1.09|2025-06-07T10:15:30.123456789+03:00",
+                "GBPUSD|-0.5|+0.5|2025-12-31T23:59:59-05:30",
+                "XAUUSD|2345.1|2345.9|2024-02-29T00:00Z",
+                "ŞÇĞ|1|2|2025-06-07T10:15:30Z",
+                "X|1234567890.123456789|1|2025-06-07T10:15:30Z",
+                "X|1|2|2025-06-07T10:15:30Z|",
+                "X|1|2|2025-02-29T10:15:30Z",
+                "X|abc|2|2025-06-07T10:15:30Z")) {
+            Rate expected = dataProcessorService.parseAndConvert(message);
+            Rate actual = dataProcessorService.parseAndConvert(message.getBytes(StandardCharsets.UTF_8));
+
+            assertEquals(expected, actual, message);
+        }
+    }
+
+    private PipeMessageParser.Fields parse(String message) {
+        PipeMessageParser.Fields fields = new PipeMessageParser.Fields();
+        assertTrue(parser.parse(message.getBytes(StandardCharsets.UTF_8), fields), message);
+        return fields;
+    }
+
+    private void assertFallsBack(String message) {
+        assertFalse(parser.parse(message.getBytes(StandardCharsets.UTF_8), new PipeMessageParser.Fields()), message);
+    }
+
+    private static long epochNanos(String isoTimestamp) {
+        Instant time = OffsetDateTime.parse(isoTimestamp, DateTimeFormatter.ISO_OFFSET_DATE_TIME).toInstant();
+        return time.getEpochSecond() * 1_000_000_000L + time.getNano();
+    }
+}
@@ -2,11 +2,13 @@ package com.mydomain.consumer.consumer_postgresql;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Spring Boot main class => Kafka consumer microservice
  */
 @SpringBootApplication
+@EnableScheduling
 public class ConsumerPostgresqlApplication {
 
 	public static void main(String[] args) {
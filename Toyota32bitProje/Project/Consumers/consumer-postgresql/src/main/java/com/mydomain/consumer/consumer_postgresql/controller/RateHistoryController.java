@@ -0,0 +1,117 @@
+package com.mydomain.consumer.consumer_postgresql.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mydomain.consumer.consumer_postgresql.model.OhlcBar;
+import com.mydomain.consumer.consumer_postgresql.model.TblRates;
+import com.mydomain.consumer.consumer_postgresql.repository.RateHistoryRepository;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+
+/**
+ * Kur geçmişi sorgu API'si.
+ * Sonuçlar JSON dizisi olarak veritabanından okundukça yazılır; büyük aralıklar heap'te
+ * biriktirilmez. Zamanlar kayıtlarla aynı şekilde yerel (İstanbul) saattir.
+ *
+ * <pre>
+ * GET /api/rates/history/PF1_USDTRY?from=2025-06-07T10:00:00&to=2025-06-07T11:00:00
+ * GET /api/rates/history/PF1_USDTRY/ohlc?from=...&to=...&bucket=1m   (1s | 1m | 1h)
+ * </pre>
+ */
+@RestController
+@RequestMapping("/api/rates/history")
+@Log4j2
+public class RateHistoryController {
+
+    private final RateHistoryRepository rateHistoryRepository;
+    private final ObjectMapper objectMapper;
+
+    public RateHistoryController(RateHistoryRepository rateHistoryRepository, ObjectMapper objectMapper) {
+        this.rateHistoryRepository = rateHistoryRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    @GetMapping(value = "/{rateName}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public StreamingResponseBody getTicks(
+            @PathVariable String rateName,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        validateRange(from, to);
+        log.info("📈 History requested → rateName={}, from={}, to={}", rateName, from, to);
+
+        return out -> {
+            try (JsonGenerator gen = objectMapper.getFactory().createGenerator(out)) {
+                gen.writeStartArray();
+                rateHistoryRepository.streamTicks(rateName, from, to, rate -> writeTick(gen, rate));
+                gen.writeEndArray();
+            }
+        };
+    }
+
+    @GetMapping(value = "/{rateName}/ohlc", produces = MediaType.APPLICATION_JSON_VALUE)
+    public StreamingResponseBody getOhlc(
+            @PathVariable String rateName,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "1m") String bucket) {
+        validateRange(from, to);
+        if (!RateHistoryRepository.BUCKETS.containsKey(bucket)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Unsupported bucket: " + bucket + " (expected one of " + RateHistoryRepository.BUCKETS.keySet() + ")");
+        }
+        log.info("📊 OHLC requested → rateName={}, from={}, to={}, bucket={}", rateName, from, to, bucket);
+
+        return out -> {
+            try (JsonGenerator gen = objectMapper.getFactory().createGenerator(out)) {
+                gen.writeStartArray();
+                rateHistoryRepository.streamOhlc(rateName, from, to, bucket, bar -> writeBar(gen, bar));
+                gen.writeEndArray();
+            }
+        };
+    }
+
+    private static void validateRange(LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "'from' must be before 'to'");
+        }
+    }
+
+    private static void writeTick(JsonGenerator gen, TblRates rate) {
+        try {
+            gen.writeStartObject();
+            gen.writeStringField("rateName", rate.getRateName());
+            gen.writeNumberField("bid", rate.getBid());
+            gen.writeNumberField("ask", rate.getAsk());
+            gen.writeStringField("rateUpdateTime", rate.getRateUpdateTime().toString());
+            gen.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeBar(JsonGenerator gen, OhlcBar bar) {
+        try {
+            gen.writeStartObject();
+            gen.writeStringField("bucketStart", bar.getBucketStart().toString());
+            gen.writeNumberField("open", bar.getOpen());
+            gen.writeNumberField("high", bar.getHigh());
+            gen.writeNumberField("low", bar.getLow());
+            gen.writeNumberField("close", bar.getClose());
+            gen.writeNumberField("avgBid", bar.getAvgBid());
+            gen.writeNumberField("avgAsk", bar.getAvgAsk());
+            gen.writeNumberField("ticks", bar.getTicks());
+            gen.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.mydomain.consumer.consumer_postgresql.model;
+
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * Bir kurun tek zaman aralığındaki (bucket) özeti.
+ * OHLC değerleri orta fiyat ((bid + ask) / 2) üzerinden hesaplanır; kur akışında hacim
+ * bulunmadığından VWAP yerine tick ağırlıklı ortalama bid/ask verilir.
+ */
+@ToString
+public class OhlcBar {
+
+    private final LocalDateTime bucketStart;
+    private final double open;
+    private final double high;
+    private final double low;
+    private final double close;
+    private final double avgBid;
+    private final double avgAsk;
+    private final long ticks;
+
+    public OhlcBar(LocalDateTime bucketStart, double open, double high, double low, double close,
+                   double avgBid, double avgAsk, long ticks) {
+        this.bucketStart = bucketStart;
+        this.open = open;
+        this.high = high;
+        this.low = low;
+        this.close = close;
+        this.avgBid = avgBid;
+        this.avgAsk = avgAsk;
+        this.ticks = ticks;
+    }
+
+    public LocalDateTime getBucketStart() { return bucketStart; }
+    public double getOpen() { return open; }
+    public double getHigh() { return high; }
+    public double getLow() { return low; }
+    public double getClose() { return close; }
+    public double getAvgBid() { return avgBid; }
+    public double getAvgAsk() { return avgAsk; }
+    public long getTicks() { return ticks; }
+}
@@ -0,0 +1,121 @@
+package com.mydomain.consumer.consumer_postgresql.repository;
+
+import com.mydomain.consumer.consumer_postgresql.model.OhlcBar;
+import com.mydomain.consumer.consumer_postgresql.model.TblRates;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * tbl_rates üzerindeki geçmiş sorguları => sonuçlar satır satır callback'e akıtılır.
+ * PostgreSQL sürücüsü fetch size'ı yalnızca transaction içinde (autocommit kapalıyken)
+ * uygular; bu yüzden metotlar read-only transaction açar ve sonuç kümesi belleğe alınmaz.
+ * Rollup'lar açıksa 1m ve 1h bucket'ları hazır rollup tablolarından okunur.
+ */
+@Repository
+public class RateHistoryRepository {
+
+    /** API'deki bucket kodu => PostgreSQL interval değeri */
+    public static final Map<String, String> BUCKETS = Map.of(
+            "1s", "1 second",
+            "1m", "1 minute",
+            "1h", "1 hour");
+
+    /** Rollup tablosu olan bucket'lar => tablo adı */
+    private static final Map<String, String> ROLLUP_TABLES = Map.of(
+            "1m", "tbl_rates_1m",
+            "1h", "tbl_rates_1h");
+
+    private static final String TICKS_SQL =
+            "SELECT rate_name, bid, ask, rate_update_time FROM tbl_rates " +
+            "WHERE rate_name = ? AND rate_update_time >= ? AND rate_update_time < ? " +
+            "ORDER BY rate_update_time";
+
+    private static final String OHLC_SQL =
+            "SELECT date_bin(CAST(? AS interval), rate_update_time, TIMESTAMP '2000-01-01') AS bucket, " +
+            "(array_agg((bid + ask) / 2 ORDER BY rate_update_time))[1] AS open, " +
+            "max((bid + ask) / 2) AS high, " +
+            "min((bid + ask) / 2) AS low, " +
+            "(array_agg((bid + ask) / 2 ORDER BY rate_update_time DESC))[1] AS close, " +
+            "avg(bid) AS avg_bid, avg(ask) AS avg_ask, count(*) AS ticks " +
+            "FROM tbl_rates " +
+            "WHERE rate_name = ? AND rate_update_time >= ? AND rate_update_time < ? " +
+            "GROUP BY bucket ORDER BY bucket";
+
+    private static final String ROLLUP_SQL =
+            "SELECT bucket_start, open, high, low, close, avg_bid, avg_ask, ticks FROM %s " +
+            "WHERE rate_name = ? AND bucket_start >= ? AND bucket_start < ? " +
+            "ORDER BY bucket_start";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean rollupsEnabled;
+
+    public RateHistoryRepository(DataSource dataSource,
+                                 @Value("${consumer.api.fetch-size:1000}") int fetchSize,
+                                 @Value("${consumer.rollup.enabled:true}") boolean rollupsEnabled) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.rollupsEnabled = rollupsEnabled;
+    }
+
+    /**
+     * Bir kurun [from, to) aralığındaki tüm kayıtlarını zaman sırasıyla akıtır.
+     *
+     * @param rateName Kur adı
+     * @param from     Başlangıç (dahil)
+     * @param to       Bitiş (hariç)
+     * @param consumer Her satır için çağrılır
+     */
+    @Transactional(readOnly = true)
+    public void streamTicks(String rateName, LocalDateTime from, LocalDateTime to, Consumer<TblRates> consumer) {
+        jdbcTemplate.query(TICKS_SQL, rs -> {
+            TblRates rate = new TblRates();
+            rate.setRateName(rs.getString(1));
+            rate.setBid(rs.getDouble(2));
+            rate.setAsk(rs.getDouble(3));
+            rate.setRateUpdateTime(rs.getObject(4, LocalDateTime.class));
+            consumer.accept(rate);
+        }, rateName, from, to);
+    }
+
+    /**
+     * Bir kurun [from, to) aralığını verilen bucket genişliğinde OHLC olarak hesaplar ve akıtır.
+     * Bucket sınırları 2000-01-01 00:00'a hizalıdır; kaydı olmayan bucket'lar dönmez.
+     * Rollup tablosundan okunduğunda başlangıcı [from, to) içinde kalan kapanmış bucket'lar
+     * döner; henüz kapanmamış son bucket yer almaz.
+     *
+     * @param rateName Kur adı
+     * @param from     Başlangıç (dahil)
+     * @param to       Bitiş (hariç)
+     * @param bucket   {@link #BUCKETS} anahtarlarından biri
+     * @param consumer Her bucket için çağrılır
+     */
+    @Transactional(readOnly = true)
+    public void streamOhlc(String rateName, LocalDateTime from, LocalDateTime to, String bucket, Consumer<OhlcBar> consumer) {
+        RowCallbackHandler handler = rs -> {
+            consumer.accept(new OhlcBar(
+                    rs.getObject(1, LocalDateTime.class),
+                    rs.getDouble(2),
+                    rs.getDouble(3),
+                    rs.getDouble(4),
+                    rs.getDouble(5),
+                    rs.getDouble(6),
+                    rs.getDouble(7),
+                    rs.getLong(8)));
+        };
+
+        String rollupTable = ROLLUP_TABLES.get(bucket);
+        if (rollupsEnabled && rollupTable != null) {
+            jdbcTemplate.query(String.format(ROLLUP_SQL, rollupTable), handler, rateName, from, to);
+        } else {
+            jdbcTemplate.query(OHLC_SQL, handler, BUCKETS.get(bucket), rateName, from, to);
+        }
+    }
+}
@@ -4,20 +4,220 @@ import com.mydomain.consumer.consumer_postgresql.model.TblRates;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.stereotype.Service;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.OffsetDateTime;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Kafka'dan gelen mesajları parse edip TblRates nesnesine dönüştüren servis sınıfı.
+ * Mesaj biçimi ilk byte'tan otomatik ayırt edilir: snapshot (0xFD), binary (0xFE) veya PIPE metin.
  */
 @Service
 @Log4j2
 public class DataProcessorService {
 
+    /** Binary mesajların ilk byte'ı; geçerli UTF-8 metnin ilk byte'ı olamaz */
+    private static final byte BINARY_MAGIC = (byte) 0xFE;
+    /** Desteklenen binary şema sürümü */
+    private static final byte BINARY_VERSION = 1;
+    /** magic + version + bid + ask + epoch nanos + ad uzunluğu */
+    private static final int BINARY_HEADER_SIZE = 27;
+
+    /** Bir hesaplama döngüsünün tüm rate'lerini taşıyan snapshot mesajlarının ilk byte'ı */
+    private static final byte SNAPSHOT_MAGIC = (byte) 0xFD;
+    /** Desteklenen snapshot şema sürümleri; v2 her rate'e freshnessMs alanı ekler */
+    private static final byte SNAPSHOT_V1 = 1;
+    private static final byte SNAPSHOT_V2 = 2;
+    /** magic + version + cycleId + döngü zamanı + rate sayısı */
+    private static final int SNAPSHOT_HEADER_SIZE = 20;
+    /** bid + ask + epoch nanos + ad uzunluğu */
+    private static final int SNAPSHOT_ENTRY_SIZE = 25;
+    /** v2'de epoch nanos'tan sonra gelen freshnessMs alanı */
+    private static final int SNAPSHOT_FRESHNESS_SIZE = 8;
+
+    private static final ZoneId ISTANBUL = ZoneId.of("Europe/Istanbul");
+
+    private final PipeMessageParser pipeParser = new PipeMessageParser();
+
+    /**
+     * Gelen Kafka mesajını biçimini tespit ederek parse eder.
+     *
+     * @param message Kafka'dan gelen ham mesaj gövdesi
+     * @return Eğer format doğruysa TblRates nesnesi, değilse null
+     */
+    public TblRates parseAndConvert(byte[] message) {
+        return parseAndConvert(message, new PipeMessageParser.Fields());
+    }
+
+    private TblRates parseAndConvert(byte[] message, PipeMessageParser.Fields fields) {
+        if (message == null || message.length == 0) {
+            log.warn("⚠️ Empty Kafka message");
+            return null;
+        }
+        if (message[0] == BINARY_MAGIC) {
+            return parseBinary(message);
+        }
+        if (pipeParser.parse(message, fields)) {
+            return parsePipe(message, fields);
+        }
+        return parseAndConvert(new String(message, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Gelen Kafka mesajını parse eder; snapshot mesajları tek çağrıda tüm rate'lerine açılır.
+     *
+     * @param message Kafka'dan gelen ham mesaj gövdesi
+     * @return Mesajdaki rate'ler, format hatalıysa boş liste
+     */
+    public List<TblRates> parseAll(byte[] message) {
+        if (message != null && message.length > 0 && message[0] == SNAPSHOT_MAGIC) {
+            return parseSnapshot(message);
+        }
+        TblRates entity = parseAndConvert(message);
+        return entity == null ? List.of() : List.of(entity);
+    }
+
+    /**
+     * {@link #parseAll(byte[])}'in batch karşılığı: rate'leri verilen listeye ekler ve aynı
+     * {@code fields} nesnesini tüm kayıtlar için kullanır.
+     *
+     * @param message Kafka'dan gelen ham mesaj gövdesi
+     * @param fields  Poll boyunca tekrar kullanılan parse nesnesi
+     * @param out     Rate'lerin ekleneceği liste
+     * @return Eklenen rate sayısı, format hatalıysa 0
+     */
+    public int parseInto(byte[] message, PipeMessageParser.Fields fields, List<TblRates> out) {
+        if (message != null && message.length > 0 && message[0] == SNAPSHOT_MAGIC) {
+            List<TblRates> entities = parseSnapshot(message);
+            out.addAll(entities);
+            return entities.size();
+        }
+        TblRates entity = parseAndConvert(message, fields);
+        if (entity == null) {
+            return 0;
+        }
+        out.add(entity);
+        return 1;
+    }
+
+    /**
+     * Snapshot v1/v2 mesajını parse eder: magic, version, cycleId, döngü zamanı, rate sayısı ve
+     * her rate için bid, ask, epoch nanos, (v2'de) freshnessMs, ad uzunluğu, ad. Tazelik
+     * saklanmadığı için atlanır.
+     *
+     * @param message 0xFD ile başlayan mesaj gövdesi
+     * @return Snapshot'taki rate'ler, format hatalıysa boş liste
+     */
+    private List<TblRates> parseSnapshot(byte[] message) {
+        if (message.length < SNAPSHOT_HEADER_SIZE || (message[1] != SNAPSHOT_V1 && message[1] != SNAPSHOT_V2)) {
+            log.warn("⚠️ Unsupported or truncated snapshot message (length={}, version={})",
+                    message.length, message.length > 1 ? message[1] : -1);
+            return List.of();
+        }
+
+        ByteBuffer buf = ByteBuffer.wrap(message, 2, message.length - 2);
+        long cycleId = buf.getLong();
+        buf.getLong(); // döngü zamanı; her rate kendi zaman damgasını taşır
+        int count = buf.getShort() & 0xFFFF;
+        boolean hasFreshness = message[1] == SNAPSHOT_V2;
+        int entrySize = SNAPSHOT_ENTRY_SIZE + (hasFreshness ? SNAPSHOT_FRESHNESS_SIZE : 0);
+
+        List<TblRates> entities = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            if (buf.remaining() < entrySize) {
+                log.warn("⚠️ Truncated snapshot message (cycle={}, entry {} of {})", cycleId, i, count);
+                return List.of();
+            }
+            double bid = buf.getDouble();
+            double ask = buf.getDouble();
+            long epochNanos = buf.getLong();
+            if (hasFreshness) {
+                buf.getLong(); // freshnessMs
+            }
+            int nameLength = buf.get() & 0xFF;
+            if (buf.remaining() < nameLength) {
+                log.warn("⚠️ Truncated snapshot message (cycle={}, entry {} of {})", cycleId, i, count);
+                return List.of();
+            }
+            String rateName = new String(message, buf.position(), nameLength, StandardCharsets.UTF_8);
+            buf.position(buf.position() + nameLength);
+
+            entities.add(newEntity(rateName, bid, ask, epochNanos));
+        }
+
+        log.debug("✅ Parsed snapshot message → cycle={}, rates={}", cycleId, count);
+        return entities;
+    }
+
+    /**
+     * Binary v1 mesajını parse eder: magic, version, bid, ask, epoch nanos, ad uzunluğu, ad.
+     *
+     * @param message 0xFE ile başlayan mesaj gövdesi
+     * @return Eğer format doğruysa TblRates nesnesi, değilse null
+     */
+    private TblRates parseBinary(byte[] message) {
+        if (message.length < BINARY_HEADER_SIZE || message[1] != BINARY_VERSION) {
+            log.warn("⚠️ Unsupported or truncated binary message (length={}, version={})",
+                    message.length, message.length > 1 ? message[1] : -1);
+            return null;
+        }
+
+        ByteBuffer buf = ByteBuffer.wrap(message, 2, message.length - 2);
+        double bid = buf.getDouble();
+        double ask = buf.getDouble();
+        long epochNanos = buf.getLong();
+        int nameLength = buf.get() & 0xFF;
+        if (buf.remaining() != nameLength) {
+            log.warn("⚠️ Malformed binary message (name length {} but {} bytes left)", nameLength, buf.remaining());
+            return null;
+        }
+        String rateName = new String(message, BINARY_HEADER_SIZE, nameLength, StandardCharsets.UTF_8);
+
+        TblRates entity = newEntity(rateName, bid, ask, epochNanos);
+
+        log.debug("✅ Parsed binary message → rateName={}, bid={}, ask={}, time={}",
+                rateName, bid, ask, entity.getRateUpdateTime());
+
+        return entity;
+    }
+
+    /**
+     * {@link PipeMessageParser} tarafından byte seviyesinde okunmuş PIPE mesajını dönüştürür.
+     * Loglar kapalıyken argümanlar hazırlanmaz.
+     */
+    private TblRates parsePipe(byte[] message, PipeMessageParser.Fields fields) {
+        if (log.isTraceEnabled()) {
+            log.trace("📨 Incoming raw Kafka message: {}", new String(message, StandardCharsets.UTF_8));
+        }
+
+        TblRates entity = newEntity(fields.getName(), fields.getBid(), fields.getAsk(), fields.getEpochNanos());
+
+        if (log.isDebugEnabled()) {
+            log.debug("✅ Parsed message successfully → rateName={}, bid={}, ask={}, time={}",
+                    entity.getRateName(), entity.getBid(), entity.getAsk(), entity.getRateUpdateTime());
+        }
+        return entity;
+    }
+
+    private static TblRates newEntity(String rateName, double bid, double ask, long epochNanos) {
+        TblRates entity = new TblRates();
+        entity.setRateName(rateName);
+        entity.setBid(bid);
+        entity.setAsk(ask);
+        entity.setRateUpdateTime(LocalDateTime.ofInstant(Instant.ofEpochSecond(0L, epochNanos), ISTANBUL));
+        return entity;
+    }
+
     /**
-     * Gelen Kafka mesajını parse eder ve veritabanına yazılabilir hale getirir.
+     * Gelen PIPE formatlı Kafka mesajını parse eder ve veritabanına yazılabilir hale getirir.
+     * Byte dizisinden gelen mesajlar önce {@link PipeMessageParser} ile okunur; bu metot
+     * onun desteklemediği biçimler için kullanılır.
      *
      * @param rawMessage Kafka'dan gelen düz metin mesaj
      * @return Eğer format doğruysa TblRates nesnesi, değilse null
@@ -38,7 +238,7 @@ public class DataProcessorService {
             String isoTimestamp = parts[3];
 
             OffsetDateTime odt = OffsetDateTime.parse(isoTimestamp, DateTimeFormatter.ISO_OFFSET_DATE_TIME);
-            LocalDateTime istanbulTime = odt.atZoneSameInstant(ZoneId.of("Europe/Istanbul")).toLocalDateTime();
+            LocalDateTime istanbulTime = odt.atZoneSameInstant(ISTANBUL).toLocalDateTime();
 
             TblRates entity = new TblRates();
             entity.setRateName(rateName);
@@ -1,45 +1,141 @@
 package com.mydomain.consumer.consumer_postgresql.service;
 
 import com.mydomain.consumer.consumer_postgresql.model.TblRates;
-import com.mydomain.consumer.consumer_postgresql.repository.RatesRepository;
 import lombok.extern.log4j.Log4j2;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * TblRates nesnelerini veritabanına kaydeden servis sınıfı.
+ * Kayıtlar (rate_name, rate_update_time) doğal anahtarıyla tekrarsız yazılır ve işlenen
+ * Kafka offset'leri aynı transaction'da tbl_kafka_offsets'e kaydedilir.
  */
 @Service
 @Log4j2
 public class DatabaseService {
 
-    private final RatesRepository ratesRepository;
+    /**
+     * Tüm liste dizi parametreleriyle tek INSERT'te yazılır; anahtarı zaten olan satırlar atlanır
+     * (önceden okuma yapılmaz) ve yalnızca gerçekten eklenen satırlar döner.
+     * id IDENTITY sütunudur; veritabanı atar.
+     */
+    private static final String INSERT_SQL =
+            "INSERT INTO tbl_rates (rate_name, bid, ask, rate_update_time, db_update_time) " +
+            "SELECT r.rate_name, r.bid, r.ask, r.rate_update_time, ? " +
+            "FROM unnest(?::varchar[], ?::float8[], ?::float8[], ?::timestamp[]) AS r(rate_name, bid, ask, rate_update_time) " +
+            "ON CONFLICT (rate_name, rate_update_time) DO NOTHING " +
+            "RETURNING rate_name, bid, ask, rate_update_time, db_update_time";
+
+    private static final String SAVE_OFFSET_SQL =
+            "INSERT INTO tbl_kafka_offsets (group_id, topic, kafka_partition, next_offset, updated_at) " +
+            "VALUES (?, ?, ?, ?, localtimestamp) " +
+            "ON CONFLICT (group_id, topic, kafka_partition) DO UPDATE SET " +
+            "next_offset = EXCLUDED.next_offset, updated_at = EXCLUDED.updated_at";
+
+    private static final String LOAD_OFFSETS_SQL =
+            "SELECT topic, kafka_partition, next_offset FROM tbl_kafka_offsets WHERE group_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String groupId;
+
+    public DatabaseService(JdbcTemplate jdbcTemplate,
+                           @Value("${spring.kafka.consumer.group-id}") String groupId) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.groupId = groupId;
+    }
+
+    /**
+     * Rate'leri ve Kafka offset'lerini tek transaction içinde kaydeder. Daha önce yazılmış
+     * (aynı rate_name ve rate_update_time) kayıtlar atlanır; böylece yeniden teslim edilen
+     * mesajlar tekrar satır oluşturmaz.
+     *
+     * <p>Hatalar yutulmaz: listener'da istisna Kafka offset'lerinin commit edilmesini
+     * engeller ve kayıtlar yeniden denenir.</p>
+     *
+     * @param rates       Kaydedilecek TblRates nesneleri, boş olabilir
+     * @param nextOffsets Partition başına işlenecek sonraki offset
+     * @return Gerçekten eklenen kayıtlar (tekrarlar hariç)
+     * @throws org.springframework.dao.DataAccessException Yazma başarısız olursa (transaction geri alınır)
+     */
+    @Transactional
+    public List<TblRates> saveRates(List<TblRates> rates, Map<TopicPartition, Long> nextOffsets) {
+        List<TblRates> inserted = rates.isEmpty() ? List.of() : insertRates(rates);
+
+        if (!nextOffsets.isEmpty()) {
+            List<Object[]> rows = new ArrayList<>(nextOffsets.size());
+            nextOffsets.forEach((tp, offset) -> rows.add(new Object[]{groupId, tp.topic(), tp.partition(), offset}));
+            jdbcTemplate.batchUpdate(SAVE_OFFSET_SQL, rows);
+        }
 
-    public DatabaseService(RatesRepository ratesRepository) {
-        this.ratesRepository = ratesRepository;
+        if (inserted.size() < rates.size()) {
+            log.info("♻️ {} duplicate rates skipped", rates.size() - inserted.size());
+        }
+        log.info("✅ {} rates saved to DB", inserted.size());
+        return inserted;
     }
 
     /**
-     * Verilen rate bilgisini veritabanına kaydeder.
+     * Bu consumer group'un veritabanında kayıtlı offset'lerini döner.
      *
-     * @param rate Kaydedilecek TblRates nesnesi
+     * @param partitions Atanan partition'lar
+     * @return Kaydı olan partition'lar için işlenecek sonraki offset
      */
-    public void saveRate(TblRates rate) {
-        try {
-            log.debug("🗃 Saving to database → rateName={}, bid={}, ask={}, rateTime={}",
-                    rate.getRateName(),
-                    rate.getBid(),
-                    rate.getAsk(),
-                    rate.getRateUpdateTime());
-
-            ratesRepository.save(rate);
-
-            log.info("✅ Rate saved to DB → rateName={}, bid={}, ask={}",
-                    rate.getRateName(),
-                    rate.getBid(),
-                    rate.getAsk());
-
-        } catch (Exception e) {
-            log.error("❌ Failed to save rate to DB → {}", e.getMessage(), e);
+    public Map<TopicPartition, Long> loadOffsets(Collection<TopicPartition> partitions) {
+        Map<TopicPartition, Long> offsets = new HashMap<>();
+        jdbcTemplate.query(LOAD_OFFSETS_SQL, rs -> {
+            TopicPartition tp = new TopicPartition(rs.getString(1), rs.getInt(2));
+            if (partitions.contains(tp)) {
+                offsets.put(tp, rs.getLong(3));
+            }
+        }, groupId);
+        return offsets;
+    }
+
+    private List<TblRates> insertRates(List<TblRates> rates) {
+        log.debug("🗃 Saving {} rates to database in one statement...", rates.size());
+
+        int size = rates.size();
+        String[] names = new String[size];
+        Double[] bids = new Double[size];
+        Double[] asks = new Double[size];
+        Timestamp[] times = new Timestamp[size];
+        for (int i = 0; i < size; i++) {
+            TblRates rate = rates.get(i);
+            names[i] = rate.getRateName();
+            bids[i] = rate.getBid();
+            asks[i] = rate.getAsk();
+            times[i] = rate.getRateUpdateTime() != null ? Timestamp.valueOf(rate.getRateUpdateTime()) : null;
         }
+        LocalDateTime dbUpdateTime = LocalDateTime.now();
+
+        return jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(INSERT_SQL);
+            ps.setObject(1, dbUpdateTime);
+            ps.setArray(2, con.createArrayOf("varchar", names));
+            ps.setArray(3, con.createArrayOf("float8", bids));
+            ps.setArray(4, con.createArrayOf("float8", asks));
+            ps.setArray(5, con.createArrayOf("timestamp", times));
+            return ps;
+        }, (rs, rowNum) -> {
+            TblRates rate = new TblRates();
+            rate.setRateName(rs.getString(1));
+            rate.setBid(rs.getDouble(2));
+            rate.setAsk(rs.getDouble(3));
+            rate.setRateUpdateTime(rs.getObject(4, LocalDateTime.class));
+            rate.setDbUpdateTime(rs.getObject(5, LocalDateTime.class));
+            return rate;
+        });
     }
-}
\ No newline at end of file
+}
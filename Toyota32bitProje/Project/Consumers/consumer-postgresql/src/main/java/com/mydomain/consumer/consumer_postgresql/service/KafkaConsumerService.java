@@ -3,47 +3,135 @@ package com.mydomain.consumer.consumer_postgresql.service;
 import com.mydomain.consumer.consumer_postgresql.model.TblRates;
 import lombok.extern.log4j.Log4j2;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.ConsumerSeekAware;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
  * Kafka topic'inden gelen mesajları dinleyip işleyen servis.
  * Mesaj işleme ve veritabanı kayıt işlemleri başka katmanlara devredilmiştir.
+ *
+ * <p>`consumer.kafka.batch-listener` true ise (varsayılan) bir poll'daki tüm kayıtlar
+ * {@link #consumeBatch(List)} ile tek INSERT'te yazılır. false ise {@link #consume(ConsumerRecord)}
+ * her kaydı tek tek işler.</p>
+ *
+ * <p>İşlenen offset'ler kayıtlarla aynı transaction'da veritabanına yazılır ve partition'lar
+ * atandığında oradan devam edilir. Yeniden teslim edilen kayıtlar doğal anahtar sayesinde
+ * tekrar satır oluşturmaz.</p>
+ *
+ * <p>Kaydedilen kurlar ardından {@link RollupService} ile dakikalık/saatlik rollup'lara eklenir;
+ * partition atama ve geri alma olayları da rollup'ların açık bucket'larını düzeltmek için
+ * ona iletilir.</p>
  */
 @Service
 @Log4j2
-public class KafkaConsumerService {
+public class KafkaConsumerService implements ConsumerSeekAware {
 
     private final DataProcessorService dataProcessorService;
     private final DatabaseService databaseService;
+    private final RollupService rollupService;
 
     public KafkaConsumerService(DataProcessorService dataProcessorService,
-                                DatabaseService databaseService) {
+                                DatabaseService databaseService,
+                                RollupService rollupService) {
         this.dataProcessorService = dataProcessorService;
         this.databaseService = databaseService;
+        this.rollupService = rollupService;
+    }
+
+    /**
+     * Atanan partition'lar için veritabanında kayıtlı offset varsa oraya konumlanır;
+     * yoksa Kafka'da commit edilmiş offset'ten devam edilir.
+     */
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        Map<TopicPartition, Long> stored = databaseService.loadOffsets(assignments.keySet());
+        stored.forEach((tp, offset) -> {
+            log.info("⏩ Seeking to stored offset → {}@{}", tp, offset);
+            callback.seek(tp.topic(), tp.partition(), offset);
+        });
+        rollupService.onPartitionsAssigned(assignments.keySet());
     }
 
-    @KafkaListener(topics = "${spring.kafka.topic}")
-    public void consume(ConsumerRecord<String, String> record) {
-        String message = record.value();
+    /**
+     * Geri alınan partition'ların açık rollup bucket'larını yeniden hesaplatır.
+     */
+    @Override
+    public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+        rollupService.onPartitionsRevoked(partitions);
+    }
 
-        log.trace("🔍 Raw Kafka message received → {}", message);
+    /**
+     * Bir poll'daki tüm kayıtları parse eder ve offset'leriyle birlikte tek transaction'da kaydeder.
+     * Veritabanı hatası yukarı fırlatılır; batch error handler tarafından yeniden denenir.
+     *
+     * @param records Poll'dan gelen kayıtlar
+     */
+    @KafkaListener(id = "rates-pg-batch", idIsGroup = false, topics = "${spring.kafka.topic}", batch = "true",
+            autoStartup = "${consumer.kafka.batch-listener:true}")
+    public void consumeBatch(List<ConsumerRecord<String, byte[]>> records) {
+        log.trace("🔍 Kafka batch received → {} records", records.size());
 
-        try {
-            log.debug("🔄 Parsing incoming message...");
-            TblRates rate = dataProcessorService.parseAndConvert(message);
+        List<TblRates> rates = new ArrayList<>(records.size());
+        Map<TopicPartition, Long> nextOffsets = new HashMap<>();
+        Map<String, TopicPartition> ratePartitions = new HashMap<>();
+        PipeMessageParser.Fields fields = new PipeMessageParser.Fields();
+        for (ConsumerRecord<String, byte[]> record : records) {
+            TopicPartition tp = new TopicPartition(record.topic(), record.partition());
+            nextOffsets.merge(tp, record.offset() + 1, Math::max);
 
-            if (rate == null) {
-                log.warn("⚠️ Message parsing returned null. Skipped → {}", message);
-                return;
+            int from = rates.size();
+            if (dataProcessorService.parseInto(record.value(), fields, rates) == 0) {
+                log.warn("⚠️ Message parsing returned no rates. Skipped → key={}, offset={}", record.key(), record.offset());
             }
+            for (int i = from; i < rates.size(); i++) {
+                ratePartitions.put(rates.get(i).getRateName(), tp);
+            }
+        }
 
-            log.debug("📌 Parsed message → rateName={}, bid={}, ask={}", rate.getRateName(), rate.getBid(), rate.getAsk());
-            log.debug("💽 Attempting to save to database...");
-            databaseService.saveRate(rate);
+        List<TblRates> inserted = databaseService.saveRates(rates, nextOffsets);
+        log.debug("💽 Batch of {} records → {} rates saved", records.size(), inserted.size());
 
-        } catch (Exception e) {
-            log.error("❌ Unexpected error during Kafka consumption → {}", e.getMessage(), e);
+        rollupService.onRates(inserted, ratePartitions);
+    }
+
+    /**
+     * Tek kaydı parse eder ve offset'iyle birlikte kaydeder. Parse edilemeyen mesajlar loglanıp
+     * atlanır; veritabanı hatası yukarı fırlatılır, error handler kaydı yeniden dener.
+     *
+     * @param record Kafka kaydı
+     */
+    @KafkaListener(id = "rates-pg-single", idIsGroup = false, topics = "${spring.kafka.topic}", batch = "false",
+            autoStartup = "#{!${consumer.kafka.batch-listener:true}}")
+    public void consume(ConsumerRecord<String, byte[]> record) {
+        byte[] message = record.value();
+
+        log.trace("🔍 Raw Kafka message received → key={}, {} bytes", record.key(), message == null ? 0 : message.length);
+
+        log.debug("🔄 Parsing incoming message...");
+        List<TblRates> rates = dataProcessorService.parseAll(message);
+
+        if (rates.isEmpty()) {
+            log.warn("⚠️ Message parsing returned no rates. Skipped → key={}, offset={}", record.key(), record.offset());
+        } else if (rates.size() == 1) {
+            TblRates rate = rates.get(0);
+            log.debug("📌 Parsed message → rateName={}, bid={}, ask={}", rate.getRateName(), rate.getBid(), rate.getAsk());
+        } else {
+            log.debug("📌 Parsed snapshot → {} rates, offset={}", rates.size(), record.offset());
         }
+
+        log.debug("💽 Attempting to save to database...");
+        TopicPartition tp = new TopicPartition(record.topic(), record.partition());
+        List<TblRates> inserted = databaseService.saveRates(rates, Map.of(tp, record.offset() + 1));
+        Map<String, TopicPartition> ratePartitions = new HashMap<>();
+        rates.forEach(rate -> ratePartitions.put(rate.getRateName(), tp));
+        rollupService.onRates(inserted, ratePartitions);
     }
 }
\ No newline at end of file
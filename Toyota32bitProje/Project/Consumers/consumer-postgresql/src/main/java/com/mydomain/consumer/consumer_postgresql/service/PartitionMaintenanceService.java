@@ -0,0 +1,55 @@
+package com.mydomain.consumer.consumer_postgresql.service;
+
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * tbl_rates'in günlük partition'larını yöneten servis.
+ * Uygulama açıldığında ve her gün, ileriki günlerin partition'larını oluşturur ve
+ * retention süresi dolan partition'ları siler. İşin kendisi V1 migration'ındaki
+ * veritabanı fonksiyonlarındadır.
+ */
+@Service
+@Log4j2
+public class PartitionMaintenanceService {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int premakeDays;
+    private final int retentionDays;
+
+    public PartitionMaintenanceService(JdbcTemplate jdbcTemplate,
+                                       @Value("${consumer.db.partition-premake-days:7}") int premakeDays,
+                                       @Value("${consumer.db.retention-days:0}") int retentionDays) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.premakeDays = premakeDays;
+        this.retentionDays = retentionDays;
+    }
+
+    /**
+     * Eksik partition'ları oluşturur ve süresi dolanları siler. Hata yalnızca loglanır;
+     * partition'ı olmayan günlerin kayıtları default partition'a düşer ve bir sonraki
+     * çalışmada kendi partition'larına taşınır.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${consumer.db.partition-maintenance-cron:0 5 0 * * *}")
+    public void maintainPartitions() {
+        try {
+            Integer created = jdbcTemplate.queryForObject(
+                    "SELECT tbl_rates_create_partitions(?)", Integer.class, premakeDays);
+            Integer dropped = jdbcTemplate.queryForObject(
+                    "SELECT tbl_rates_drop_partitions(?)", Integer.class, retentionDays);
+
+            log.info("🗂 tbl_rates partitions maintained → created={}, dropped={}, premakeDays={}, retentionDays={}",
+                    created, dropped, premakeDays, retentionDays);
+
+        } catch (DataAccessException e) {
+            log.error("❌ tbl_rates partition maintenance failed → {}", e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,294 @@
+package com.mydomain.consumer.consumer_postgresql.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * PIPE formatlı metin mesajlarını (`ad|bid|ask|zaman`) Kafka'dan gelen byte dizisi üzerinde
+ * doğrudan parse eder: String'e çevirme, split ve java.time parse'ı yapılmaz.
+ *
+ * <p>Yalnızca coordinator'ın ürettiği olağan biçim işlenir: tam dört alan, düz ondalık sayılar
+ * ve `yyyy-MM-ddTHH:mm[:ss[.n]]` ardından `Z` veya `±HH:mm`. Diğer her mesajda false döner ve
+ * çağıran mevcut String yoluna düşer; böylece kabul edilen mesajlar ve hata logları değişmez.</p>
+ *
+ * <p>Kur adları byte içeriğine göre önbelleğe alınır, aynı ad için her mesajda yeni String
+ * oluşturulmaz. Sonuç çağıranın verdiği {@link Fields} nesnesine yazılır; batch'te tek nesne
+ * tüm kayıtlar için tekrar kullanılır. Thread-safe'tir.</p>
+ */
+public class PipeMessageParser {
+
+    private static final byte SEPARATOR = '|';
+
+    /** Bu sayıya kadar (dahil) tüm tam sayılar double'da tam gösterilir */
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+    /** long taşmadan okunabilecek basamak sayısı */
+    private static final int MAX_DIGITS = 18;
+    /** double'da tam gösterilebilen 10'un kuvvetleri */
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+            1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18
+    };
+    /** Kesir basamak sayısına göre nanosaniye çarpanı */
+    private static final int[] NANO_SCALE = {
+            0, 100_000_000, 10_000_000, 1_000_000, 100_000, 10_000, 1_000, 100, 10, 1
+    };
+
+    private static final long SECONDS_PER_DAY = 86_400L;
+    private static final long DAYS_0000_TO_1970 = 719_528L;
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    /** epoch nanos'un long'a sığdığı aralık (yaklaşık 1677-2262) */
+    private static final long MIN_EPOCH_SECOND = Long.MIN_VALUE / NANOS_PER_SECOND;
+    private static final long MAX_EPOCH_SECOND = Long.MAX_VALUE / NANOS_PER_SECOND - 1;
+    private static final int MAX_OFFSET_SECONDS = 18 * 3600;
+
+    /** Kur adı önbelleğinin boyutu; 2'nin kuvveti olmalı */
+    private static final int NAME_CACHE_SIZE = 1024;
+
+    private final CachedName[] names = new CachedName[NAME_CACHE_SIZE];
+
+    /**
+     * Mesajı parse edip sonucu {@code out} nesnesine yazar.
+     *
+     * @param message Kafka'dan gelen ham mesaj gövdesi
+     * @param out     Sonucun yazılacağı nesne; false dönerse içeriği tanımsızdır
+     * @return Mesaj bu yolla parse edilebildiyse true
+     */
+    public boolean parse(byte[] message, Fields out) {
+        int end = message.length;
+
+        int hash = 0;
+        int nameEnd = 0;
+        while (nameEnd < end && message[nameEnd] != SEPARATOR) {
+            hash = 31 * hash + message[nameEnd];
+            nameEnd++;
+        }
+
+        int bidEnd = indexOfSeparator(message, nameEnd + 1, end);
+        if (bidEnd < 0) {
+            return false;
+        }
+        int askEnd = indexOfSeparator(message, bidEnd + 1, end);
+        if (askEnd < 0 || indexOfSeparator(message, askEnd + 1, end) >= 0) {
+            return false;
+        }
+
+        double bid = parseDecimal(message, nameEnd + 1, bidEnd);
+        double ask = parseDecimal(message, bidEnd + 1, askEnd);
+        if (Double.isNaN(bid) || Double.isNaN(ask) || !parseTimestamp(message, askEnd + 1, end, out)) {
+            return false;
+        }
+
+        out.name = cachedName(message, nameEnd, hash);
+        out.bid = bid;
+        out.ask = ask;
+        return true;
+    }
+
+    private static int indexOfSeparator(byte[] b, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (b[i] == SEPARATOR) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * `[+-]basamaklar[.basamaklar]` biçimindeki sayıyı okur. Anlamlı kısım 2^53'ü ve kesir
+     * 10^18'i aşmadığında tek bölme doğru yuvarlanır, sonuç Double.parseDouble ile aynıdır.
+     *
+     * @return Okunan değer, biçim desteklenmiyorsa NaN
+     */
+    private static double parseDecimal(byte[] b, int from, int to) {
+        int i = from;
+        boolean negative = false;
+        if (i < to && (b[i] == '-' || b[i] == '+')) {
+            negative = b[i] == '-';
+            i++;
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        int scale = 0;
+        boolean point = false;
+        for (; i < to; i++) {
+            byte c = b[i];
+            if (c >= '0' && c <= '9') {
+                if (++digits > MAX_DIGITS) {
+                    return Double.NaN;
+                }
+                mantissa = mantissa * 10 + (c - '0');
+                if (point) {
+                    scale++;
+                }
+            } else if (c == '.' && !point) {
+                point = true;
+            } else {
+                return Double.NaN;
+            }
+        }
+        if (digits == 0 || mantissa > MAX_EXACT_MANTISSA) {
+            return Double.NaN;
+        }
+
+        double value = scale == 0 ? mantissa : mantissa / POWERS_OF_TEN[scale];
+        return negative ? -value : value;
+    }
+
+    /**
+     * ISO-8601 offset'li zamanı okur ve epoch nanos olarak {@code out}'a yazar.
+     *
+     * @return Biçim desteklenmiyorsa veya değerler geçersizse false
+     */
+    private static boolean parseTimestamp(byte[] b, int from, int to, Fields out) {
+        if (to - from < 17
+                || b[from + 4] != '-' || b[from + 7] != '-' || b[from + 10] != 'T' || b[from + 13] != ':') {
+            return false;
+        }
+        int year = digits(b, from, 4);
+        int month = digits(b, from + 5, 2);
+        int day = digits(b, from + 8, 2);
+        int hour = digits(b, from + 11, 2);
+        int minute = digits(b, from + 14, 2);
+
+        int i = from + 16;
+        int second = 0;
+        int nano = 0;
+        if (b[i] == ':') {
+            if (to - i < 3) {
+                return false;
+            }
+            second = digits(b, i + 1, 2);
+            i += 3;
+            if (i < to && b[i] == '.') {
+                int start = ++i;
+                while (i < to && i - start < 9 && b[i] >= '0' && b[i] <= '9') {
+                    nano = nano * 10 + (b[i] - '0');
+                    i++;
+                }
+                if (i == start) {
+                    return false;
+                }
+                nano *= NANO_SCALE[i - start];
+            }
+        }
+
+        int offsetSeconds;
+        if (i == to - 1 && b[i] == 'Z') {
+            offsetSeconds = 0;
+        } else if (i == to - 6 && (b[i] == '+' || b[i] == '-') && b[i + 3] == ':') {
+            int offsetHours = digits(b, i + 1, 2);
+            int offsetMinutes = digits(b, i + 4, 2);
+            if (offsetHours < 0 || offsetMinutes < 0 || offsetMinutes > 59) {
+                return false;
+            }
+            offsetSeconds = offsetHours * 3600 + offsetMinutes * 60;
+            if (offsetSeconds > MAX_OFFSET_SECONDS) {
+                return false;
+            }
+            if (b[i] == '-') {
+                offsetSeconds = -offsetSeconds;
+            }
+        } else {
+            return false;
+        }
+
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month)
+                || hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59) {
+            return false;
+        }
+
+        long epochSecond = epochDay(year, month, day) * SECONDS_PER_DAY
+                + hour * 3600L + minute * 60L + second - offsetSeconds;
+        if (epochSecond < MIN_EPOCH_SECOND || epochSecond > MAX_EPOCH_SECOND) {
+            return false;
+        }
+        out.epochNanos = epochSecond * NANOS_PER_SECOND + nano;
+        return true;
+    }
+
+    /** @return {@code count} basamaklı sayı, basamak olmayan karakter varsa -1 */
+    private static int digits(byte[] b, int from, int count) {
+        int value = 0;
+        for (int i = from; i < from + count; i++) {
+            int d = b[i] - '0';
+            if (d < 0 || d > 9) {
+                return -1;
+            }
+            value = value * 10 + d;
+        }
+        return value;
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                return isLeapYear(year) ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    private static boolean isLeapYear(int year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+
+    /** LocalDate.toEpochDay ile aynı hesap (yıl >= 0) */
+    private static long epochDay(int year, int month, int day) {
+        long total = 365L * year + (year + 3) / 4 - (year + 99) / 100 + (year + 399) / 400;
+        total += (367 * month - 362) / 12 + day - 1;
+        if (month > 2) {
+            total--;
+            if (!isLeapYear(year)) {
+                total--;
+            }
+        }
+        return total - DAYS_0000_TO_1970;
+    }
+
+    /**
+     * Mesajın ilk {@code length} byte'ındaki kur adını önbellekten döner; yoksa oluşturup ekler.
+     * Her slot tek ad tutar, çakışmada eski ad yerini yenisine bırakır.
+     */
+    private String cachedName(byte[] message, int length, int hash) {
+        int slot = (hash ^ (hash >>> 16)) & (NAME_CACHE_SIZE - 1);
+        CachedName cached = names[slot];
+        if (cached == null || !Arrays.equals(cached.bytes, 0, cached.bytes.length, message, 0, length)) {
+            cached = new CachedName(Arrays.copyOf(message, length));
+            names[slot] = cached;
+        }
+        return cached.value;
+    }
+
+    /** Değişmez önbellek girdisi; final alanlar sayesinde thread'ler arasında güvenle paylaşılır */
+    private static final class CachedName {
+        private final byte[] bytes;
+        private final String value;
+
+        private CachedName(byte[] bytes) {
+            this.bytes = bytes;
+            this.value = new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Parse sonucunu taşıyan değiştirilebilir nesne. Thread-safe değildir;
+     * batch listener'da her poll için bir tane oluşturulup tüm kayıtlarda kullanılır.
+     */
+    public static class Fields {
+        private String name;
+        private double bid;
+        private double ask;
+        private long epochNanos;
+
+        public String getName() { return name; }
+        public double getBid() { return bid; }
+        public double getAsk() { return ask; }
+        public long getEpochNanos() { return epochNanos; }
+    }
+}
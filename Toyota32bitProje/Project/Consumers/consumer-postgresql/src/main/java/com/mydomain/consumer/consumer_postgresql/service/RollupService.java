@@ -0,0 +1,424 @@
+package com.mydomain.consumer.consumer_postgresql.service;
+
+import com.mydomain.consumer.consumer_postgresql.model.TblRates;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.log4j.Log4j2;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * tbl_rates_1m ve tbl_rates_1h rollup tablolarını kaydedilen batch'lerden artımlı olarak
+ * güncelleyen servis.
+ *
+ * <p>Her (kur, bucket) için OHLC bellekte toplanır. Kurun en yeni kaydının zamanı bucket
+ * bitişini `consumer.rollup.grace-ms` kadar geçince bucket kapanır ve tek satır olarak upsert
+ * edilir. Kapanmış bir bucket'a geç gelen kayıt olursa veya bucket'ın başı bu süreç
+ * açılmadan önce geldiyse (yeniden başlatma, rebalance) bucket tbl_rates'ten yeniden
+ * hesaplanır. Upsert'ler satırın üzerine yazdığından aynı bucket'ı tekrar yazmak güvenlidir.</p>
+ *
+ * <p>Açık bucket'lar kurun geldiği Kafka partition'ına bağlıdır:
+ * <ul>
+ *   <li>Partition geri alındığında o partition'dan gelen kurların açık bucket'ları kapatılıp
+ *       tbl_rates'ten yeniden hesaplanır; kalanını yeni sahibi yazar.</li>
+ *   <li>Partition atandıktan sonra her kurun ilk kaydının bucket'ı kısmi sayılır ve kurun son
+ *       rollup satırından bu bucket'a kadarki bucket'lar da yeniden hesaplanır. Böylece önceki
+ *       sahibin ya da DB commit'i ile rollup arasında çöken bu sürecin yazamadığı bucket'lar
+ *       kaybolmaz.</li>
+ * </ul></p>
+ *
+ * <p>Hiç kayıt gelmeyen kurların bucket'ları, diğer kurların ilerlettiği zamana göre
+ * periyodik olarak; uygulama kapanırken de tamamı yazılır.</p>
+ */
+@Service
+@Log4j2
+public class RollupService {
+
+    /** Rollup seviyeleri ve tabloları */
+    enum Level {
+        MINUTE("tbl_rates_1m", ChronoUnit.MINUTES, "minute"),
+        HOUR("tbl_rates_1h", ChronoUnit.HOURS, "hour");
+
+        private final String table;
+        private final ChronoUnit unit;
+        private final String truncField;
+
+        Level(String table, ChronoUnit unit, String truncField) {
+            this.table = table;
+            this.unit = unit;
+            this.truncField = truncField;
+        }
+
+        LocalDateTime bucketStart(LocalDateTime time) {
+            return time.truncatedTo(unit);
+        }
+
+        LocalDateTime bucketEnd(LocalDateTime start) {
+            return start.plus(1, unit);
+        }
+    }
+
+    private static final String COLUMNS = "(rate_name, bucket_start, open, high, low, close, avg_bid, avg_ask, ticks)";
+
+    private static final String ON_CONFLICT =
+            " ON CONFLICT (rate_name, bucket_start) DO UPDATE SET " +
+            "open = EXCLUDED.open, high = EXCLUDED.high, low = EXCLUDED.low, close = EXCLUDED.close, " +
+            "avg_bid = EXCLUDED.avg_bid, avg_ask = EXCLUDED.avg_ask, ticks = EXCLUDED.ticks";
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO %s " + COLUMNS + " VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)" + ON_CONFLICT;
+
+    private static final String RECOMPUTE_SQL =
+            "INSERT INTO %s " + COLUMNS + " " +
+            "SELECT rate_name, ?, " +
+            "(array_agg((bid + ask) / 2 ORDER BY rate_update_time))[1], " +
+            "max((bid + ask) / 2), min((bid + ask) / 2), " +
+            "(array_agg((bid + ask) / 2 ORDER BY rate_update_time DESC))[1], " +
+            "avg(bid), avg(ask), count(*) " +
+            "FROM tbl_rates WHERE rate_name = ? AND rate_update_time >= ? AND rate_update_time < ? " +
+            "GROUP BY rate_name" + ON_CONFLICT;
+
+    /**
+     * Kurun son rollup satırından (yoksa bir önceki bucket'tan) verilen bucket başına kadarki
+     * tüm bucket'ları yeniden hesaplar.
+     */
+    private static final String CATCH_UP_SQL =
+            "INSERT INTO %1$s " + COLUMNS + " " +
+            "SELECT rate_name, date_trunc('%2$s', rate_update_time), " +
+            "(array_agg((bid + ask) / 2 ORDER BY rate_update_time))[1], " +
+            "max((bid + ask) / 2), min((bid + ask) / 2), " +
+            "(array_agg((bid + ask) / 2 ORDER BY rate_update_time DESC))[1], " +
+            "avg(bid), avg(ask), count(*) " +
+            "FROM tbl_rates WHERE rate_name = ? AND rate_update_time < ? AND rate_update_time >= " +
+            "COALESCE((SELECT max(bucket_start) FROM %1$s WHERE rate_name = ? AND bucket_start < ?), ?) " +
+            "GROUP BY 1, 2" + ON_CONFLICT;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final Duration grace;
+
+    private final Map<BucketKey, Bucket> openBuckets = new HashMap<>();
+    private final Map<Level, Map<String, LocalDateTime>> closedUpTo = new EnumMap<>(Level.class);
+    private final Map<String, LocalDateTime> watermarks = new HashMap<>();
+    private final Map<BucketKey, Bucket> closedBuckets = new HashMap<>();
+    private final Set<BucketKey> recomputeQueue = new LinkedHashSet<>();
+    private final Set<BucketKey> catchUpQueue = new LinkedHashSet<>();
+    private final Map<String, TopicPartition> ratePartitions = new HashMap<>();
+    private final Map<TopicPartition, Set<String>> seenSinceAssignment = new HashMap<>();
+    private LocalDateTime globalWatermark;
+
+    public RollupService(JdbcTemplate jdbcTemplate,
+                         @Value("${consumer.rollup.enabled:true}") boolean enabled,
+                         @Value("${consumer.rollup.grace-ms:2000}") long graceMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.grace = Duration.ofMillis(graceMs);
+        for (Level level : Level.values()) {
+            closedUpTo.put(level, new HashMap<>());
+        }
+    }
+
+    /**
+     * Atanan partition'lardan gelecek her kurun ilk kaydı, bucket'ı kısmi sayılacak şekilde işaretlenir.
+     *
+     * @param partitions Yeni atanan partition'lar
+     */
+    public synchronized void onPartitionsAssigned(Collection<TopicPartition> partitions) {
+        if (!enabled) return;
+        for (TopicPartition tp : partitions) {
+            seenSinceAssignment.put(tp, new HashSet<>());
+        }
+    }
+
+    /**
+     * Geri alınan partition'lardan gelen kurların açık bucket'larını kapatır ve tbl_rates'ten
+     * yeniden hesaplar; bucket'ın kalanı partition'ın yeni sahibi tarafından yazılır.
+     *
+     * @param partitions Geri alınan partition'lar
+     */
+    public synchronized void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+        if (!enabled || partitions.isEmpty()) return;
+
+        Set<String> affected = new HashSet<>();
+        ratePartitions.entrySet().removeIf(entry -> {
+            if (!partitions.contains(entry.getValue())) return false;
+            affected.add(entry.getKey());
+            return true;
+        });
+        partitions.forEach(seenSinceAssignment::remove);
+        if (affected.isEmpty()) return;
+
+        int revoked = 0;
+        Iterator<Map.Entry<BucketKey, Bucket>> it = openBuckets.entrySet().iterator();
+        while (it.hasNext()) {
+            BucketKey key = it.next().getKey();
+            if (!affected.contains(key.rateName)) continue;
+            it.remove();
+            closedUpTo.get(key.level).merge(key.rateName, key.level.bucketEnd(key.start), (a, b) -> a.isAfter(b) ? a : b);
+            recomputeQueue.add(key);
+            revoked++;
+        }
+        log.info("↩️ Partitions revoked → {} open rollup buckets of {} rates will be recomputed", revoked, affected.size());
+        flush();
+    }
+
+    /**
+     * Veritabanına yazılmış kayıtları rollup'lara ekler ve kapanan bucket'ları upsert eder.
+     * Yalnızca kayıtlar commit edildikten sonra çağrılmalıdır; rollup hataları loglanır,
+     * çağırana fırlatılmaz.
+     *
+     * @param rates      Kaydedilen kurlar
+     * @param partitions Kur adına göre kaydın geldiği partition
+     */
+    public synchronized void onRates(List<TblRates> rates, Map<String, TopicPartition> partitions) {
+        if (!enabled) return;
+
+        for (TblRates rate : rates) {
+            String rateName = rate.getRateName();
+            LocalDateTime time = rate.getRateUpdateTime();
+            if (rateName == null || time == null) continue;
+
+            TopicPartition tp = partitions.get(rateName);
+            boolean firstAfterAssignment = false;
+            if (tp != null) {
+                ratePartitions.put(rateName, tp);
+                Set<String> seen = seenSinceAssignment.get(tp);
+                firstAfterAssignment = seen != null && seen.add(rateName);
+            }
+            if (firstAfterAssignment) {
+                catchUp(rateName, time);
+            }
+
+            watermarks.merge(rateName, time, (a, b) -> a.isAfter(b) ? a : b);
+            if (globalWatermark == null || time.isAfter(globalWatermark)) {
+                globalWatermark = time;
+            }
+            for (Level level : Level.values()) {
+                add(level, rateName, time, rate);
+            }
+        }
+
+        closeBuckets(false, false);
+        flush();
+    }
+
+    /**
+     * Kaydı gelmeyen kurların süresi dolan bucket'larını, tüm kurların en yeni zamanına
+     * göre kapatır.
+     */
+    @Scheduled(fixedDelayString = "${consumer.rollup.flush-interval-ms:10000}")
+    public synchronized void flushIdle() {
+        if (!enabled || globalWatermark == null) return;
+        closeBuckets(true, false);
+        flush();
+    }
+
+    /**
+     * Kapanışta açık bucket'ların hepsini yazar.
+     */
+    @PreDestroy
+    public synchronized void flushAll() {
+        if (!enabled) return;
+        closeBuckets(false, true);
+        flush();
+    }
+
+    /**
+     * Partition atandıktan sonra kurun ilk kaydında: kaydın bucket'ını kısmi yapar ve kurun
+     * son rollup satırından bu bucket'a kadarki bucket'ları yeniden hesaplatır.
+     */
+    private void catchUp(String rateName, LocalDateTime time) {
+        for (Level level : Level.values()) {
+            BucketKey key = new BucketKey(level, rateName, level.bucketStart(time));
+            Bucket bucket = openBuckets.get(key);
+            if (bucket != null) {
+                bucket.partial = true;
+            } else {
+                openBuckets.put(key, new Bucket(true));
+            }
+            catchUpQueue.add(key);
+        }
+        log.debug("⏩ First rate after assignment → rateName={}, rollups since last bucket will be recomputed", rateName);
+    }
+
+    private void add(Level level, String rateName, LocalDateTime time, TblRates rate) {
+        LocalDateTime start = level.bucketStart(time);
+        LocalDateTime closedEnd = closedUpTo.get(level).get(rateName);
+        BucketKey key = new BucketKey(level, rateName, start);
+
+        if (closedEnd != null && start.isBefore(closedEnd)) {
+            if (recomputeQueue.add(key)) {
+                log.debug("⏪ Late rate for closed {} bucket → rateName={}, bucket={}", level, rateName, start);
+            }
+            return;
+        }
+        openBuckets.computeIfAbsent(key, k -> new Bucket(closedEnd == null)).add(rate);
+    }
+
+    private void closeBuckets(boolean useGlobalWatermark, boolean all) {
+        Iterator<Map.Entry<BucketKey, Bucket>> it = openBuckets.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<BucketKey, Bucket> entry = it.next();
+            BucketKey key = entry.getKey();
+            LocalDateTime end = key.level.bucketEnd(key.start);
+
+            if (!all) {
+                LocalDateTime watermark = useGlobalWatermark ? globalWatermark : watermarks.get(key.rateName);
+                if (watermark.isBefore(end.plus(grace))) continue;
+            }
+
+            it.remove();
+            closedUpTo.get(key.level).merge(key.rateName, end, (a, b) -> a.isAfter(b) ? a : b);
+            if (entry.getValue().partial) {
+                recomputeQueue.add(key);
+            } else {
+                closedBuckets.put(key, entry.getValue());
+            }
+        }
+    }
+
+    private void flush() {
+        int upserted = 0;
+        for (Level level : Level.values()) {
+            List<BucketKey> keys = new ArrayList<>();
+            List<Object[]> rows = new ArrayList<>();
+            for (Map.Entry<BucketKey, Bucket> entry : closedBuckets.entrySet()) {
+                if (entry.getKey().level != level) continue;
+                keys.add(entry.getKey());
+                rows.add(entry.getValue().toRow(entry.getKey()));
+            }
+            if (rows.isEmpty()) continue;
+
+            try {
+                jdbcTemplate.batchUpdate(String.format(UPSERT_SQL, level.table), rows);
+                upserted += rows.size();
+            } catch (DataAccessException e) {
+                log.error("❌ Failed to upsert {} {} rollups, they will be recomputed → {}",
+                        rows.size(), level, e.getMessage(), e);
+                recomputeQueue.addAll(keys);
+            }
+            keys.forEach(closedBuckets::remove);
+        }
+
+        int recomputed = 0;
+        Iterator<BucketKey> catchUps = catchUpQueue.iterator();
+        while (catchUps.hasNext()) {
+            BucketKey key = catchUps.next();
+            try {
+                jdbcTemplate.update(String.format(CATCH_UP_SQL, key.level.table, key.level.truncField),
+                        key.rateName, key.start, key.rateName, key.start, key.start.minus(1, key.level.unit));
+                catchUps.remove();
+                recomputed++;
+            } catch (DataAccessException e) {
+                log.error("❌ Failed to catch up {} rollups, will retry → rateName={}, before={}, {}",
+                        key.level, key.rateName, key.start, e.getMessage());
+                break;
+            }
+        }
+
+        Iterator<BucketKey> it = recomputeQueue.iterator();
+        while (it.hasNext()) {
+            BucketKey key = it.next();
+            try {
+                jdbcTemplate.update(String.format(RECOMPUTE_SQL, key.level.table),
+                        key.start, key.rateName, key.start, key.level.bucketEnd(key.start));
+                it.remove();
+                recomputed++;
+            } catch (DataAccessException e) {
+                log.error("❌ Failed to recompute {} rollup, will retry → rateName={}, bucket={}, {}",
+                        key.level, key.rateName, key.start, e.getMessage());
+                break;
+            }
+        }
+
+        if (upserted > 0 || recomputed > 0) {
+            log.debug("🧮 Rollups flushed → upserted={}, recomputed={}, open={}", upserted, recomputed, openBuckets.size());
+        }
+    }
+
+    private static final class BucketKey {
+        final Level level;
+        final String rateName;
+        final LocalDateTime start;
+
+        BucketKey(Level level, String rateName, LocalDateTime start) {
+            this.level = level;
+            this.rateName = rateName;
+            this.start = start;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof BucketKey other)) return false;
+            return level == other.level && rateName.equals(other.rateName) && start.equals(other.start);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(level, rateName, start);
+        }
+    }
+
+    /**
+     * Tek bucket'ın bellekteki OHLC durumu. partial ise bucket'ın başı bu süreçte
+     * görülmemiş olabilir ve yazılırken tbl_rates'ten yeniden hesaplanır.
+     */
+    private static final class Bucket {
+        boolean partial;
+        LocalDateTime openTime;
+        LocalDateTime closeTime;
+        double open;
+        double close;
+        double high = Double.NEGATIVE_INFINITY;
+        double low = Double.POSITIVE_INFINITY;
+        double bidSum;
+        double askSum;
+        long ticks;
+
+        Bucket(boolean partial) {
+            this.partial = partial;
+        }
+
+        void add(TblRates rate) {
+            LocalDateTime time = rate.getRateUpdateTime();
+            double mid = (rate.getBid() + rate.getAsk()) / 2;
+
+            if (openTime == null || time.isBefore(openTime)) {
+                openTime = time;
+                open = mid;
+            }
+            if (closeTime == null || !time.isBefore(closeTime)) {
+                closeTime = time;
+                close = mid;
+            }
+            high = Math.max(high, mid);
+            low = Math.min(low, mid);
+            bidSum += rate.getBid();
+            askSum += rate.getAsk();
+            ticks++;
+        }
+
+        Object[] toRow(BucketKey key) {
+            return new Object[]{key.rateName, key.start, open, high, low, close, bidSum / ticks, askSum / ticks, ticks};
+        }
+    }
+}
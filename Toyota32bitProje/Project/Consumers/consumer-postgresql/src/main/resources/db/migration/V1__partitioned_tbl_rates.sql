@@ -0,0 +1,156 @@
+-- =====================================================================
+-- tbl_rates: rate_update_time üzerinde günlük RANGE partition'lı tablo
+--
+--  * Her gün tbl_rates_pYYYYMMDD partition'ına yazılır; zaman aralığı
+--    sorguları yalnızca ilgili günlerin partition'larını tarar.
+--  * BRIN (rate_update_time): kayıtlar zaman sırasıyla geldiği için çok
+--    küçük bir indeksle aralık taramalarını daraltır.
+--  * B-tree (rate_name, rate_update_time): tek kurun geçmişi sorguları.
+--  * Partition aralığı dışında kalan kayıtlar tbl_rates_default'a düşer;
+--    tbl_rates_create_partitions bu kayıtları kendi günlerine taşır.
+--  * Hibernate'in (ddl-auto=update) daha önce oluşturduğu tbl_rates varsa
+--    veriler kopyalanmaz: tablo tbl_rates_legacy adıyla tek bir partition
+--    olarak eklenir ve retention süresi dolunca bütün olarak silinir.
+-- =====================================================================
+
+-- Eski heap tabloyu kenara al
+DO $$
+DECLARE
+    pk_name text;
+BEGIN
+    IF EXISTS (SELECT 1 FROM pg_class WHERE oid = to_regclass('tbl_rates') AND relkind = 'r') THEN
+        ALTER TABLE tbl_rates RENAME TO tbl_rates_legacy;
+
+        SELECT conname INTO pk_name
+        FROM pg_constraint
+        WHERE conrelid = 'tbl_rates_legacy'::regclass AND contype = 'p';
+        IF pk_name IS NOT NULL THEN
+            EXECUTE format('ALTER TABLE tbl_rates_legacy DROP CONSTRAINT %I', pk_name);
+        END IF;
+
+        ALTER TABLE tbl_rates_legacy ALTER COLUMN id DROP IDENTITY IF EXISTS;
+    END IF;
+END
+$$;
+
+-- Partition anahtarı primary key'in parçası olmak zorundadır
+CREATE TABLE tbl_rates (
+    id               bigint GENERATED BY DEFAULT AS IDENTITY,
+    rate_name        varchar(255),
+    bid              double precision NOT NULL,
+    ask              double precision NOT NULL,
+    rate_update_time timestamp(6)     NOT NULL,
+    db_update_time   timestamp(6),
+    PRIMARY KEY (id, rate_update_time)
+) PARTITION BY RANGE (rate_update_time);
+
+CREATE INDEX tbl_rates_time_brin ON tbl_rates USING brin (rate_update_time) WITH (pages_per_range = 32);
+CREATE INDEX tbl_rates_name_time_idx ON tbl_rates (rate_name, rate_update_time);
+
+-- Eski veriyi tek partition olarak bağla (ATTACH, tabloyu bir kez doğrulamak için tarar)
+DO $$
+DECLARE
+    max_id    bigint;
+    max_time  timestamp;
+    range_end timestamp;
+BEGIN
+    IF to_regclass('tbl_rates_legacy') IS NULL THEN
+        RETURN;
+    END IF;
+
+    UPDATE tbl_rates_legacy
+    SET rate_update_time = coalesce(db_update_time, localtimestamp)
+    WHERE rate_update_time IS NULL;
+
+    SELECT max(id), max(rate_update_time) INTO max_id, max_time FROM tbl_rates_legacy;
+    IF max_time IS NULL THEN
+        DROP TABLE tbl_rates_legacy;
+        RETURN;
+    END IF;
+
+    ALTER TABLE tbl_rates_legacy ALTER COLUMN rate_update_time SET NOT NULL;
+
+    range_end := date_trunc('day', max_time) + interval '1 day';
+    EXECUTE format('ALTER TABLE tbl_rates ATTACH PARTITION tbl_rates_legacy FOR VALUES FROM (MINVALUE) TO (%L)', range_end);
+
+    PERFORM setval(pg_get_serial_sequence('tbl_rates', 'id'), max_id);
+END
+$$;
+
+CREATE TABLE tbl_rates_default PARTITION OF tbl_rates DEFAULT;
+
+-- Aralık (DEFAULT hariç) partition'ları ve sınırları; MINVALUE -infinity olarak döner
+CREATE FUNCTION tbl_rates_partitions()
+RETURNS TABLE (partition_name text, range_start timestamp, range_end timestamp)
+LANGUAGE sql STABLE AS $$
+    SELECT c.relname::text,
+           CASE WHEN b.expr LIKE 'FOR VALUES FROM (MINVALUE)%' THEN '-infinity'::timestamp
+                ELSE substring(b.expr FROM 'FROM \(''([^'']+)''\)')::timestamp END,
+           substring(b.expr FROM 'TO \(''([^'']+)''\)')::timestamp
+    FROM pg_inherits i
+    JOIN pg_class c ON c.oid = i.inhrelid
+    CROSS JOIN LATERAL (SELECT pg_get_expr(c.relpartbound, c.oid) AS expr) b
+    WHERE i.inhparent = 'tbl_rates'::regclass
+      AND b.expr <> 'DEFAULT'
+$$;
+
+-- Dünden itibaren days_ahead gün sonrasına kadar eksik günlük partition'ları ve
+-- default partition'a düşmüş kayıtların günlerini oluşturur. Oluşturulan partition sayısını döner.
+CREATE FUNCTION tbl_rates_create_partitions(days_ahead integer)
+RETURNS integer
+LANGUAGE plpgsql AS $$
+DECLARE
+    part_start timestamp;
+    part_end   timestamp;
+    part_name  text;
+    created    integer := 0;
+BEGIN
+    FOR part_start IN
+        SELECT generate_series(date_trunc('day', localtimestamp) - interval '1 day',
+                               date_trunc('day', localtimestamp) + make_interval(days => days_ahead),
+                               interval '1 day')
+        UNION
+        SELECT DISTINCT date_trunc('day', rate_update_time) FROM tbl_rates_default
+        ORDER BY 1
+    LOOP
+        part_end := part_start + interval '1 day';
+        CONTINUE WHEN EXISTS (SELECT 1 FROM tbl_rates_partitions() p
+                              WHERE p.range_start < part_end AND p.range_end > part_start);
+
+        part_name := 'tbl_rates_p' || to_char(part_start, 'YYYYMMDD');
+        EXECUTE format('CREATE TABLE %I (LIKE tbl_rates INCLUDING DEFAULTS)', part_name);
+        EXECUTE format('WITH moved AS (DELETE FROM tbl_rates_default WHERE rate_update_time >= %L AND rate_update_time < %L RETURNING *) '
+                       'INSERT INTO %I SELECT * FROM moved', part_start, part_end, part_name);
+        EXECUTE format('ALTER TABLE tbl_rates ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                       part_name, part_start, part_end);
+        created := created + 1;
+    END LOOP;
+    RETURN created;
+END
+$$;
+
+-- Bitişi bugünden retention_days gün öncesine kadar olan partition'ları siler.
+-- retention_days <= 0 ise hiçbir şey silinmez. Silinen partition sayısını döner.
+CREATE FUNCTION tbl_rates_drop_partitions(retention_days integer)
+RETURNS integer
+LANGUAGE plpgsql AS $$
+DECLARE
+    cutoff  timestamp := date_trunc('day', localtimestamp) - make_interval(days => retention_days);
+    part    record;
+    dropped integer := 0;
+BEGIN
+    IF retention_days <= 0 THEN
+        RETURN 0;
+    END IF;
+
+    FOR part IN SELECT partition_name FROM tbl_rates_partitions() WHERE range_end <= cutoff LOOP
+        EXECUTE format('DROP TABLE %I', part.partition_name);
+        dropped := dropped + 1;
+    END LOOP;
+
+    DELETE FROM tbl_rates_default WHERE rate_update_time < cutoff;
+    RETURN dropped;
+END
+$$;
+
+SELECT tbl_rates_create_partitions(7);
@@ -0,0 +1,52 @@
+-- =====================================================================
+-- Dakikalık ve saatlik OHLC rollup tabloları
+--
+--  * RollupService, batch'lerden bellekte topladığı bucket'ları bucket
+--    kapanınca bu tablolara upsert eder; geç gelen kayıtların bucket'ı
+--    tbl_rates'ten yeniden hesaplanır.
+--  * OHLC orta fiyat ((bid + ask) / 2) üzerindendir; ortalamalar tick
+--    ağırlıklıdır (OhlcBar ile aynı).
+--  * Mevcut tbl_rates verisi bir kez geriye dönük doldurulur.
+-- =====================================================================
+
+CREATE TABLE tbl_rates_1m (
+    rate_name    varchar(255)     NOT NULL,
+    bucket_start timestamp(6)     NOT NULL,
+    open         double precision NOT NULL,
+    high         double precision NOT NULL,
+    low          double precision NOT NULL,
+    close        double precision NOT NULL,
+    avg_bid      double precision NOT NULL,
+    avg_ask      double precision NOT NULL,
+    ticks        bigint           NOT NULL,
+    PRIMARY KEY (rate_name, bucket_start)
+);
+
+CREATE TABLE tbl_rates_1h (LIKE tbl_rates_1m INCLUDING ALL);
+
+INSERT INTO tbl_rates_1m (rate_name, bucket_start, open, high, low, close, avg_bid, avg_ask, ticks)
+SELECT rate_name,
+       date_trunc('minute', rate_update_time),
+       (array_agg((bid + ask) / 2 ORDER BY rate_update_time))[1],
+       max((bid + ask) / 2),
+       min((bid + ask) / 2),
+       (array_agg((bid + ask) / 2 ORDER BY rate_update_time DESC))[1],
+       avg(bid),
+       avg(ask),
+       count(*)
+FROM tbl_rates
+WHERE rate_name IS NOT NULL
+GROUP BY 1, 2;
+
+INSERT INTO tbl_rates_1h (rate_name, bucket_start, open, high, low, close, avg_bid, avg_ask, ticks)
+SELECT rate_name,
+       date_trunc('hour', bucket_start),
+       (array_agg(open ORDER BY bucket_start))[1],
+       max(high),
+       min(low),
+       (array_agg(close ORDER BY bucket_start DESC))[1],
+       sum(avg_bid * ticks) / sum(ticks),
+       sum(avg_ask * ticks) / sum(ticks),
+       sum(ticks)
+FROM tbl_rates_1m
+GROUP BY 1, 2;
@@ -0,0 +1,75 @@
+-- =====================================================================
+-- Tekrarsız yazım ve veritabanında tutulan Kafka offset'leri
+--
+--  * (rate_name, rate_update_time) doğal anahtar olur; tüketici
+--    INSERT ... ON CONFLICT DO NOTHING ile yazar, tekrar okunan kayıtlar
+--    sessizce atlanır. Partition anahtarı anahtarın parçası olduğu için
+--    unique index partition'lı tabloda tanımlanabilir.
+--  * Mevcut tekrarlar (en küçük id kalır) silinir ve etkilenen rollup
+--    bucket'ları yeniden hesaplanır.
+--  * tbl_kafka_offsets, her partition için işlenecek sonraki offset'i
+--    kayıtlarla aynı transaction'da tutar.
+-- =====================================================================
+
+CREATE TEMP TABLE dedupe_minutes (rate_name varchar(255), bucket_start timestamp(6)) ON COMMIT DROP;
+
+WITH deleted AS (
+    DELETE FROM tbl_rates a
+    USING tbl_rates b
+    WHERE a.rate_name = b.rate_name
+      AND a.rate_update_time = b.rate_update_time
+      AND a.id > b.id
+    RETURNING a.rate_name, a.rate_update_time
+)
+INSERT INTO dedupe_minutes
+SELECT DISTINCT rate_name, date_trunc('minute', rate_update_time) FROM deleted;
+
+INSERT INTO tbl_rates_1m (rate_name, bucket_start, open, high, low, close, avg_bid, avg_ask, ticks)
+SELECT r.rate_name,
+       m.bucket_start,
+       (array_agg((r.bid + r.ask) / 2 ORDER BY r.rate_update_time))[1],
+       max((r.bid + r.ask) / 2),
+       min((r.bid + r.ask) / 2),
+       (array_agg((r.bid + r.ask) / 2 ORDER BY r.rate_update_time DESC))[1],
+       avg(r.bid),
+       avg(r.ask),
+       count(*)
+FROM dedupe_minutes m
+JOIN tbl_rates r ON r.rate_name = m.rate_name
+                AND r.rate_update_time >= m.bucket_start
+                AND r.rate_update_time < m.bucket_start + interval '1 minute'
+GROUP BY r.rate_name, m.bucket_start
+ON CONFLICT (rate_name, bucket_start) DO UPDATE SET
+    open = EXCLUDED.open, high = EXCLUDED.high, low = EXCLUDED.low, close = EXCLUDED.close,
+    avg_bid = EXCLUDED.avg_bid, avg_ask = EXCLUDED.avg_ask, ticks = EXCLUDED.ticks;
+
+INSERT INTO tbl_rates_1h (rate_name, bucket_start, open, high, low, close, avg_bid, avg_ask, ticks)
+SELECT m.rate_name,
+       m.bucket_start,
+       (array_agg(open ORDER BY r.bucket_start))[1],
+       max(high),
+       min(low),
+       (array_agg(close ORDER BY r.bucket_start DESC))[1],
+       sum(avg_bid * ticks) / sum(ticks),
+       sum(avg_ask * ticks) / sum(ticks),
+       sum(ticks)
+FROM (SELECT DISTINCT rate_name, date_trunc('hour', bucket_start) AS bucket_start FROM dedupe_minutes) m
+JOIN tbl_rates_1m r ON r.rate_name = m.rate_name
+                   AND r.bucket_start >= m.bucket_start
+                   AND r.bucket_start < m.bucket_start + interval '1 hour'
+GROUP BY m.rate_name, m.bucket_start
+ON CONFLICT (rate_name, bucket_start) DO UPDATE SET
+    open = EXCLUDED.open, high = EXCLUDED.high, low = EXCLUDED.low, close = EXCLUDED.close,
+    avg_bid = EXCLUDED.avg_bid, avg_ask = EXCLUDED.avg_ask, ticks = EXCLUDED.ticks;
+
+DROP INDEX tbl_rates_name_time_idx;
+CREATE UNIQUE INDEX tbl_rates_name_time_key ON tbl_rates (rate_name, rate_update_time);
+
+CREATE TABLE tbl_kafka_offsets (
+    group_id        varchar(255) NOT NULL,
+    topic           varchar(255) NOT NULL,
+    kafka_partition integer      NOT NULL,
+    next_offset     bigint       NOT NULL,
+    updated_at      timestamp(6) NOT NULL DEFAULT localtimestamp,
+    PRIMARY KEY (group_id, topic, kafka_partition)
+);
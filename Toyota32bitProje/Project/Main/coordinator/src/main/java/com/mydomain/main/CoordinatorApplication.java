@@ -1,12 +1,19 @@
 package com.mydomain.main;
 
+import com.mydomain.main.calculation.AggregationService;
+import com.mydomain.main.calculation.CurrencyGraph;
 import com.mydomain.main.calculation.DynamicFormulaService;
+import com.mydomain.main.calculation.InstrumentRegistry;
 import com.mydomain.main.config.ConfigReader;
 import com.mydomain.main.coordinator.Coordinator;
 import com.mydomain.main.exception.ConfigLoadException;
 import com.mydomain.main.filter.*;
 import com.mydomain.main.kafka.KafkaProducerService;
+import com.mydomain.main.kafka.KafkaProducerSettings;
+import com.mydomain.main.kafka.RateOutbox;
+import com.mydomain.main.kafka.TopicRouter;
 import com.mydomain.main.calculation.RateCalculatorService;
+import com.mydomain.main.calculation.StalenessPolicy;
 import com.mydomain.main.redis.RedisService;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -54,21 +61,29 @@ public class CoordinatorApplication {
             jedisPool = new JedisPool(ConfigReader.getRedisHost(), ConfigReader.getRedisPort());
 
             // Hesaplama servisini başlat
-            RateCalculatorService rateCalculatorService = new RateCalculatorService(ConfigReader.getSubscribeRates());
+            InstrumentRegistry instrumentRegistry = InstrumentRegistry.fromConfig();
+            RateCalculatorService rateCalculatorService = new RateCalculatorService(
+                    instrumentRegistry,
+                    new AggregationService(ConfigReader.getAggregationObject(), instrumentRegistry),
+                    CurrencyGraph.fromConfig(instrumentRegistry),
+                    StalenessPolicy.fromConfig(),
+                    ConfigReader.getCalculationParallelism()
+            );
+            Runtime.getRuntime().addShutdownHook(new Thread(rateCalculatorService::close, "rate-calc-shutdown"));
+
+            // Formül motorunu önceden hazırla (graaljs modunda paylaşılan motor)
+            DynamicFormulaService.warmUp();
 
             // Kafka üretici servisini başlat
             KafkaProducerService kafkaProducerService = new KafkaProducerService(
-                    ConfigReader.getKafkaBootstrapServers(),
-                    ConfigReader.getKafkaTopicName(),
-                    ConfigReader.getKafkaAcks(),
-                    ConfigReader.getKafkaRetries(),
-                    ConfigReader.getKafkaDeliveryTimeout(),
-                    ConfigReader.getKafkaRequestTimeout(),
-                    ConfigReader.getKafkaReinitPeriod()
+                    KafkaProducerSettings.fromConfig(),
+                    TopicRouter.fromConfig(),
+                    RateOutbox.fromConfig()
             );
 
             // Filtre Servisini başlat
-            FilterService filterService = new FilterService(ConfigReader.getFiltersObject());
+            FilterService filterService = new FilterService(ConfigReader.getFiltersObject(), ConfigReader.getFilterHistorySize(),
+                    ConfigReader.getFilterHistoryResetAfterRejections(), ConfigReader.getFilterHistoryResetAfterMs());
 
             // Redis servisini başlat
             RedisService redisService = new RedisService(jedisPool, filterService,ConfigReader.getRedisTTLSeconds(), ConfigReader.getRedisMaxListSize());
@@ -0,0 +1,173 @@
+package com.mydomain.main.calculation;
+
+import com.mydomain.main.calculation.aggregation.*;
+import com.mydomain.main.exception.ConfigLoadException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.json.JSONObject;
+
+/**
+ * {@code AggregationService}, her kur için platformlardan gelen bid/ask değerlerini
+ * konfigürasyonda seçilen {@link IAggregationStrategy} ile tek bir değere indirger.
+ * Stratejiler uygulama başlarken `config.json` içindeki `calculation.aggregation`
+ * bloğundan çözülür ve kur kimliğine göre bir diziye yerleştirilir.
+ *
+ * <p>Konfigürasyon örneği:
+ * <pre>
+ * "aggregation": {
+ *   "default": { "strategy": "mean", "minSources": 2 },
+ *   "rates": {
+ *     "USDTRY": { "strategy": "median" },
+ *     "EURUSD": { "strategy": "weighted", "weights": { "TCP_PLATFORM": 0.4, "REST_PLATFORM": 0.6 } },
+ *     "GBPUSD": { "strategy": "trimmedMean", "trimRatio": 0.2 }
+ *   }
+ * }
+ * </pre>
+ * Desteklenen stratejiler: {@code mean}, {@code median}, {@code weighted},
+ * {@code trimmedMean}, {@code freshest}.
+ * </p>
+ *
+ * <p><b>Özellikler:</b>
+ * <ul>
+ *   <li>Toplama işlemi döngü başına bir kez, snapshot oluşturulduktan sonra yapılır.</li>
+ *   <li>{@code minSources} sayısına ulaşamayan kurların toplu değeri NaN bırakılır.</li>
+ *   <li>Geçersiz konfigürasyonda {@link ConfigLoadException} ile erken hata verilir.</li>
+ * </ul>
+ * </p>
+ *
+ * @author Ali Kerem Kol
+ * @version 1.0
+ * @since 2025-06-07
+ */
+public class AggregationService {
+
+    private static final Logger log = LogManager.getLogger(AggregationService.class);
+
+    private static final String DEFAULT_STRATEGY = "mean";
+    private static final int DEFAULT_MIN_SOURCES = 2;
+
+    private final InstrumentRegistry registry;
+    private final IAggregationStrategy[] strategies;
+    private final int[] minSources;
+
+    /**
+     * Konfigürasyondan kur bazlı stratejileri çözer.
+     *
+     * @param aggregationJson `calculation.aggregation` bloğu; null veya boşsa tüm kurlar
+     *                        en az 2 kaynakla aritmetik ortalama kullanır
+     * @param registry Platform ve kur kimliklerini tutan kayıt
+     * @throws ConfigLoadException Bilinmeyen strateji veya geçersiz parametre varsa
+     */
+    public AggregationService(JSONObject aggregationJson, InstrumentRegistry registry) {
+        this.registry = registry;
+        this.strategies = new IAggregationStrategy[registry.instrumentCount()];
+        this.minSources = new int[registry.instrumentCount()];
+
+        JSONObject json = aggregationJson != null ? aggregationJson : new JSONObject();
+        JSONObject defaults = json.optJSONObject("default");
+        if (defaults == null) defaults = new JSONObject();
+        JSONObject rates = json.optJSONObject("rates");
+        if (rates == null) rates = new JSONObject();
+
+        for (String rateName : rates.keySet()) {
+            if (registry.instrumentId(rateName) < 0) {
+                log.warn("Aggregation config: '{}' is not a subscribed rate, ignored.", rateName);
+            }
+        }
+
+        for (int id = 0; id < registry.instrumentCount(); id++) {
+            String rateName = registry.instrumentName(id);
+            JSONObject rateJson = rates.optJSONObject(rateName);
+            if (rateJson == null) rateJson = defaults;
+
+            String strategy = rateJson.optString("strategy", defaults.optString("strategy", DEFAULT_STRATEGY));
+            strategies[id] = createStrategy(rateName, strategy, rateJson);
+            minSources[id] = rateJson.optInt("minSources", defaults.optInt("minSources", DEFAULT_MIN_SOURCES));
+
+            log.info("Aggregation for {} → strategy={}, minSources={}", rateName, strategy, minSources[id]);
+        }
+    }
+
+    /**
+     * Strateji adını ve parametrelerini bir {@link IAggregationStrategy} nesnesine çevirir.
+     *
+     * @param rateName Hata mesajları için kur adı
+     * @param strategy Strateji adı
+     * @param params Stratejiye özel parametreleri içeren JSON
+     * @return Oluşturulan strateji
+     * @throws ConfigLoadException Strateji bilinmiyorsa veya parametreleri geçersizse
+     */
+    private IAggregationStrategy createStrategy(String rateName, String strategy, JSONObject params) {
+        try {
+            switch (strategy) {
+                case "mean":
+                    return new MeanAggregation();
+                case "median":
+                    return new MedianAggregation();
+                case "freshest":
+                    return new FreshestAggregation();
+                case "trimmedMean":
+                    return new TrimmedMeanAggregation(params.optDouble("trimRatio", 0.2));
+                case "weighted":
+                    return new WeightedAggregation(parseWeights(params.getJSONObject("weights")));
+                default:
+                    throw new ConfigLoadException("Unknown aggregation strategy '" + strategy + "' for " + rateName);
+            }
+        } catch (ConfigLoadException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new ConfigLoadException("Invalid '" + strategy + "' aggregation config for " + rateName, e);
+        }
+    }
+
+    /**
+     * Platform adına göre verilen ağırlıkları platform kimliğine göre indeksli diziye çevirir.
+     * Listede olmayan platformların ağırlığı 0 kabul edilir.
+     *
+     * @param weights Platform adı → ağırlık eşleşmeleri
+     * @return Platform kimliğine göre indekslenmiş ağırlık dizisi
+     */
+    private double[] parseWeights(JSONObject weights) {
+        double[] result = new double[registry.platformCount()];
+        for (String platform : weights.keySet()) {
+            int platformId = registry.platformId(platform);
+            if (platformId < 0) {
+                log.warn("Aggregation config: unknown platform '{}' in weights, ignored.", platform);
+                continue;
+            }
+            double w = weights.getDouble(platform);
+            if (w < 0.0) throw new IllegalArgumentException("negative weight for " + platform);
+            result[platformId] = w;
+        }
+        return result;
+    }
+
+    /**
+     * Snapshot'taki her kur için toplu bid/ask değerlerini hesaplar ve snapshot'a yazar.
+     * Yeterli kaynağı olmayan kurların toplu değerleri NaN kalır.
+     *
+     * @param snapshot Döngünün ham kur görüntüsü
+     */
+    public void aggregate(RateSnapshot snapshot) {
+        int platformCount = snapshot.platformCount();
+        double[] scratch = new double[platformCount];
+        double[] bids = snapshot.getBids();
+        double[] asks = snapshot.getAsks();
+        double[] weights = snapshot.getWeights();
+        long[] timestamps = snapshot.getTimestamps();
+
+        for (int id = 0; id < strategies.length; id++) {
+            int available = snapshot.quoteCount(id);
+            if (available == 0) continue;
+            if (available < minSources[id]) {
+                log.debug("Insufficient data for {}: at least {} sources required (available: {})",
+                        registry.instrumentName(id), minSources[id], available);
+                continue;
+            }
+            int offset = snapshot.offset(id);
+            snapshot.setAggregate(id,
+                    strategies[id].aggregate(bids, weights, timestamps, offset, platformCount, scratch),
+                    strategies[id].aggregate(asks, weights, timestamps, offset, platformCount, scratch));
+        }
+    }
+}
@@ -0,0 +1,271 @@
+package com.mydomain.main.calculation;
+
+import com.mydomain.main.config.ConfigReader;
+import com.mydomain.main.exception.ConfigLoadException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.*;
+
+/**
+ * {@code CurrencyGraph}, abone olunan kurları para birimleri arasındaki kenarlar olarak
+ * modelleyip her çıktı kuru (örn. "EURTRY", "JPYTRY") için kullanılabilecek dönüşüm
+ * yollarını belirler. Her kur akışı iki kenar üretir: doğrudan (EURUSD: EUR → USD) ve
+ * ters çevrilmiş (USD → EUR).
+ *
+ * <p>Hizmetin temel işleyişi:
+ * <ul>
+ *   <li>Tüm aday yollar ({@code maxHops} bacağa kadar, para birimi tekrarı olmadan)
+ *       uygulama başlarken bir kez hesaplanır ve bacak sayısına göre sıralanır.</li>
+ *   <li>Her döngüde toplu değeri olan kurlar bir {@link BitSet} olarak çıkarılır; bu kümeye
+ *       göre kullanılabilir aday yollar önbellekten alınır. Önbellek yalnızca mevcut akış
+ *       kümesi değiştiğinde yeniden hesaplanır.</li>
+ *   <li>{@code cheapest} seçiminde en az bacaklı yol, {@code freshest} seçiminde en eski
+ *       bacağı en yeni olan yol seçilir.</li>
+ * </ul>
+ * </p>
+ *
+ * <p><b>Özellikler:</b>
+ * <ul>
+ *   <li>Kur adları 3+3 harfli para birimi kodları olarak yorumlanır (örn. "USDTRY" → USD/TRY).</li>
+ *   <li>Önbellek boyutu sınırlıdır; en uzun süre kullanılmayan akış kümesi atılır (LRU).</li>
+ *   <li>Geçersiz konfigürasyonda {@link ConfigLoadException} ile erken hata verilir.</li>
+ * </ul>
+ * </p>
+ *
+ * @author Ali Kerem Kol
+ * @version 1.0
+ * @since 2025-06-07
+ */
+public class CurrencyGraph {
+
+    private static final Logger log = LogManager.getLogger(CurrencyGraph.class);
+
+    private static final int PATH_CACHE_SIZE = 64;
+    private static final CurrencyPath[] NO_PATHS = new CurrencyPath[0];
+
+    private final InstrumentRegistry registry;
+    private final String[] outputNames;
+    private final CurrencyPath[][] candidates;
+    private final boolean freshest;
+    private final Map<BitSet, CurrencyPath[][]> pathCache =
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<BitSet, CurrencyPath[][]> eldest) {
+                    return size() > PATH_CACHE_SIZE;
+                }
+            };
+
+    /**
+     * Kayıttaki kurlardan para birimi grafiğini kurar ve her çıktı için aday yolları hesaplar.
+     *
+     * @param registry Kur akışlarını tanımlayan kayıt
+     * @param outputNames Hesaplanacak çıktı kurları (örn. "USDTRY", "EURTRY"), sıra korunur
+     * @param maxHops Bir yolda izin verilen en fazla bacak sayısı (en az 1)
+     * @param pathSelection "cheapest" veya "freshest"
+     * @throws ConfigLoadException Parametreler veya çıktı adları geçersizse
+     */
+    public CurrencyGraph(InstrumentRegistry registry, List<String> outputNames, int maxHops, String pathSelection) {
+        if (maxHops < 1) {
+            throw new ConfigLoadException("maxHops must be at least 1: " + maxHops);
+        }
+        if (!"cheapest".equals(pathSelection) && !"freshest".equals(pathSelection)) {
+            throw new ConfigLoadException("Unknown pathSelection '" + pathSelection + "' (expected cheapest|freshest)");
+        }
+        this.registry = registry;
+        this.freshest = "freshest".equals(pathSelection);
+        this.outputNames = outputNames.toArray(new String[0]);
+        this.candidates = new CurrencyPath[this.outputNames.length][];
+
+        // Para birimi → o para biriminden çıkan kenarlar
+        Map<String, List<Edge>> edges = new HashMap<>();
+        for (int id = 0; id < registry.instrumentCount(); id++) {
+            String name = registry.instrumentName(id);
+            if (!isCurrencyPair(name)) {
+                log.warn("Rate '{}' is not a 6-letter currency pair — excluded from currency graph.", name);
+                continue;
+            }
+            String base = name.substring(0, 3);
+            String quote = name.substring(3);
+            edges.computeIfAbsent(base, k -> new ArrayList<>()).add(new Edge(id, false, quote));
+            edges.computeIfAbsent(quote, k -> new ArrayList<>()).add(new Edge(id, true, base));
+        }
+
+        for (int o = 0; o < this.outputNames.length; o++) {
+            String output = this.outputNames[o];
+            if (!isCurrencyPair(output)) {
+                throw new ConfigLoadException("Output rate '" + output + "' is not a 6-letter currency pair");
+            }
+            List<CurrencyPath> paths = new ArrayList<>();
+            Set<String> visited = new HashSet<>();
+            visited.add(output.substring(0, 3));
+            collectPaths(edges, output.substring(0, 3), output.substring(3), maxHops,
+                    new ArrayDeque<>(), visited, paths);
+            paths.sort(Comparator.comparingInt(CurrencyPath::hops));
+            candidates[o] = paths.toArray(NO_PATHS);
+
+            if (paths.isEmpty()) {
+                log.warn("No conversion path for output '{}' within {} hops.", output, maxHops);
+            } else {
+                log.info("Currency graph {} → {} candidate path(s), preferred: {}",
+                        output, paths.size(), paths.get(0).describe(registry));
+            }
+        }
+    }
+
+    /**
+     * Konfigürasyondan grafiği oluşturur. `calculation.outputRates` tanımlı değilse çıktılar
+     * eski kurala göre türetilir: USDTRY olduğu gibi, XXXUSD kurları XXXTRY olarak.
+     *
+     * @param registry Kur akışlarını tanımlayan kayıt
+     * @return Konfigürasyona göre oluşturulmuş grafik
+     * @throws ConfigLoadException Konfigürasyon geçersizse
+     */
+    public static CurrencyGraph fromConfig(InstrumentRegistry registry) {
+        List<String> outputs = ConfigReader.getOutputRates();
+        if (outputs.isEmpty()) {
+            Set<String> derived = new LinkedHashSet<>();
+            for (int id = 0; id < registry.instrumentCount(); id++) {
+                String name = registry.instrumentName(id);
+                derived.add(name.endsWith("USD") && !name.equals("USDTRY")
+                        ? name.substring(0, name.length() - 3) + "TRY"
+                        : name);
+            }
+            outputs = new ArrayList<>(derived);
+        }
+        return new CurrencyGraph(registry, outputs, ConfigReader.getMaxHops(), ConfigReader.getPathSelection());
+    }
+
+    private static boolean isCurrencyPair(String name) {
+        return name != null && name.length() == 6;
+    }
+
+    /**
+     * Derinlik öncelikli aramayla {@code from} para biriminden {@code target}'a giden,
+     * para birimi tekrarı olmayan tüm yolları toplar.
+     */
+    private void collectPaths(Map<String, List<Edge>> edges, String from, String target, int hopsLeft,
+                              Deque<Edge> current, Set<String> visited, List<CurrencyPath> out) {
+        if (hopsLeft == 0) return;
+        for (Edge edge : edges.getOrDefault(from, Collections.emptyList())) {
+            String next = edge.target;
+            if (visited.contains(next)) continue;
+            current.addLast(edge);
+            if (next.equals(target)) {
+                out.add(toPath(current));
+            } else {
+                visited.add(next);
+                collectPaths(edges, next, target, hopsLeft - 1, current, visited, out);
+                visited.remove(next);
+            }
+            current.removeLast();
+        }
+    }
+
+    private static CurrencyPath toPath(Deque<Edge> legs) {
+        int[] ids = new int[legs.size()];
+        boolean[] inverted = new boolean[legs.size()];
+        int i = 0;
+        for (Edge leg : legs) {
+            ids[i] = leg.instrumentId;
+            inverted[i] = leg.inverted;
+            i++;
+        }
+        return new CurrencyPath(ids, inverted);
+    }
+
+    /**
+     * @return Çıktı kuru sayısı
+     */
+    public int outputCount() {
+        return outputNames.length;
+    }
+
+    /**
+     * @param outputIndex Çıktı sırası
+     * @return Çıktı kurunun adı
+     */
+    public String outputName(int outputIndex) {
+        return outputNames[outputIndex];
+    }
+
+    /**
+     * Snapshot'taki mevcut akışlara göre her çıktı için kullanılacak yolu seçer.
+     *
+     * @param snapshot Toplu değerleri yazılmış döngü görüntüsü
+     * @return Çıktı sırasına göre seçilen yollar; yol yoksa ilgili eleman null
+     */
+    public CurrencyPath[] select(RateSnapshot snapshot) {
+        BitSet available = new BitSet(registry.instrumentCount());
+        for (int id = 0; id < registry.instrumentCount(); id++) {
+            if (!Double.isNaN(snapshot.aggregatedBid(id)) && !Double.isNaN(snapshot.aggregatedAsk(id))) {
+                available.set(id);
+            }
+        }
+
+        CurrencyPath[][] usable;
+        synchronized (pathCache) {
+            usable = pathCache.get(available);
+            if (usable == null) {
+                usable = filterAvailable(available);
+                pathCache.put(available, usable);
+                log.debug("Currency path cache miss for feeds {} (cached sets: {})", available, pathCache.size());
+            }
+        }
+
+        CurrencyPath[] selected = new CurrencyPath[outputNames.length];
+        for (int o = 0; o < outputNames.length; o++) {
+            CurrencyPath[] paths = usable[o];
+            if (paths.length == 0) continue;
+            if (!freshest) {
+                selected[o] = paths[0];
+                continue;
+            }
+            CurrencyPath best = paths[0];
+            long bestTs = best.oldestLegTimestamp(snapshot);
+            for (int i = 1; i < paths.length; i++) {
+                long ts = paths[i].oldestLegTimestamp(snapshot);
+                if (ts > bestTs) {
+                    best = paths[i];
+                    bestTs = ts;
+                }
+            }
+            selected[o] = best;
+        }
+        return selected;
+    }
+
+    /**
+     * Aday yollardan tüm bacakları mevcut olanları, bacak sırası korunarak ayıklar.
+     */
+    private CurrencyPath[][] filterAvailable(BitSet available) {
+        CurrencyPath[][] usable = new CurrencyPath[outputNames.length][];
+        for (int o = 0; o < outputNames.length; o++) {
+            List<CurrencyPath> paths = new ArrayList<>();
+            for (CurrencyPath path : candidates[o]) {
+                boolean complete = true;
+                for (int leg = 0; leg < path.hops() && complete; leg++) {
+                    complete = available.get(path.instrumentId(leg));
+                }
+                if (complete) paths.add(path);
+            }
+            usable[o] = paths.toArray(NO_PATHS);
+        }
+        return usable;
+    }
+
+    /**
+     * Bir kur akışının bir yöndeki kenarı.
+     */
+    private static final class Edge {
+        private final int instrumentId;
+        private final boolean inverted;
+        private final String target;
+
+        private Edge(int instrumentId, boolean inverted, String target) {
+            this.instrumentId = instrumentId;
+            this.inverted = inverted;
+            this.target = target;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.mydomain.main.calculation;
+
+/**
+ * {@code CurrencyPath}, bir çıktı kurunu (örn. "EURTRY") mevcut kur akışlarından (feed)
+ * elde etmek için izlenen bacakların (leg) sıralı listesidir. Her bacak bir kur kimliği ve
+ * bu kurun ters çevrilip çevrilmediği bilgisini taşır; çıktı değeri bacakların çarpımıdır.
+ *
+ * <p>Ters çevrilen bir bacakta bid/ask yer değiştirir ve tersine alınır:
+ * {@code bid' = 1 / ask}, {@code ask' = 1 / bid}. Böylece örneğin USDJPY akışı
+ * JPYUSD bacağı olarak kullanılabilir.</p>
+ *
+ * <p>Nesne değişmezdir; {@link CurrencyGraph} tarafından başlangıçta bir kez oluşturulur.</p>
+ *
+ * @author Ali Kerem Kol
+ * @version 1.0
+ * @since 2025-06-07
+ */
+public final class CurrencyPath {
+
+    private final int[] instrumentIds;
+    private final boolean[] inverted;
+
+    /**
+     * @param instrumentIds Bacakların kur kimlikleri, çarpım sırasıyla
+     * @param inverted Her bacağın ters çevrilip çevrilmediği
+     */
+    CurrencyPath(int[] instrumentIds, boolean[] inverted) {
+        this.instrumentIds = instrumentIds;
+        this.inverted = inverted;
+    }
+
+    /**
+     * @return Bacak (hop) sayısı
+     */
+    public int hops() {
+        return instrumentIds.length;
+    }
+
+    /**
+     * @param leg Bacak sırası
+     * @return Bacağın kur kimliği
+     */
+    public int instrumentId(int leg) {
+        return instrumentIds[leg];
+    }
+
+    /**
+     * @param leg Bacak sırası
+     * @return Bacak ters çevrilmişse true
+     */
+    public boolean isInverted(int leg) {
+        return inverted[leg];
+    }
+
+    /**
+     * Bacağın çıktı yönüne çevrilmiş toplu bid değerini döner.
+     *
+     * @param snapshot Döngünün kur görüntüsü
+     * @param leg Bacak sırası
+     * @return Bid değeri, veri yoksa NaN
+     */
+    public double legBid(RateSnapshot snapshot, int leg) {
+        int id = instrumentIds[leg];
+        return inverted[leg] ? 1.0 / snapshot.aggregatedAsk(id) : snapshot.aggregatedBid(id);
+    }
+
+    /**
+     * Bacağın çıktı yönüne çevrilmiş toplu ask değerini döner.
+     *
+     * @param snapshot Döngünün kur görüntüsü
+     * @param leg Bacak sırası
+     * @return Ask değeri, veri yoksa NaN
+     */
+    public double legAsk(RateSnapshot snapshot, int leg) {
+        int id = instrumentIds[leg];
+        return inverted[leg] ? 1.0 / snapshot.aggregatedBid(id) : snapshot.aggregatedAsk(id);
+    }
+
+    /**
+     * Yoldaki en eski bacağın zaman damgasını döner; yolun tazeliği bu değerle ölçülür.
+     *
+     * @param snapshot Döngünün kur görüntüsü
+     * @return Bacakların en yeni zaman damgalarının en küçüğü (epoch milisaniye)
+     */
+    public long oldestLegTimestamp(RateSnapshot snapshot) {
+        long oldest = Long.MAX_VALUE;
+        for (int id : instrumentIds) {
+            oldest = Math.min(oldest, snapshot.latestTimestamp(id));
+        }
+        return oldest;
+    }
+
+    /**
+     * Yolun tazelik metriğini döner: en eski bacağın döngü zamanına göre yaşı.
+     *
+     * @param snapshot Döngünün kur görüntüsü
+     * @return Yaş (ms); saat kayması nedeniyle negatif çıkarsa 0
+     */
+    public long freshnessMs(RateSnapshot snapshot) {
+        return Math.max(0L, snapshot.getCycleTimeMs() - oldestLegTimestamp(snapshot));
+    }
+
+    /**
+     * Loglama için yolu okunabilir biçimde döner (örn. "EURUSD × USDTRY", "1/USDJPY").
+     *
+     * @param registry Kur adlarını çözmek için kayıt
+     * @return Yolun metin gösterimi
+     */
+    public String describe(InstrumentRegistry registry) {
+        StringBuilder sb = new StringBuilder();
+        for (int leg = 0; leg < instrumentIds.length; leg++) {
+            if (leg > 0) sb.append(" × ");
+            if (inverted[leg]) sb.append("1/");
+            sb.append(registry.instrumentName(instrumentIds[leg]));
+        }
+        return sb.toString();
+    }
+}
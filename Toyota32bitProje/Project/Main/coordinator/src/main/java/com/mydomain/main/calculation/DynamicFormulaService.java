@@ -8,18 +8,20 @@ import org.apache.logging.log4j.Logger;
 import javax.script.Invocable;
 import javax.script.ScriptEngine;
 import javax.script.ScriptEngineManager;
-import java.io.FileReader;
-import java.util.Map;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 /**
  * {@code DynamicFormulaService}, dışarıdan sağlanan bir JavaScript dosyasını yükleyerek
  * `compute(context)` fonksiyonunu çalıştırır ve hesaplama sonuçlarını (bid/ask değerleri)
  * bir `double[]` olarak döndürür. Bu sınıf, dinamik kur hesaplama işlemini desteklemek
- * için Nashorn veya benzeri bir JavaScript motoru kullanır.
+ * için Nashorn (`"javascript"`) veya GraalVM Polyglot (`"graaljs"`, bkz.
+ * {@link GraalFormulaService}) motorunu kullanır.
  *
  * <p>Hizmetin temel işleyişi şu adımları içerir:
  * <ul>
- *   <li>JavaScript motorunun yalnızca "javascript" yöntemiyle çalıştırılması kontrol edilir.</li>
+ *   <li>Hesaplama yöntemine göre ("javascript" veya "graaljs") ilgili motor seçilir.</li>
  *   <li>Konfigürasyon dosyasından (ConfigReader) belirtilen JavaScript dosyası yolu yüklenir.</li>
  *   <li>Script bir kez initialize edilir ve `compute` fonksiyonu context verileriyle çağrılır.</li>
  *   <li>Hata durumlarında detaylı loglama yapılır ve istisnalar fırlatılır.</li>
@@ -28,7 +30,7 @@ import java.util.Map;
  *
  * <p><b>Özellikler:</b>
  * <ul>
- *   <li>Statik bir servis olarak tasarlanmıştır; motor yalnızca ilk çağrıda initialize edilir.</li>
+ *   <li>Statik bir servis olarak tasarlanmıştır; her thread kendi motorunu ilk çağrıda initialize eder.</li>
  *   <li>Loglama için Apache Log4j kullanılır ve hata ayıklama için izleme (trace) seviyesi desteklenir.</li>
  *   <li>Dış bağımlılıklar (örn. Redis/Kafka) yoktur; yalnızca dosya sistemi ve JVM motoru kullanılır.</li>
  * </ul>
@@ -42,8 +44,14 @@ public class DynamicFormulaService {
 
     private static final Logger log = LogManager.getLogger(DynamicFormulaService.class);
 
-    private static ScriptEngine scriptEngine;
-    private static boolean initialized = false;
+    private static volatile String scriptSource;
+
+    /**
+     * Nashorn motoru eşzamanlı çağrılar için thread-safe değildir; paralel hesaplama
+     * modunda her worker thread kendi motorunu kullanır. Script metni yalnızca bir kez
+     * okunur, her motor ilk kullanımında bu metni değerlendirir.
+     */
+    private static final ThreadLocal<ScriptEngine> ENGINES = new ThreadLocal<>();
 
     private static final String CALCULATION_METHOD = ConfigReader.getCalculationMethod();
     private static final String FORMULA_FILE_PATH = ConfigReader.getFormulaFilePath();
@@ -52,25 +60,30 @@ public class DynamicFormulaService {
      * `compute(context)` JavaScript fonksiyonunu çağırır ve hesaplanan bid/ask değerlerini
      * içeren bir `double[]` döndürür. Bu metod, ilk çağrıda JavaScript motorunu initialize
      * eder ve belirtilen dosya yolundan (FORMULA_FILE_PATH) JavaScript kodunu yükler.
-     * Yalnızca "javascript" yöntemi desteklenir; aksi halde istisna fırlatılır.
+     * "javascript" (Nashorn) ve "graaljs" yöntemleri desteklenir; aksi halde istisna fırlatılır.
      *
      * <p>İşlem adımları:
      * <ol>
-     *   <li>Hesaplama yöntemi kontrol edilir ("javascript" olmalı).</li>
-     *   <li>Script motoru (Nashorn) initialize edilmemişse yüklenir.</li>
+     *   <li>Hesaplama yöntemi kontrol edilir; "graaljs" ise {@link GraalFormulaService} kullanılır.</li>
+     *   <li>Çağıran thread'in script motoru (Nashorn) initialize edilmemişse yüklenir.</li>
      *   <li>`compute` fonksiyonu context verileriyle çağrılır ve sonuç dönülür.</li>
      *   <li>Hata durumunda detaylı loglama yapılır ve istisna fırlatılır.</li>
      * </ol>
      * </p>
      *
-     * @param context Hesaplama için gerekli değişkenleri içeren map (örn. {"calcName": "EURUSD",
-     *                "TCP_PLATFORMUsdtryBid": 32.5}), null olmamalı
+     * @param context Hesaplanacak kurun adını ve döngünün indeksli ham kur dizilerini taşıyan
+     *                görünüm, null olmamalı
      * @return JavaScript `compute` fonksiyonundan dönen [bid, ask] değerlerini içeren `double[]`
      * @throws FormulaEngineException Eğer hesaplama yöntemi desteklenmezse, motor initialize
      *                                edilemezse, dosya yüklenemezse veya fonksiyon hata verirse
      * @throws IllegalArgumentException Eğer context null ise
      */
-    public static double[] calculate(Map<String, Object> context) throws FormulaEngineException {
+    public static double[] calculate(FormulaContext context) throws FormulaEngineException {
+        if ("graaljs".equalsIgnoreCase(CALCULATION_METHOD)) {
+            double[] output = GraalFormulaService.calculate(FORMULA_FILE_PATH, context);
+            log.trace("GraalJS compute() result for {}: bid={}, ask={}", context.getCalcName(), output[0], output[1]);
+            return output;
+        }
         if (!"javascript".equalsIgnoreCase(CALCULATION_METHOD)) {
             String msg = "Unsupported calculation method: " + CALCULATION_METHOD;
             log.debug(msg);
@@ -78,25 +91,8 @@ public class DynamicFormulaService {
         }
 
         try {
-            if (!initialized) {
-                log.trace("Initializing JavaScript engine and loading script...");
-
-                ScriptEngineManager manager = new ScriptEngineManager();
-                scriptEngine = manager.getEngineByName("JavaScript");
-
-                if (scriptEngine == null) {
-                    String err = "JavaScript engine not found in JVM.";
-                    log.debug(err);
-                    throw new FormulaEngineException(err);
-                }
-
-                scriptEngine.eval(new FileReader(FORMULA_FILE_PATH));
-                log.info("✅ JavaScript formula loaded from: {}", FORMULA_FILE_PATH);
-                initialized = true;
-            }
-
-            Invocable invocable = (Invocable) scriptEngine;
-            log.trace("Invoking JavaScript function: compute(context) with keys: {}", context.keySet());
+            Invocable invocable = (Invocable) getOrCreateEngine();
+            log.trace("Invoking JavaScript function: compute(context) for: {}", context.getCalcName());
 
             Object result = invocable.invokeFunction("compute", context);
 
@@ -116,4 +112,53 @@ public class DynamicFormulaService {
             throw new FormulaEngineException(msg);
         }
     }
+
+    /**
+     * Hesaplama yöntemi "graaljs" ise paylaşılan Polyglot motorunu uygulama başlarken
+     * oluşturur ve formülü bir kez değerlendirir; böylece ilk hesaplama döngüsü motor
+     * kurulumunu beklemez. Diğer yöntemlerde hiçbir şey yapmaz.
+     *
+     * @throws FormulaEngineException Motor oluşturulamazsa veya formül değerlendirilemezse
+     */
+    public static void warmUp() throws FormulaEngineException {
+        if ("graaljs".equalsIgnoreCase(CALCULATION_METHOD)) {
+            GraalFormulaService.warmUp(FORMULA_FILE_PATH);
+        }
+    }
+
+    /**
+     * Çağıran thread'e ait JavaScript motorunu döner, yoksa oluşturur ve formülü yükler.
+     * Formül dosyası yalnızca ilk motor oluşturulurken diskten okunur.
+     *
+     * @return Çağıran thread'e ait, formülü yüklenmiş script motoru
+     * @throws Exception Motor bulunamazsa veya formül dosyası okunamaz/değerlendirilemezse
+     */
+    private static ScriptEngine getOrCreateEngine() throws Exception {
+        ScriptEngine engine = ENGINES.get();
+        if (engine != null) return engine;
+
+        log.trace("Initializing JavaScript engine for thread '{}'...", Thread.currentThread().getName());
+
+        engine = new ScriptEngineManager().getEngineByName("JavaScript");
+        if (engine == null) {
+            String err = "JavaScript engine not found in JVM.";
+            log.debug(err);
+            throw new FormulaEngineException(err);
+        }
+
+        String source = scriptSource;
+        if (source == null) {
+            synchronized (DynamicFormulaService.class) {
+                if (scriptSource == null) {
+                    scriptSource = Files.readString(Path.of(FORMULA_FILE_PATH), StandardCharsets.UTF_8);
+                    log.info("✅ JavaScript formula loaded from: {}", FORMULA_FILE_PATH);
+                }
+                source = scriptSource;
+            }
+        }
+
+        engine.eval(source);
+        ENGINES.set(engine);
+        return engine;
+    }
 }
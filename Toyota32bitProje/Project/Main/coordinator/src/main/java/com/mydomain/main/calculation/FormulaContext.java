@@ -0,0 +1,147 @@
+package com.mydomain.main.calculation;
+
+/**
+ * {@code FormulaContext}, tek bir kurun hesaplanması sırasında formüle (örn. `Formula.js`)
+ * iletilen hafif görünümdür. Ortak {@link RateSnapshot} dizilerine doğrudan erişim sağlar,
+ * hesaplanan çıktı kurunun adını ve {@link CurrencyGraph} tarafından seçilen dönüşüm yolunu
+ * taşır; veri kopyalamaz.
+ *
+ * <p>Formül tarafında kullanım:
+ * <ul>
+ *   <li>`legCount()` bacak sayısını, `legBid(i)` / `legAsk(i)` çıktı yönüne çevrilmiş
+ *       (gerekirse ters alınmış) toplu değerleri verir; çıktı bacakların çarpımıdır.</li>
+ *   <li>`instrumentId("USDTRY")` ile kur kimliği bir kez çözülür.</li>
+ *   <li>`ageMs(index)` ve `getWeights()` ile her girdinin yaşı ve yaş ağırlığı okunur.</li>
+ *   <li>`aggregatedBid(id)` / `aggregatedAsk(id)` ile konfigüre edilen stratejiyle
+ *       önceden toplanmış değerler okunur; yeterli veri yoksa NaN döner.</li>
+ *   <li>`offset(id)` ile başlayan `platformCount()` uzunluğundaki aralık `getBids()` /
+ *       `getAsks()` dizileri üzerinde döngüyle okunur; eksik veriler NaN'dır.</li>
+ * </ul>
+ * </p>
+ *
+ * @author Ali Kerem Kol
+ * @version 1.0
+ * @since 2025-06-07
+ */
+public class FormulaContext {
+
+    private final RateSnapshot snapshot;
+    private final String calcName;
+    private final CurrencyPath path;
+
+    /**
+     * @param snapshot Döngünün ortak ham kur görüntüsü
+     * @param calcName Hesaplanacak çıktı kurunun adı (örn. "EURTRY")
+     * @param path Çıktı kuru için seçilen dönüşüm yolu
+     */
+    public FormulaContext(RateSnapshot snapshot, String calcName, CurrencyPath path) {
+        this.snapshot = snapshot;
+        this.calcName = calcName;
+        this.path = path;
+    }
+
+    /**
+     * @return Hesaplanacak kurun adı
+     */
+    public String getCalcName() {
+        return calcName;
+    }
+
+    /**
+     * @param instrumentName Kur adı
+     * @return Kur kimliği, kayıtlı değilse -1
+     */
+    public int instrumentId(String instrumentName) {
+        return snapshot.getRegistry().instrumentId(instrumentName);
+    }
+
+    /**
+     * @return Platform sayısı
+     */
+    public int platformCount() {
+        return snapshot.platformCount();
+    }
+
+    /**
+     * @param instrumentId Kur kimliği
+     * @return Kurun dizilerdeki başlangıç indeksi
+     */
+    public int offset(int instrumentId) {
+        return snapshot.offset(instrumentId);
+    }
+
+    /**
+     * @return Yoğun bid dizisi; yalnızca okunmalıdır
+     */
+    public double[] getBids() {
+        return snapshot.getBids();
+    }
+
+    /**
+     * @return Yoğun ask dizisi; yalnızca okunmalıdır
+     */
+    public double[] getAsks() {
+        return snapshot.getAsks();
+    }
+
+    /**
+     * @param instrumentId Kur kimliği
+     * @return Kurun toplu bid değeri, yeterli veri yoksa NaN
+     */
+    public double aggregatedBid(int instrumentId) {
+        return snapshot.aggregatedBid(instrumentId);
+    }
+
+    /**
+     * @param instrumentId Kur kimliği
+     * @return Kurun toplu ask değeri, yeterli veri yoksa NaN
+     */
+    public double aggregatedAsk(int instrumentId) {
+        return snapshot.aggregatedAsk(instrumentId);
+    }
+
+    /**
+     * @return Seçilen yoldaki bacak sayısı
+     */
+    public int legCount() {
+        return path.hops();
+    }
+
+    /**
+     * @param leg Bacak sırası
+     * @return Bacağın çıktı yönündeki toplu bid değeri, veri yoksa NaN
+     */
+    public double legBid(int leg) {
+        return path.legBid(snapshot, leg);
+    }
+
+    /**
+     * @param leg Bacak sırası
+     * @return Bacağın çıktı yönündeki toplu ask değeri, veri yoksa NaN
+     */
+    public double legAsk(int leg) {
+        return path.legAsk(snapshot, leg);
+    }
+
+    /**
+     * @return Yoğun yaş ağırlığı dizisi, {@code getBids()} ile aynı indekslemeye sahip; yalnızca okunmalıdır
+     */
+    public double[] getWeights() {
+        return snapshot.getWeights();
+    }
+
+    /**
+     * @param index Dizilerdeki indeks ({@code offset(id) + platformId})
+     * @return Girdinin döngü zamanına göre yaşı (ms), girdi yoksa -1
+     */
+    public long ageMs(int index) {
+        return snapshot.ageMs(index);
+    }
+
+    /**
+     * @return Seçilen yolun tazeliği: en eski bacağın yaşı (ms)
+     */
+    public long freshnessMs() {
+        return path.freshnessMs(snapshot);
+    }
+}
@@ -0,0 +1,240 @@
+package com.mydomain.main.calculation;
+
+import com.mydomain.main.exception.FormulaEngineException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.graalvm.polyglot.*;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@code GraalFormulaService}, `calculationMethod: "graaljs"` seçildiğinde formül dosyasını
+ * GraalVM Polyglot (GraalJS) ile çalıştırır. {@link DynamicFormulaService} bu sınıfa yönlendirir;
+ * formülün sözleşmesi aynıdır: `compute(context)` [bid, ask] döner.
+ *
+ * <p>Hizmetin temel işleyişi:
+ * <ul>
+ *   <li>Tüm thread'ler tek bir paylaşılan {@link Engine} kullanır; formül {@link Source}
+ *       nesnesi önbelleğe alınabilir olarak bir kez oluşturulur, böylece ayrıştırılmış kod
+ *       context'ler arasında yeniden kullanılır.</li>
+ *   <li>{@link Context} nesneleri tek thread'den erişim gerektirdiğinden her worker thread
+ *       kendi context'ini ilk çağrıda oluşturur ve `compute` fonksiyonunu saklar.</li>
+ *   <li>{@link #warmUp(String)} ile motor uygulama başlarken oluşturulur ve formül bir kez
+ *       değerlendirilir.</li>
+ *   <li>Thread'lerin context'leri bir tabloda izlenir: thread'i sonlanmış (örn. havuzda boşta
+ *       kalıp kapanmış) context'ler yeni bir context oluşturulurken kapatılır; uygulama
+ *       kapanırken tüm context'ler ve motor {@link #shutdown()} ile kapatılır.</li>
+ * </ul>
+ * </p>
+ *
+ * <p><b>Özellikler:</b>
+ * <ul>
+ *   <li>Formül, {@link FormulaContext} üzerinden ilkel {@code double[]} dizilerine erişir;
+ *       map veya kutulanmış değer aktarılmaz.</li>
+ *   <li>Sonuç hem host {@code double[]} (örn. `Java.to(..., "double[]")`) hem de düz bir
+ *       JavaScript dizisi olarak kabul edilir; formülden yalnızca {@code double[]} tipine
+ *       erişilebilir, diğer Java sınıfları yüklenemez.</li>
+ *   <li>Host erişimi yalnızca {@link FormulaContext}'in kendi public metotları ve dizi
+ *       elemanlarıyla sınırlıdır; {@code getClass()} gibi kalıtılmış metotlara ve diğer host
+ *       nesnelerinin üyelerine erişilemez.</li>
+ *   <li>GraalVM olmayan bir JDK'da Truffle yalnızca yorumlayıcı (interpreter) modunda çalışır.</li>
+ * </ul>
+ * </p>
+ *
+ * @author Ali Kerem Kol
+ * @version 1.0
+ * @since 2025-06-07
+ */
+public class GraalFormulaService {
+
+    private static final Logger log = LogManager.getLogger(GraalFormulaService.class);
+
+    private static final String LANGUAGE_ID = "js";
+
+    /** Formülün `Java.to(..., "double[]")` çağrısı için izin verilen host tipleri (dizi ve eleman tipi) */
+    private static final Set<String> RESULT_ARRAY_TYPES = Set.of("double[]", "double");
+
+    private static volatile Engine engine;
+    private static volatile Source source;
+    private static boolean shutdownHookRegistered;
+
+    /** Formüle açılan host üyeleri: FormulaContext'in public metotları ve dizi elemanları */
+    private static final HostAccess FORMULA_HOST_ACCESS = formulaHostAccess();
+
+    /** Her thread'in kendi context'inde değerlendirilmiş `compute` fonksiyonu */
+    private static final ThreadLocal<Value> COMPUTE_FUNCTIONS = new ThreadLocal<>();
+
+    /** Thread → context; sonlanan thread'lerin ve kapanıştaki tüm context'lerin kapatılması için */
+    private static final Map<Thread, Context> CONTEXTS = new ConcurrentHashMap<>();
+
+    private GraalFormulaService() {
+    }
+
+    /**
+     * Paylaşılan motoru oluşturur ve formülü geçici bir context'te bir kez değerlendirir.
+     * Birden fazla çağrılması güvenlidir.
+     *
+     * @param formulaFilePath Formül dosyasının yolu
+     * @throws FormulaEngineException Motor oluşturulamazsa veya formül değerlendirilemezse
+     */
+    static void warmUp(String formulaFilePath) throws FormulaEngineException {
+        initEngine(formulaFilePath);
+        try (Context context = newContext()) {
+            context.eval(source);
+            log.info("✅ GraalJS engine warmed up → {}", engine.getImplementationName());
+        } catch (PolyglotException e) {
+            throw new FormulaEngineException("GraalJS warm-up failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Çağıran thread'in context'inde `compute(context)` fonksiyonunu çalıştırır.
+     *
+     * @param formulaFilePath Formül dosyasının yolu (motor henüz oluşturulmadıysa kullanılır)
+     * @param context Hesaplanacak kurun görünümü
+     * @return [bid, ask] değerleri
+     * @throws FormulaEngineException Formül hata verirse veya sonuç beklenen biçimde değilse
+     */
+    static double[] calculate(String formulaFilePath, FormulaContext context) throws FormulaEngineException {
+        Value compute = COMPUTE_FUNCTIONS.get();
+        if (compute == null || !CONTEXTS.containsKey(Thread.currentThread())) {
+            compute = createComputeFunction(formulaFilePath);
+        }
+
+        try {
+            return toDoubleArray(compute.execute(context));
+        } catch (PolyglotException e) {
+            throw new FormulaEngineException("GraalJS formula execution failed: " + e.getMessage());
+        }
+    }
+
+    private static Value createComputeFunction(String formulaFilePath) throws FormulaEngineException {
+        initEngine(formulaFilePath);
+        log.trace("Initializing GraalJS context for thread '{}'...", Thread.currentThread().getName());
+        closeDeadThreadContexts();
+        Context context = newContext();
+        try {
+            context.eval(source);
+            Value compute = context.getBindings(LANGUAGE_ID).getMember("compute");
+            if (compute == null || !compute.canExecute()) {
+                throw new FormulaEngineException("Formula does not define an executable 'compute' function");
+            }
+            CONTEXTS.put(Thread.currentThread(), context);
+            COMPUTE_FUNCTIONS.set(compute);
+            return compute;
+        } catch (PolyglotException e) {
+            context.close();
+            throw new FormulaEngineException("GraalJS formula evaluation failed: " + e.getMessage());
+        } catch (FormulaEngineException e) {
+            context.close();
+            throw e;
+        }
+    }
+
+    private static Context newContext() {
+        return Context.newBuilder(LANGUAGE_ID)
+                .engine(engine)
+                .allowHostAccess(FORMULA_HOST_ACCESS)
+                .allowHostClassLookup(RESULT_ARRAY_TYPES::contains)
+                .build();
+    }
+
+    /**
+     * Yalnızca {@link FormulaContext}'te tanımlı public metotlara ve dizi elemanlarına izin
+     * veren host erişim politikası.
+     */
+    private static HostAccess formulaHostAccess() {
+        HostAccess.Builder builder = HostAccess.newBuilder()
+                .allowArrayAccess(true);
+        for (Method method : FormulaContext.class.getDeclaredMethods()) {
+            if (Modifier.isPublic(method.getModifiers())) {
+                builder.allowAccess(method);
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Thread'i sonlanmış context'leri kapatır; çalışmayan bir context başka thread'den kapatılabilir.
+     */
+    private static void closeDeadThreadContexts() {
+        CONTEXTS.entrySet().removeIf(entry -> {
+            if (entry.getKey().isAlive()) return false;
+            closeQuietly(entry.getValue());
+            return true;
+        });
+    }
+
+    /**
+     * Tüm thread'lerin context'lerini ve paylaşılan motoru kapatır. Uygulama kapanırken
+     * çalışır; sonrasında yapılan bir hesaplama motoru yeniden oluşturur.
+     */
+    static void shutdown() {
+        synchronized (GraalFormulaService.class) {
+            CONTEXTS.values().forEach(GraalFormulaService::closeQuietly);
+            CONTEXTS.clear();
+            if (engine != null) {
+                try {
+                    engine.close(true);
+                } catch (RuntimeException e) {
+                    log.debug("GraalJS engine close failed → {}", e.getMessage());
+                }
+                engine = null;
+                source = null;
+                log.info("🛑 GraalJS engine closed.");
+            }
+        }
+    }
+
+    private static void closeQuietly(Context context) {
+        try {
+            context.close(true);
+        } catch (RuntimeException e) {
+            log.debug("GraalJS context close failed → {}", e.getMessage());
+        }
+    }
+
+    private static void initEngine(String formulaFilePath) throws FormulaEngineException {
+        if (engine != null) return;
+        synchronized (GraalFormulaService.class) {
+            if (engine != null) return;
+            try {
+                String script = Files.readString(Path.of(formulaFilePath), StandardCharsets.UTF_8);
+                source = Source.newBuilder(LANGUAGE_ID, script, Path.of(formulaFilePath).getFileName().toString())
+                        .cached(true)
+                        .build();
+                engine = Engine.newBuilder(LANGUAGE_ID)
+                        .option("engine.WarnInterpreterOnly", "false")
+                        .build();
+                if (!shutdownHookRegistered) {
+                    Runtime.getRuntime().addShutdownHook(new Thread(GraalFormulaService::shutdown, "graaljs-shutdown"));
+                    shutdownHookRegistered = true;
+                }
+                log.info("✅ GraalJS formula loaded from: {}", formulaFilePath);
+            } catch (IOException | RuntimeException e) {
+                throw new FormulaEngineException("GraalJS engine initialization failed: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * `compute` sonucunu {@code double[]} dizisine çevirir.
+     */
+    private static double[] toDoubleArray(Value result) throws FormulaEngineException {
+        if (result.isHostObject() && result.asHostObject() instanceof double[]) {
+            return result.asHostObject();
+        }
+        if (result.hasArrayElements() && result.getArraySize() == 2) {
+            return new double[]{result.getArrayElement(0).asDouble(), result.getArrayElement(1).asDouble()};
+        }
+        throw new FormulaEngineException("JavaScript function 'compute' must return [bid, ask] but got: " + result);
+    }
+}
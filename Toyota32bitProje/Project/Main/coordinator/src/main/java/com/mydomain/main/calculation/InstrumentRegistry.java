@@ -0,0 +1,117 @@
+package com.mydomain.main.calculation;
+
+import com.mydomain.main.config.ConfigReader;
+import org.json.JSONArray;
+
+import java.util.*;
+
+/**
+ * {@code InstrumentRegistry}, hesaplamada kullanılan platform ve kur (instrument) adlarına
+ * uygulama başlarken sabit tamsayı kimlikler atar. Hesaplama katmanı bu kimlikler sayesinde
+ * platform/kur verilerini string anahtarlı map'ler yerine yoğun (dense) dizilerde tutar.
+ *
+ * <p>Hizmetin temel işleyişi:
+ * <ul>
+ *   <li>Platformlar ve kurlar konfigürasyondaki sırayla 0'dan başlayarak numaralandırılır.</li>
+ *   <li>Kimlik → ad ve ad → kimlik dönüşümleri sabit zamanda yapılır.</li>
+ *   <li>Nesne oluşturulduktan sonra değişmez; thread'ler arasında güvenle paylaşılabilir.</li>
+ * </ul>
+ * </p>
+ *
+ * @author Ali Kerem Kol
+ * @version 1.0
+ * @since 2025-06-07
+ */
+public class InstrumentRegistry {
+
+    private final String[] platformNames;
+    private final String[] instrumentNames;
+    private final Map<String, Integer> platformIds = new HashMap<>();
+    private final Map<String, Integer> instrumentIds = new HashMap<>();
+
+    /**
+     * Verilen platform ve kur adlarından bir kayıt oluşturur.
+     * Tekrarlanan adlar yok sayılır; ilk görülen sıra korunur.
+     *
+     * @param platformNames Platform adları (örn. "TCP_PLATFORM", "REST_PLATFORM")
+     * @param instrumentNames Kur adları (örn. "USDTRY", "EURUSD")
+     */
+    public InstrumentRegistry(Collection<String> platformNames, Collection<String> instrumentNames) {
+        this.platformNames = index(platformNames, platformIds);
+        this.instrumentNames = index(instrumentNames, instrumentIds);
+    }
+
+    /**
+     * `config.json` içindeki provider tanımlarından bir kayıt oluşturur.
+     * Platformlar `platformName` alanından, kurlar tüm `subscribeRates` birleşiminden alınır.
+     *
+     * @return Konfigürasyona göre oluşturulmuş kayıt
+     * @throws com.mydomain.main.exception.ConfigLoadException `initConfigs` çağrılmadıysa
+     */
+    public static InstrumentRegistry fromConfig() {
+        JSONArray platforms = ConfigReader.getProvidersPlatformName();
+        List<String> platformNames = new ArrayList<>(platforms.length());
+        for (int i = 0; i < platforms.length(); i++) {
+            platformNames.add(platforms.getString(i));
+        }
+        return new InstrumentRegistry(platformNames, ConfigReader.getSubscribeRates());
+    }
+
+    private static String[] index(Collection<String> names, Map<String, Integer> ids) {
+        List<String> ordered = new ArrayList<>(names.size());
+        for (String name : names) {
+            if (ids.putIfAbsent(name, ordered.size()) == null) {
+                ordered.add(name);
+            }
+        }
+        return ordered.toArray(new String[0]);
+    }
+
+    /**
+     * @param platformName Platform adı
+     * @return Platform kimliği, kayıtlı değilse -1
+     */
+    public int platformId(String platformName) {
+        Integer id = platformIds.get(platformName);
+        return id != null ? id : -1;
+    }
+
+    /**
+     * @param instrumentName Kur adı
+     * @return Kur kimliği, kayıtlı değilse -1
+     */
+    public int instrumentId(String instrumentName) {
+        Integer id = instrumentIds.get(instrumentName);
+        return id != null ? id : -1;
+    }
+
+    /**
+     * @param platformId Platform kimliği
+     * @return Platform adı
+     */
+    public String platformName(int platformId) {
+        return platformNames[platformId];
+    }
+
+    /**
+     * @param instrumentId Kur kimliği
+     * @return Kur adı
+     */
+    public String instrumentName(int instrumentId) {
+        return instrumentNames[instrumentId];
+    }
+
+    /**
+     * @return Kayıtlı platform sayısı
+     */
+    public int platformCount() {
+        return platformNames.length;
+    }
+
+    /**
+     * @return Kayıtlı kur sayısı
+     */
+    public int instrumentCount() {
+        return instrumentNames.length;
+    }
+}
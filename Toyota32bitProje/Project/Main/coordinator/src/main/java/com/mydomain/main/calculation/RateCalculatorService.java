@@ -9,18 +9,29 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 
 /**
  * {@code RateCalculatorService}, platformlardan gelen ham kurları işleyerek istenen kurların
- * dinamik JavaScript formülleriyle hesaplanmasını sağlar. Bu sınıf, kurların gruplanması,
- * USDTRY'nin zorunlu kontrolü ve çapraz kur hesaplamaları gibi temel işlemleri gerçekleştirir.
+ * dinamik JavaScript formülleriyle hesaplanmasını sağlar. Bu sınıf, kurların indeksli bir
+ * snapshot'a yazılması, her çıktı kuru için dönüşüm yolunun seçilmesi ve çapraz kur
+ * hesaplamaları gibi temel işlemleri gerçekleştirir.
  *
  * <p>Hesaplama süreci şu adımları içerir:
  * <ul>
- *   <li>Platform bazında gelen veriler (örn. TCP_PLATFORMUSDTRY) rateName'e göre gruplanır.</li>
- *   <li>USDTRY kurları her hesaplama için zorunlu bir temel veri olarak kullanılır.</li>
- *   <li>Çapraz kurlar (örn. EURUSD) için ek veri gereksinimleri kontrol edilir ve hesaplanır.</li>
+ *   <li>Platform bazında gelen veriler {@link InstrumentRegistry} kimlikleriyle bir
+ *       {@link RateSnapshot} içindeki yoğun dizilere yazılır; {@link StalenessPolicy} yaş
+ *       sınırını aşan girdiler atlanır.</li>
+ *   <li>Her kur için platform değerleri {@link AggregationService} ile konfigüre edilen
+ *       stratejiye göre bir kez toplanır.</li>
+ *   <li>Her çıktı kuru (örn. EURTRY) için {@link CurrencyGraph} mevcut akışlardan bir yol
+ *       seçer (örn. EURUSD × USDTRY veya doğrudan EURTRY); yolu olmayan çıktılar atlanır.</li>
+ *   <li>Her hesaplanan kura, yolun en eski bacağının yaşı tazelik metriği olarak eklenir.</li>
+ *   <li>Paralel modda snapshot bir kez hazırlanır, çapraz kurlar {@link ForkJoinPool}
+ *       üzerinde bağımsız olarak hesaplanır ve sonuçlar kayıt sırasıyla toplanır. Havuz
+ *       {@link #close()} ile kapatılır.</li>
  * </ul>
  * </p>
  *
@@ -36,27 +47,43 @@ import java.util.*;
  * @version 1.0
  * @since 2025-06-07
  */
-public class RateCalculatorService {
+public class RateCalculatorService implements AutoCloseable {
     private static final Logger log = LogManager.getLogger(RateCalculatorService.class);
-    private final Set<String> rateNames;
+    private final InstrumentRegistry registry;
+    private final AggregationService aggregationService;
+    private final CurrencyGraph currencyGraph;
+    private final StalenessPolicy stalenessPolicy;
+    private final ForkJoinPool pool;
 
     /**
-     * {@code RateCalculatorService} nesnesini oluşturur.
-     * Hesaplanacak kur adlarının (rateNames) bir kümesini alarak nesneyi başlatır.
-     * Bu küme, sistemin hangi kurları işleyeceğini belirler (örn. {"USDTRY", "EURUSD"}).
+     * {@code RateCalculatorService} nesnesini belirtilen paralellik derecesiyle oluşturur.
+     * Paralellik 1'den büyükse kurlar bu kadar thread'li bir {@link ForkJoinPool} üzerinde
+     * hesaplanır; 1 veya daha küçükse hesaplama çağıran thread'de sıralı yapılır.
      *
-     * @param rateNames Hesaplanacak kur adlarının değiştirilemez kümesi
-     *                  (null veya boş olmamalı, aksi halde IllegalArgumentException fırlatılır)
-     * @throws IllegalArgumentException Eğer rateNames null veya boş ise
+     * @param registry Hesaplanacak kurları ve platformları tanımlayan kayıt; kurların kayıt
+     *                 sırası sonuç sırasını belirler
+     * @param aggregationService Platform değerlerini kur başına toplayan servis
+     * @param currencyGraph Çıktı kurlarını ve dönüşüm yollarını belirleyen grafik; çıktıların
+     *                      sırası sonuç sırasını belirler
+     * @param stalenessPolicy Girdi yaşı sınırı ve ağırlıklandırma kuralı
+     * @param parallelism Hesaplamada kullanılacak thread sayısı
      */
-    public RateCalculatorService(Set<String> rateNames) {
-        this.rateNames = rateNames;
+    public RateCalculatorService(InstrumentRegistry registry, AggregationService aggregationService,
+                                 CurrencyGraph currencyGraph, StalenessPolicy stalenessPolicy, int parallelism) {
+        this.registry = registry;
+        this.aggregationService = aggregationService;
+        this.currencyGraph = currencyGraph;
+        this.stalenessPolicy = stalenessPolicy;
+        this.pool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+        log.info("RateCalculatorService initialized → rates={}, outputs={}, platforms={}, parallelism={}, {}",
+                registry.instrumentCount(), currencyGraph.outputCount(), registry.platformCount(),
+                pool != null ? parallelism : 1, stalenessPolicy);
     }
 
     /**
      * Platformlardan gelen ham kurları işleyerek hesaplanmış kurların listesini döndürür.
-     * Eğer giriş verisi null veya boşsa, boş bir liste döner. USDTRY verisi mevcut değilse
-     * hesaplama işlemi iptal edilir ve loglanır. Her başarılı hesaplama loglanır.
+     * Eğer giriş verisi null veya boşsa, boş bir liste döner. Mevcut akışlardan yolu
+     * bulunamayan çıktı kurları atlanır ve loglanır. Her başarılı hesaplama loglanır.
      *
      * @param groupedRates Platform bazında gruplanmış ham kurlar
      *                     (Map<Platform, Map<RateName, Rate>>, null veya boş olabilir)
@@ -69,29 +96,64 @@ public class RateCalculatorService {
             return Collections.emptyList();
         }
 
-        // Platform bazlı kurları rateName'e göre grupla
-        Map<String, List<Rate>> ratesByRateName = groupRatesByName(groupedRates);
+        // Platform bazlı kurları indeksli dizilere yaz (tüm kurlar için ortak, bir kez)
+        RateSnapshot snapshot = RateSnapshot.from(groupedRates, registry, System.currentTimeMillis(), stalenessPolicy);
+        aggregationService.aggregate(snapshot);
 
-        // USDTRY kontrolü
-        if (!ratesByRateName.containsKey("USDTRY") || ratesByRateName.get("USDTRY").isEmpty()) {
-            log.debug("No USDTRY data available — calculation aborted.");
-            return Collections.emptyList();
-        }
-
-        List<Rate> calculatedRates = new ArrayList<>();
-        for (String rateName : rateNames) {
-            if (!ratesByRateName.containsKey(rateName) && !"USDTRY".equals(rateName)) {
-                log.debug("No data for rateName='{}' — skipping.", rateName);
+        // Her çıktı için mevcut akışlara göre yol seç
+        CurrencyPath[] paths = currencyGraph.select(snapshot);
+        List<Integer> targets = new ArrayList<>(paths.length);
+        for (int o = 0; o < paths.length; o++) {
+            if (paths[o] == null) {
+                log.debug("No conversion path for '{}' with current feeds — skipping.", currencyGraph.outputName(o));
                 continue;
             }
+            log.trace("Path for {}: {}", currencyGraph.outputName(o), paths[o].describe(registry));
+            targets.add(o);
+        }
+
+        List<Rate> calculatedRates = pool != null && targets.size() > 1
+                ? computeParallel(targets, paths, snapshot)
+                : computeSequential(targets, paths, snapshot);
+
+        for (Rate calculatedRate : calculatedRates) {
+            log.info("Calculated {}: bid={}, ask={}, timestamp={}, freshnessMs={}",
+                    calculatedRate.getRateName(),
+                    calculatedRate.getFields().getBid(),
+                    calculatedRate.getFields().getAsk(),
+                    calculatedRate.getFields().getTimestamp(),
+                    calculatedRate.getFreshnessMs());
+        }
+        return calculatedRates;
+    }
+
+    /**
+     * Paralel hesaplama havuzunu kapatır; sıralı modda hiçbir şey yapmaz. Kapatıldıktan
+     * sonra paralel modda {@link #calculate(Map)} çağrılmamalıdır.
+     */
+    @Override
+    public void close() {
+        if (pool != null) {
+            pool.shutdownNow();
+            log.info("RateCalculatorService pool shut down.");
+        }
+    }
+
+    /**
+     * Hedef kurları çağıran thread üzerinde sırayla hesaplar.
+     *
+     * @param targets Hesaplanacak çıktıların sıraları, sonuç bu sırayla döner
+     * @param paths Çıktı sırasına göre seçilen yollar
+     * @param snapshot Döngünün ortak ham kur görüntüsü
+     * @return Hesaplanmış kurların listesi
+     * @throws CalculationException Herhangi bir kurun hesaplaması başarısız olursa
+     */
+    private List<Rate> computeSequential(List<Integer> targets, CurrencyPath[] paths, RateSnapshot snapshot) {
+        List<Rate> calculatedRates = new ArrayList<>(targets.size());
+        for (int o : targets) {
+            String rateName = currencyGraph.outputName(o);
             try {
-                Rate calculatedRate = computeRate(rateName, ratesByRateName);
-                calculatedRates.add(calculatedRate);
-                log.info("Calculated {}: bid={}, ask={}, timestamp={}",
-                        calculatedRate.getRateName(),
-                        calculatedRate.getFields().getBid(),
-                        calculatedRate.getFields().getAsk(),
-                        calculatedRate.getFields().getTimestamp());
+                calculatedRates.add(computeRate(rateName, paths[o], snapshot));
             } catch (FormulaEngineException e) {
                 throw new CalculationException("Error calculating '" + rateName + "'", e);
             }
@@ -100,95 +162,57 @@ public class RateCalculatorService {
     }
 
     /**
-     * Platform bazında gelen kurları, rateName'e göre gruplandırır.
-     * Her platformdan gelen veriler (örn. TCP_PLATFORMUSDTRY) bir liste halinde birleştirilir
-     * ve platform bilgisi rateName'e eklenerek yeni bir Rate nesnesi oluşturulur.
+     * Hedef kurları {@link ForkJoinPool} üzerinde bağımsız görevler olarak hesaplar.
+     * Görevler gönderim sırasıyla beklenir; böylece sonuç sırası thread zamanlamasından
+     * bağımsız ve sıralı moddakiyle aynıdır.
      *
-     * @param groupedRates Platform bazında gruplanmış ham kurlar
-     *                     (Map<Platform, Map<RateName, Rate>>, null veya boş olabilir)
-     * @return RateName'e göre gruplanmış Rate listelerini içeren Map
-     *         (Map<RateName, List<Rate>>, her zaman dolu bir map döner)
+     * @param targets Hesaplanacak çıktıların sıraları, sonuç bu sırayla döner
+     * @param paths Çıktı sırasına göre seçilen yollar
+     * @param snapshot Döngünün ortak ham kur görüntüsü (yalnızca okunur)
+     * @return Hesaplanmış kurların listesi
+     * @throws CalculationException Herhangi bir kurun hesaplaması başarısız olursa
      */
-    private Map<String, List<Rate>> groupRatesByName(Map<String, Map<String, Rate>> groupedRates) {
-        Map<String, List<Rate>> ratesByRateName = new HashMap<>();
-        for (String rateName : rateNames) {
-            List<Rate> rateList = new ArrayList<>();
-            for (Map.Entry<String, Map<String, Rate>> platformEntry : groupedRates.entrySet()) {
-                String platform = platformEntry.getKey();
-                Map<String, Rate> rateMap = platformEntry.getValue();
-                if (rateMap.containsKey(rateName)) {
-                    Rate rate = rateMap.get(rateName);
-                    // Platform bilgisini rateName'e ekle
-                    rateList.add(new Rate(platform + rateName, rate.getFields(), rate.getStatus()));
+    private List<Rate> computeParallel(List<Integer> targets, CurrencyPath[] paths, RateSnapshot snapshot) {
+        List<ForkJoinTask<Rate>> tasks = new ArrayList<>(targets.size());
+        for (int o : targets) {
+            String rateName = currencyGraph.outputName(o);
+            CurrencyPath path = paths[o];
+            tasks.add(pool.submit(() -> {
+                try {
+                    return computeRate(rateName, path, snapshot);
+                } catch (FormulaEngineException e) {
+                    throw new CalculationException("Error calculating '" + rateName + "'", e);
                 }
-            }
-            ratesByRateName.put(rateName, rateList);
+            }));
         }
-        return ratesByRateName;
+
+        List<Rate> calculatedRates = new ArrayList<>(tasks.size());
+        for (ForkJoinTask<Rate> task : tasks) {
+            calculatedRates.add(task.join());
+        }
+        return calculatedRates;
     }
 
     /**
      * Belirli bir kur için hesaplama yapar ve sonucu bir Rate nesnesi olarak döndürür.
-     * USDTRY her zaman context'e eklenir, çapraz kurlar (örn. EURUSD) için ek veri işlenir.
-     * Hesaplama, DynamicFormulaService üzerinden JavaScript motoruyla gerçekleştirilir.
+     * Formül, ortak snapshot üzerinde çıktı kurunun adını ve seçilen yolu taşıyan bir
+     * {@link FormulaContext} alır; hesaplama DynamicFormulaService üzerinden yapılır.
      *
-     * @param rateName Hesaplanacak kur adı (örn. "EURUSD" veya "USDTRY")
-     * @param ratesByRateName Gruplanmış Rate listeleri (Map<RateName, List<Rate>>)
+     * @param rateName Hesaplanacak çıktı kurunun adı (örn. "EURTRY" veya "USDTRY")
+     * @param path Çıktı için seçilen dönüşüm yolu
+     * @param snapshot Döngünün ortak ham kur görüntüsü
      * @return Hesaplanmış Rate nesnesi, bid/ask değerleri ve zaman damgası ile
      * @throws FormulaEngineException JavaScript hesaplama motorunda hata oluşursa
      */
-    private Rate computeRate(String rateName, Map<String, List<Rate>> ratesByRateName) throws FormulaEngineException {
-        Map<String, Object> context = new HashMap<>();
-        context.put("calcName", rateName);
-
-        // USDTRY verilerini ekle
-        addRateFieldsToContext("USDTRY", ratesByRateName, context);
-
-        // Çapraz kurlar için verileri ekle
-        if (!"USDTRY".equals(rateName)) {
-            addRateFieldsToContext(rateName, ratesByRateName, context);
-        }
-
-        log.trace("Context keys: {}", context.keySet());
-        double[] result = DynamicFormulaService.calculate(context);
+    private Rate computeRate(String rateName, CurrencyPath path, RateSnapshot snapshot) throws FormulaEngineException {
+        double[] result = DynamicFormulaService.calculate(new FormulaContext(snapshot, rateName, path));
 
-        String resultName = rateName.endsWith("USD") && !rateName.equals("USDTRY")
-                ? rateName.substring(0, rateName.length() - 3) + "TRY"
-                : rateName;
-
-        return new Rate(
-                resultName,
+        Rate rate = new Rate(
+                rateName,
                 new RateFields(result[0], result[1], System.currentTimeMillis()),
                 new RateStatus(true, true)
         );
+        rate.setFreshnessMs(path.freshnessMs(snapshot));
+        return rate;
     }
-
-    /**
-     * Context'e rateName'e ait bid ve ask verilerini ekler.
-     * Anahtarlar camelCase formatında oluşturulur ve format kontrolü yapılır.
-     * Bu metod, belirtilen kur adına (rateName) karşılık gelen verileri (örneğin, platform bazlı
-     * bid/ask değerleri) context map'ine ekler. Veriler, ratesByRateName'den alınır ve fullName
-     * ile rateName'in uyumluluğu kontrol edilerek contextKey (örn. TCP_PLATFORMUsdtryBid)
-     * oluşturulur. Uyumsuz formatlar loglanır ve işlenmez.
-     *
-     * @param rateName Verilerin ekleneceği kur adı (örn. "USDTRY" veya "EURUSD"), bu parametre
-     *                 metodun hangi kurun verilerini (bid/ask) context'e ekleyeceğini belirler
-     * @param ratesByRateName Gruplanmış Rate listeleri, platform bazında organize edilmiş veriler
-     *                        (Map<'String', List<'Rate'>>)
-     * @param context Verilerin ekleneceği context map, hesaplama için DynamicFormulaService'e
-     *                iletilir ve JavaScript motorunda kullanılır
-     */
-    private void addRateFieldsToContext(String rateName, Map<String, List<Rate>> ratesByRateName, Map<String, Object> context) {
-        String camelCaseRateName = rateName.substring(0, 1).toUpperCase() + rateName.substring(1).toLowerCase();
-        for (Rate rate : ratesByRateName.getOrDefault(rateName, List.of())) {
-            String fullName = rate.getRateName(); // Örn. TCP_PLATFORMUSDTRY
-            if (!fullName.endsWith(rateName)) {
-                log.debug("Invalid rateName format: {} does not end with {}", fullName, rateName);
-                continue;
-            }
-            String contextKey = fullName.substring(0, fullName.length() - rateName.length()) + camelCaseRateName;
-            context.put(contextKey + "Bid", rate.getFields().getBid());
-            context.put(contextKey + "Ask", rate.getFields().getAsk());
-        }
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,224 @@
+package com.mydomain.main.calculation;
+
+import com.mydomain.main.model.Rate;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * {@code RateSnapshot}, bir hesaplama döngüsünde kullanılan ham kurların yoğun (dense) ve
+ * ilkel (primitive) dizilerdeki görüntüsüdür. Her (kur, platform) çifti
+ * {@code instrumentId * platformCount + platformId} indeksinde tutulur; veri yoksa
+ * bid/ask değeri {@link Double#NaN} olur.
+ *
+ * <p>Hizmetin temel işleyişi:
+ * <ul>
+ *   <li>Redis'ten gelen platform bazlı kurlar döngü başında bir kez dizilere yazılır.</li>
+ *   <li>Her girdinin yaşı döngü zamanına göre ölçülür; {@link StalenessPolicy} sınırını aşan
+ *       girdiler atlanır, diğerlerine yaşa göre azalan bir ağırlık verilir.</li>
+ *   <li>Formüller değerleri kutulama (boxing) ve string birleştirme olmadan dizi döngüleriyle okur.</li>
+ *   <li>Kur başına toplu (aggregated) bid/ask değerleri {@link AggregationService} tarafından
+ *       hesaplama görevleri başlamadan önce bir kez yazılır.</li>
+ *   <li>Bundan sonra yalnızca okunur; paralel hesaplama görevleri arasında paylaşılır.</li>
+ * </ul>
+ * </p>
+ *
+ * @author Ali Kerem Kol
+ * @version 1.0
+ * @since 2025-06-07
+ */
+public class RateSnapshot {
+
+    private static final Logger log = LogManager.getLogger(RateSnapshot.class);
+
+    private final InstrumentRegistry registry;
+    private final int platformCount;
+    private final double[] bids;
+    private final double[] asks;
+    private final long[] timestamps;
+    private final double[] weights;
+    private final long cycleTimeMs;
+    private final int[] quoteCounts;
+    private final long[] latestTimestamps;
+    private final double[] aggregatedBids;
+    private final double[] aggregatedAsks;
+
+    private RateSnapshot(InstrumentRegistry registry, long cycleTimeMs) {
+        this.registry = registry;
+        this.cycleTimeMs = cycleTimeMs;
+        this.platformCount = registry.platformCount();
+        int size = registry.instrumentCount() * platformCount;
+        this.bids = new double[size];
+        this.asks = new double[size];
+        this.timestamps = new long[size];
+        this.weights = new double[size];
+        this.quoteCounts = new int[registry.instrumentCount()];
+        this.latestTimestamps = new long[registry.instrumentCount()];
+        this.aggregatedBids = new double[registry.instrumentCount()];
+        this.aggregatedAsks = new double[registry.instrumentCount()];
+        Arrays.fill(bids, Double.NaN);
+        Arrays.fill(asks, Double.NaN);
+        Arrays.fill(aggregatedBids, Double.NaN);
+        Arrays.fill(aggregatedAsks, Double.NaN);
+    }
+
+    /**
+     * Platform bazında gruplanmış ham kurlardan bir snapshot oluşturur.
+     * Kayıtta bulunmayan platform veya kurlar ile yaş sınırını aşan girdiler loglanarak atlanır.
+     *
+     * @param groupedRates Platform bazında gruplanmış ham kurlar (Map<Platform, Map<RateName, Rate>>)
+     * @param registry Platform ve kur kimliklerini tutan kayıt
+     * @param cycleTimeMs Yaş hesabında referans alınan döngü zamanı (epoch milisaniye)
+     * @param stalenessPolicy Yaş sınırı ve ağırlıklandırma kuralı
+     * @return Dizilere yazılmış snapshot
+     */
+    public static RateSnapshot from(Map<String, Map<String, Rate>> groupedRates, InstrumentRegistry registry,
+                                    long cycleTimeMs, StalenessPolicy stalenessPolicy) {
+        RateSnapshot snapshot = new RateSnapshot(registry, cycleTimeMs);
+        for (Map.Entry<String, Map<String, Rate>> platformEntry : groupedRates.entrySet()) {
+            int platformId = registry.platformId(platformEntry.getKey());
+            if (platformId < 0) {
+                log.debug("Unknown platform '{}' — skipped in snapshot.", platformEntry.getKey());
+                continue;
+            }
+            for (Map.Entry<String, Rate> rateEntry : platformEntry.getValue().entrySet()) {
+                int instrumentId = registry.instrumentId(rateEntry.getKey());
+                Rate rate = rateEntry.getValue();
+                if (instrumentId < 0 || rate == null || rate.getFields() == null) {
+                    log.debug("Unknown or empty rate '{}' on '{}' — skipped in snapshot.",
+                            rateEntry.getKey(), platformEntry.getKey());
+                    continue;
+                }
+                long ageMs = cycleTimeMs - rate.getFields().getTimestamp();
+                if (stalenessPolicy.isStale(ageMs)) {
+                    log.debug("Stale input {} on {} (age {} ms) — skipped in snapshot.",
+                            rateEntry.getKey(), platformEntry.getKey(), ageMs);
+                    continue;
+                }
+                int index = instrumentId * snapshot.platformCount + platformId;
+                snapshot.bids[index] = rate.getFields().getBid();
+                snapshot.asks[index] = rate.getFields().getAsk();
+                snapshot.timestamps[index] = rate.getFields().getTimestamp();
+                snapshot.weights[index] = stalenessPolicy.weight(ageMs);
+                snapshot.quoteCounts[instrumentId]++;
+                snapshot.latestTimestamps[instrumentId] =
+                        Math.max(snapshot.latestTimestamps[instrumentId], snapshot.timestamps[index]);
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * @return Snapshot'ın dayandığı platform/kur kaydı
+     */
+    public InstrumentRegistry getRegistry() {
+        return registry;
+    }
+
+    /**
+     * @return Platform sayısı, yani her kurun dizilerde kapladığı eleman sayısı
+     */
+    public int platformCount() {
+        return platformCount;
+    }
+
+    /**
+     * Bir kurun dizilerdeki ilk elemanının indeksini döner.
+     *
+     * @param instrumentId Kur kimliği
+     * @return {@code instrumentId * platformCount}
+     */
+    public int offset(int instrumentId) {
+        return instrumentId * platformCount;
+    }
+
+    /**
+     * @param instrumentId Kur kimliği
+     * @return Bu kur için veri gönderen platform sayısı
+     */
+    public int quoteCount(int instrumentId) {
+        return quoteCounts[instrumentId];
+    }
+
+    /**
+     * @param instrumentId Kur kimliği
+     * @return Bu kur için platformlardan gelen en yeni zaman damgası (epoch milisaniye), veri yoksa 0
+     */
+    public long latestTimestamp(int instrumentId) {
+        return latestTimestamps[instrumentId];
+    }
+
+    /**
+     * @return Tüm bid değerleri; yalnızca okunmalıdır
+     */
+    public double[] getBids() {
+        return bids;
+    }
+
+    /**
+     * @return Tüm ask değerleri; yalnızca okunmalıdır
+     */
+    public double[] getAsks() {
+        return asks;
+    }
+
+    /**
+     * @return Tüm zaman damgaları (epoch milisaniye); yalnızca okunmalıdır
+     */
+    public long[] getTimestamps() {
+        return timestamps;
+    }
+
+    /**
+     * @return Girdilerin yaş ağırlıkları, (0, 1] aralığında; eksik girdilerde 0. Yalnızca okunmalıdır
+     */
+    public double[] getWeights() {
+        return weights;
+    }
+
+    /**
+     * @return Yaş hesabında referans alınan döngü zamanı (epoch milisaniye)
+     */
+    public long getCycleTimeMs() {
+        return cycleTimeMs;
+    }
+
+    /**
+     * @param index Dizilerdeki indeks ({@code offset(instrumentId) + platformId})
+     * @return Girdinin döngü zamanına göre yaşı (ms), girdi yoksa -1
+     */
+    public long ageMs(int index) {
+        return Double.isNaN(bids[index]) ? -1L : cycleTimeMs - timestamps[index];
+    }
+
+    /**
+     * Bir kurun toplu bid/ask değerlerini yazar. Yalnızca {@link AggregationService}
+     * tarafından, hesaplama görevleri başlamadan önce çağrılır.
+     *
+     * @param instrumentId Kur kimliği
+     * @param bid Toplu bid değeri
+     * @param ask Toplu ask değeri
+     */
+    void setAggregate(int instrumentId, double bid, double ask) {
+        aggregatedBids[instrumentId] = bid;
+        aggregatedAsks[instrumentId] = ask;
+    }
+
+    /**
+     * @param instrumentId Kur kimliği
+     * @return Kurun toplu bid değeri, yeterli veri yoksa NaN
+     */
+    public double aggregatedBid(int instrumentId) {
+        return aggregatedBids[instrumentId];
+    }
+
+    /**
+     * @param instrumentId Kur kimliği
+     * @return Kurun toplu ask değeri, yeterli veri yoksa NaN
+     */
+    public double aggregatedAsk(int instrumentId) {
+        return aggregatedAsks[instrumentId];
+    }
+}
@@ -0,0 +1,70 @@
+package com.mydomain.main.calculation;
+
+import com.mydomain.main.config.ConfigReader;
+import com.mydomain.main.exception.ConfigLoadException;
+
+/**
+ * {@code StalenessPolicy}, hesaplama girdilerinin yaşına göre nasıl ele alınacağını tanımlar.
+ * Yaş, her girdinin zaman damgasının hesaplama döngüsünün başlangıç zamanından farkıdır.
+ *
+ * <p>Hizmetin temel işleyişi:
+ * <ul>
+ *   <li>{@code maxAgeMs} değerinden yaşlı girdiler snapshot'a alınmaz (NaN kalır);
+ *       Redis yeniden taranmaz, eleme bellekte yapılır.</li>
+ *   <li>{@code halfLifeMs} tanımlıysa her girdiye {@code 0.5^(yaş / halfLifeMs)} ağırlığı
+ *       verilir; ağırlığı kullanan toplama stratejileri eski girdilere daha az önem verir.</li>
+ *   <li>0 veya negatif değerler ilgili özelliği devre dışı bırakır.</li>
+ * </ul>
+ * </p>
+ *
+ * @author Ali Kerem Kol
+ * @version 1.0
+ * @since 2025-06-07
+ */
+public class StalenessPolicy {
+
+    private final long maxAgeMs;
+    private final long halfLifeMs;
+    private final double decayPerMs;
+
+    /**
+     * @param maxAgeMs Bir girdinin kabul edileceği en büyük yaş (ms), 0 veya negatifse sınırsız
+     * @param halfLifeMs Ağırlığın yarıya indiği yaş (ms), 0 veya negatifse ağırlıklandırma yapılmaz
+     */
+    public StalenessPolicy(long maxAgeMs, long halfLifeMs) {
+        this.maxAgeMs = maxAgeMs;
+        this.halfLifeMs = halfLifeMs;
+        this.decayPerMs = halfLifeMs > 0 ? Math.log(2.0) / halfLifeMs : 0.0;
+    }
+
+    /**
+     * `calculation.staleness` konfigürasyonundan bir politika oluşturur.
+     *
+     * @return Konfigürasyona göre oluşturulmuş politika
+     * @throws ConfigLoadException `initConfigs` çağrılmadıysa
+     */
+    public static StalenessPolicy fromConfig() {
+        return new StalenessPolicy(ConfigReader.getStalenessMaxAgeMs(), ConfigReader.getStalenessHalfLifeMs());
+    }
+
+    /**
+     * @param ageMs Girdinin yaşı (ms)
+     * @return Girdi yaş sınırını aşıyorsa true
+     */
+    public boolean isStale(long ageMs) {
+        return maxAgeMs > 0 && ageMs > maxAgeMs;
+    }
+
+    /**
+     * @param ageMs Girdinin yaşı (ms); negatif değerler (saat kayması) 0 kabul edilir
+     * @return (0, 1] aralığında yaş ağırlığı; ağırlıklandırma kapalıysa 1
+     */
+    public double weight(long ageMs) {
+        return decayPerMs > 0.0 ? Math.exp(-decayPerMs * Math.max(0L, ageMs)) : 1.0;
+    }
+
+    @Override
+    public String toString() {
+        return "StalenessPolicy{maxAgeMs=" + maxAgeMs + ", halfLifeMs=" + halfLifeMs + '}';
+    }
+}
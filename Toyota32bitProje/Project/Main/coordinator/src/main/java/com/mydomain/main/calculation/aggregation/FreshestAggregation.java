@@ -0,0 +1,26 @@
+package com.mydomain.main.calculation.aggregation;
+
+/**
+ * {@code FreshestAggregation}, zaman damgası en yeni olan platformun değerini seçer
+ * (freshest-wins). Eşitlikte platform sırasında önce gelen kazanır. Tek geçişte çalışır.
+ *
+ * @author Ali Kerem Kol
+ * @version 1.0
+ * @since 2025-06-07
+ */
+public class FreshestAggregation implements IAggregationStrategy {
+
+    @Override
+    public double aggregate(double[] values, double[] weights, long[] timestamps, int offset, int count, double[] scratch) {
+        double freshest = Double.NaN;
+        long freshestTs = Long.MIN_VALUE;
+        for (int i = offset; i < offset + count; i++) {
+            double v = values[i];
+            if (!Double.isNaN(v) && timestamps[i] > freshestTs) {
+                freshest = v;
+                freshestTs = timestamps[i];
+            }
+        }
+        return freshest;
+    }
+}
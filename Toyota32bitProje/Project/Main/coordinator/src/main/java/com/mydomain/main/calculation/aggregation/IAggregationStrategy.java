@@ -0,0 +1,37 @@
+package com.mydomain.main.calculation.aggregation;
+
+/**
+ * Bir kurun farklı platformlardan gelen değerlerini (bid veya ask) tek bir değere
+ * indirgeyen stratejilerin ortak arayüzü.
+ * Değerler, {@code RateSnapshot} içindeki yoğun dizilerin bir aralığı olarak verilir;
+ * eksik platform verileri {@link Double#NaN} ile işaretlidir ve atlanmalıdır.
+ *
+ * <p>Implementasyonlar:
+ * <ul>
+ *   <li>Tek geçişte ve sabit bellekle çalışmalı, çağrı başına nesne oluşturmamalıdır.</li>
+ *   <li>Sıralama gerektiren stratejiler yalnızca verilen {@code scratch} dizisini kullanır.</li>
+ *   <li>Durumsuz (stateless) olmalı; thread'ler arasında paylaşılabilir olmalıdır.</li>
+ *   <li>Yaş ağırlıklarını ({@code weights}) kullanıp kullanmamak stratejiye bağlıdır;
+ *       yaş sınırını aşan girdiler zaten NaN olarak gelir.</li>
+ * </ul>
+ * </p>
+ *
+ * @author Ali Kerem Kol
+ * @version 1.0
+ * @since 2025-06-07
+ */
+public interface IAggregationStrategy {
+
+    /**
+     * Verilen aralıktaki değerleri tek bir değere indirger.
+     *
+     * @param values Tüm kurların yoğun değer dizisi (bid veya ask)
+     * @param weights {@code values} ile aynı indekslemeye sahip yaş ağırlıkları, (0, 1] aralığında
+     * @param timestamps {@code values} ile aynı indekslemeye sahip zaman damgaları (epoch ms)
+     * @param offset Kurun dizideki başlangıç indeksi; {@code offset + i} indeksi platform {@code i}'ye aittir
+     * @param count Kur başına platform sayısı
+     * @param scratch En az {@code count} uzunluğunda geçici çalışma dizisi
+     * @return Toplu değer, hiç veri yoksa {@link Double#NaN}
+     */
+    double aggregate(double[] values, double[] weights, long[] timestamps, int offset, int count, double[] scratch);
+}
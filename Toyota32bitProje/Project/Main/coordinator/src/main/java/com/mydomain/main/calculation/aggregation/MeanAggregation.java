@@ -0,0 +1,27 @@
+package com.mydomain.main.calculation.aggregation;
+
+/**
+ * {@code MeanAggregation}, mevcut platform değerlerinin yaş ağırlıklı ortalamasını alır.
+ * Yaş ağırlıklandırması kapalıyken tüm ağırlıklar 1 olduğundan önceki `Formula.js`
+ * aritmetik ortalamasıyla aynı sonucu verir; tek geçişte çalışır.
+ *
+ * @author Ali Kerem Kol
+ * @version 1.0
+ * @since 2025-06-07
+ */
+public class MeanAggregation implements IAggregationStrategy {
+
+    @Override
+    public double aggregate(double[] values, double[] weights, long[] timestamps, int offset, int count, double[] scratch) {
+        double weightedSum = 0.0;
+        double totalWeight = 0.0;
+        for (int i = offset; i < offset + count; i++) {
+            double v = values[i];
+            if (!Double.isNaN(v)) {
+                weightedSum += v * weights[i];
+                totalWeight += weights[i];
+            }
+        }
+        return totalWeight == 0.0 ? Double.NaN : weightedSum / totalWeight;
+    }
+}
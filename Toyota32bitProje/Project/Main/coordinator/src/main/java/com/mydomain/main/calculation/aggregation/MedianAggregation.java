@@ -0,0 +1,43 @@
+package com.mydomain.main.calculation.aggregation;
+
+/**
+ * {@code MedianAggregation}, mevcut platform değerlerinin medyanını alır.
+ * Tek bir platformdaki sıçramalara karşı ortalamadan daha dayanıklıdır.
+ * Değerler verilen {@code scratch} dizisine kopyalanıp sıralanır; ek bellek ayrılmaz.
+ * Yaş ağırlıkları kullanılmaz; yalnızca yaş sınırı uygulanır.
+ *
+ * @author Ali Kerem Kol
+ * @version 1.0
+ * @since 2025-06-07
+ */
+public class MedianAggregation implements IAggregationStrategy {
+
+    @Override
+    public double aggregate(double[] values, double[] weights, long[] timestamps, int offset, int count, double[] scratch) {
+        int n = sortedCopy(values, offset, count, scratch);
+        if (n == 0) return Double.NaN;
+        int mid = n >>> 1;
+        return (n & 1) == 1 ? scratch[mid] : (scratch[mid - 1] + scratch[mid]) / 2.0;
+    }
+
+    /**
+     * NaN olmayan değerleri {@code scratch} dizisinin başına artan sırada yazar.
+     * Platform sayısı küçük olduğundan eklemeli sıralama (insertion sort) kullanılır.
+     *
+     * @return {@code scratch} içine yazılan değer sayısı
+     */
+    static int sortedCopy(double[] values, int offset, int count, double[] scratch) {
+        int n = 0;
+        for (int i = offset; i < offset + count; i++) {
+            double v = values[i];
+            if (Double.isNaN(v)) continue;
+            int j = n++;
+            while (j > 0 && scratch[j - 1] > v) {
+                scratch[j] = scratch[j - 1];
+                j--;
+            }
+            scratch[j] = v;
+        }
+        return n;
+    }
+}
@@ -0,0 +1,40 @@
+package com.mydomain.main.calculation.aggregation;
+
+/**
+ * {@code TrimmedMeanAggregation}, sıralanmış değerlerin her iki ucundan
+ * {@code trimRatio} oranında eleman atıp kalanların ortalamasını alır.
+ * Atılacak eleman sayısı aşağı yuvarlanır; en az bir değer her zaman korunur.
+ * Yaş ağırlıkları kullanılmaz; yalnızca yaş sınırı uygulanır.
+ *
+ * @author Ali Kerem Kol
+ * @version 1.0
+ * @since 2025-06-07
+ */
+public class TrimmedMeanAggregation implements IAggregationStrategy {
+
+    private final double trimRatio;
+
+    /**
+     * @param trimRatio Her uçtan atılacak oran, [0, 0.5) aralığında olmalı
+     * @throws IllegalArgumentException Oran bu aralıkta değilse
+     */
+    public TrimmedMeanAggregation(double trimRatio) {
+        if (trimRatio < 0.0 || trimRatio >= 0.5) {
+            throw new IllegalArgumentException("trimRatio must be in [0, 0.5): " + trimRatio);
+        }
+        this.trimRatio = trimRatio;
+    }
+
+    @Override
+    public double aggregate(double[] values, double[] weights, long[] timestamps, int offset, int count, double[] scratch) {
+        int n = MedianAggregation.sortedCopy(values, offset, count, scratch);
+        if (n == 0) return Double.NaN;
+
+        int trim = Math.min((int) (n * trimRatio), (n - 1) / 2);
+        double sum = 0.0;
+        for (int i = trim; i < n - trim; i++) {
+            sum += scratch[i];
+        }
+        return sum / (n - 2 * trim);
+    }
+}
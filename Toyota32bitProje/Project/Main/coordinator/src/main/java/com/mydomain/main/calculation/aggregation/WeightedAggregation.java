@@ -0,0 +1,37 @@
+package com.mydomain.main.calculation.aggregation;
+
+/**
+ * {@code WeightedAggregation}, platform bazlı sabit ağırlıklarla ağırlıklı ortalama alır.
+ * Ağırlıklar platform kimliğine göre indekslenir; ağırlığı 0 olan platformlar
+ * hesaba katılmaz. Platform ağırlığı girdinin yaş ağırlığıyla çarpılır. Tek geçişte çalışır.
+ *
+ * @author Ali Kerem Kol
+ * @version 1.0
+ * @since 2025-06-07
+ */
+public class WeightedAggregation implements IAggregationStrategy {
+
+    private final double[] platformWeights;
+
+    /**
+     * @param platformWeights Platform kimliğine göre indekslenmiş ağırlıklar, negatif olmamalı
+     */
+    public WeightedAggregation(double[] platformWeights) {
+        this.platformWeights = platformWeights;
+    }
+
+    @Override
+    public double aggregate(double[] values, double[] weights, long[] timestamps, int offset, int count, double[] scratch) {
+        double weightedSum = 0.0;
+        double totalWeight = 0.0;
+        for (int p = 0; p < count; p++) {
+            double v = values[offset + p];
+            double w = platformWeights[p] * weights[offset + p];
+            if (!Double.isNaN(v) && w > 0.0) {
+                weightedSum += v * w;
+                totalWeight += w;
+            }
+        }
+        return totalWeight == 0.0 ? Double.NaN : weightedSum / totalWeight;
+    }
+}
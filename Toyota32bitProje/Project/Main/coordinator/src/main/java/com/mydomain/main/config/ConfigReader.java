@@ -230,6 +230,159 @@ public class ConfigReader {
      */
     public static long getKafkaReinitPeriod() { return getKafkaObject().optLong("reinitPeriodSec", 5); }
 
+    /**
+     * Kafka gönderim modunu döner: "sync" her rate için onay bekler, "async" döngü başına bir kez bekler.
+     *
+     * @return Gönderim modu, varsayılan "sync"
+     * @throws ConfigLoadException `initConfigs` çağrılmadıysa veya `kafka` nesnesi eksikse
+     */
+    public static String getKafkaSendMode() { return getKafkaObject().optString("sendMode", "sync"); }
+
+    /**
+     * Kafka producer linger.ms ayarını döner (milisaniye cinsinden).
+     *
+     * @return Linger süresi, varsayılan 0
+     * @throws ConfigLoadException `initConfigs` çağrılmadıysa veya `kafka` nesnesi eksikse
+     */
+    public static int getKafkaLingerMs() { return getKafkaObject().optInt("lingerMs", 0); }
+
+    /**
+     * Kafka producer batch.size ayarını döner (byte cinsinden).
+     *
+     * @return Batch boyutu, varsayılan 16384
+     * @throws ConfigLoadException `initConfigs` çağrılmadıysa veya `kafka` nesnesi eksikse
+     */
+    public static int getKafkaBatchSize() { return getKafkaObject().optInt("batchSize", 16384); }
+
+    /**
+     * Kafka producer compression.type ayarını döner.
+     *
+     * @return Sıkıştırma tipi, varsayılan "none"
+     * @throws ConfigLoadException `initConfigs` çağrılmadıysa veya `kafka` nesnesi eksikse
+     */
+    public static String getKafkaCompressionType() { return getKafkaObject().optString("compressionType", "none"); }
+
+    /**
+     * Kafka producer’ın idempotent çalışıp çalışmayacağını döner.
+     *
+     * @return enable.idempotence değeri, varsayılan true
+     * @throws ConfigLoadException `initConfigs` çağrılmadıysa veya `kafka` nesnesi eksikse
+     */
+    public static boolean getKafkaIdempotence() { return getKafkaObject().optBoolean("idempotence", true); }
+
+    /**
+     * Döngü başına Kafka transaction’ı için producer kimliğini döner.
+     *
+     * @return transactional.id değeri, tanımlı değilse boş (transaction kapalı)
+     * @throws ConfigLoadException `initConfigs` çağrılmadıysa veya `kafka` nesnesi eksikse
+     */
+    public static String getKafkaTransactionalId() { return getKafkaObject().optString("transactionalId", ""); }
+
+    /**
+     * Gönderilemeyen rate’lerin tutulduğu yerel yeniden deneme kuyruğunun kapasitesini döner.
+     *
+     * @return Kuyruk kapasitesi, varsayılan 1000
+     * @throws ConfigLoadException `initConfigs` çağrılmadıysa veya `kafka` nesnesi eksikse
+     */
+    public static int getKafkaRetryQueueSize() { return getKafkaObject().optInt("retryQueueSize", 1000); }
+
+    /**
+     * Kafka mesaj biçimini döner: "pipe" (metin, uyumluluk) veya "binary" (sabit genişlikli ikili).
+     *
+     * @return Mesaj biçimi, varsayılan "pipe"
+     * @throws ConfigLoadException `initConfigs` çağrılmadıysa veya `kafka` nesnesi eksikse
+     */
+    public static String getKafkaMessageFormat() { return getKafkaObject().optString("messageFormat", "pipe"); }
+
+    /**
+     * Kafka yayın modunu döner: "rate" (her rate ayrı kayıt), "snapshot" (döngü başına tek kayıt)
+     * veya "both".
+     *
+     * @return Yayın modu, varsayılan "rate"
+     * @throws ConfigLoadException `initConfigs` çağrılmadıysa veya `kafka` nesnesi eksikse
+     */
+    public static String getKafkaPublishMode() { return getKafkaObject().optString("publishMode", "rate"); }
+
+    /**
+     * Snapshot kayıtlarının gönderileceği topic adını döner.
+     *
+     * @return Topic adı, tanımlı değilse boş (`topicName` kullanılır)
+     * @throws ConfigLoadException `initConfigs` çağrılmadıysa veya `kafka` nesnesi eksikse
+     */
+    public static String getKafkaSnapshotTopicName() { return getKafkaObject().optString("snapshotTopic", ""); }
+
+    /**
+     * Rate kayıtlarının topic/partition yönlendirme kurallarını döner.
+     * Her kural `pattern` (regex) ve isteğe bağlı `topic`, `partition` alanlarını içerir.
+     *
+     * @return `kafka.routing` dizisi, tanımlı değilse boş dizi
+     * @throws ConfigLoadException `initConfigs` çağrılmadıysa veya `kafka` nesnesi eksikse
+     */
+    public static JSONArray getKafkaRoutingRules() {
+        JSONArray routing = getKafkaObject().optJSONArray("routing");
+        return routing != null ? routing : new JSONArray();
+    }
+
+    /**
+     * Kafka partitioner seçimini döner: "default" veya "stickyLeastLoaded".
+     *
+     * @return Partitioner adı, varsayılan "default"
+     * @throws ConfigLoadException `initConfigs` çağrılmadıysa veya `kafka` nesnesi eksikse
+     */
+    public static String getKafkaPartitioner() { return getKafkaObject().optString("partitioner", "default"); }
+
+    /**
+     * Topic başına producer metriklerinin loglanma aralığını döner.
+     *
+     * @return Aralık (saniye), varsayılan 60; 0 loglamayı kapatır
+     * @throws ConfigLoadException `initConfigs` çağrılmadıysa veya `kafka` nesnesi eksikse
+     */
+    public static long getKafkaMetricsLogPeriodSec() { return getKafkaObject().optLong("metricsLogPeriodSec", 60); }
+
+    /**
+     * Gönderilemeyen rate’ler için diskteki outbox ayarlarını içeren `kafka.outbox` nesnesini
+     * döner; yoksa boş nesne döner.
+     *
+     * @return Outbox konfigürasyonu
+     * @throws ConfigLoadException `initConfigs` çağrılmadıysa veya `kafka` nesnesi eksikse
+     */
+    private static JSONObject getKafkaOutboxObject() {
+        JSONObject outbox = getKafkaObject().optJSONObject("outbox");
+        return outbox != null ? outbox : new JSONObject();
+    }
+
+    /**
+     * @return Outbox açıksa true, varsayılan false
+     * @throws ConfigLoadException `initConfigs` çağrılmadıysa veya `kafka` nesnesi eksikse
+     */
+    public static boolean getKafkaOutboxEnabled() { return getKafkaOutboxObject().optBoolean("enabled", false); }
+
+    /**
+     * @return Outbox dosyasının yolu
+     * @throws ConfigLoadException `initConfigs` çağrılmadıysa veya `kafka` nesnesi eksikse
+     */
+    public static String getKafkaOutboxPath() {
+        return getKafkaOutboxObject().optString("path", "/app/Main/coordinator/outbox/rates-outbox.dat");
+    }
+
+    /**
+     * @return Outbox veri bölgesinin boyutu (byte), varsayılan 64 MB
+     * @throws ConfigLoadException `initConfigs` çağrılmadıysa veya `kafka` nesnesi eksikse
+     */
+    public static long getKafkaOutboxMaxBytes() { return getKafkaOutboxObject().optLong("maxBytes", 64L * 1024 * 1024); }
+
+    /**
+     * @return Döngü başına outbox’tan okunacak en fazla rate sayısı, varsayılan 10000
+     * @throws ConfigLoadException `initConfigs` çağrılmadıysa veya `kafka` nesnesi eksikse
+     */
+    public static int getKafkaOutboxDrainBatchSize() { return getKafkaOutboxObject().optInt("drainBatchSize", 10000); }
+
+    /**
+     * @return Her commit’te outbox dosyası diske zorlanacaksa true, varsayılan false
+     * @throws ConfigLoadException `initConfigs` çağrılmadıysa veya `kafka` nesnesi eksikse
+     */
+    public static boolean getKafkaOutboxForceOnWrite() { return getKafkaOutboxObject().optBoolean("forceOnWrite", false); }
+
 
     // ===========================
     // 🧮 Hesaplama Ayarları
@@ -244,7 +397,7 @@ public class ConfigReader {
     private static JSONObject getCalculationObject() { return getMainConfig().getJSONObject("calculation"); }
 
     /**
-     * Hesaplama metodunu döner (örneğin, "javascript").
+     * Hesaplama metodunu döner ("javascript": Nashorn, "graaljs": GraalVM Polyglot).
      *
      * @return Hesaplama metodu
      * @throws ConfigLoadException `initConfigs` çağrılmadıysa veya `calculation` nesnesi eksikse
@@ -259,6 +412,89 @@ public class ConfigReader {
      */
     public static String getFormulaFilePath() { return getCalculationObject().getString("formulaFilePath"); }
 
+    /**
+     * Kur hesaplamalarında kullanılacak thread sayısını döner.
+     * 1 sıralı hesaplama anlamına gelir; daha büyük değerler paralel modu etkinleştirir.
+     *
+     * @return Hesaplama paralelliği (varsayılan: 1)
+     * @throws ConfigLoadException `initConfigs` çağrılmadıysa veya `calculation` nesnesi eksikse
+     */
+    public static int getCalculationParallelism() { return getCalculationObject().optInt("parallelism", 1); }
+
+    /**
+     * Kur bazlı toplama (aggregation) stratejilerini tanımlayan JSON nesnesini döner.
+     * Blok yoksa boş nesne döner; bu durumda tüm kurlar aritmetik ortalama kullanır.
+     *
+     * @return `calculation.aggregation` JSON nesnesi
+     * @throws ConfigLoadException `initConfigs` çağrılmadıysa veya `calculation` nesnesi eksikse
+     */
+    public static JSONObject getAggregationObject() {
+        JSONObject aggregation = getCalculationObject().optJSONObject("aggregation");
+        return aggregation != null ? aggregation : new JSONObject();
+    }
+
+    /**
+     * Hesaplanacak çıktı kurlarını döner (örn. "USDTRY", "EURTRY", "JPYTRY").
+     * Tanımlı değilse boş liste döner; bu durumda çıktılar abone olunan kurlardan türetilir.
+     *
+     * @return `calculation.outputRates` listesi
+     * @throws ConfigLoadException `initConfigs` çağrılmadıysa veya `calculation` nesnesi eksikse
+     */
+    public static List<String> getOutputRates() {
+        List<String> outputs = new ArrayList<>();
+        JSONArray array = getCalculationObject().optJSONArray("outputRates");
+        if (array != null) {
+            for (int i = 0; i < array.length(); i++) {
+                outputs.add(array.getString(i));
+            }
+        }
+        return outputs;
+    }
+
+    /**
+     * Çapraz kur yollarında izin verilen en fazla bacak (hop) sayısını döner.
+     *
+     * @return En fazla bacak sayısı (varsayılan: 2)
+     * @throws ConfigLoadException `initConfigs` çağrılmadıysa veya `calculation` nesnesi eksikse
+     */
+    public static int getMaxHops() { return getCalculationObject().optInt("maxHops", 2); }
+
+    /**
+     * Birden fazla yol mevcut olduğunda kullanılacak seçim kuralını döner
+     * ("cheapest": en az bacak, "freshest": en taze bacaklar).
+     *
+     * @return Yol seçim kuralı (varsayılan: "cheapest")
+     * @throws ConfigLoadException `initConfigs` çağrılmadıysa veya `calculation` nesnesi eksikse
+     */
+    public static String getPathSelection() { return getCalculationObject().optString("pathSelection", "cheapest"); }
+
+    /**
+     * Girdi yaşı kurallarını içeren `calculation.staleness` nesnesini döner; yoksa boş nesne döner.
+     *
+     * @return Staleness konfigürasyonu
+     * @throws ConfigLoadException `initConfigs` çağrılmadıysa veya `calculation` nesnesi eksikse
+     */
+    private static JSONObject getStalenessObject() {
+        JSONObject staleness = getCalculationObject().optJSONObject("staleness");
+        return staleness != null ? staleness : new JSONObject();
+    }
+
+    /**
+     * Hesaplamaya alınacak bir girdinin en büyük yaşını döner.
+     *
+     * @return En büyük yaş (ms, varsayılan: 0 = sınırsız)
+     * @throws ConfigLoadException `initConfigs` çağrılmadıysa veya `calculation` nesnesi eksikse
+     */
+    public static long getStalenessMaxAgeMs() { return getStalenessObject().optLong("maxAgeMs", 0L); }
+
+    /**
+     * Yaş ağırlığının yarıya indiği süreyi döner.
+     *
+     * @return Yarı ömür (ms, varsayılan: 0 = ağırlıklandırma yok)
+     * @throws ConfigLoadException `initConfigs` çağrılmadıysa veya `calculation` nesnesi eksikse
+     */
+    public static long getStalenessHalfLifeMs() { return getStalenessObject().optLong("halfLifeMs", 0L); }
+
     // ===========================
     // 🧠 Redis Ayarları
     // ===========================
@@ -316,4 +552,40 @@ public class ConfigReader {
     public static JSONObject getFiltersObject() {
         return getMainConfig().getJSONObject("filters");
     }
+
+    /**
+     * Filtrelerin kullandığı (platform, rate) başına geçmiş penceresinin boyutunu döner.
+     *
+     * @return `filterHistory.size` değeri, tanımlı değilse 128
+     * @throws ConfigLoadException `initConfigs` çağrılmadıysa
+     */
+    public static int getFilterHistorySize() {
+        JSONObject history = getMainConfig().optJSONObject("filterHistory");
+        return history == null ? 128 : history.optInt("size", 128);
+    }
+
+    /**
+     * Bir (platform, rate) çiftinin geçmişinin sıfırlanacağı art arda reddetme sayısını döner.
+     * Gerçek bir seviye kaymasından sonra geçmişe dayalı filtrelerin çifti kalıcı olarak
+     * dondurmasını önler.
+     *
+     * @return `filterHistory.resetAfterRejections` değeri, tanımlı değilse 50; 0 kapatır
+     * @throws ConfigLoadException `initConfigs` çağrılmadıysa
+     */
+    public static int getFilterHistoryResetAfterRejections() {
+        JSONObject history = getMainConfig().optJSONObject("filterHistory");
+        return history == null ? 50 : history.optInt("resetAfterRejections", 50);
+    }
+
+    /**
+     * Bir (platform, rate) çiftinde son kabul edilen tick'ten bu yana yalnızca reddetme
+     * geldiğinde geçmişin sıfırlanacağı süreyi döner (tick zaman damgalarına göre).
+     *
+     * @return `filterHistory.resetAfterMs` değeri (milisaniye), tanımlı değilse 30000; 0 kapatır
+     * @throws ConfigLoadException `initConfigs` çağrılmadıysa
+     */
+    public static long getFilterHistoryResetAfterMs() {
+        JSONObject history = getMainConfig().optJSONObject("filterHistory");
+        return history == null ? 30000L : history.optLong("resetAfterMs", 30000L);
+    }
 }
@@ -0,0 +1,172 @@
+package com.mydomain.main.filter;
+
+import com.mydomain.main.model.Rate;
+import com.mydomain.main.model.RateFields;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.json.JSONObject;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * {@code ConsensusFilter}, yeni gelen verinin orta fiyatını aynı rate için diğer platformların
+ * en son kabul edilmiş kotasyonlarının medyanıyla karşılaştırır ve sapma eşiği aşılırsa veriyi
+ * reddeder. Tek bir platformdaki ani sıçramalar (spike), o platformun kendi önceki verisine
+ * bakılmaksızın diğer platformların güncel fiyatına göre yakalanır.
+ *
+ * <p>Hizmetin temel işleyişi:
+ * <ul>
+ *   <li>`consensusFilter.json` dosyasından maxDeviation, minPeers ve maxQuoteAgeMs
+ *       parametreleri okunur.</li>
+ *   <li>Kotasyonlar `FilterService`'in bellekteki {@link LatestQuoteView} tablosundan okunur;
+ *       filtre Redis'e veya başka bir kaynağa erişmez.</li>
+ *   <li>Tick'in zaman damgasına göre maxQuoteAgeMs'ten eski kotasyonlar hesaba katılmaz.</li>
+ *   <li>minPeers'tan az taze kotasyon varsa karar verilemeyeceğinden veri kabul edilir.</li>
+ *   <li>{@code |mid - medyan| / medyan > maxDeviation} ise veri reddedilir.</li>
+ * </ul>
+ * </p>
+ *
+ * <p><b>Özellikler:</b>
+ * <ul>
+ *   <li>Tüm platformlar aynı anda eşiği aşan gerçek bir fiyat hareketi yaşarsa birbirlerini
+ *       reddedebilir; eski kotasyonlar maxQuoteAgeMs sonunda düştüğünden akış kendiliğinden
+ *       toparlanır.</li>
+ *   <li>Medyan, thread başına tutulan küçük bir dizi üzerinde hesaplanır; tick başına nesne
+ *       oluşturulmaz.</li>
+ * </ul>
+ * </p>
+ *
+ * @author Ali Kerem Kol
+ * @version 1.0
+ * @since 2025-06-07
+ */
+public class ConsensusFilter implements IBatchRateFilter {
+
+    private static final Logger log = LogManager.getLogger(ConsensusFilter.class);
+    private static final String CONFIG_FILE_PATH = "/app/Main/coordinator/config/consensusFilter.json";
+
+    /** Bir rate için dikkate alınacak en fazla diğer platform sayısı */
+    private static final int MAX_PEERS = 16;
+    private static final ThreadLocal<double[]> PEER_MIDS = ThreadLocal.withInitial(() -> new double[MAX_PEERS]);
+
+    private final double maxDeviation;
+    private final int minPeers;
+    private final long maxQuoteAgeMs;
+    private LatestQuoteView latestQuotes;
+
+    /**
+     * ZORUNLU: no-arg kurucu metod.
+     * `FilterService` tarafından reflection ile çağrılır ve `consensusFilter.json`
+     * dosyasından parametreleri yükler.
+     *
+     * @throws IllegalStateException Konfigürasyon dosyası yüklenemezse
+     */
+    public ConsensusFilter() {
+        JSONObject params;
+        try (InputStream in = Files.newInputStream(Path.of(CONFIG_FILE_PATH))) {
+            params = new JSONObject(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        } catch (Exception e) {
+            throw new IllegalStateException("Cannot load " + CONFIG_FILE_PATH, e);
+        }
+        this.maxDeviation = params.getDouble("maxDeviation");
+        this.minPeers = Math.max(1, params.optInt("minPeers", 1));
+        this.maxQuoteAgeMs = params.optLong("maxQuoteAgeMs", 5000L);
+        log.info("ConsensusFilter params loaded: maxDeviation={}, minPeers={}, maxQuoteAgeMs={}",
+                maxDeviation, minPeers, maxQuoteAgeMs);
+    }
+
+    /**
+     * Bu filtre platform-rate eşleşmesini kullanmaz; çağrı yok sayılır.
+     *
+     * @param m Platformlara göre rate’lerin eşlendiği Map nesnesi
+     */
+    @Override
+    public void setPlatformAssignments(Map<String, Set<String>> m) {
+    }
+
+    /**
+     * FilterService bu setter ile bellekteki son kotasyon tablosunu enjekte eder.
+     *
+     * @param view Platformların son kabul edilmiş kotasyonları
+     */
+    @Override
+    public void setLatestQuotes(LatestQuoteView view) {
+        this.latestQuotes = view;
+    }
+
+    /**
+     * Yeni verinin orta fiyatını diğer platformların taze kotasyonlarının medyanıyla karşılaştırır.
+     *
+     * @param platform Verinin geldiği platform adı; bu platformun kendi kotasyonu hariç tutulur
+     * @param rateName Döviz kuru adı
+     * @param last Cache'teki son kabul edilen veri, bu filtrede kullanılmaz
+     * @param candidate Yeni gelen ve değerlendirilecek veri, null ise false döndürülür
+     * @param history Platform + rate'e ait kabul edilmiş son tick'ler, bu filtrede kullanılmaz
+     * @return Sapma eşiğin altındaysa veya yeterli kotasyon yoksa true, aksi halde false
+     */
+    @Override
+    public boolean shouldAccept(String platform, String rateName, Rate last, Rate candidate, RateHistoryView history) {
+        if (candidate == null || candidate.getFields() == null) return false;
+        RateFields fields = candidate.getFields();
+        return acceptTick(platform, rateName, fields.getBid(), fields.getAsk(), fields.getTimestamp(), history);
+    }
+
+    /**
+     * Tick'in orta fiyatını diğer platformların, tick'in zaman damgasına göre taze olan
+     * kotasyonlarının medyanıyla karşılaştırır.
+     *
+     * @param platform Verilerin geldiği platform adı; bu platformun kendi kotasyonu hariç tutulur
+     * @param rateName Döviz kuru adı
+     * @param bid Tick'in alış fiyatı
+     * @param ask Tick'in satış fiyatı
+     * @param timestamp Tick'in zaman damgası (epoch milisaniye)
+     * @param history Platform + rate'e ait geçmiş, bu filtrede kullanılmaz
+     * @return Sapma eşiğin altındaysa veya yeterli kotasyon yoksa true, aksi halde false
+     */
+    @Override
+    public boolean acceptTick(String platform, String rateName, double bid, double ask, long timestamp, RateHistoryView history) {
+        if (latestQuotes == null) return true;
+
+        double[] mids = PEER_MIDS.get();
+        long notBefore = maxQuoteAgeMs > 0 ? timestamp - maxQuoteAgeMs : Long.MIN_VALUE;
+        int count = latestQuotes.otherMids(rateName, platform, notBefore, mids);
+        if (count < minPeers) return true;
+
+        double median = median(mids, count);
+        if (median <= 0.0) return true;
+
+        double mid = (bid + ask) * 0.5;
+        double deviation = Math.abs(mid - median) / median;
+        if (deviation > maxDeviation) {
+            if (log.isDebugEnabled()) {
+                log.debug("❌ REJECTED platform={} rate={} → mid={} peerMedian={} peers={} deviation={}% (limit={}%)",
+                        platform, rateName, mid, median, count, deviation * 100, maxDeviation * 100);
+            }
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Dizinin ilk {@code count} elemanının medyanını yerinde sıralayarak hesaplar
+     * (eleman sayısı platform sayısıyla sınırlı olduğundan eklemeli sıralama yeterlidir).
+     */
+    private static double median(double[] values, int count) {
+        for (int i = 1; i < count; i++) {
+            double v = values[i];
+            int j = i - 1;
+            while (j >= 0 && values[j] > v) {
+                values[j + 1] = values[j];
+                j--;
+            }
+            values[j + 1] = v;
+        }
+        int mid = count >>> 1;
+        return (count & 1) == 1 ? values[mid] : (values[mid - 1] + values[mid]) * 0.5;
+    }
+}
@@ -0,0 +1,164 @@
+package com.mydomain.main.filter;
+
+import com.mydomain.main.model.Rate;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.json.JSONObject;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@code EwmaBandFilter}, her platform-rate çifti için orta fiyatın üstel ağırlıklı hareketli
+ * ortalamasını (EWMA) ve varyansını tutar; yeni veri bu ortalamanın etrafındaki bandın
+ * dışındaysa reddedilir. Durum her tick'te O(1) zamanda güncellenir.
+ *
+ * <p>Hizmetin temel işleyişi:
+ * <ul>
+ *   <li>`ewmaBandFilter.json` dosyasından alpha, bandWidth, minBandPercent ve minSamples
+ *       parametreleri okunur.</li>
+ *   <li>Yalnızca kabul edilmiş tick'ler EWMA'ya katılır: her çağrıda {@link RateHistoryView}
+ *       içindeki, son çağrıdan bu yana eklenen tick'ler (genellikle bir tane) işlenir.</li>
+ *   <li>Bant genişliği {@code max(bandWidth × EW standart sapma, EWMA × minBandPercent)} olur.</li>
+ *   <li>`FilterService` çiftin geçmişini sıfırladığında EWMA da sıfırlanır ve filtre yeniden
+ *       ısınır; böylece gerçek bir seviye kaymasından sonra çift kalıcı olarak reddedilmez.</li>
+ * </ul>
+ * </p>
+ *
+ * <p><b>Özellikler:</b>
+ * <ul>
+ *   <li>Durum, çiftin geçmiş nesnesine göre tutulur; `FilterService` aynı çift için çağrıları
+ *       sıraladığından ek kilit gerekmez.</li>
+ *   <li>Geçişler loglanmaz; reddetmeler yalnızca debug seviyesinde loglanır.</li>
+ * </ul>
+ * </p>
+ *
+ * @author Ali Kerem Kol
+ * @version 1.0
+ * @since 2025-06-07
+ */
+public class EwmaBandFilter implements IRateFilter {
+
+    private static final Logger log = LogManager.getLogger(EwmaBandFilter.class);
+    private static final String CONFIG_FILE_PATH = "/app/Main/coordinator/config/ewmaBandFilter.json";
+
+    private final double alpha;
+    private final double bandWidth;
+    private final double minBandPercent;
+    private final int minSamples;
+    private final Map<RateHistoryView, EwmaState> states = new ConcurrentHashMap<>();
+
+    /**
+     * ZORUNLU: no-arg kurucu metod.
+     * `FilterService` tarafından reflection ile çağrılır ve `ewmaBandFilter.json`
+     * dosyasından parametreleri yükler.
+     *
+     * @throws IllegalStateException Konfigürasyon dosyası yüklenemezse veya alpha (0, 1] dışındaysa
+     */
+    public EwmaBandFilter() {
+        JSONObject params;
+        try (InputStream in = Files.newInputStream(Path.of(CONFIG_FILE_PATH))) {
+            params = new JSONObject(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        } catch (Exception e) {
+            throw new IllegalStateException("Cannot load " + CONFIG_FILE_PATH, e);
+        }
+        this.alpha = params.getDouble("alpha");
+        this.bandWidth = params.getDouble("bandWidth");
+        this.minBandPercent = params.optDouble("minBandPercent", 0.0);
+        this.minSamples = params.optInt("minSamples", 20);
+        if (alpha <= 0.0 || alpha > 1.0) {
+            throw new IllegalStateException("alpha must be in (0, 1]: " + alpha);
+        }
+        log.info("EwmaBandFilter params loaded: alpha={}, bandWidth={}, minBandPercent={}, minSamples={}",
+                alpha, bandWidth, minBandPercent, minSamples);
+    }
+
+    /**
+     * Bu filtre platform-rate eşleşmesini kullanmaz; çağrı yok sayılır.
+     *
+     * @param m Platformlara göre rate’lerin eşlendiği Map nesnesi
+     */
+    @Override
+    public void setPlatformAssignments(Map<String, Set<String>> m) {
+    }
+
+    /**
+     * EWMA durumunu geçmişteki yeni tick'lerle günceller ve yeni verinin orta fiyatının
+     * bandın içinde olup olmadığını kontrol eder.
+     *
+     * @param platform Verinin geldiği platform adı, yalnızca loglamada kullanılır
+     * @param rateName Döviz kuru adı, yalnızca loglamada kullanılır
+     * @param last Cache'teki son kabul edilen veri, bu filtrede kullanılmaz
+     * @param candidate Yeni gelen ve değerlendirilecek veri, null ise false döndürülür
+     * @param history Platform + rate'e ait kabul edilmiş son tick'ler
+     * @return Veri bandın içindeyse veya ısınma süresindeyse true, aksi halde false
+     */
+    @Override
+    public boolean shouldAccept(String platform, String rateName, Rate last, Rate candidate, RateHistoryView history) {
+        if (candidate == null || candidate.getFields() == null) return false;
+
+        EwmaState state = states.computeIfAbsent(history, h -> new EwmaState());
+        state.catchUp(history, alpha);
+        if (state.samples < minSamples) return true;
+
+        double mid = (candidate.getFields().getBid() + candidate.getFields().getAsk()) * 0.5;
+        double band = Math.max(bandWidth * Math.sqrt(state.variance), Math.abs(state.mean) * minBandPercent);
+        if (band == 0.0) return true;
+
+        if (Math.abs(mid - state.mean) > band) {
+            if (log.isDebugEnabled()) {
+                log.debug("❌ REJECTED platform={} rate={} → mid={} ewma={} band=±{}",
+                        platform, rateName, mid, state.mean, band);
+            }
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Bir platform-rate çiftinin EWMA ortalaması, varyansı ve işlenen son geçmiş sırası.
+     */
+    private static final class EwmaState {
+        private double mean;
+        private double variance;
+        private long samples;
+        private long seenSequence;
+        private long seenResets;
+
+        /**
+         * Son çağrıdan bu yana geçmişe eklenen tick'leri eskiden yeniye doğru işler.
+         * Geçmiş sıfırlandıysa EWMA da sıfırlanır ve pencerede kalan tick'lerle yeniden başlar.
+         */
+        private void catchUp(RateHistoryView history, double alpha) {
+            if (history.resets() != seenResets) {
+                seenResets = history.resets();
+                samples = 0;
+                seenSequence = history.sequence() - history.size();
+            }
+            long pending = history.sequence() - seenSequence;
+            int n = (int) Math.min(pending, history.size());
+            for (int i = n - 1; i >= 0; i--) {
+                update((history.bid(i) + history.ask(i)) * 0.5, alpha);
+            }
+            seenSequence = history.sequence();
+        }
+
+        private void update(double x, double alpha) {
+            if (samples == 0) {
+                mean = x;
+                variance = 0.0;
+            } else {
+                double diff = x - mean;
+                double increment = alpha * diff;
+                mean += increment;
+                variance = (1.0 - alpha) * (variance + diff * increment);
+            }
+            samples++;
+        }
+    }
+}
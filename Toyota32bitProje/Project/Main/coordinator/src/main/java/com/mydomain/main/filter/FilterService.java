@@ -1,12 +1,20 @@
 package com.mydomain.main.filter;
 
 import com.mydomain.main.model.Rate;
+import com.mydomain.main.model.RateFields;
+import com.mydomain.main.model.RateStatus;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.json.JSONArray;
 import org.json.JSONObject;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * {@code FilterService}, uygulamanın çalıştığı anda `config.json` dosyasından hangi filtrelerin
@@ -18,14 +26,25 @@ import java.util.*;
  * <ul>
  *   <li>Konfigürasyon JSON’undan filtre sınıflarını ve platform-rate atamalarını yükler.</li>
  *   <li>Her filtre için reflection kullanılarak no-arg constructor ile nesne oluşturulur.</li>
- *   <li>Gelen veriler, tüm aktif filtrelerden geçer; herhangi bir filtre reddederse işlem sonlanır.</li>
+ *   <li>Yükleme sırasında her (platform, rate) çifti için uygulanacak filtreler önceden bir
+ *       diziye derlenir; tick başına atama kontrolü yapılmaz.</li>
+ *   <li>Gelen veriler, ilgili dizideki filtrelerden geçer; herhangi bir filtre reddederse işlem sonlanır.</li>
+ *   <li>Aynı çifte ait tick partileri {@link #applyBatch} ile tek kilitte değerlendirilebilir;
+ *       sonuç tick'lerin tek tek verilmesiyle aynıdır. {@link IBatchRateFilter} uygulayan
+ *       filtreler tick'i {@code Rate} nesnesi oluşturmadan değerlendirir.</li>
+ *   <li>Her (platform, rate) çifti için kabul edilen tick'ler bellekteki bir {@link RateHistory}
+ *       halka tamponuna yazılır ve filtrelere {@link RateHistoryView} olarak verilir. Çift art
+ *       arda çok kez veya uzun süre reddedilirse geçmiş sıfırlanır ve filtreler yeniden ısınır.</li>
+ *   <li>Kabul edilen tick'ler ayrıca platformlar arası {@link LatestQuoteTable} tablosuna
+ *       yazılır; tablo filtrelere `setLatestQuotes` ile {@link LatestQuoteView} olarak verilir.</li>
  * </ul>
  * </p>
  *
  * <p><b>Özellikler:</b>
  * <ul>
  *   <li>Filtrelerin etkin/devre dışı durumu konfigürasyondan kontrol edilir.</li>
- *   <li>Loglama için Apache Log4j ile hata ayıklama ve izleme seviyeleri desteklenir.</li>
+ *   <li>Geçen, reddedilen ve hata veren tick'ler filtre bazında sayaçlarla tutulur; tick başına
+ *       log yazılmaz, yalnızca reddetmelerden örnekler loglanır ve sayaçlar periyodik olarak özetlenir.</li>
  *   <li>Filtrelerin platform ve rate bazlı uygulanması esnek bir yapı sunar.</li>
  * </ul>
  * </p>
@@ -38,16 +57,50 @@ public class FilterService {
 
     private static final Logger log = LogManager.getLogger(FilterService.class);
 
+    /** Her filtrenin ilk ve ardından her N'inci reddetmesi/hatası loglanır */
+    private static final long REJECT_LOG_SAMPLE = 100;
+    /** Filtre sayaçlarının özetlenme aralığı (saniye) */
+    private static final long STATS_LOG_INTERVAL_SEC = 60;
+
+    private static final FilterCounter[] NO_FILTERS = new FilterCounter[0];
+
     private final List<IRateFilter> filters = new ArrayList<>();
+    private final List<FilterCounter> counters = new ArrayList<>();
+
+    private final int historySize;
+    private final int resetAfterRejections;
+    private final long resetAfterMs;
+
+    /** Tüm platformların rate bazında son kabul edilmiş kotasyonları */
+    private final LatestQuoteTable latestQuotes = new LatestQuoteTable();
+
+    /** Platform → rate → bu çiftin filtreleri ve geçmişi; atanmamış çiftler ilk tick'te eklenir */
+    private final Map<String, Map<String, FilterRoute>> routes = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService statsScheduler =
+            Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "filter-stats");
+                t.setDaemon(true);
+                return t;
+            });
 
     /**
      * {@code FilterService}’i başlatır ve belirtilen JSON konfigürasyonundan filtreleri yükler.
      * Her filtre sınıfı için reflection kullanılarak nesne oluşturulur ve platform-rate atamaları yapılır.
+     * Ardından her (platform, rate) çifti için filtre dizisi derlenir.
      *
      * @param filtersJson Filtrelerin konfigürasyonunu içeren JSON nesnesi,
      *                    null ise hata loglanır ve filtre yükleme başarısız olur
+     * @param historySize Her (platform, rate) çifti için tutulacak kabul edilmiş tick sayısı
+     * @param resetAfterRejections Çiftin geçmişinin sıfırlanacağı art arda reddetme sayısı, 0 veya negatifse kapalı
+     * @param resetAfterMs Son kabul edilen tick'ten bu yana yalnızca reddetme gelirse geçmişin
+     *                     sıfırlanacağı süre (milisaniye, tick zaman damgalarına göre), 0 veya negatifse kapalı
      */
-    public FilterService(JSONObject filtersJson) {
+    public FilterService(JSONObject filtersJson, int historySize, int resetAfterRejections, long resetAfterMs) {
+        this.historySize = historySize;
+        this.resetAfterRejections = resetAfterRejections;
+        this.resetAfterMs = resetAfterMs;
+        Map<String, Map<String, List<FilterCounter>>> routeLists = new HashMap<>();
 
         for (String key : filtersJson.keySet()) {
             JSONObject obj = filtersJson.getJSONObject(key);
@@ -66,16 +119,45 @@ public class FilterService {
                 }
                 IRateFilter filter = (IRateFilter) cls.getDeclaredConstructor().newInstance();
 
-                // 2) Platform-rate listesini enjekte et
+                // 2) Platform-rate listesini ve son kotasyon tablosunu enjekte et
                 filter.setPlatformAssignments(platMap);
+                filter.setLatestQuotes(latestQuotes);
                 filters.add(filter);
 
+                // 3) Filtreyi atandığı her (platform, rate) rotasına ekle
+                FilterCounter counter = new FilterCounter(filter);
+                counters.add(counter);
+                for (Map.Entry<String, Set<String>> e : platMap.entrySet()) {
+                    for (String rateName : e.getValue()) {
+                        routeLists.computeIfAbsent(e.getKey(), k -> new HashMap<>())
+                                .computeIfAbsent(rateName, k -> new ArrayList<>())
+                                .add(counter);
+                    }
+                }
+
                 log.info("Loaded filter {} → platforms={}", className, platMap.keySet());
 
             } catch (Exception e) {
                 log.error("Cannot load filter {}: {}", className, e.getMessage(), e);
             }
         }
+
+        for (Map.Entry<String, Map<String, List<FilterCounter>>> p : routeLists.entrySet()) {
+            Map<String, FilterRoute> rateRoutes = new ConcurrentHashMap<>();
+            for (Map.Entry<String, List<FilterCounter>> r : p.getValue().entrySet()) {
+                rateRoutes.put(r.getKey(), new FilterRoute(r.getValue().toArray(NO_FILTERS), historySize,
+                        latestQuotes.slot(p.getKey(), r.getKey())));
+                log.info("Filter route {}:{} → {}", p.getKey(), r.getKey(), r.getValue());
+            }
+            routes.put(p.getKey(), rateRoutes);
+        }
+        log.info("Filter history per (platform, rate): size={}, resetAfterRejections={}, resetAfterMs={}",
+                historySize, resetAfterRejections, resetAfterMs);
+
+        if (!counters.isEmpty()) {
+            statsScheduler.scheduleAtFixedRate(this::logStatistics,
+                    STATS_LOG_INTERVAL_SEC, STATS_LOG_INTERVAL_SEC, TimeUnit.SECONDS);
+        }
     }
 
     /**
@@ -123,38 +205,188 @@ public class FilterService {
     }
 
     /**
-     * Tüm yüklü filtreleri sırayla uygular ve verinin kabul edilip edilmeyeceğine karar verir.
-     * Herhangi bir filtre reddederse false döndürülür.
+     * Verinin (platform, rate) çiftine derlenmiş filtreleri sırayla uygular ve verinin kabul
+     * edilip edilmeyeceğine karar verir. Herhangi bir filtre reddederse veya hata verirse
+     * false döndürülür. Kabul edilen veri çiftin geçmişine ve son kotasyon tablosuna yazılır. Sonuçlar sayaçlara
+     * yazılır; yalnızca örneklenen reddetmeler loglanır.
      *
      * @param platformName Verinin geldiği platform adı (örnek: "TCP_PLATFORM")
      * @param rateName Döviz kuru adı (örnek: "USDTRY")
-     * @param last Cache'teki son kabul edilen veri, null olabilir
+     * @param last Cache'teki son kabul edilen veri, null olabilir (ilk tick)
      * @param candidate Yeni gelen ve değerlendirilecek veri, null ise false döndürülür
-     * @param history Platform + rate'e ait geçmiş veri listesi, null olabilir
      * @return Eğer tüm filtreler veri kabul ederse true, aksi halde false
      */
-    public boolean applyAllFilters(String platformName, String rateName, Rate last, Rate candidate, List<Rate> history) {
-        for (IRateFilter filter : filters) {
+    public boolean applyAllFilters(String platformName, String rateName, Rate last, Rate candidate) {
+        if (candidate == null || candidate.getFields() == null) return false;
+
+        FilterRoute route = route(platformName, rateName);
+        synchronized (route) {
+            if (!runFilters(route, platformName, rateName, last, candidate)) {
+                route.consecutiveRejections++;
+                resetHistoryIfStuck(route, platformName, rateName, candidate.getFields().getTimestamp());
+                return false;
+            }
+            route.consecutiveRejections = 0;
+            RateFields fields = candidate.getFields();
+            route.history.record(fields.getBid(), fields.getAsk(), fields.getTimestamp());
+            route.quote.update(fields.getBid(), fields.getAsk(), fields.getTimestamp());
+            return true;
+        }
+    }
+
+    /**
+     * Geçmişe yalnızca kabul edilen tick'ler yazıldığından, bandı aşan gerçek bir seviye
+     * kaymasından sonra geçmişe dayalı filtreler sonraki tüm tick'leri reddeder. Çift
+     * `resetAfterRejections` kez art arda reddedildiyse veya son kabul edilen tick'ten bu yana
+     * `resetAfterMs` geçtiyse geçmiş sıfırlanır; filtreler yeni seviyede yeniden ısınır.
+     */
+    private void resetHistoryIfStuck(FilterRoute route, String platformName, String rateName, long timestamp) {
+        RateHistory history = route.history;
+        if (history.size() == 0) return;
+        boolean tooManyRejections = resetAfterRejections > 0 && route.consecutiveRejections >= resetAfterRejections;
+        boolean tooLongRejecting = resetAfterMs > 0 && timestamp - history.timestamp(0) >= resetAfterMs;
+        if (!tooManyRejections && !tooLongRejecting) return;
+
+        log.warn("♻️ Filter history reset (platformName={}, rateName={}) after {} consecutive rejections over {} ms",
+                platformName, rateName, route.consecutiveRejections, timestamp - history.timestamp(0));
+        history.clear();
+        route.consecutiveRejections = 0;
+    }
+
+    private boolean runFilters(FilterRoute route, String platformName, String rateName, Rate last, Rate candidate) {
+        for (FilterCounter counter : route.filters) {
+            try {
+                if (counter.filter.shouldAccept(platformName, rateName, last, candidate, route.history)) {
+                    counter.passed.increment();
+                    continue;
+                }
+                long rejected = counter.rejected.incrementAndGet();
+                if (rejected % REJECT_LOG_SAMPLE == 1) {
+                    log.warn("❌ {} rejected rate (platformName={}, rateName={}) [rejections so far: {}]: {}",
+                            counter.name, platformName, rateName, rejected, candidate);
+                }
+                return false;
+            } catch (Exception e) {
+                long errors = counter.errors.incrementAndGet();
+                if (errors % REJECT_LOG_SAMPLE == 1) {
+                    log.error("❌ Exception occurred in {} for platformName={}, rateName={} [errors so far: {}] → {}",
+                            counter.name, platformName, rateName, errors, e.getMessage(), e);
+                }
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Bir (platform, rate) çiftine ait tick partisini, rota kilidi bir kez alınarak geliş
+     * sırasıyla filtrelerden geçirir. Her tick, partide kendinden önce kabul edilen tick'lerin
+     * yazıldığı geçmişi ve son kotasyon tablosunu görür; kabul, reddetme, geçmiş sıfırlama ve
+     * sayaçlar {@link #applyAllFilters} ile aynıdır. {@link IBatchRateFilter} uygulamayan
+     * filtrelere son kabul edilen veri olarak geçmişin en yeni tick'i verilir.
+     *
+     * @param platformName Verilerin geldiği platform adı (örnek: "TCP_PLATFORM")
+     * @param rateName Döviz kuru adı (örnek: "USDTRY")
+     * @param batch Sütun bazlı tick partisi, indeks 0 en eski tick
+     * @param accepted Sonuç bitleri; çağrı sonunda yalnızca kabul edilen tick'lerin bitleri set edilir
+     * @return Kabul edilen tick sayısı
+     */
+    public int applyBatch(String platformName, String rateName, RateBatch batch, BitSet accepted) {
+        accepted.clear();
+        double[] bids = batch.bids();
+        double[] asks = batch.asks();
+        long[] timestamps = batch.timestamps();
+
+        FilterRoute route = route(platformName, rateName);
+        synchronized (route) {
+            for (int i = 0, n = batch.size(); i < n; i++) {
+                if (!runFilters(route, platformName, rateName, bids[i], asks[i], timestamps[i])) {
+                    route.consecutiveRejections++;
+                    resetHistoryIfStuck(route, platformName, rateName, timestamps[i]);
+                    continue;
+                }
+                route.consecutiveRejections = 0;
+                route.history.record(bids[i], asks[i], timestamps[i]);
+                route.quote.update(bids[i], asks[i], timestamps[i]);
+                accepted.set(i);
+            }
+        }
+        return accepted.cardinality();
+    }
+
+    /**
+     * {@link #runFilters(FilterRoute, String, String, Rate, Rate)}'in parti karşılığı.
+     * {@code Rate} nesneleri yalnızca {@link IBatchRateFilter} uygulamayan bir filtreye
+     * gelindiğinde oluşturulur.
+     */
+    private boolean runFilters(FilterRoute route, String platformName, String rateName,
+                               double bid, double ask, long timestamp) {
+        Rate last = null;
+        Rate candidate = null;
+        for (FilterCounter counter : route.filters) {
             try {
-                boolean accepted = filter.shouldAccept(platformName, rateName, last, candidate, history);
-                if (!accepted) {
-                    log.warn("❌ {} rejected rate (platformName={}, rateName={})",
-                            filter.getClass().getSimpleName(), platformName, rateName);
-                    return false;
+                boolean ok;
+                if (counter.filter instanceof IBatchRateFilter batchFilter) {
+                    ok = batchFilter.acceptTick(platformName, rateName, bid, ask, timestamp, route.history);
                 } else {
-                    log.info("✅ {} passed (platformName={}, rateName={})",
-                            filter.getClass().getSimpleName(), platformName, rateName);
+                    if (candidate == null) {
+                        candidate = new Rate(rateName, new RateFields(bid, ask, timestamp), new RateStatus(true, true));
+                        last = route.history.size() == 0 ? null
+                                : new Rate(rateName, new RateFields(route.history.bid(0), route.history.ask(0),
+                                        route.history.timestamp(0)), new RateStatus(true, true));
+                    }
+                    ok = counter.filter.shouldAccept(platformName, rateName, last, candidate, route.history);
                 }
+                if (ok) {
+                    counter.passed.increment();
+                    continue;
+                }
+                long rejected = counter.rejected.incrementAndGet();
+                if (rejected % REJECT_LOG_SAMPLE == 1) {
+                    log.warn("❌ {} rejected rate (platformName={}, rateName={}) [rejections so far: {}]: bid={}, ask={}, timestamp={}",
+                            counter.name, platformName, rateName, rejected, bid, ask, timestamp);
+                }
+                return false;
             } catch (Exception e) {
-                log.error("❌ Exception occurred in {} for platformName={}, rateName={} → {}",
-                        filter.getClass().getSimpleName(), platformName, rateName, e.getMessage(), e);
+                long errors = counter.errors.incrementAndGet();
+                if (errors % REJECT_LOG_SAMPLE == 1) {
+                    log.error("❌ Exception occurred in {} for platformName={}, rateName={} [errors so far: {}] → {}",
+                            counter.name, platformName, rateName, errors, e.getMessage(), e);
+                }
                 return false;
             }
         }
-        log.info("✅ All filters passed for rate (platformName={}, rateName={}): {}", platformName, rateName, candidate);
         return true;
     }
 
+    /**
+     * (platform, rate) çiftinin rotasını döner; konfigürasyonda olmayan çiftler için filtresiz
+     * bir rota ilk çağrıda oluşturulur (geçmiş yine tutulur).
+     */
+    private FilterRoute route(String platformName, String rateName) {
+        Map<String, FilterRoute> rateRoutes = routes.get(platformName);
+        if (rateRoutes == null) {
+            rateRoutes = routes.computeIfAbsent(platformName, k -> new ConcurrentHashMap<>());
+        }
+        FilterRoute route = rateRoutes.get(rateName);
+        if (route == null) {
+            route = rateRoutes.computeIfAbsent(rateName,
+                    k -> new FilterRoute(NO_FILTERS, historySize, latestQuotes.slot(platformName, rateName)));
+        }
+        return route;
+    }
+
+    /**
+     * Filtre bazlı geçti/reddetti/hata sayaçlarını tek satırda loglar.
+     * Periyodik olarak otomatik çağrılır.
+     */
+    public void logStatistics() {
+        for (FilterCounter counter : counters) {
+            log.info("📊 Filter {} → passed={}, rejected={}, errors={}",
+                    counter.name, counter.passed.sum(), counter.rejected.get(), counter.errors.get());
+        }
+    }
+
     /**
      * RateCache’in kullandığı tüm filtreleri döner.
      * Bu metod, filtrelerin dışa aktarımı için kullanılır.
@@ -164,4 +396,46 @@ public class FilterService {
     public List<IRateFilter> getFilters() {
         return filters;
     }
+
+    /**
+     * Bir (platform, rate) çiftine uygulanacak derlenmiş filtre dizisi, çiftin geçmişi ve
+     * son kotasyon tablosundaki slotu. Filtre değerlendirmesi ve kayıt bu nesne üzerinde
+     * senkronize edilir.
+     */
+    private static final class FilterRoute {
+        private final FilterCounter[] filters;
+        private final RateHistory history;
+        private final LatestQuoteTable.Slot quote;
+        /** Son kabul edilen tick'ten bu yana art arda reddedilen tick sayısı */
+        private int consecutiveRejections;
+
+        private FilterRoute(FilterCounter[] filters, int historySize, LatestQuoteTable.Slot quote) {
+            this.filters = filters;
+            this.history = new RateHistory(historySize);
+            this.quote = quote;
+        }
+    }
+
+    /**
+     * Bir filtreyi, adını ve tick sayaçlarını birlikte tutar.
+     * Geçişler sık olduğundan {@link LongAdder}, reddetme ve hatalar örnekleme için
+     * sıra numarası gerektiğinden {@link AtomicLong} ile sayılır.
+     */
+    private static final class FilterCounter {
+        private final IRateFilter filter;
+        private final String name;
+        private final LongAdder passed = new LongAdder();
+        private final AtomicLong rejected = new AtomicLong();
+        private final AtomicLong errors = new AtomicLong();
+
+        private FilterCounter(IRateFilter filter) {
+            this.filter = filter;
+            this.name = filter.getClass().getSimpleName();
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
 }
@@ -0,0 +1,38 @@
+package com.mydomain.main.filter;
+
+/**
+ * Tick'i {@code Rate} nesnesi oluşturmadan, ilkel alanlarla değerlendirebilen filtrelerin
+ * uygulayacağı isteğe bağlı arayüz. `FilterService` toplu filtreleme yolunda ({@code applyBatch})
+ * bu arayüzü uygulayan filtreler için {@link #acceptTick} çağırır; uygulamayan filtreler
+ * `shouldAccept` ile değerlendirilir.
+ *
+ * <p>Implementasyonlar:
+ * <ul>
+ *   <li>Partideki tick'ler geliş sırasıyla, tek tek değerlendirilir. Her tick, partide kendinden
+ *       önce kabul edilen tick'lerin yazıldığı {@code history} ve son kotasyon tablosunu görür;
+ *       sonuç tick'lerin {@code applyAllFilters} ile tek tek verilmesiyle aynıdır.</li>
+ *   <li>Son kabul edilen veri {@code history.bid(0)} / {@code history.ask(0)} ile okunur.</li>
+ *   <li>Kararlar `shouldAccept` ile aynı olmalıdır; geçişler loglanmamalıdır.</li>
+ * </ul>
+ * </p>
+ *
+ * @author Ali Kerem Kol
+ * @version 1.0
+ * @since 2025-06-07
+ */
+public interface IBatchRateFilter extends IRateFilter {
+
+    /**
+     * Partideki tek bir tick için filtre kararını verir.
+     *
+     * @param platformName Verilerin geldiği platform adı (örnek: "TCP_PLATFORM")
+     * @param rateName Döviz kuru adı (örnek: "USDTRY")
+     * @param bid Tick'in alış fiyatı
+     * @param ask Tick'in satış fiyatı
+     * @param timestamp Tick'in zaman damgası (epoch milisaniye)
+     * @param history Platform + rate'e ait, partideki önceki kabul edilmiş tick'ler dahil geçmiş,
+     *                null değildir
+     * @return Eğer kabul edilecekse true, reddedilecekse false
+     */
+    boolean acceptTick(String platformName, String rateName, double bid, double ask, long timestamp, RateHistoryView history);
+}
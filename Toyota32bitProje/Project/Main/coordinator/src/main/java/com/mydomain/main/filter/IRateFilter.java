@@ -2,7 +2,6 @@ package com.mydomain.main.filter;
 
 import com.mydomain.main.model.Rate;
 
-import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -14,7 +13,11 @@ import java.util.Set;
  * <p>Implementasyonlar:
  * <ul>
  *   <li>Filtrelerin platform-rate eşleşmeleri `FilterService` tarafından enjekte edilir.</li>
- *   <li>`shouldAccept` metodu, verinin kabul edilip edilmeyeceğine karar verir.</li>
+ *   <li>Platformlar arası karşılaştırma yapan filtreler son kotasyon tablosunu
+ *       `setLatestQuotes` ile alır.</li>
+ *   <li>`shouldAccept` metodu, verinin kabul edilip edilmeyeceğine karar verir. `FilterService`
+ *       bu metodu yalnızca filtrenin atandığı platform-rate çiftleri için çağırır.</li>
+ *   <li>`shouldAccept` her tick'te çağrılır; geçişleri loglamamalı, ağır işlem yapmamalıdır.</li>
  * </ul>
  * </p>
  *
@@ -35,11 +38,11 @@ public interface IRateFilter {
      * @param last Cache'teki son kabul edilen veri, null olabilir
      * @param candidate Yeni gelen ve değerlendirilecek veri,
      *                  null ise genellikle false döndürülür
-     * @param history Platform + rate'e ait geçmiş veri listesi,
-     *                null olabilir, implementasyonun kullanımına bağlı
+     * @param history Platform + rate'e ait kabul edilmiş son tick'lerin kopyasız görünümü,
+     *                null değildir; ilk tick'te boştur
      * @return Eğer kabul edilecekse true, reddedilecekse false
      */
-    boolean shouldAccept(String platformName, String rateName, Rate last, Rate candidate, List<Rate> history);
+    boolean shouldAccept(String platformName, String rateName, Rate last, Rate candidate, RateHistoryView history);
 
     /**
      * FilterService'in zorunlu olarak çağıracağı ayar metodudur.
@@ -50,4 +53,14 @@ public interface IRateFilter {
      */
     void setPlatformAssignments(Map<String, Set<String>> assignment);
 
+    /**
+     * FilterService'in filtre oluşturulduktan sonra çağırdığı isteğe bağlı ayar metodudur.
+     * Platformların son kabul edilmiş kotasyonlarına ihtiyaç duyan filtreler bu metodu
+     * uygular; varsayılan implementasyon hiçbir şey yapmaz.
+     *
+     * @param view Bellekteki son kotasyon tablosu, null değildir
+     */
+    default void setLatestQuotes(LatestQuoteView view) {
+    }
+
 }
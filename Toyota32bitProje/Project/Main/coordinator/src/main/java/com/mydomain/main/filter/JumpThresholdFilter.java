@@ -10,7 +10,6 @@ import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -31,7 +30,7 @@ import java.util.Set;
  * <p><b>Özellikler:</b>
  * <ul>
  *   <li>Ani sıçramaları (örneğin, %5’ten fazla) reddeder.</li>
- *   <li>Loglama için Apache Log4j ile detaylı izleme sağlar.</li>
+ *   <li>Geçişler loglanmaz; reddetmeler yalnızca debug seviyesinde loglanır.</li>
  *   <li>Geçmiş veriye bağımlı değildir, sadece son veri ile çalışır.</li>
  * </ul>
  * </p>
@@ -40,7 +39,7 @@ import java.util.Set;
  * @version 1.0
  * @since 2025-06-07
  */
-public class JumpThresholdFilter implements IRateFilter {
+public class JumpThresholdFilter implements IBatchRateFilter {
 
     private static final Logger log = LogManager.getLogger(JumpThresholdFilter.class);
     private static final String CONFIG_FILE_PATH = "/app/Main/coordinator/config/jumpThresholdFilter.json";
@@ -83,31 +82,21 @@ public class JumpThresholdFilter implements IRateFilter {
     /**
      * Yeni gelen verinin (candidate) bir önceki veriye (last) göre ani sıçrama
      * içerip içermediğini kontrol eder. Sıçrama, maxJumpPercent eşiğini aşarsa reddeder.
+     * `FilterService` bu metodu yalnızca filtrenin atandığı platform-rate çiftleri için
+     * çağırdığından burada atama kontrolü yapılmaz; geçişler loglanmaz.
      *
-     * @param platform Verinin geldiği platform adı (örnek: "TCP_PLATFORM"),
-     *                 null veya boş ise true döndürülür (filtre uygulanmaz)
-     * @param rateName Döviz kuru adı (örnek: "USDTRY"),
-     *                 null veya boş ise true döndürülür (filtre uygulanmaz)
+     * @param platform Verinin geldiği platform adı (örnek: "TCP_PLATFORM"), yalnızca loglamada kullanılır
+     * @param rateName Döviz kuru adı (örnek: "USDTRY"), yalnızca loglamada kullanılır
      * @param last Cache'teki son kabul edilen veri, null ise true döndürülür
      * @param candidate Yeni gelen ve değerlendirilecek veri,
      *                  null ise false döndürülür
-     * @param history Platform + rate'e ait geçmiş veri listesi,
-     *                bu filtrede kullanılmaz, null olabilir
+     * @param history Platform + rate'e ait geçmiş, bu filtrede kullanılmaz
      * @return Eğer sıçrama eşiği aşılmadıysa true, aksi halde false
      */
     @Override
-    public boolean shouldAccept(String platform, String rateName, Rate last, Rate candidate, List<Rate> history) {
+    public boolean shouldAccept(String platform, String rateName, Rate last, Rate candidate, RateHistoryView history) {
         if (candidate == null || candidate.getFields() == null) return false;
-
-        if (!shouldFilterApply(platform, rateName)) {
-            log.trace("JumpThresholdFilter: Skipped → Platform='{}', Rate='{}'", platform, rateName);
-            return true;
-        }
-
-        if (last == null || last.getFields() == null) {
-            log.trace("JumpThresholdFilter: No previous rate, accepting by default for '{} - {}'", platform, rateName);
-            return true;
-        }
+        if (last == null || last.getFields() == null) return true;
 
         RateFields lastFields = last.getFields();
         RateFields candidateFields = candidate.getFields();
@@ -122,27 +111,45 @@ public class JumpThresholdFilter implements IRateFilter {
         boolean askOk = askJumpPercent <= maxJumpPercent;
 
         if (!bidOk || !askOk) {
-            log.debug("❌ REJECTED platform={} rate={} → bidJump={:.2f}%% askJump={:.2f}%% (limit={:.2f}%%)",
-                    platform, rateName,
-                    bidJumpPercent * 100, askJumpPercent * 100, maxJumpPercent * 100);
+            if (log.isDebugEnabled()) {
+                log.debug("❌ REJECTED platform={} rate={} → bidJump={}% askJump={}% (limit={}%)",
+                        platform, rateName,
+                        bidJumpPercent * 100, askJumpPercent * 100, maxJumpPercent * 100);
+            }
             return false;
         }
-
-        log.debug("✅ PASSED platform={} rate={} → bidJump={:.2f}%% askJump={:.2f}%% (limit={:.2f}%%)",
-                platform, rateName,
-                bidJumpPercent * 100, askJumpPercent * 100, maxJumpPercent * 100);
         return true;
     }
 
     /**
-     * Filtrenin belirtilen platform ve rate için uygulanması gerektiğini kontrol eder.
+     * Tick'i son kabul edilen veriye ({@code history}'nin en yeni tick'i) göre kontrol eder;
+     * `shouldAccept` ile aynı kararı {@code Rate} nesnesi oluşturmadan verir.
      *
-     * @param platform Platform adı
-     * @param rateName Rate adı
-     * @return Eğer filtre bu platform-rate çifti için uygulanacaksa true, aksi halde false
+     * @param platform Verilerin geldiği platform adı, yalnızca loglamada kullanılır
+     * @param rateName Döviz kuru adı, yalnızca loglamada kullanılır
+     * @param bid Tick'in alış fiyatı
+     * @param ask Tick'in satış fiyatı
+     * @param timestamp Tick'in zaman damgası, bu filtrede kullanılmaz
+     * @param history Partideki önceki kabul edilmiş tick'ler dahil geçmiş; boşsa true döndürülür
+     * @return Eğer sıçrama eşiği aşılmadıysa true, aksi halde false
      */
-    private boolean shouldFilterApply(String platform, String rateName) {
-        return platformRateMap.containsKey(platform)
-                && platformRateMap.get(platform).contains(rateName);
+    @Override
+    public boolean acceptTick(String platform, String rateName, double bid, double ask, long timestamp, RateHistoryView history) {
+        if (history.size() == 0) return true;
+
+        double lastBid = history.bid(0);
+        double lastAsk = history.ask(0);
+        double bidJumpPercent = Math.abs(bid - lastBid) / lastBid;
+        double askJumpPercent = Math.abs(ask - lastAsk) / lastAsk;
+
+        if (bidJumpPercent > maxJumpPercent || askJumpPercent > maxJumpPercent) {
+            if (log.isDebugEnabled()) {
+                log.debug("❌ REJECTED platform={} rate={} → bidJump={}% askJump={}% (limit={}%)",
+                        platform, rateName,
+                        bidJumpPercent * 100, askJumpPercent * 100, maxJumpPercent * 100);
+            }
+            return false;
+        }
+        return true;
     }
 }
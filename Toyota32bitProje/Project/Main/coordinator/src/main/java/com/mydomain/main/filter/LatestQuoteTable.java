@@ -0,0 +1,109 @@
+package com.mydomain.main.filter;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@code LatestQuoteTable}, her rate için platformların en son kabul edilmiş orta fiyatını ve
+ * zaman damgasını bellekte tutan tablodur. Platformlar arası karşılaştırma yapan filtrelere
+ * {@link LatestQuoteView} olarak açılır.
+ *
+ * <p>Hizmetin temel işleyişi:
+ * <ul>
+ *   <li>Her (platform, rate) çifti için tek bir {@link Slot} oluşturulur; `FilterService`
+ *       bu slotu çiftin rotasında saklar ve kabul edilen her tick'te doğrudan günceller,
+ *       tick başına map araması yapılmaz.</li>
+ *   <li>Bir rate'in slotları kopyala-yaz (copy-on-write) bir dizide tutulur; yeni platform
+ *       eklenmesi nadir olduğundan okumalar kilitsizdir.</li>
+ * </ul>
+ * </p>
+ *
+ * <p>Orta fiyat ve zaman damgası ayrı volatile alanlardır; bir okuyucu nadiren bir tick'in
+ * fiyatını bir öncekinin zaman damgasıyla görebilir, bu filtre kararı için önemsizdir.</p>
+ *
+ * @author Ali Kerem Kol
+ * @version 1.0
+ * @since 2025-06-07
+ */
+public class LatestQuoteTable implements LatestQuoteView {
+
+    private static final Slot[] NO_SLOTS = new Slot[0];
+
+    /** Rate → o rate'i gönderen platformların slotları */
+    private final Map<String, Row> rows = new ConcurrentHashMap<>();
+
+    /**
+     * (platform, rate) çiftinin slotunu döner, yoksa oluşturur.
+     *
+     * @param platformName Platform adı
+     * @param rateName Döviz kuru adı
+     * @return Çiftin slotu
+     */
+    public Slot slot(String platformName, String rateName) {
+        return rows.computeIfAbsent(rateName, k -> new Row()).slot(platformName);
+    }
+
+    @Override
+    public int otherMids(String rateName, String excludedPlatform, long notBefore, double[] out) {
+        Row row = rows.get(rateName);
+        if (row == null) return 0;
+
+        int count = 0;
+        for (Slot s : row.slots) {
+            if (count == out.length) break;
+            if (s.platformName.equals(excludedPlatform)) continue;
+            long ts = s.timestamp;
+            if (ts == Long.MIN_VALUE || ts < notBefore) continue;
+            out[count++] = s.mid;
+        }
+        return count;
+    }
+
+    /**
+     * Bir rate'in platform slotları.
+     */
+    private static final class Row {
+        private volatile Slot[] slots = NO_SLOTS;
+
+        private Slot slot(String platformName) {
+            for (Slot s : slots) {
+                if (s.platformName.equals(platformName)) return s;
+            }
+            synchronized (this) {
+                for (Slot s : slots) {
+                    if (s.platformName.equals(platformName)) return s;
+                }
+                Slot[] grown = Arrays.copyOf(slots, slots.length + 1);
+                grown[slots.length] = new Slot(platformName);
+                slots = grown;
+                return grown[grown.length - 1];
+            }
+        }
+    }
+
+    /**
+     * Bir platformun bir rate için en son kabul edilmiş kotasyonu.
+     */
+    public static final class Slot {
+        private final String platformName;
+        private volatile double mid = Double.NaN;
+        private volatile long timestamp = Long.MIN_VALUE;
+
+        private Slot(String platformName) {
+            this.platformName = platformName;
+        }
+
+        /**
+         * Kabul edilmiş bir tick ile kotasyonu günceller.
+         *
+         * @param bid Alış fiyatı
+         * @param ask Satış fiyatı
+         * @param timestamp Zaman damgası (epoch milisaniye)
+         */
+        public void update(double bid, double ask, long timestamp) {
+            this.mid = (bid + ask) * 0.5;
+            this.timestamp = timestamp;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.mydomain.main.filter;
+
+/**
+ * Her rate için platformların en son kabul edilmiş kotasyonlarına filtrelerden salt okunur
+ * erişim sağlayan arayüz. Veriler `FilterService` tarafından bellekte tutulur; Redis'e
+ * erişilmez.
+ *
+ * <p>Kullanım:
+ * <ul>
+ *   <li>Kotasyonlar orta fiyat ((bid + ask) / 2) ve zaman damgası olarak saklanır.</li>
+ *   <li>Bir platformun kotasyonu yalnızca o platformun tick'i tüm filtrelerden geçtiğinde
+ *       güncellenir.</li>
+ * </ul>
+ * </p>
+ *
+ * @author Ali Kerem Kol
+ * @version 1.0
+ * @since 2025-06-07
+ */
+public interface LatestQuoteView {
+
+    /**
+     * Verilen rate için, belirtilen platform dışındaki platformların yeterince taze orta
+     * fiyatlarını {@code out} dizisine yazar.
+     *
+     * @param rateName Döviz kuru adı (örnek: "USDTRY")
+     * @param excludedPlatform Hariç tutulacak platform (genellikle tick'in geldiği platform)
+     * @param notBefore Bu zaman damgasından (epoch milisaniye) eski kotasyonlar atlanır
+     * @param out Orta fiyatların yazılacağı dizi; en fazla {@code out.length} kotasyon yazılır
+     * @return Yazılan kotasyon sayısı
+     */
+    int otherMids(String rateName, String excludedPlatform, long notBefore, double[] out);
+}
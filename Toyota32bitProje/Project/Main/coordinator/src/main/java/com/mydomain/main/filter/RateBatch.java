@@ -0,0 +1,101 @@
+package com.mydomain.main.filter;
+
+import java.util.Arrays;
+
+/**
+ * {@code RateBatch}, tek bir (platform, rate) çiftine ait ardışık tick'leri sütun bazlı
+ * (columnar) ilkel dizilerde tutan yeniden kullanılabilir tampondur. `FilterService`
+ * toplu filtreleme yolunda tick'leri bu dizilerden okur; {@link IBatchRateFilter} uygulayan
+ * filtreler için tick başına {@code Rate} nesnesi oluşturulmaz.
+ *
+ * <p>Kullanım:
+ * <ul>
+ *   <li>Tick'ler {@link #add(double, double, long)} ile geliş sırasına göre eklenir;
+ *       indeks 0 en eski tick'tir.</li>
+ *   <li>{@link #bids()}, {@link #asks()} ve {@link #timestamps()} iç dizileri kopyasız döner;
+ *       yalnızca ilk {@link #size()} eleman geçerlidir.</li>
+ *   <li>{@link #clear()} ile tampon yeniden kullanılır; kapasite gerektiğinde büyür.</li>
+ * </ul>
+ * </p>
+ *
+ * <p>Sınıf thread-safe değildir.</p>
+ *
+ * @author Ali Kerem Kol
+ * @version 1.0
+ * @since 2025-06-07
+ */
+public class RateBatch {
+
+    private double[] bids;
+    private double[] asks;
+    private long[] timestamps;
+    private int size;
+
+    /**
+     * @param initialCapacity Başlangıç kapasitesi, en az 1
+     * @throws IllegalArgumentException Kapasite 1'den küçükse
+     */
+    public RateBatch(int initialCapacity) {
+        if (initialCapacity < 1) {
+            throw new IllegalArgumentException("Batch capacity must be at least 1: " + initialCapacity);
+        }
+        this.bids = new double[initialCapacity];
+        this.asks = new double[initialCapacity];
+        this.timestamps = new long[initialCapacity];
+    }
+
+    /**
+     * Tampona bir tick ekler.
+     *
+     * @param bid Alış fiyatı
+     * @param ask Satış fiyatı
+     * @param timestamp Zaman damgası (epoch milisaniye)
+     */
+    public void add(double bid, double ask, long timestamp) {
+        if (size == bids.length) {
+            int capacity = bids.length * 2;
+            bids = Arrays.copyOf(bids, capacity);
+            asks = Arrays.copyOf(asks, capacity);
+            timestamps = Arrays.copyOf(timestamps, capacity);
+        }
+        bids[size] = bid;
+        asks[size] = ask;
+        timestamps[size] = timestamp;
+        size++;
+    }
+
+    /**
+     * Tamponu boşaltır; diziler yeniden kullanılır.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * @return Tampondaki tick sayısı
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return Bid dizisi; yalnızca ilk {@link #size()} eleman geçerlidir
+     */
+    public double[] bids() {
+        return bids;
+    }
+
+    /**
+     * @return Ask dizisi; yalnızca ilk {@link #size()} eleman geçerlidir
+     */
+    public double[] asks() {
+        return asks;
+    }
+
+    /**
+     * @return Zaman damgası dizisi; yalnızca ilk {@link #size()} eleman geçerlidir
+     */
+    public long[] timestamps() {
+        return timestamps;
+    }
+}
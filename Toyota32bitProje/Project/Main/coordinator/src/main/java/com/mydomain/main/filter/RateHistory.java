@@ -0,0 +1,161 @@
+package com.mydomain.main.filter;
+
+/**
+ * {@code RateHistory}, bir (platform, rate) çiftinin kabul edilmiş son tick'lerini sabit
+ * boyutlu ilkel dizilerde tutan halka tamponudur (ring buffer). Filtrelere
+ * {@link RateHistoryView} olarak kopyasız açılır.
+ *
+ * <p>Hizmetin temel işleyişi:
+ * <ul>
+ *   <li>bid, ask ve zaman damgası {@code double[]} / {@code long[]} dizilerine yazılır;
+ *       tick başına nesne oluşturulmaz.</li>
+ *   <li>Orta fiyatların toplamı ve kareler toplamı her kayıtta artımlı güncellenir; pencere
+ *       ortalaması ve varyansı O(1) zamanda hesaplanır.</li>
+ *   <li>Kayan nokta birikim hatasını sınırlamak için toplamlar tampon her tam döndüğünde
+ *       dizilerden yeniden hesaplanır (amortize O(1)).</li>
+ * </ul>
+ * </p>
+ *
+ * <p>Sınıf thread-safe değildir; `FilterService` filtre değerlendirmesini ve kaydı aynı
+ * çift için tek bir kilit altında yapar.</p>
+ *
+ * @author Ali Kerem Kol
+ * @version 1.0
+ * @since 2025-06-07
+ */
+public class RateHistory implements RateHistoryView {
+
+    private final double[] bids;
+    private final double[] asks;
+    private final long[] timestamps;
+
+    private int head;       // bir sonraki yazılacak indeks
+    private int size;
+    private long sequence;
+    private long resets;
+    private double sumMid;
+    private double sumSqMid;
+
+    /**
+     * @param capacity Tutulacak en fazla tick sayısı, en az 1
+     * @throws IllegalArgumentException Kapasite 1'den küçükse
+     */
+    public RateHistory(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("History capacity must be at least 1: " + capacity);
+        }
+        this.bids = new double[capacity];
+        this.asks = new double[capacity];
+        this.timestamps = new long[capacity];
+    }
+
+    /**
+     * Kabul edilmiş bir tick'i pencereye ekler; pencere doluysa en eski tick düşer.
+     *
+     * @param bid Alış fiyatı
+     * @param ask Satış fiyatı
+     * @param timestamp Zaman damgası (epoch milisaniye)
+     */
+    public void record(double bid, double ask, long timestamp) {
+        if (size == bids.length) {
+            double oldMid = (bids[head] + asks[head]) * 0.5;
+            sumMid -= oldMid;
+            sumSqMid -= oldMid * oldMid;
+        } else {
+            size++;
+        }
+
+        bids[head] = bid;
+        asks[head] = ask;
+        timestamps[head] = timestamp;
+        double mid = (bid + ask) * 0.5;
+        sumMid += mid;
+        sumSqMid += mid * mid;
+        sequence++;
+
+        head++;
+        if (head == bids.length) {
+            head = 0;
+            recomputeSums();
+        }
+    }
+
+    /**
+     * Penceredeki tüm tick'leri atar; {@link #sequence()} korunur, {@link #resets()} artar.
+     * Geçmişe dayalı filtreler bir sonraki tick'te yeniden ısınma sürecine girer.
+     */
+    public void clear() {
+        head = 0;
+        size = 0;
+        sumMid = 0.0;
+        sumSqMid = 0.0;
+        resets++;
+    }
+
+    private void recomputeSums() {
+        double sum = 0.0;
+        double sumSq = 0.0;
+        for (int i = 0; i < size; i++) {
+            double mid = (bids[i] + asks[i]) * 0.5;
+            sum += mid;
+            sumSq += mid * mid;
+        }
+        sumMid = sum;
+        sumSqMid = sumSq;
+    }
+
+    private int index(int i) {
+        if (i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException("History index " + i + " out of range [0, " + size + ")");
+        }
+        int idx = head - 1 - i;
+        return idx < 0 ? idx + bids.length : idx;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int capacity() {
+        return bids.length;
+    }
+
+    @Override
+    public long sequence() {
+        return sequence;
+    }
+
+    @Override
+    public long resets() {
+        return resets;
+    }
+
+    @Override
+    public double bid(int i) {
+        return bids[index(i)];
+    }
+
+    @Override
+    public double ask(int i) {
+        return asks[index(i)];
+    }
+
+    @Override
+    public long timestamp(int i) {
+        return timestamps[index(i)];
+    }
+
+    @Override
+    public double meanMid() {
+        return size == 0 ? Double.NaN : sumMid / size;
+    }
+
+    @Override
+    public double varianceMid() {
+        if (size == 0) return Double.NaN;
+        double mean = sumMid / size;
+        return Math.max(0.0, sumSqMid / size - mean * mean);
+    }
+}
@@ -0,0 +1,71 @@
+package com.mydomain.main.filter;
+
+/**
+ * Bir (platform, rate) çiftinin kabul edilmiş son tick'lerine filtrelerden salt okunur,
+ * kopyasız erişim sağlayan arayüz. Veriler `FilterService` tarafından tutulan sabit
+ * boyutlu ilkel halka tamponlarında (ring buffer) saklanır.
+ *
+ * <p>Kullanım:
+ * <ul>
+ *   <li>{@code i = 0} en yeni, {@code i = size() - 1} en eski kabul edilmiş tick'tir.</li>
+ *   <li>Pencere istatistikleri ({@link #meanMid()}, {@link #varianceMid()}) artımlı olarak
+ *       tutulur ve O(1) zamanda okunur.</li>
+ *   <li>Görünüm yalnızca `shouldAccept` çağrısı süresince tutarlıdır; saklanmamalıdır.</li>
+ * </ul>
+ * </p>
+ *
+ * @author Ali Kerem Kol
+ * @version 1.0
+ * @since 2025-06-07
+ */
+public interface RateHistoryView {
+
+    /**
+     * @return Penceredeki tick sayısı
+     */
+    int size();
+
+    /**
+     * @return Pencerenin en fazla tutabileceği tick sayısı
+     */
+    int capacity();
+
+    /**
+     * @return Bu çift için bugüne kadar kaydedilen toplam tick sayısı (pencereden düşenler dahil)
+     */
+    long sequence();
+
+    /**
+     * @return Pencerenin bugüne kadar kaç kez sıfırlandığı; değiştiyse filtreler kendi
+     *         türetilmiş durumlarını da sıfırlamalıdır
+     */
+    long resets();
+
+    /**
+     * @param i 0 en yeni olmak üzere geriye doğru sıra
+     * @return Tick'in bid değeri
+     */
+    double bid(int i);
+
+    /**
+     * @param i 0 en yeni olmak üzere geriye doğru sıra
+     * @return Tick'in ask değeri
+     */
+    double ask(int i);
+
+    /**
+     * @param i 0 en yeni olmak üzere geriye doğru sıra
+     * @return Tick'in zaman damgası (epoch milisaniye)
+     */
+    long timestamp(int i);
+
+    /**
+     * @return Penceredeki orta fiyatların ((bid + ask) / 2) ortalaması, pencere boşsa NaN
+     */
+    double meanMid();
+
+    /**
+     * @return Penceredeki orta fiyatların varyansı (popülasyon), pencere boşsa NaN
+     */
+    double varianceMid();
+}
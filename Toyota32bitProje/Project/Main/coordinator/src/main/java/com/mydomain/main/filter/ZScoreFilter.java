@@ -0,0 +1,127 @@
+package com.mydomain.main.filter;
+
+import com.mydomain.main.model.Rate;
+import com.mydomain.main.model.RateFields;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.json.JSONObject;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * {@code ZScoreFilter}, yeni gelen verinin orta fiyatını aynı platform-rate çiftinin son
+ * kabul edilmiş tick'lerinin penceresiyle karşılaştırır ve z-skoru eşiği aşan aykırı
+ * değerleri reddeder. Pencere ortalaması ve varyansı {@link RateHistoryView} tarafından
+ * artımlı tutulduğundan kontrol O(1) zamanda yapılır.
+ *
+ * <p>Hizmetin temel işleyişi:
+ * <ul>
+ *   <li>`zScoreFilter.json` dosyasından maxZScore ve minSamples parametreleri okunur.</li>
+ *   <li>Pencerede minSamples'tan az tick varsa veri kabul edilir (ısınma).</li>
+ *   <li>{@code |mid - ortalama| / standart sapma > maxZScore} ise veri reddedilir.</li>
+ *   <li>Pencere yalnızca kabul edilen tick'lerden oluştuğundan, gerçek bir seviye kaymasından
+ *       sonra `FilterService` art arda reddetmelerde geçmişi sıfırlar ve filtre yeniden ısınır.</li>
+ * </ul>
+ * </p>
+ *
+ * <p><b>Özellikler:</b>
+ * <ul>
+ *   <li>Pencere içindeki tüm fiyatlar aynıysa (sapma 0) karar verilemeyeceğinden veri kabul edilir.</li>
+ *   <li>Geçişler loglanmaz; reddetmeler yalnızca debug seviyesinde loglanır.</li>
+ * </ul>
+ * </p>
+ *
+ * @author Ali Kerem Kol
+ * @version 1.0
+ * @since 2025-06-07
+ */
+public class ZScoreFilter implements IBatchRateFilter {
+
+    private static final Logger log = LogManager.getLogger(ZScoreFilter.class);
+    private static final String CONFIG_FILE_PATH = "/app/Main/coordinator/config/zScoreFilter.json";
+
+    private final double maxZScore;
+    private final int minSamples;
+
+    /**
+     * ZORUNLU: no-arg kurucu metod.
+     * `FilterService` tarafından reflection ile çağrılır ve `zScoreFilter.json`
+     * dosyasından parametreleri yükler.
+     *
+     * @throws IllegalStateException Konfigürasyon dosyası yüklenemezse
+     */
+    public ZScoreFilter() {
+        JSONObject params;
+        try (InputStream in = Files.newInputStream(Path.of(CONFIG_FILE_PATH))) {
+            params = new JSONObject(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        } catch (Exception e) {
+            throw new IllegalStateException("Cannot load " + CONFIG_FILE_PATH, e);
+        }
+        this.maxZScore = params.getDouble("maxZScore");
+        this.minSamples = params.optInt("minSamples", 20);
+        log.info("ZScoreFilter params loaded: maxZScore={}, minSamples={}", maxZScore, minSamples);
+    }
+
+    /**
+     * Bu filtre platform-rate eşleşmesini kullanmaz; çağrı yok sayılır.
+     *
+     * @param m Platformlara göre rate’lerin eşlendiği Map nesnesi
+     */
+    @Override
+    public void setPlatformAssignments(Map<String, Set<String>> m) {
+    }
+
+    /**
+     * Yeni verinin orta fiyatının pencere ortalamasından kaç standart sapma uzakta olduğunu
+     * hesaplar ve eşiği aşıyorsa reddeder.
+     *
+     * @param platform Verinin geldiği platform adı, yalnızca loglamada kullanılır
+     * @param rateName Döviz kuru adı, yalnızca loglamada kullanılır
+     * @param last Cache'teki son kabul edilen veri, bu filtrede kullanılmaz
+     * @param candidate Yeni gelen ve değerlendirilecek veri, null ise false döndürülür
+     * @param history Platform + rate'e ait kabul edilmiş son tick'ler
+     * @return Z-skoru eşiği aşılmadıysa true, aksi halde false
+     */
+    @Override
+    public boolean shouldAccept(String platform, String rateName, Rate last, Rate candidate, RateHistoryView history) {
+        if (candidate == null || candidate.getFields() == null) return false;
+        RateFields fields = candidate.getFields();
+        return acceptTick(platform, rateName, fields.getBid(), fields.getAsk(), fields.getTimestamp(), history);
+    }
+
+    /**
+     * Tick'in orta fiyatını partide kendinden önce kabul edilen tick'ler dahil pencere
+     * istatistiklerine göre kontrol eder.
+     *
+     * @param platform Verilerin geldiği platform adı, yalnızca loglamada kullanılır
+     * @param rateName Döviz kuru adı, yalnızca loglamada kullanılır
+     * @param bid Tick'in alış fiyatı
+     * @param ask Tick'in satış fiyatı
+     * @param timestamp Tick'in zaman damgası, bu filtrede kullanılmaz
+     * @param history Partideki önceki kabul edilmiş tick'ler dahil geçmiş
+     * @return Z-skoru eşiği aşılmadıysa true, aksi halde false
+     */
+    @Override
+    public boolean acceptTick(String platform, String rateName, double bid, double ask, long timestamp, RateHistoryView history) {
+        if (history.size() < minSamples) return true;
+
+        double std = Math.sqrt(history.varianceMid());
+        if (std == 0.0) return true;
+
+        double mid = (bid + ask) * 0.5;
+        double z = Math.abs(mid - history.meanMid()) / std;
+        if (z > maxZScore) {
+            if (log.isDebugEnabled()) {
+                log.debug("❌ REJECTED platform={} rate={} → mid={} mean={} std={} z={} (limit={})",
+                        platform, rateName, mid, history.meanMid(), std, z, maxZScore);
+            }
+            return false;
+        }
+        return true;
+    }
+}
@@ -3,28 +3,65 @@ package com.mydomain.main.kafka;
 import com.mydomain.main.exception.KafkaException;
 import com.mydomain.main.model.Rate;
 import org.apache.kafka.clients.producer.*;
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
+import org.apache.kafka.common.errors.AuthorizationException;
+import org.apache.kafka.common.errors.OutOfOrderSequenceException;
+import org.apache.kafka.common.errors.ProducerFencedException;
+import org.apache.kafka.common.errors.TimeoutException;
+import org.apache.kafka.common.errors.UnsupportedVersionException;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import java.time.OffsetDateTime;
-import java.time.ZoneOffset;
-import java.time.format.DateTimeFormatter;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * {@code KafkaProducerService}, Kafka producer’ını kullanarak rate verilerini belirtilen topic’e
- * asenkron bir şekilde gönderir. Bağlantı kesintilerine karşı yeniden başlatma mekanizması
+ * gönderir. Bağlantı kesintilerine karşı yeniden başlatma mekanizması
  * (reinit) sunar ve hata durumlarını loglar. Apache Kafka client kütüphanesini temel alır.
  *
  * <p>Hizmetin temel işleyişi:
  * <ul>
- *   <li>Konfigürasyon parametreleriyle (bootstrap servers, topic, acks vb.) bir Kafka producer başlatır.</li>
- *   <li>Verileri JSON formatında serialize ederek Kafka’ya gönderir.</li>
+ *   <li>{@link KafkaProducerSettings} ayarlarıyla (bootstrap servers, topic, acks vb.) bir Kafka producer başlatır.</li>
+ *   <li>Verileri {@link RateMessageCodec} ile `pipe` (metin) veya `binary` biçiminde kodlayarak
+ *       Kafka’ya gönderir.</li>
+ *   <li>`sync` modunda her rate için broker onayı beklenir; `async` modunda döngünün tüm
+ *       rate’leri ardışık gönderilir, onaylar callback’lerle toplanır ve döngü başına
+ *       yalnızca bir kez beklenir.</li>
  *   <li>Belirli aralıklarla (reinitPeriodSec) producer’ın durumunu kontrol eder ve yeniden başlatır.</li>
+ *   <li>Producer idempotent çalışır (`enable.idempotence`); broker yeniden denemeleri
+ *       mükerrer kayıt oluşturmaz.</li>
+ *   <li>`transactionalId` tanımlıysa her hesaplama döngüsünün rate’leri tek bir Kafka
+ *       transaction’ında yayınlanır; `read_committed` tüketiciler yalnızca commit edilen
+ *       döngüleri görür.</li>
+ *   <li>Gönderilemeyen rate’ler sınırlı bir yerel yeniden deneme kuyruğunda tutulur; kuyruk
+ *       producer yeniden başlatmalarından etkilenmez ve sonraki döngüde önce gönderilir.
+ *       `outbox` açıksa bu kuyruk yerine diskteki {@link RateOutbox} kullanılır; kesinti Redis
+ *       TTL süresini aşsa da rate’ler kaybolmaz ve producer toparlandığında sırayla boşaltılır.</li>
+ *   <li>`publishMode` ile döngünün rate’leri ayrı kayıtlar (`rate`), döngü numarası taşıyan
+ *       tek bir snapshot kaydı (`snapshot`) veya ikisi birlikte (`both`) olarak yayınlanır.
+ *       Kuyruktan yeniden denenen rate’ler döngünün snapshot’ına katılmaz, kendi
+ *       snapshot’larıyla gönderilir.</li>
+ *   <li>Rate kayıtlarının topic’i ve partition’ı {@link TopicRouter} kurallarıyla belirlenir;
+ *       `partitioner: "stickyLeastLoaded"` seçilirse sabit partition verilmeyen rate’ler
+ *       {@link StickyLeastLoadedPartitioner} ile dağıtılır. Snapshot kayıtları yönlendirilmez.</li>
+ *   <li>Topic başına gönderim sayaçları ({@link TopicMetrics}) tutulur ve `metricsLogPeriodSec`
+ *       aralığıyla Kafka’nın kendi topic metrikleriyle birlikte loglanır.</li>
  * </ul>
  * </p>
  *
@@ -32,7 +69,8 @@ import java.util.concurrent.*;
  * <ul>
  *   <li>Yeniden başlatma (reinit) ile bağlantı kesintilerine dayanıklılık.</li>
  *   <li>Loglama için Apache Log4j ile hata ayıklama ve izleme seviyeleri.</li>
- *   <li>Batch gönderim desteği ile çoklu rate verisi işleme.</li>
+ *   <li>Batch gönderim desteği ile çoklu rate verisi işleme; `linger.ms`, `batch.size` ve
+ *       `compression.type` konfigürasyondan ayarlanır.</li>
  * </ul>
  * </p>
  *
@@ -44,14 +82,56 @@ public class KafkaProducerService {
 
     private static final Logger log = LogManager.getLogger(KafkaProducerService.class);
 
-    private volatile KafkaProducer<String, String> producer;
+    /** Hesaplanan kurun tazelik metriğini (ms) taşıyan Kafka header adı */
+    public static final String FRESHNESS_HEADER = "freshnessMs";
 
-    private final String bootstrapServers;
-    private final String topicName;
-    private final String acks;
-    private final int retries;
-    private final int deliveryTimeoutMs;
-    private final int requestTimeoutMs;
+    /** Her rate için broker onayını bekleyen gönderim modu */
+    public static final String SEND_MODE_SYNC = "sync";
+    /** Döngünün tüm rate'lerini gönderip onayları callback'lerle toplayan gönderim modu */
+    public static final String SEND_MODE_ASYNC = "async";
+
+    /** Her rate'i ayrı bir kayıt olarak yayınlayan mod */
+    public static final String PUBLISH_MODE_RATE = "rate";
+    /** Döngünün tüm rate'lerini tek bir snapshot kaydında yayınlayan mod */
+    public static final String PUBLISH_MODE_SNAPSHOT = "snapshot";
+    /** Rate kayıtlarını ve snapshot kaydını birlikte yayınlayan mod */
+    public static final String PUBLISH_MODE_BOTH = "both";
+
+    /** Snapshot kayıtlarının anahtarı; tek partition'a düşerek döngü sırasını korur */
+    public static final String SNAPSHOT_KEY = "SNAPSHOT";
+
+    /** Kafka'nın varsayılan (anahtar hash'i) partitioner'ı */
+    public static final String PARTITIONER_DEFAULT = "default";
+    /** Rate'leri en az yüklü partition'a kalıcı olarak atayan partitioner */
+    public static final String PARTITIONER_STICKY_LEAST_LOADED = "stickyLeastLoaded";
+
+    private static final long NO_CYCLE = -1L;
+
+    /** Hata veren producer kapatılırken en fazla beklenecek süre; worker thread'ini bloklamasın */
+    private static final Duration CLOSE_TIMEOUT = Duration.ofSeconds(1);
+
+    private volatile KafkaProducer<String, byte[]> producer;
+
+    /** Gönderilemeyen rate’ler; producer’dan bağımsızdır, yeniden başlatmada korunur */
+    private final BlockingQueue<Rate> retryQueue;
+
+    private final KafkaProducerSettings settings;
+    private final boolean asyncSend;
+    private final boolean publishRates;
+    private final boolean publishSnapshots;
+
+    private final TopicRouter router;
+
+    /** Diskteki kalıcı yeniden deneme kuyruğu; null ise bellekteki {@link #retryQueue} kullanılır */
+    private final RateOutbox outbox;
+    private long lastDrainedCount;
+    private long lastMetricsNanos = System.nanoTime();
+
+    /** Topic başına gönderim sayaçları */
+    private final Map<String, TopicMetrics> topicMetrics = new ConcurrentHashMap<>();
+
+    /** Son snapshot döngü numarası; yeniden başlatmalar arasında artan kalması için başlangıç zamanıyla tohumlanır */
+    private final AtomicLong cycleSequence = new AtomicLong(System.currentTimeMillis());
 
     private final ScheduledExecutorService scheduler =
             Executors.newSingleThreadScheduledExecutor(r -> {
@@ -64,31 +144,31 @@ public class KafkaProducerService {
      * {@code KafkaProducerService} nesnesini başlatır.
      * Kafka producer’ını konfigüre eder ve yeniden başlatma scheduler’ını başlatır.
      *
-     * @param bootstrapServers Kafka broker adresleri (örneğin, "localhost:9092")
-     * @param topicName Gönderilecek verilerin topic adı
-     * @param acks Gönderim doğrulama seviyesi (örneğin, "all")
-     * @param retries Gönderim başarısızlığında yeniden deneme sayısı
-     * @param deliveryTimeoutMs Mesaj teslim zaman aşımı (milisaniye cinsinden)
-     * @param requestTimeoutMs İstek zaman aşımı (milisaniye cinsinden)
-     * @param reinitPeriodSec Yeniden başlatma kontrol aralığı (saniye cinsinden)
-     * @throws IllegalArgumentException Herhangi bir parametre null veya geçersizse
-     */
-    public KafkaProducerService(String bootstrapServers,
-                                String topicName,
-                                String acks,
-                                int retries,
-                                int deliveryTimeoutMs,
-                                int requestTimeoutMs,
-                                long reinitPeriodSec) {
-        this.bootstrapServers = bootstrapServers;
-        this.topicName = topicName;
-        this.acks = acks;
-        this.retries = retries;
-        this.deliveryTimeoutMs = deliveryTimeoutMs;
-        this.requestTimeoutMs = requestTimeoutMs;
+     * @param settings Producer ve gönderim ayarları
+     * @param router Rate kayıtlarının topic ve partition yönlendiricisi
+     * @param outbox Gönderilemeyen rate’ler için diskteki kuyruk, null ise bellekteki yeniden deneme kuyruğu kullanılır
+     * @throws IllegalArgumentException {@value #PUBLISH_MODE_BOTH} modunda snapshot topic'i bir rate topic'iyle aynıysa
+     */
+    public KafkaProducerService(KafkaProducerSettings settings, TopicRouter router, RateOutbox outbox) {
+        if (PUBLISH_MODE_BOTH.equals(settings.getPublishMode()) && router.topics().contains(settings.getSnapshotTopicName())) {
+            // Aynı topic'te tüketiciler her rate'i iki kez işlerdi
+            throw new IllegalArgumentException("Kafka publishMode 'both' requires a snapshotTopic different from the rate topics " + router.topics());
+        }
+        this.settings = settings;
+        this.asyncSend = SEND_MODE_ASYNC.equals(settings.getSendMode());
+        this.publishRates = !PUBLISH_MODE_SNAPSHOT.equals(settings.getPublishMode());
+        this.publishSnapshots = !PUBLISH_MODE_RATE.equals(settings.getPublishMode());
+        this.retryQueue = new ArrayBlockingQueue<>(settings.getRetryQueueSize());
+        this.router = router;
+        this.outbox = outbox;
 
         initProducer();
+        long reinitPeriodSec = settings.getReinitPeriodSec();
         scheduler.scheduleAtFixedRate(this::recoverProducerIfClosed, reinitPeriodSec, reinitPeriodSec, TimeUnit.SECONDS);
+        long metricsLogPeriodSec = settings.getMetricsLogPeriodSec();
+        if (metricsLogPeriodSec > 0) {
+            scheduler.scheduleAtFixedRate(this::logMetrics, metricsLogPeriodSec, metricsLogPeriodSec, TimeUnit.SECONDS);
+        }
     }
 
     /**
@@ -100,18 +180,48 @@ public class KafkaProducerService {
     private synchronized void initProducer() {
         try {
             Properties props = new Properties();
-            props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+            props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, settings.getBootstrapServers());
             props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class.getName());
-            props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class.getName());
-            props.put(ProducerConfig.ACKS_CONFIG, acks);
-            props.put(ProducerConfig.RETRIES_CONFIG, retries);
-            props.put(ProducerConfig.DELIVERY_TIMEOUT_MS_CONFIG, deliveryTimeoutMs);
-            props.put(ProducerConfig.REQUEST_TIMEOUT_MS_CONFIG, requestTimeoutMs);
+            props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class.getName());
+            props.put(ProducerConfig.ACKS_CONFIG, settings.getAcks());
+            props.put(ProducerConfig.RETRIES_CONFIG, settings.getRetries());
+            props.put(ProducerConfig.DELIVERY_TIMEOUT_MS_CONFIG, settings.getDeliveryTimeoutMs());
+            props.put(ProducerConfig.REQUEST_TIMEOUT_MS_CONFIG, settings.getRequestTimeoutMs());
+            props.put(ProducerConfig.LINGER_MS_CONFIG, settings.getLingerMs());
+            props.put(ProducerConfig.BATCH_SIZE_CONFIG, settings.getBatchSize());
+            props.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, settings.getCompressionType());
+            props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, settings.isIdempotence() || settings.getTransactionalId() != null);
+            // Broker erişilemezken send()/commit çağrıları worker'ı varsayılan 60 sn bloklamasın
+            props.put(ProducerConfig.MAX_BLOCK_MS_CONFIG, settings.getRequestTimeoutMs());
+            if (settings.getTransactionalId() != null) {
+                props.put(ProducerConfig.TRANSACTIONAL_ID_CONFIG, settings.getTransactionalId());
+            }
+            if (PARTITIONER_STICKY_LEAST_LOADED.equals(settings.getPartitioner())) {
+                props.put(ProducerConfig.PARTITIONER_CLASS_CONFIG, StickyLeastLoadedPartitioner.class.getName());
+            }
 
-            producer = new KafkaProducer<>(props);
+            KafkaProducer<String, byte[]> created = new KafkaProducer<>(props);
+            if (settings.getTransactionalId() != null) {
+                try {
+                    // Aynı transactionalId ile açık kalmış eski producer'ı fence eder
+                    created.initTransactions();
+                } catch (Exception e) {
+                    created.close(Duration.ZERO);
+                    throw e;
+                }
+            }
+            producer = created;
 
-            log.info("✅ KafkaProducer READY → bootstrap={}, topic={}, acks={}, retries={}, deliveryTimeoutMs={}, requestTimeoutMs={}",
-                    bootstrapServers, topicName, acks, retries, deliveryTimeoutMs, requestTimeoutMs);
+            log.info("✅ KafkaProducer READY → bootstrap={}, topic={}, acks={}, retries={}, deliveryTimeoutMs={}, requestTimeoutMs={}, " +
+                            "sendMode={}, lingerMs={}, batchSize={}, compressionType={}, idempotence={}, transactionalId={}, messageFormat={}, " +
+                            "publishRates={}, publishSnapshots={}, snapshotTopic={}, partitioner={}, routingRules={}, outbox={}",
+                    settings.getBootstrapServers(), settings.getTopicName(), settings.getAcks(), settings.getRetries(),
+                    settings.getDeliveryTimeoutMs(), settings.getRequestTimeoutMs(), asyncSend ? SEND_MODE_ASYNC : SEND_MODE_SYNC,
+                    settings.getLingerMs(), settings.getBatchSize(), settings.getCompressionType(),
+                    settings.isIdempotence() || settings.getTransactionalId() != null, settings.getTransactionalId(),
+                    settings.getMessageFormat(), publishRates, publishSnapshots, settings.getSnapshotTopicName(),
+                    settings.getPartitioner(), router.ruleCount(),
+                    outbox != null ? outbox.getPath() : "disabled");
         } catch (Exception e) {
             producer = null;
             log.warn("⚠️ KafkaProducer INIT FAILED: {}", e.getMessage());
@@ -137,86 +247,631 @@ public class KafkaProducerService {
      * @throws IllegalArgumentException Rate null ise
      */
     public void sendRateToKafka(Rate rate) {
-        if (producer == null) {
+        KafkaProducer<String, byte[]> p = producer;
+        if (p == null) {
             throw new KafkaException("Kafka producer is null", rate.getRateName(), null);
         }
 
-        String timestamp = OffsetDateTime.now(ZoneOffset.UTC)
-                .format(DateTimeFormatter.ISO_OFFSET_DATE_TIME);
-
-        String payload = String.format("%s|%f|%f|%s",
-                rate.getRateName(),
-                rate.getFields().getBid(),
-                rate.getFields().getAsk(),
-                timestamp);
+        if (settings.getTransactionalId() != null) {
+            if (!sendTransactional(p, List.of(rateRecord(rate))).isEmpty()) {
+                throw new KafkaException("Kafka transaction failed", rate.toString(), null);
+            }
+            return;
+        }
 
-        ProducerRecord<String, String> record = new ProducerRecord<>(topicName, rate.getRateName(), payload);
+        ProducerRecord<String, byte[]> record = buildRecord(rate);
 
+        long start = System.nanoTime();
         try {
-            producer.send(record).get(requestTimeoutMs, TimeUnit.MILLISECONDS);
-            log.info("✅ Kafka OK → {}", payload);
+            p.send(record).get(settings.getRequestTimeoutMs(), TimeUnit.MILLISECONDS);
+            recordSent(record, start);
+            logSent(rate);
         } catch (Exception e) {
-            closeProducerSilently();
-            throw new KafkaException("Kafka send failed", payload, e);
+            metricsFor(record.topic()).recordFailed();
+            closeProducerSilently(p);
+            throw new KafkaException("Kafka send failed", rate.toString(), e);
         }
     }
 
     /**
-     * Belirtilen rate verisi listesini Kafka topic’ine gönderir.
-     * Başarılı gönderilen rate’leri döndürür, başarısız olanlar loglanır.
+     * Belirtilen rate verisi listesini, yeniden deneme kuyruğunda bekleyen rate’lerle birlikte
+     * Kafka topic’ine gönderir. Kuyruktaki rate’ler sıralamayı korumak için önce gönderilir;
+     * outbox’ta bekleyen kayıt varsa yeni rate’ler de outbox’ın sonuna eklenir ve döngü başına
+     * en fazla `drainBatchSize` kayıt sırayla gönderilir.
+     * Gönderim modu konfigürasyondaki `sendMode` ve `transactionalId`, kayıtların biçimi
+     * `publishMode` ile belirlenir; döngünün snapshot kaydı yalnızca bu çağrıda verilen
+     * rate’leri tek döngü numarasıyla taşır.
+     *
+     * <p>Dönen liste, sorumluluğu bu servise geçen rate’lerdir: gönderilen, onayı beklenen veya
+     * yeniden deneme kuyruğuna alınanlar. Bu rate’ler Redis’te pasifleştirilebilir. Bu çağrı
+     * sırasında başarısız olup kuyruk dolu olduğu için alınamayan rate döndürülmez; Redis’te
+     * aktif kaldığından bir sonraki döngüde tekrar gelir.</p>
+     *
+     * <p>`async` modunda onayı `requestTimeoutMs` içinde gelmeyen kayıtların rate’leri
+     * döndürülür (mükerrer gönderimi önlemek için). Böyle bir kayıt sonradan başarısız olur ve
+     * kuyruk da doluysa rate Redis’e geri döndürülemez: kaybolur, topic’in {@link TopicMetrics}
+     * `dropped` sayacına eklenir ve error seviyesinde loglanır. Kuyruktan yeniden denenen ve
+     * tekrar başarısız olup kuyruğa alınamayan rate de aynı şekilde kaybolur ve sayılır.</p>
      *
      * @param rates Gönderilecek rate verisi listesi, null veya boş olabilir
-     * @return Başarılı bir şekilde gönderilen rate’lerin listesi
+     * @return Gönderilen veya yeniden denenmek üzere kuyruğa alınan rate’lerin listesi
      */
     public List<Rate> sendRatesToKafka(List<Rate> rates) {
-        List<Rate> successfullySent = new ArrayList<>();
+        List<Rate> fresh = publishable(rates != null ? rates : List.of());
+        Set<Rate> notHandedOff = newIdentitySet();
+        List<Rate> batch = new ArrayList<>();
+        boolean fromOutbox = false;
+        int retried;
+        if (outbox == null) {
+            retried = retryQueue.drainTo(batch);
+            batch.addAll(fresh);
+        } else if (producer == null || outbox.getPendingRecords() > 0) {
+            // Outbox boşalana kadar yeni rate'ler de sıranın sonuna eklenir; rate başına sıra korunur.
+            // Producer yokken kayıt okunmaz: okunsaydı yeniden sona eklenip sırayı bozardı.
+            for (Rate rate : fresh) {
+                if (!enqueueForRetry(rate)) notHandedOff.add(rate);
+            }
+            if (producer != null) {
+                batch.addAll(outbox.poll(settings.getOutboxDrainBatchSize()));
+                fromOutbox = true;
+            } else if (!fresh.isEmpty()) {
+                log.error("❌ Kafka producer unavailable, {} rates queued in outbox", fresh.size());
+            }
+            retried = batch.size();
+        } else {
+            retried = 0;
+            batch.addAll(fresh);
+        }
 
-        if (rates == null || rates.isEmpty()) {
+        boolean settled = true;
+        if (batch.isEmpty()) {
             log.debug("⏳ Skipping Kafka send: rate list is empty.");
-            return successfullySent;
+        } else {
+            if (retried > 0) {
+                log.info("🔁 Retrying {} rates from local {}", retried, outbox != null ? "outbox" : "retry queue");
+            }
+            settled = sendBatch(batch, retried, notHandedOff, fromOutbox);
+        }
+
+        if (outbox != null) {
+            if (settled) {
+                // Okunan kayıtların hepsi onaylandı veya yeniden eklendi; alanları serbest bırakılabilir
+                outbox.commit();
+            } else {
+                // Onayı bilinmeyen kayıt varken okuma konumu ilerletilmez; çökme onları kaybettirmez
+                outbox.rewind();
+                log.warn("⏳ Kafka outbox not committed: drained records still unacknowledged, will be re-read");
+            }
+        }
+
+        List<Rate> handedOff = new ArrayList<>();
+        Set<Rate> freshSet = newIdentitySet();
+        freshSet.addAll(fresh);
+        if (rates != null) {
+            for (Rate rate : rates) {
+                // Kodlanamayan rate'ler hiçbir zaman gönderilemez; aktif kalıp her döngüde tekrar gelmesinler
+                if (!freshSet.contains(rate) || !notHandedOff.contains(rate)) handedOff.add(rate);
+            }
+        }
+        for (Rate rate : notHandedOff) {
+            // Kuyruktan gelen rate Redis'te zaten pasif; yeniden kuyruğa alınamazsa kaybolur
+            if (!freshSet.contains(rate)) recordDropped(rate);
+        }
+        return handedOff;
+    }
+
+    /**
+     * Rate’leri konfigürasyondaki moda göre gönderir; başarısız olanları yeniden deneme
+     * kuyruğuna veya outbox’a alır.
+     *
+     * <p>Outbox’tan okunan rate’ler `async` modda da outbox commit edilmeden önce
+     * onaylanmalıdır; bu yüzden onaylar `requestTimeoutMs` yerine producer’ın her callback’i
+     * çağırmayı garanti ettiği `deliveryTimeoutMs` kadar beklenir.</p>
+     *
+     * @param batch Gönderilecek rate’ler; önce kuyruktan yeniden denenenler, sonra bu döngünün rate’leri
+     * @param backlogSize `batch` başındaki yeniden denenen rate sayısı
+     * @param notHandedOff Kuyruk dolu olduğu için alınamayan rate’lerin ekleneceği küme
+     * @param fromOutbox Rate’ler outbox’tan okunduysa true
+     * @return Tüm kayıtların sonucu (onay veya yeniden kuyruğa alma) belliyse true,
+     *         onayı beklenen kayıt kaldıysa false
+     */
+    private boolean sendBatch(List<Rate> batch, int backlogSize, Set<Rate> notHandedOff, boolean fromOutbox) {
+        KafkaProducer<String, byte[]> p = producer;
+        List<Rate> failed = new ArrayList<>();
+        boolean settled = true;
+        if (p == null) {
+            log.error("❌ Kafka producer unavailable, {} rates queued for retry", batch.size());
+            failed.addAll(batch);
+        } else {
+            List<OutgoingRecord> records = buildRecords(batch.subList(0, backlogSize), batch.subList(backlogSize, batch.size()));
+            if (settings.getTransactionalId() != null) {
+                failed.addAll(sendTransactional(p, records));
+            } else if (asyncSend) {
+                long awaitMs = fromOutbox ? settings.getDeliveryTimeoutMs() : settings.getRequestTimeoutMs();
+                settled = sendRecordsAsync(p, records, awaitMs, failed, notHandedOff);
+            } else {
+                failed.addAll(sendRecordsSync(p, records));
+            }
+        }
+
+        // `both` modunda bir rate hem kendi kaydında hem snapshot'ta başarısız olabilir
+        Set<Rate> queued = newIdentitySet();
+        for (Rate rate : failed) {
+            if (queued.add(rate) && !enqueueForRetry(rate)) notHandedOff.add(rate);
         }
+        return settled;
+    }
+
+    /**
+     * Kayıtları sırayla gönderir ve her biri için broker onayını bekler.
+     *
+     * @return Gönderilemeyen kayıtların rate’leri
+     */
+    private List<Rate> sendRecordsSync(KafkaProducer<String, byte[]> p, List<OutgoingRecord> records) {
+        List<Rate> failed = new ArrayList<>();
 
-        for (Rate rate : rates) {
-            if (producer == null) {
-                log.error("❌ Kafka producer unavailable, skipping rate: {}", rate.getRateName());
+        for (OutgoingRecord outgoing : records) {
+            if (producer != p) {
+                // Önceki bir kayıtta producer kapatıldı; kalanlar yeniden denenir
+                failed.addAll(outgoing.rates);
                 continue;
             }
 
-            String timestamp = OffsetDateTime.now(ZoneOffset.UTC)
-                    .format(DateTimeFormatter.ISO_OFFSET_DATE_TIME);
+            long start = System.nanoTime();
+            try {
+                p.send(outgoing.record).get(settings.getRequestTimeoutMs(), TimeUnit.MILLISECONDS);
+                recordSent(outgoing.record, start);
+                logSent(outgoing);
+            } catch (Exception e) {
+                log.error("❌ Kafka send failed for {} → {}", outgoing.describe(), e.getMessage());
+                metricsFor(outgoing.record.topic()).recordFailed();
+                failed.addAll(outgoing.rates);
+                closeProducerSilently(p); // force reinit
+            }
+        }
 
-            String payload = String.format("%s|%f|%f|%s",
-                    rate.getRateName(),
-                    rate.getFields().getBid(),
-                    rate.getFields().getAsk(),
-                    timestamp);
+        return failed;
+    }
 
-            ProducerRecord<String, String> record = new ProducerRecord<>(topicName, rate.getRateName(), payload);
+    /**
+     * Kayıtların tümünü tek bir Kafka transaction’ında gönderir. Commit, tüm kayıtların
+     * onaylanmasını bekler; commit’ten önceki bir hata transaction’ı iptal eder ve hiçbir kayıt
+     * `read_committed` tüketicilere görünmez.
+     *
+     * <p>Commit zaman aşımına uğrarsa broker transaction’ı commit etmiş olabilir; bu durumda
+     * iptal edilmez, Kafka’nın sözleşmesine uygun olarak commit `deliveryTimeoutMs` dolana kadar
+     * yeniden denenir. Süre dolarsa sonuç bilinmez: producer kapatılır ve rate’ler yeniden
+     * kuyruğa alınır (en az bir kez, mükerrer olabilir).</p>
+     *
+     * @return Commit başarılıysa boş liste, aksi halde kayıtların tüm rate’leri
+     */
+    private List<Rate> sendTransactional(KafkaProducer<String, byte[]> p, List<OutgoingRecord> records) {
+        List<Rate> rates = new ArrayList<>();
+        for (OutgoingRecord outgoing : records) rates.addAll(outgoing.rates);
+        long start = System.nanoTime();
+        try {
+            p.beginTransaction();
+            for (OutgoingRecord outgoing : records) {
+                p.send(outgoing.record);
+                log.debug("📤 Kafka TX send → {}", outgoing.describe());
+            }
+        } catch (Exception e) {
+            return failTransaction(p, records, e);
+        }
 
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(settings.getDeliveryTimeoutMs());
+        while (true) {
             try {
-                producer.send(record).get(requestTimeoutMs, TimeUnit.MILLISECONDS);
-                log.info("✅ Kafka OK → {}", payload);
-                successfullySent.add(rate);
+                p.commitTransaction();
+                break;
+            } catch (TimeoutException e) {
+                if (System.nanoTime() - deadline >= 0) {
+                    log.error("❌ Kafka TX commit outcome unknown after {} ms, producer will be re-created and rates retried → {}",
+                            settings.getDeliveryTimeoutMs(), e.getMessage());
+                    recordFailed(records);
+                    closeProducerSilently(p);
+                    return rates;
+                }
+                // Broker commit etmiş olabilir: iptal etmek yerine aynı commit yeniden denenir
+                log.warn("⏳ Kafka TX commit timed out, retrying commit → {}", e.getMessage());
             } catch (Exception e) {
-                log.error("❌ Kafka send failed for rate: {} → {}", rate.getRateName(), e.getMessage());
-                closeProducerSilently(); // force reinit
+                return failTransaction(p, records, e);
             }
         }
 
-        return successfullySent;
+        // Kayıtlar commit ile birlikte görünür olduğundan onay süresi commit'e kadar ölçülür
+        for (OutgoingRecord outgoing : records) recordSent(outgoing.record, start);
+        log.info("✅ Kafka TX committed → {} records", records.size());
+        return List.of();
     }
 
     /**
-     * Kafka producer’ını sessizce kapatır.
-     * İstisnalar yakalanır ve loglanmaz, producer null olarak ayarlanır.
+     * Commit edilemeyen transaction’ı ele alır: kurtarılamaz hatalarda producer kapatılır,
+     * diğerlerinde transaction iptal edilir.
+     *
+     * @return Yeniden kuyruğa alınacak, kayıtların tüm rate’leri
      */
-    private void closeProducerSilently() {
+    private List<Rate> failTransaction(KafkaProducer<String, byte[]> p, List<OutgoingRecord> records, Exception e) {
+        List<Rate> rates = new ArrayList<>();
+        for (OutgoingRecord outgoing : records) rates.addAll(outgoing.rates);
+        recordFailed(records);
+        if (e instanceof ProducerFencedException || e instanceof OutOfOrderSequenceException
+                || e instanceof AuthorizationException || e instanceof UnsupportedVersionException) {
+            // Kurtarılamaz hatalar: producer kapatılır, reinit yeni bir epoch ile başlar
+            log.error("❌ Fatal Kafka transaction error, producer will be re-created → {}", e.getMessage());
+            closeProducerSilently(p);
+            return rates;
+        }
+        log.error("❌ Kafka transaction failed, aborting → {}", e.getMessage());
         try {
-            if (producer != null) {
-                producer.close();
+            p.abortTransaction();
+        } catch (Exception abortError) {
+            log.error("❌ Kafka transaction abort failed, producer will be re-created → {}", abortError.getMessage());
+            closeProducerSilently(p);
+        }
+        return rates;
+    }
+
+    /**
+     * Rate’i outbox’a, outbox kapalıysa yerel yeniden deneme kuyruğuna ekler.
+     *
+     * @return Kuyruğa eklendiyse true, kuyruk doluysa false
+     */
+    private boolean enqueueForRetry(Rate rate) {
+        if (outbox != null) {
+            if (outbox.append(rate)) return true;
+            log.error("❌ Kafka outbox full ({} bytes), rate not queued: {}", outbox.getPendingBytes(), rate.getRateName());
+            return false;
+        }
+        if (retryQueue.offer(rate)) return true;
+        log.error("❌ Kafka retry queue full ({}), rate not queued: {}", retryQueue.size(), rate.getRateName());
+        return false;
+    }
+
+    /**
+     * @return Yerel yeniden deneme kuyruğunda, outbox açıksa outbox’ta bekleyen rate sayısı
+     */
+    public int getRetryQueueSize() {
+        return outbox != null ? (int) Math.min(Integer.MAX_VALUE, outbox.getPendingRecords()) : retryQueue.size();
+    }
+
+    /**
+     * Kayıtların tümünü beklemeden gönderir; producer bunları `linger.ms` / `batch.size`
+     * ayarlarına göre batch’ler. Onaylar producer’ın I/O thread’inde çalışan callback’lerle
+     * toplanır ve tüm gönderimler için en fazla `awaitMs` kadar tek seferde beklenir.
+     * Başarısız olan kayıtların rate’leri callback tarafından yeniden deneme kuyruğuna alınır.
+     * Süre içinde onaylanmayan kayıtlar producer’da kalır; geç gelen bir onay mükerrer
+     * gönderime yol açmaz.
+     *
+     * <p>Kuyruk doluysa: bekleme süresi içinde başarısız olan rate `notHandedOff` kümesine
+     * eklenir ve Redis’te aktif kalır; süre dolduktan sonra başarısız olan rate ise artık
+     * pasifleştirilmiş olduğundan kaybolur ve `dropped` olarak sayılır.</p>
+     *
+     * @param awaitMs Onaylar için beklenecek en uzun süre (milisaniye cinsinden)
+     * @param rejected send() çağrısında hemen başarısız olan kayıtların rate’lerinin ekleneceği liste
+     * @param notHandedOff Bekleme süresi içinde kuyruğa alınamayan rate’lerin ekleneceği küme
+     * @return Tüm kayıtların callback’i bekleme süresi içinde geldiyse true
+     */
+    private boolean sendRecordsAsync(KafkaProducer<String, byte[]> p, List<OutgoingRecord> records, long awaitMs,
+                                     List<Rate> rejected, Set<Rate> notHandedOff) {
+        CountDownLatch pending = new CountDownLatch(records.size());
+        AtomicBoolean failed = new AtomicBoolean(false);
+        // Bir rate birden fazla kayıtta başarısız olursa kuyruğa yalnızca bir kez alınır
+        Set<Rate> requeued = Collections.synchronizedSet(newIdentitySet());
+        AsyncHandOff handOff = new AsyncHandOff();
+
+        for (OutgoingRecord outgoing : records) {
+            long start = System.nanoTime();
+            try {
+                // Callback producer I/O thread'inde çalışır: yalnızca sonucu kaydet, bloklama
+                p.send(outgoing.record, (metadata, e) -> {
+                    if (e == null) {
+                        recordSent(outgoing.record, start);
+                        logSent(outgoing);
+                    } else {
+                        failed.set(true);
+                        log.error("❌ Kafka send failed for {} → {}", outgoing.describe(), e.getMessage());
+                        metricsFor(outgoing.record.topic()).recordFailed();
+                        for (Rate rate : outgoing.rates) {
+                            if (!requeued.add(rate) || enqueueForRetry(rate)) continue;
+                            if (!handOff.keepActive(rate)) recordDropped(rate);
+                        }
+                    }
+                    pending.countDown();
+                });
+            } catch (Exception e) {
+                failed.set(true);
+                metricsFor(outgoing.record.topic()).recordFailed();
+                for (Rate rate : outgoing.rates) {
+                    if (requeued.add(rate)) rejected.add(rate);
+                }
+                pending.countDown();
+                log.error("❌ Kafka send failed for {} → {}", outgoing.describe(), e.getMessage());
             }
-        } catch (Exception ignored) {
         }
+
+        boolean settled = false;
+        try {
+            settled = pending.await(awaitMs, TimeUnit.MILLISECONDS);
+            if (!settled) {
+                log.warn("⏳ {} of {} records not acknowledged within {} ms, still in flight",
+                        pending.getCount(), records.size(), awaitMs);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("⚠️ Interrupted while waiting for Kafka acknowledgements");
+        }
+        notHandedOff.addAll(handOff.close());
+
+        if (failed.get()) {
+            closeProducerSilently(p); // force reinit
+        }
+
+        return settled;
+    }
+
+    /**
+     * Rate için anahtarı rate adı olan Kafka kaydını oluşturur ve header’larını ekler.
+     * Topic ve partition {@link TopicRouter} ile belirlenir; mesaj gövdesi konfigürasyondaki
+     * `messageFormat` ile {@link RateMessageCodec} tarafından kodlanır.
+     *
+     * @param rate Gönderilecek rate
+     * @return Gönderilmeye hazır kayıt
+     */
+    private ProducerRecord<String, byte[]> buildRecord(Rate rate) {
+        byte[] payload = RateMessageCodec.encode(rate, settings.getMessageFormat());
+        TopicRouter.Route route = router.route(rate.getRateName());
+        Integer partition = route.partition() == TopicRouter.ANY_PARTITION ? null : route.partition();
+        ProducerRecord<String, byte[]> record = new ProducerRecord<>(route.topic(), partition, rate.getRateName(), payload);
+        addFreshnessHeader(record, rate);
+        return record;
+    }
+
+    /**
+     * Konfigürasyondaki `publishMode`'a göre gönderilecek kayıtları oluşturur: her rate için
+     * bir kayıt ve/veya snapshot kayıtları. Bu döngünün snapshot'ı yalnızca döngünün kendi
+     * rate'lerini taşır; kuyruktan yeniden denenen rate'ler ayrı snapshot'larla gönderilir.
+     *
+     * @param backlog Kuyruktan yeniden denenen rate'ler, eklenme sırasıyla
+     * @param cycle Bu döngüde hesaplanan rate'ler
+     * @return Gönderilecek kayıtlar; yeniden denenenler önce
+     */
+    private List<OutgoingRecord> buildRecords(List<Rate> backlog, List<Rate> cycle) {
+        List<OutgoingRecord> records = new ArrayList<>(backlog.size() + cycle.size() + 2);
+        if (publishRates) {
+            for (Rate rate : backlog) records.add(rateRecord(rate));
+            for (Rate rate : cycle) records.add(rateRecord(rate));
+        }
+        if (publishSnapshots) {
+            addSnapshotRecords(records, backlog);
+            addSnapshotRecords(records, cycle);
+        }
+        return records;
+    }
+
+    /**
+     * Rate'leri sırayı koruyarak snapshot kayıtlarına böler. Bir snapshot aynı rate adını
+     * yalnızca bir kez ve en fazla {@value RateMessageCodec#MAX_SNAPSHOT_RATES} rate taşır;
+     * her snapshot yeni bir döngü numarası alır. Döngü zamanı, snapshot'taki en yeni
+     * hesaplama zamanıdır.
+     */
+    private void addSnapshotRecords(List<OutgoingRecord> records, List<Rate> rates) {
+        int from = 0;
+        while (from < rates.size()) {
+            Set<String> names = new HashSet<>();
+            long calculatedAt = Long.MIN_VALUE;
+            int to = from;
+            while (to < rates.size() && to - from < RateMessageCodec.MAX_SNAPSHOT_RATES
+                    && names.add(rates.get(to).getRateName())) {
+                calculatedAt = Math.max(calculatedAt, rates.get(to).getFields().getTimestamp());
+                to++;
+            }
+            List<Rate> entries = List.copyOf(rates.subList(from, to));
+            long cycleId = cycleSequence.incrementAndGet();
+            byte[] payload = RateMessageCodec.encodeSnapshot(cycleId, calculatedAt, entries);
+            records.add(new OutgoingRecord(new ProducerRecord<>(settings.getSnapshotTopicName(), SNAPSHOT_KEY, payload), entries, cycleId));
+            from = to;
+        }
+    }
+
+    /**
+     * Seçilen biçimlerde kodlanamayacak rate'leri (binary/snapshot için adı 255 byte'tan uzun)
+     * ayıklar; bunlar error seviyesinde loglanır ve `dropped` olarak sayılır.
+     *
+     * @return Gönderilebilir rate'ler; hepsi uygunsa verilen liste
+     */
+    private List<Rate> publishable(List<Rate> rates) {
+        boolean binaryNames = publishSnapshots || outbox != null || RateMessageCodec.FORMAT_BINARY.equals(settings.getMessageFormat());
+        if (!binaryNames) return rates;
+        List<Rate> accepted = null;
+        for (int i = 0; i < rates.size(); i++) {
+            Rate rate = rates.get(i);
+            if (RateMessageCodec.fitsBinary(rate)) {
+                if (accepted != null) accepted.add(rate);
+                continue;
+            }
+            if (accepted == null) accepted = new ArrayList<>(rates.subList(0, i));
+            metricsFor(router.route(rate.getRateName()).topic()).recordDropped();
+            log.error("❌ Kafka rate dropped: name longer than 255 UTF-8 bytes → {}", rate.getRateName());
+        }
+        return accepted != null ? accepted : rates;
+    }
+
+    private OutgoingRecord rateRecord(Rate rate) {
+        return new OutgoingRecord(buildRecord(rate), List.of(rate), NO_CYCLE);
+    }
+
+    private static void logSent(OutgoingRecord outgoing) {
+        if (outgoing.cycleId == NO_CYCLE) {
+            logSent(outgoing.rates.get(0));
+        } else {
+            log.info("✅ Kafka OK → snapshot cycle={} rates={}", outgoing.cycleId, outgoing.rates.size());
+        }
+    }
+
+    private static void logSent(Rate rate) {
+        log.info("✅ Kafka OK → {} bid={} ask={} ts={}",
+                rate.getRateName(), rate.getFields().getBid(), rate.getFields().getAsk(), rate.getFields().getTimestamp());
+    }
+
+    private TopicMetrics metricsFor(String topic) {
+        return topicMetrics.computeIfAbsent(topic, t -> new TopicMetrics());
+    }
+
+    private void recordSent(ProducerRecord<String, byte[]> record, long startNanos) {
+        metricsFor(record.topic()).recordSent(record.value().length, System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Redis’te artık aktif olmayan ve yeniden deneme kuyruğuna da alınamayan rate’i kayıp
+     * olarak sayar ve loglar.
+     */
+    private void recordDropped(Rate rate) {
+        metricsFor(router.route(rate.getRateName()).topic()).recordDropped();
+        log.error("❌ Kafka rate dropped: failed after hand-off and retry queue is full → {}", rate.getRateName());
+    }
+
+    private void recordFailed(List<OutgoingRecord> records) {
+        for (OutgoingRecord outgoing : records) metricsFor(outgoing.record.topic()).recordFailed();
+    }
+
+    /**
+     * @return Topic adına göre gönderim sayaçları (salt okunur görünüm)
+     */
+    public Map<String, TopicMetrics> getTopicMetrics() {
+        return Collections.unmodifiableMap(topicMetrics);
+    }
+
+    /**
+     * Topic ve outbox metriklerini loglar.
+     */
+    private void logMetrics() {
+        logTopicMetrics();
+        logOutboxMetrics();
+    }
+
+    /**
+     * Outbox’ta bekleyen rate ve byte sayısını, son loglamadan bu yana boşaltma hızını ve
+     * reddedilen rate sayısını loglar.
+     */
+    private void logOutboxMetrics() {
+        if (outbox == null) return;
+        long now = System.nanoTime();
+        long drainedCount = outbox.getDrainedCount();
+        double drainRate = (drainedCount - lastDrainedCount) / ((now - lastMetricsNanos) / 1e9);
+        lastDrainedCount = drainedCount;
+        lastMetricsNanos = now;
+        log.info("📦 Kafka outbox metrics → pending={} rates / {} of {} bytes, drainRate={}/s, appended={}, dropped={}",
+                outbox.getPendingRecords(), outbox.getPendingBytes(), outbox.getCapacity(),
+                String.format(Locale.ROOT, "%.1f", drainRate), outbox.getAppendedCount(), outbox.getDroppedCount());
+    }
+
+    /**
+     * Topic başına sayaçları, producer açıksa Kafka’nın `producer-topic-metrics` grubundaki
+     * gönderim ve sıkıştırma oranlarıyla birlikte loglar.
+     */
+    private void logTopicMetrics() {
+        KafkaProducer<String, byte[]> p = producer;
+        for (Map.Entry<String, TopicMetrics> entry : topicMetrics.entrySet()) {
+            String topic = entry.getKey();
+            log.info("📊 Kafka topic metrics → {} {} recordSendRate={} compressionRate={}", topic, entry.getValue(),
+                    producerTopicMetric(p, topic, "record-send-rate"), producerTopicMetric(p, topic, "compression-rate"));
+        }
+    }
+
+    private static Object producerTopicMetric(KafkaProducer<String, byte[]> p, String topic, String name) {
+        if (p == null) return "n/a";
+        try {
+            for (Map.Entry<MetricName, ? extends Metric> entry : p.metrics().entrySet()) {
+                MetricName metricName = entry.getKey();
+                if (name.equals(metricName.name()) && "producer-topic-metrics".equals(metricName.group())
+                        && topic.equals(metricName.tags().get("topic"))) {
+                    return entry.getValue().metricValue();
+                }
+            }
+        } catch (Exception e) {
+            log.debug("Kafka metric '{}' unavailable for topic {} → {}", name, topic, e.getMessage());
+        }
+        return "n/a";
+    }
+
+    private static Set<Rate> newIdentitySet() {
+        return Collections.newSetFromMap(new IdentityHashMap<>());
+    }
+
+    /**
+     * Hesaplanan kurun tazelik metriği varsa kayda {@value #FRESHNESS_HEADER} header'ı olarak ekler.
+     * Mesaj gövdesi değişmez; tüketiciler header'ı okumak zorunda değildir.
+     *
+     * @param record Gönderilecek Kafka kaydı
+     * @param rate Kaydın ait olduğu kur
+     */
+    private void addFreshnessHeader(ProducerRecord<String, byte[]> record, Rate rate) {
+        if (rate.getFreshnessMs() != null) {
+            record.headers().add(FRESHNESS_HEADER,
+                    Long.toString(rate.getFreshnessMs()).getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Hata veren Kafka producer’ını sessizce kapatır; scheduler bir sonraki periyotta yenisini
+     * oluşturur. {@link #initProducer()} ile aynı kilidi aldığından yeniden başlatmayla yarışmaz;
+     * producer bu arada değiştiyse (başka bir hata onu zaten kapattıysa) hiçbir şey yapılmaz.
+     * Kapanış en fazla {@link #CLOSE_TIMEOUT} bekler, gönderilmemiş kayıtlar atılır ve
+     * callback’leri hata ile çağrılır.
+     *
+     * @param failed Hata veren producer
+     */
+    private synchronized void closeProducerSilently(KafkaProducer<String, byte[]> failed) {
+        if (failed == null || producer != failed) return;
         producer = null;
+        try {
+            failed.close(CLOSE_TIMEOUT);
+        } catch (Exception ignored) {
+        }
+    }
+
+    /**
+     * Async gönderimde, bekleme süresi içinde başarısız olup kuyruğa alınamayan rate’leri
+     * toplar. {@link #close()} sonrasında gelen callback’ler rate’i artık Redis’te aktif
+     * tutamaz.
+     */
+    private static final class AsyncHandOff {
+        private final Set<Rate> keptActive = newIdentitySet();
+        private boolean closed;
+
+        /** @return Rate aktif tutulabildiyse true, çağrı zaten döndüyse false */
+        synchronized boolean keepActive(Rate rate) {
+            if (closed) return false;
+            keptActive.add(rate);
+            return true;
+        }
+
+        synchronized Set<Rate> close() {
+            closed = true;
+            return keptActive;
+        }
+    }
+
+    /**
+     * Gönderilecek bir Kafka kaydı ve başarısız olursa yeniden denenecek rate’leri.
+     * Rate kayıtları tek rate, snapshot kayıtları döngünün tüm rate’lerini taşır.
+     */
+    private static final class OutgoingRecord {
+        final ProducerRecord<String, byte[]> record;
+        final List<Rate> rates;
+        final long cycleId;
+
+        OutgoingRecord(ProducerRecord<String, byte[]> record, List<Rate> rates, long cycleId) {
+            this.record = record;
+            this.rates = rates;
+            this.cycleId = cycleId;
+        }
+
+        String describe() {
+            return cycleId == NO_CYCLE
+                    ? "rate: " + rates.get(0).getRateName()
+                    : "snapshot cycle " + cycleId + " (" + rates.size() + " rates)";
+        }
     }
 }
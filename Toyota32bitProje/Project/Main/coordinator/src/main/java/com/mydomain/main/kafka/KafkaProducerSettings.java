@@ -0,0 +1,280 @@
+package com.mydomain.main.kafka;
+
+import com.mydomain.main.config.ConfigReader;
+import com.mydomain.main.exception.ConfigLoadException;
+
+/**
+ * {@code KafkaProducerSettings}, {@link KafkaProducerService}'in producer ve gönderim
+ * ayarlarını tek bir değişmez nesnede toplar. Ayarlar ada göre {@link Builder} ile verilir;
+ * aynı tipteki parametrelerin yer değiştirmesi böylece derleme anında fark edilir.
+ *
+ * <p>Hizmetin temel işleyişi:
+ * <ul>
+ *   <li>İsteğe bağlı ayarların builder varsayılanları {@link ConfigReader}'dakilerle aynıdır;
+ *       bootstrapServers ve topicName zorunludur.</li>
+ *   <li>Seçenek değerleri (sendMode, messageFormat, publishMode, partitioner) ve sayısal
+ *       sınırlar {@link Builder#build()} sırasında doğrulanır.</li>
+ *   <li>Yönlendirici ({@link TopicRouter}) ve outbox ({@link RateOutbox}) ayar değil,
+ *       servisin yardımcı nesneleridir; servise ayrıca verilir.</li>
+ * </ul>
+ * </p>
+ *
+ * @author Ali Kerem Kol
+ * @version 1.0
+ * @since 2025-06-07
+ */
+public final class KafkaProducerSettings {
+
+    private final String bootstrapServers;
+    private final String topicName;
+    private final String acks;
+    private final int retries;
+    private final int deliveryTimeoutMs;
+    private final int requestTimeoutMs;
+    private final long reinitPeriodSec;
+    private final String sendMode;
+    private final int lingerMs;
+    private final int batchSize;
+    private final String compressionType;
+    private final boolean idempotence;
+    private final String transactionalId;
+    private final int retryQueueSize;
+    private final String messageFormat;
+    private final String publishMode;
+    private final String snapshotTopicName;
+    private final String partitioner;
+    private final long metricsLogPeriodSec;
+    private final int outboxDrainBatchSize;
+
+    private KafkaProducerSettings(Builder b) {
+        this.bootstrapServers = b.bootstrapServers;
+        this.topicName = b.topicName;
+        this.acks = b.acks;
+        this.retries = b.retries;
+        this.deliveryTimeoutMs = b.deliveryTimeoutMs;
+        this.requestTimeoutMs = b.requestTimeoutMs;
+        this.reinitPeriodSec = b.reinitPeriodSec;
+        this.sendMode = b.sendMode;
+        this.lingerMs = b.lingerMs;
+        this.batchSize = b.batchSize;
+        this.compressionType = b.compressionType;
+        this.idempotence = b.idempotence;
+        this.transactionalId = (b.transactionalId == null || b.transactionalId.isBlank()) ? null : b.transactionalId;
+        this.retryQueueSize = b.retryQueueSize;
+        this.messageFormat = b.messageFormat;
+        this.publishMode = b.publishMode;
+        this.snapshotTopicName = (b.snapshotTopicName == null || b.snapshotTopicName.isBlank()) ? b.topicName : b.snapshotTopicName;
+        this.partitioner = b.partitioner;
+        this.metricsLogPeriodSec = b.metricsLogPeriodSec;
+        this.outboxDrainBatchSize = b.outboxDrainBatchSize;
+    }
+
+    /**
+     * @return Varsayılan değerlerle başlayan yeni bir builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * `kafka` konfigürasyonundan ayarları oluşturur.
+     *
+     * @return Konfigürasyona göre oluşturulmuş ayarlar
+     * @throws ConfigLoadException `initConfigs` çağrılmadıysa veya `kafka` nesnesi eksikse
+     * @throws IllegalArgumentException Bir ayar geçersizse
+     */
+    public static KafkaProducerSettings fromConfig() {
+        return builder()
+                .bootstrapServers(ConfigReader.getKafkaBootstrapServers())
+                .topicName(ConfigReader.getKafkaTopicName())
+                .acks(ConfigReader.getKafkaAcks())
+                .retries(ConfigReader.getKafkaRetries())
+                .deliveryTimeoutMs(ConfigReader.getKafkaDeliveryTimeout())
+                .requestTimeoutMs(ConfigReader.getKafkaRequestTimeout())
+                .reinitPeriodSec(ConfigReader.getKafkaReinitPeriod())
+                .sendMode(ConfigReader.getKafkaSendMode())
+                .lingerMs(ConfigReader.getKafkaLingerMs())
+                .batchSize(ConfigReader.getKafkaBatchSize())
+                .compressionType(ConfigReader.getKafkaCompressionType())
+                .idempotence(ConfigReader.getKafkaIdempotence())
+                .transactionalId(ConfigReader.getKafkaTransactionalId())
+                .retryQueueSize(ConfigReader.getKafkaRetryQueueSize())
+                .messageFormat(ConfigReader.getKafkaMessageFormat())
+                .publishMode(ConfigReader.getKafkaPublishMode())
+                .snapshotTopicName(ConfigReader.getKafkaSnapshotTopicName())
+                .partitioner(ConfigReader.getKafkaPartitioner())
+                .metricsLogPeriodSec(ConfigReader.getKafkaMetricsLogPeriodSec())
+                .outboxDrainBatchSize(ConfigReader.getKafkaOutboxDrainBatchSize())
+                .build();
+    }
+
+    /** @return Kafka broker adresleri */
+    public String getBootstrapServers() { return bootstrapServers; }
+
+    /** @return Varsayılan rate topic adı */
+    public String getTopicName() { return topicName; }
+
+    /** @return Gönderim doğrulama seviyesi */
+    public String getAcks() { return acks; }
+
+    /** @return Gönderim başarısızlığında yeniden deneme sayısı */
+    public int getRetries() { return retries; }
+
+    /** @return Mesaj teslim zaman aşımı (ms) */
+    public int getDeliveryTimeoutMs() { return deliveryTimeoutMs; }
+
+    /** @return İstek zaman aşımı (ms) */
+    public int getRequestTimeoutMs() { return requestTimeoutMs; }
+
+    /** @return Yeniden başlatma kontrol aralığı (saniye) */
+    public long getReinitPeriodSec() { return reinitPeriodSec; }
+
+    /** @return {@value KafkaProducerService#SEND_MODE_SYNC} veya {@value KafkaProducerService#SEND_MODE_ASYNC} */
+    public String getSendMode() { return sendMode; }
+
+    /** @return Producer linger.ms ayarı (ms) */
+    public int getLingerMs() { return lingerMs; }
+
+    /** @return Partition başına batch boyutu (byte) */
+    public int getBatchSize() { return batchSize; }
+
+    /** @return Sıkıştırma tipi */
+    public String getCompressionType() { return compressionType; }
+
+    /** @return Idempotent producer açıksa true */
+    public boolean isIdempotence() { return idempotence; }
+
+    /** @return Transaction kimliği, transaction kullanılmıyorsa null */
+    public String getTransactionalId() { return transactionalId; }
+
+    /** @return Yerel yeniden deneme kuyruğunun kapasitesi */
+    public int getRetryQueueSize() { return retryQueueSize; }
+
+    /** @return {@value RateMessageCodec#FORMAT_PIPE} veya {@value RateMessageCodec#FORMAT_BINARY} */
+    public String getMessageFormat() { return messageFormat; }
+
+    /** @return Yayın modu */
+    public String getPublishMode() { return publishMode; }
+
+    /** @return Snapshot topic adı; tanımlı değilse {@link #getTopicName()} */
+    public String getSnapshotTopicName() { return snapshotTopicName; }
+
+    /** @return Partitioner adı */
+    public String getPartitioner() { return partitioner; }
+
+    /** @return Topic metriklerinin loglanma aralığı (saniye), 0 veya negatifse loglanmaz */
+    public long getMetricsLogPeriodSec() { return metricsLogPeriodSec; }
+
+    /** @return Döngü başına outbox'tan okunacak en fazla rate sayısı */
+    public int getOutboxDrainBatchSize() { return outboxDrainBatchSize; }
+
+    /**
+     * {@link KafkaProducerSettings} için ada dayalı builder. Verilmeyen ayarlar
+     * konfigürasyon varsayılanlarını alır.
+     */
+    public static final class Builder {
+        private String bootstrapServers;
+        private String topicName;
+        private String acks = "all";
+        private int retries = 3;
+        private int deliveryTimeoutMs = 30000;
+        private int requestTimeoutMs = 15000;
+        private long reinitPeriodSec = 5;
+        private String sendMode = KafkaProducerService.SEND_MODE_SYNC;
+        private int lingerMs = 0;
+        private int batchSize = 16384;
+        private String compressionType = "none";
+        private boolean idempotence = true;
+        private String transactionalId;
+        private int retryQueueSize = 1000;
+        private String messageFormat = RateMessageCodec.FORMAT_PIPE;
+        private String publishMode = KafkaProducerService.PUBLISH_MODE_RATE;
+        private String snapshotTopicName;
+        private String partitioner = KafkaProducerService.PARTITIONER_DEFAULT;
+        private long metricsLogPeriodSec = 60;
+        private int outboxDrainBatchSize = 10000;
+
+        private Builder() {
+        }
+
+        public Builder bootstrapServers(String bootstrapServers) { this.bootstrapServers = bootstrapServers; return this; }
+
+        public Builder topicName(String topicName) { this.topicName = topicName; return this; }
+
+        public Builder acks(String acks) { this.acks = acks; return this; }
+
+        public Builder retries(int retries) { this.retries = retries; return this; }
+
+        public Builder deliveryTimeoutMs(int deliveryTimeoutMs) { this.deliveryTimeoutMs = deliveryTimeoutMs; return this; }
+
+        public Builder requestTimeoutMs(int requestTimeoutMs) { this.requestTimeoutMs = requestTimeoutMs; return this; }
+
+        public Builder reinitPeriodSec(long reinitPeriodSec) { this.reinitPeriodSec = reinitPeriodSec; return this; }
+
+        public Builder sendMode(String sendMode) { this.sendMode = sendMode; return this; }
+
+        public Builder lingerMs(int lingerMs) { this.lingerMs = lingerMs; return this; }
+
+        public Builder batchSize(int batchSize) { this.batchSize = batchSize; return this; }
+
+        public Builder compressionType(String compressionType) { this.compressionType = compressionType; return this; }
+
+        public Builder idempotence(boolean idempotence) { this.idempotence = idempotence; return this; }
+
+        public Builder transactionalId(String transactionalId) { this.transactionalId = transactionalId; return this; }
+
+        public Builder retryQueueSize(int retryQueueSize) { this.retryQueueSize = retryQueueSize; return this; }
+
+        public Builder messageFormat(String messageFormat) { this.messageFormat = messageFormat; return this; }
+
+        public Builder publishMode(String publishMode) { this.publishMode = publishMode; return this; }
+
+        public Builder snapshotTopicName(String snapshotTopicName) { this.snapshotTopicName = snapshotTopicName; return this; }
+
+        public Builder partitioner(String partitioner) { this.partitioner = partitioner; return this; }
+
+        public Builder metricsLogPeriodSec(long metricsLogPeriodSec) { this.metricsLogPeriodSec = metricsLogPeriodSec; return this; }
+
+        public Builder outboxDrainBatchSize(int outboxDrainBatchSize) { this.outboxDrainBatchSize = outboxDrainBatchSize; return this; }
+
+        /**
+         * Ayarları doğrular ve değişmez nesneyi oluşturur.
+         *
+         * @return Oluşturulan ayarlar
+         * @throws IllegalArgumentException Zorunlu bir ayar eksikse veya bir ayar geçersizse
+         */
+        public KafkaProducerSettings build() {
+            if (bootstrapServers == null || bootstrapServers.isBlank()) {
+                throw new IllegalArgumentException("Kafka bootstrapServers is required");
+            }
+            if (topicName == null || topicName.isBlank()) {
+                throw new IllegalArgumentException("Kafka topicName is required");
+            }
+            if (!KafkaProducerService.SEND_MODE_SYNC.equals(sendMode) && !KafkaProducerService.SEND_MODE_ASYNC.equals(sendMode)) {
+                throw new IllegalArgumentException("Unknown Kafka sendMode: " + sendMode);
+            }
+            if (!RateMessageCodec.FORMAT_PIPE.equals(messageFormat) && !RateMessageCodec.FORMAT_BINARY.equals(messageFormat)) {
+                throw new IllegalArgumentException("Unknown Kafka messageFormat: " + messageFormat);
+            }
+            if (!KafkaProducerService.PUBLISH_MODE_RATE.equals(publishMode)
+                    && !KafkaProducerService.PUBLISH_MODE_SNAPSHOT.equals(publishMode)
+                    && !KafkaProducerService.PUBLISH_MODE_BOTH.equals(publishMode)) {
+                throw new IllegalArgumentException("Unknown Kafka publishMode: " + publishMode);
+            }
+            if (!KafkaProducerService.PARTITIONER_DEFAULT.equals(partitioner)
+                    && !KafkaProducerService.PARTITIONER_STICKY_LEAST_LOADED.equals(partitioner)) {
+                throw new IllegalArgumentException("Unknown Kafka partitioner: " + partitioner);
+            }
+            if (retryQueueSize < 1) {
+                throw new IllegalArgumentException("Kafka retryQueueSize must be at least 1: " + retryQueueSize);
+            }
+            if (reinitPeriodSec < 1) {
+                throw new IllegalArgumentException("Kafka reinitPeriodSec must be at least 1: " + reinitPeriodSec);
+            }
+            if (outboxDrainBatchSize < 1) {
+                throw new IllegalArgumentException("Kafka outbox drainBatchSize must be at least 1: " + outboxDrainBatchSize);
+            }
+            return new KafkaProducerSettings(this);
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.mydomain.main.kafka;
+
+import com.mydomain.main.model.Rate;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * {@code RateMessageCodec}, hesaplanan kurları Kafka mesaj gövdesine çevirir. İki biçim
+ * desteklenir; tüketiciler biçimi mesajın ilk byte'ından otomatik olarak ayırt eder.
+ *
+ * <p>Biçimler:
+ * <ul>
+ *   <li><b>pipe</b> (uyumluluk): {@code rateName|bid|ask|ISO-8601 UTC zaman damgası},
+ *       UTF-8 metin. Sayılar yerel ayardan bağımsız olarak 6 ondalıkla yazılır.</li>
+ *   <li><b>binary</b> (v1): sabit genişlikli, big-endian alanlar; sayılar tam hassasiyetle
+ *       taşınır, metin biçimlendirme veya ayrıştırma yapılmaz.</li>
+ * </ul>
+ * </p>
+ *
+ * <p>Binary v1 yerleşimi (toplam {@value #BINARY_HEADER_SIZE} + ad uzunluğu byte):
+ * <pre>
+ *   0  byte    magic   (0xFE, geçerli UTF-8 metnin ilk byte'ı olamaz)
+ *   1  byte    version (1)
+ *   2  double  bid
+ *  10  double  ask
+ *  18  long    zaman damgası, epoch nanosaniye
+ *  26  byte    rateName uzunluğu (işaretsiz, en fazla 255)
+ *  27  byte[]  rateName, UTF-8
+ * </pre>
+ * </p>
+ *
+ * <p>Snapshot v2, bir hesaplama döngüsünün tüm rate'lerini tek mesajda taşır; mesaj
+ * biçiminden bağımsız olarak her zaman binary'dir. Tek rate kayıtlarındaki `freshnessMs`
+ * header'ının karşılığı her rate'in kendi alanındadır (v1'de bu alan yoktu):
+ * <pre>
+ *   0  byte    magic   (0xFD)
+ *   1  byte    version (2)
+ *   2  long    cycleId (döngü numarası, artan)
+ *  10  long    döngü zamanı, epoch nanosaniye
+ *  18  short   rate sayısı (işaretsiz, en fazla 65535)
+ *  20  her rate için: bid double, ask double, epoch nanos long,
+ *      freshnessMs long (yoksa {@value #NO_FRESHNESS}), ad uzunluğu byte, rateName UTF-8
+ *      ({@value #SNAPSHOT_ENTRY_SIZE} + ad uzunluğu byte)
+ * </pre>
+ * </p>
+ *
+ * @author Ali Kerem Kol
+ * @version 1.0
+ * @since 2025-06-07
+ */
+public final class RateMessageCodec {
+
+    /** Uyumluluk için metin biçimi */
+    public static final String FORMAT_PIPE = "pipe";
+    /** Sabit genişlikli ikili biçim */
+    public static final String FORMAT_BINARY = "binary";
+
+    /** Binary mesajların ilk byte'ı */
+    public static final byte BINARY_MAGIC = (byte) 0xFE;
+    /** Binary şema sürümü */
+    public static final byte BINARY_VERSION = 1;
+    /** Binary mesajda rateName'den önceki sabit alanların boyutu (byte) */
+    public static final int BINARY_HEADER_SIZE = 27;
+
+    /** Snapshot mesajlarının ilk byte'ı */
+    public static final byte SNAPSHOT_MAGIC = (byte) 0xFD;
+    /** Snapshot şema sürümü */
+    public static final byte SNAPSHOT_VERSION = 2;
+    /** Snapshot mesajında rate kayıtlarından önceki sabit alanların boyutu (byte) */
+    public static final int SNAPSHOT_HEADER_SIZE = 20;
+    /** Snapshot içindeki her rate kaydının rateName hariç boyutu (byte) */
+    public static final int SNAPSHOT_ENTRY_SIZE = 33;
+    /** Snapshot'ta tazelik metriği olmayan rate'lerin `freshnessMs` değeri */
+    public static final long NO_FRESHNESS = -1L;
+
+    /** Tek bir snapshot mesajının taşıyabileceği en fazla rate sayısı */
+    public static final int MAX_SNAPSHOT_RATES = 0xFFFF;
+
+    private static final int MAX_NAME_LENGTH = 255;
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+
+    private RateMessageCodec() {
+    }
+
+    /**
+     * Rate'i istenen biçimde kodlar.
+     *
+     * @param rate Kodlanacak rate
+     * @param format {@value #FORMAT_PIPE} veya {@value #FORMAT_BINARY}
+     * @return Mesaj gövdesi
+     * @throws IllegalArgumentException Biçim bilinmiyorsa veya rate adı 255 byte'tan uzunsa
+     */
+    public static byte[] encode(Rate rate, String format) {
+        if (FORMAT_BINARY.equals(format)) return encodeBinary(rate);
+        if (FORMAT_PIPE.equals(format)) return encodePipe(rate);
+        throw new IllegalArgumentException("Unknown Kafka message format: " + format);
+    }
+
+    /**
+     * @param rate Kontrol edilecek rate
+     * @return Rate adı binary ve snapshot biçimlerine sığıyorsa (UTF-8'de en fazla 255 byte) true
+     */
+    public static boolean fitsBinary(Rate rate) {
+        return rate.getRateName().getBytes(StandardCharsets.UTF_8).length <= MAX_NAME_LENGTH;
+    }
+
+    /**
+     * Rate'i {@code rateName|bid|ask|timestamp} metnine çevirir. Zaman damgası rate'in kendi
+     * hesaplama zamanıdır; aynı rate'in yeniden gönderimi birebir aynı mesajı üretir.
+     *
+     * @param rate Kodlanacak rate
+     * @return UTF-8 mesaj gövdesi
+     */
+    public static byte[] encodePipe(Rate rate) {
+        String timestamp = Instant.ofEpochMilli(rate.getFields().getTimestamp())
+                .atOffset(ZoneOffset.UTC)
+                .format(DateTimeFormatter.ISO_OFFSET_DATE_TIME);
+
+        return String.format(Locale.ROOT, "%s|%f|%f|%s",
+                rate.getRateName(),
+                rate.getFields().getBid(),
+                rate.getFields().getAsk(),
+                timestamp).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Rate'i binary v1 biçimine çevirir.
+     *
+     * @param rate Kodlanacak rate
+     * @return Mesaj gövdesi
+     * @throws IllegalArgumentException Rate adı UTF-8'de 255 byte'tan uzunsa
+     */
+    public static byte[] encodeBinary(Rate rate) {
+        byte[] name = rate.getRateName().getBytes(StandardCharsets.UTF_8);
+        if (name.length > MAX_NAME_LENGTH) {
+            throw new IllegalArgumentException("Rate name too long for binary format: " + rate.getRateName());
+        }
+
+        return ByteBuffer.allocate(BINARY_HEADER_SIZE + name.length)
+                .put(BINARY_MAGIC)
+                .put(BINARY_VERSION)
+                .putDouble(rate.getFields().getBid())
+                .putDouble(rate.getFields().getAsk())
+                .putLong(rate.getFields().getTimestamp() * NANOS_PER_MILLI)
+                .put((byte) name.length)
+                .put(name)
+                .array();
+    }
+
+    /**
+     * Binary v1 mesajını rate'e geri çevirir. Zaman damgası milisaniyeye yuvarlanır;
+     * tazelik metriği taşınmadığından null kalır.
+     *
+     * @param message {@link #encodeBinary(Rate)} çıktısı
+     * @return Çözülen rate
+     * @throws IllegalArgumentException Mesaj binary v1 değilse veya eksikse
+     */
+    public static Rate decodeBinary(byte[] message) {
+        if (message.length < BINARY_HEADER_SIZE || message[0] != BINARY_MAGIC || message[1] != BINARY_VERSION) {
+            throw new IllegalArgumentException("Not a binary v1 rate message (length=" + message.length + ")");
+        }
+        ByteBuffer buf = ByteBuffer.wrap(message, 2, message.length - 2);
+        double bid = buf.getDouble();
+        double ask = buf.getDouble();
+        long timestamp = buf.getLong() / NANOS_PER_MILLI;
+        int nameLength = buf.get() & 0xFF;
+        if (buf.remaining() != nameLength) {
+            throw new IllegalArgumentException("Malformed binary rate message (name length " + nameLength
+                    + " but " + buf.remaining() + " bytes left)");
+        }
+        return new Rate(new String(message, BINARY_HEADER_SIZE, nameLength, StandardCharsets.UTF_8), bid, ask, timestamp);
+    }
+
+    /**
+     * Bir hesaplama döngüsünün rate'lerini tek bir snapshot v2 mesajına çevirir.
+     *
+     * @param cycleId Döngü numarası
+     * @param cycleTimestamp Döngünün hesaplama zamanı (epoch milisaniye)
+     * @param rates Döngünün rate'leri, en fazla 65535
+     * @return Mesaj gövdesi
+     * @throws IllegalArgumentException Rate sayısı 65535'i aşarsa veya bir rate adı 255 byte'tan uzunsa
+     */
+    public static byte[] encodeSnapshot(long cycleId, long cycleTimestamp, List<Rate> rates) {
+        if (rates.size() > MAX_SNAPSHOT_RATES) {
+            throw new IllegalArgumentException("Too many rates for one snapshot: " + rates.size());
+        }
+
+        byte[][] names = new byte[rates.size()][];
+        int size = SNAPSHOT_HEADER_SIZE;
+        for (int i = 0; i < names.length; i++) {
+            Rate rate = rates.get(i);
+            names[i] = rate.getRateName().getBytes(StandardCharsets.UTF_8);
+            if (names[i].length > MAX_NAME_LENGTH) {
+                throw new IllegalArgumentException("Rate name too long for binary format: " + rate.getRateName());
+            }
+            size += SNAPSHOT_ENTRY_SIZE + names[i].length;
+        }
+
+        ByteBuffer buf = ByteBuffer.allocate(size)
+                .put(SNAPSHOT_MAGIC)
+                .put(SNAPSHOT_VERSION)
+                .putLong(cycleId)
+                .putLong(cycleTimestamp * NANOS_PER_MILLI)
+                .putShort((short) rates.size());
+        for (int i = 0; i < names.length; i++) {
+            Rate rate = rates.get(i);
+            buf.putDouble(rate.getFields().getBid())
+                    .putDouble(rate.getFields().getAsk())
+                    .putLong(rate.getFields().getTimestamp() * NANOS_PER_MILLI)
+                    .putLong(rate.getFreshnessMs() != null ? rate.getFreshnessMs() : NO_FRESHNESS)
+                    .put((byte) names[i].length)
+                    .put(names[i]);
+        }
+        return buf.array();
+    }
+}
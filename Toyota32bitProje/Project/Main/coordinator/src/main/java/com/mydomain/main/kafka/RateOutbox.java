@@ -0,0 +1,374 @@
+package com.mydomain.main.kafka;
+
+import com.mydomain.main.config.ConfigReader;
+import com.mydomain.main.model.Rate;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@code RateOutbox}, Kafka'ya gönderilemeyen hesaplanmış kurları diskte, belleğe eşlenmiş
+ * (memory-mapped) sabit boyutlu bir dosyada sırayla tutan yerel kuyruktur. Kafka kesintisi
+ * Redis TTL süresinden uzun sürse de kurlar kaybolmaz; producer toparlandığında yazıldıkları
+ * sırayla geri okunur.
+ *
+ * <p>Hizmetin temel işleyişi:
+ * <ul>
+ *   <li>Her kayıt 4 byte uzunluk, 8 byte tazelik (`freshnessMs`, yoksa -1) ve
+ *       {@link RateMessageCodec} binary v1 gövdesinden oluşur; dosyanın veri bölgesi halka
+ *       (ring) olarak kullanılır.</li>
+ *   <li>Başlıkta kalıcı okuma ve yazma konumları tutulur. Yazma konumu her eklemede, okuma
+ *       konumu yalnızca {@link #commit()} ile güncellenir; commit edilmeden önce çöken bir
+ *       uygulama kayıtları yeniden gönderir (en az bir kez), kaybetmez. Teslimi
+ *       doğrulanamayan okumalar {@link #rewind()} ile geri alınır.</li>
+ *   <li>Dosya boyutu sabittir; dolduğunda yeni kayıtlar reddedilir ve sayılır.</li>
+ *   <li>Açılışta mevcut dosya doğrulanır ve bekleyen kayıtlar taranır; yarım kalmış son
+ *       kayıt atılır.</li>
+ * </ul>
+ * </p>
+ *
+ * <p><b>Özellikler:</b>
+ * <ul>
+ *   <li>Yazımlar işletim sisteminin sayfa önbelleğine gider; uygulama çökse de veri korunur.
+ *       `forceOnWrite` açıksa her commit'te dosya diske de zorlanır (işletim sistemi çökmesine
+ *       karşı, daha yavaş).</li>
+ *   <li>Bekleyen kayıt/byte sayısı, eklenen, boşaltılan (commit edilen) ve reddedilen kayıt
+ *       sayaçları metrik olarak okunabilir.</li>
+ *   <li>Tüm metotlar thread-safe'tir; producer callback'leri ve worker thread'i aynı anda
+ *       kullanabilir.</li>
+ * </ul>
+ * </p>
+ *
+ * @author Ali Kerem Kol
+ * @version 1.0
+ * @since 2025-06-07
+ */
+public class RateOutbox {
+
+    private static final Logger log = LogManager.getLogger(RateOutbox.class);
+
+    private static final int FILE_MAGIC = 0x52544F42; // "RTOB"
+    private static final int FILE_VERSION = 2;
+
+    // Başlık: magic int, version int, capacity long, readPos long, writePos long
+    private static final int HEADER_SIZE = 32;
+    private static final int OFFSET_CAPACITY = 8;
+    private static final int OFFSET_READ = 16;
+    private static final int OFFSET_WRITE = 24;
+
+    private static final int LENGTH_PREFIX = 4;
+    private static final int FRESHNESS_SIZE = 8;
+    private static final long NO_FRESHNESS = -1L;
+    private static final int MIN_RECORD_SIZE = FRESHNESS_SIZE + RateMessageCodec.BINARY_HEADER_SIZE;
+    private static final int MAX_RECORD_SIZE = MIN_RECORD_SIZE + 255;
+
+    private final Path path;
+    private final MappedByteBuffer map;
+    private final int capacity;
+    private final boolean forceOnWrite;
+
+    /** Kalıcı okuma konumu; bu konumdan önceki alan yeniden yazılabilir */
+    private long committedReadPos;
+    /** Bir sonraki okunacak kaydın konumu; commit edilene kadar kalıcı değildir */
+    private long readPos;
+    private long writePos;
+    private long pendingRecords;
+    /** Son commit'ten bu yana okunan kayıt sayısı; {@link #rewind()} ile bekleyenlere geri eklenir */
+    private long uncommittedRecords;
+    /** Son commit'ten bu yana okunup çözülebilen rate sayısı; commit'te boşaltılanlara eklenir */
+    private long uncommittedRates;
+
+    private long appended;
+    private long drained;
+    private long dropped;
+
+    private RateOutbox(Path path, MappedByteBuffer map, int capacity, boolean forceOnWrite) {
+        this.path = path;
+        this.map = map;
+        this.capacity = capacity;
+        this.forceOnWrite = forceOnWrite;
+    }
+
+    /**
+     * Outbox dosyasını açar; yoksa oluşturur. Mevcut dosyanın kapasitesi konfigürasyondan
+     * farklıysa bekleyen kayıtları korumak için dosyadaki kapasite kullanılır.
+     *
+     * @param path Dosya yolu
+     * @param maxBytes Veri bölgesinin boyutu (byte cinsinden)
+     * @param forceOnWrite Her commit'te dosya diske zorlanacaksa true
+     * @return Açılmış outbox
+     * @throws IOException Dosya oluşturulamaz veya eşlenemezse
+     * @throws IllegalArgumentException Boyut bir kaydı alamayacak kadar küçük veya 2 GB'tan büyükse
+     */
+    public static RateOutbox open(Path path, long maxBytes, boolean forceOnWrite) throws IOException {
+        if (maxBytes < LENGTH_PREFIX + MAX_RECORD_SIZE || maxBytes > Integer.MAX_VALUE - HEADER_SIZE) {
+            throw new IllegalArgumentException("Outbox size out of range: " + maxBytes);
+        }
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            int capacity = (int) maxBytes;
+            boolean existing = channel.size() >= HEADER_SIZE;
+            if (existing) {
+                MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+                if (header.getInt(0) == FILE_MAGIC && header.getInt(4) == FILE_VERSION) {
+                    long fileCapacity = header.getLong(OFFSET_CAPACITY);
+                    if (fileCapacity != maxBytes && channel.size() == HEADER_SIZE + fileCapacity) {
+                        log.warn("⚠️ Outbox {} has capacity {} (configured {}), keeping file capacity", path, fileCapacity, maxBytes);
+                        capacity = (int) fileCapacity;
+                    }
+                } else {
+                    log.warn("⚠️ Outbox {} has an unknown header, starting empty", path);
+                    existing = false;
+                }
+            }
+
+            // Eşleme kanal kapandıktan sonra da geçerlidir
+            MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) capacity);
+            RateOutbox outbox = new RateOutbox(path, map, capacity, forceOnWrite);
+            if (existing && map.getLong(OFFSET_CAPACITY) == capacity) {
+                outbox.recover();
+            } else {
+                outbox.reset();
+            }
+            return outbox;
+        }
+    }
+
+    /**
+     * `kafka.outbox` konfigürasyonundan outbox'ı açar.
+     *
+     * @return Açılmış outbox, `enabled` false ise null
+     * @throws UncheckedIOException Dosya açılamazsa
+     */
+    public static RateOutbox fromConfig() {
+        if (!ConfigReader.getKafkaOutboxEnabled()) return null;
+        Path path = Path.of(ConfigReader.getKafkaOutboxPath());
+        try {
+            return open(path, ConfigReader.getKafkaOutboxMaxBytes(), ConfigReader.getKafkaOutboxForceOnWrite());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open Kafka outbox " + path, e);
+        }
+    }
+
+    private void reset() {
+        map.putInt(0, FILE_MAGIC);
+        map.putInt(4, FILE_VERSION);
+        map.putLong(OFFSET_CAPACITY, capacity);
+        map.putLong(OFFSET_READ, 0L);
+        map.putLong(OFFSET_WRITE, 0L);
+        committedReadPos = readPos = writePos = 0L;
+        pendingRecords = uncommittedRecords = uncommittedRates = 0L;
+    }
+
+    private void recover() {
+        long read = map.getLong(OFFSET_READ);
+        long write = map.getLong(OFFSET_WRITE);
+        if (read < 0 || write < read || write - read > capacity) {
+            log.warn("⚠️ Outbox {} has inconsistent positions (read={}, write={}), starting empty", path, read, write);
+            reset();
+            return;
+        }
+
+        long pos = read;
+        long records = 0;
+        while (pos < write) {
+            int length = write - pos >= LENGTH_PREFIX ? readInt(pos) : -1;
+            if (length < MIN_RECORD_SIZE || length > MAX_RECORD_SIZE || pos + LENGTH_PREFIX + length > write) {
+                log.warn("⚠️ Outbox {} has a torn record at {}, dropping {} trailing bytes", path, pos, write - pos);
+                map.putLong(OFFSET_WRITE, pos);
+                break;
+            }
+            pos += LENGTH_PREFIX + length;
+            records++;
+        }
+
+        committedReadPos = readPos = read;
+        writePos = pos;
+        pendingRecords = records;
+        if (records > 0) {
+            log.info("📦 Outbox {} recovered → {} pending rates ({} bytes)", path, records, writePos - readPos);
+        }
+    }
+
+    /**
+     * Rate'i outbox'ın sonuna ekler.
+     *
+     * @param rate Eklenecek rate
+     * @return Eklendiyse true, outbox doluysa false
+     */
+    public synchronized boolean append(Rate rate) {
+        byte[] body = RateMessageCodec.encodeBinary(rate);
+        long freshness = rate.getFreshnessMs() != null ? rate.getFreshnessMs() : NO_FRESHNESS;
+        byte[] payload = ByteBuffer.allocate(FRESHNESS_SIZE + body.length).putLong(freshness).put(body).array();
+        int recordSize = LENGTH_PREFIX + payload.length;
+        if (writePos + recordSize - committedReadPos > capacity) {
+            dropped++;
+            return false;
+        }
+
+        writeInt(writePos, payload.length);
+        write(writePos + LENGTH_PREFIX, payload);
+        writePos += recordSize;
+        map.putLong(OFFSET_WRITE, writePos);
+        pendingRecords++;
+        appended++;
+        return true;
+    }
+
+    /**
+     * En eski bekleyen rate'leri sırayla okur. Okunan alan {@link #commit()} çağrılana kadar
+     * yeniden yazılmaz.
+     *
+     * @param max Okunacak en fazla rate sayısı
+     * @return Okunan rate'ler, outbox boşsa boş liste
+     */
+    public synchronized List<Rate> poll(int max) {
+        List<Rate> rates = new ArrayList<>((int) Math.min(max, pendingRecords));
+        while (rates.size() < max && readPos < writePos) {
+            int length = readInt(readPos);
+            byte[] payload = new byte[length];
+            read(readPos + LENGTH_PREFIX, payload);
+            readPos += LENGTH_PREFIX + length;
+            pendingRecords--;
+            uncommittedRecords++;
+            try {
+                rates.add(decode(payload));
+                uncommittedRates++;
+            } catch (IllegalArgumentException e) {
+                log.error("❌ Skipping unreadable outbox record → {}", e.getMessage());
+            }
+        }
+        return rates;
+    }
+
+    private static Rate decode(byte[] payload) {
+        ByteBuffer buf = ByteBuffer.wrap(payload);
+        long freshness = buf.getLong();
+        byte[] body = new byte[buf.remaining()];
+        buf.get(body);
+        Rate rate = RateMessageCodec.decodeBinary(body);
+        if (freshness != NO_FRESHNESS) {
+            rate.setFreshnessMs(freshness);
+        }
+        return rate;
+    }
+
+    /**
+     * Okunan kayıtların teslim edildiğini kalıcı hale getirir, alanlarını serbest bırakır ve
+     * boşaltılan sayacına ekler. `forceOnWrite` açıksa dosya diske zorlanır.
+     */
+    public synchronized void commit() {
+        if (committedReadPos != readPos) {
+            committedReadPos = readPos;
+            map.putLong(OFFSET_READ, committedReadPos);
+        }
+        drained += uncommittedRates;
+        uncommittedRecords = uncommittedRates = 0L;
+        if (forceOnWrite) {
+            map.force();
+        }
+    }
+
+    /**
+     * Son commit'ten bu yana okunan kayıtları geri alır; sonraki {@link #poll(int)} onları
+     * yeniden okur. Teslimi doğrulanamayan kayıtlar için kullanılır; bu kayıtlardan sonradan
+     * teslim edilenler bir kez daha gönderilir (en az bir kez).
+     */
+    public synchronized void rewind() {
+        readPos = committedReadPos;
+        pendingRecords += uncommittedRecords;
+        uncommittedRecords = uncommittedRates = 0L;
+    }
+
+    private void writeInt(long pos, int value) {
+        write(pos, new byte[]{(byte) (value >>> 24), (byte) (value >>> 16), (byte) (value >>> 8), (byte) value});
+    }
+
+    private int readInt(long pos) {
+        byte[] b = new byte[LENGTH_PREFIX];
+        read(pos, b);
+        return ((b[0] & 0xFF) << 24) | ((b[1] & 0xFF) << 16) | ((b[2] & 0xFF) << 8) | (b[3] & 0xFF);
+    }
+
+    /** Mantıksal konumdan başlayarak yazar; veri bölgesinin sonunda başa sarar. */
+    private void write(long pos, byte[] src) {
+        int offset = (int) (pos % capacity);
+        int first = Math.min(src.length, capacity - offset);
+        map.put(HEADER_SIZE + offset, src, 0, first);
+        if (first < src.length) {
+            map.put(HEADER_SIZE, src, first, src.length - first);
+        }
+    }
+
+    private void read(long pos, byte[] dst) {
+        int offset = (int) (pos % capacity);
+        int first = Math.min(dst.length, capacity - offset);
+        map.get(HEADER_SIZE + offset, dst, 0, first);
+        if (first < dst.length) {
+            map.get(HEADER_SIZE, dst, first, dst.length - first);
+        }
+    }
+
+    /**
+     * @return Gönderilmeyi bekleyen rate sayısı
+     */
+    public synchronized long getPendingRecords() {
+        return pendingRecords;
+    }
+
+    /**
+     * @return Gönderilmeyi bekleyen kayıtların byte cinsinden boyutu
+     */
+    public synchronized long getPendingBytes() {
+        return writePos - readPos;
+    }
+
+    /**
+     * @return Veri bölgesinin boyutu (byte cinsinden)
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return Açılıştan bu yana eklenen rate sayısı
+     */
+    public synchronized long getAppendedCount() {
+        return appended;
+    }
+
+    /**
+     * @return Açılıştan bu yana teslimi commit edilen (boşaltılan) rate sayısı
+     */
+    public synchronized long getDrainedCount() {
+        return drained;
+    }
+
+    /**
+     * @return Açılıştan bu yana outbox dolu olduğu için reddedilen rate sayısı
+     */
+    public synchronized long getDroppedCount() {
+        return dropped;
+    }
+
+    /**
+     * @return Outbox dosyasının yolu
+     */
+    public Path getPath() {
+        return path;
+    }
+}
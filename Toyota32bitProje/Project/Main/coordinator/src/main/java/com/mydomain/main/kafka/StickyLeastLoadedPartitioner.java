@@ -0,0 +1,93 @@
+package com.mydomain.main.kafka;
+
+import org.apache.kafka.clients.producer.Partitioner;
+import org.apache.kafka.common.Cluster;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@code StickyLeastLoadedPartitioner}, her anahtarı (rate adı) ilk görüldüğünde o ana kadar
+ * en az byte almış partition'a atar ve sonraki tüm kayıtlarını aynı partition'a gönderir.
+ * Varsayılan hash partitioner'ın aksine yoğun kurlar aynı partition'da toplanmaz.
+ *
+ * <p>Hizmetin temel işleyişi:
+ * <ul>
+ *   <li>Bir rate'in tüm kayıtları aynı partition'a gittiğinden rate içi sıralama korunur.</li>
+ *   <li>Partition yükü, bu producer'ın o partition'a gönderdiği toplam değer byte'ıdır;
+ *       sabit partition'a yönlendirilen kayıtlar partitioner'dan geçmediği için sayılmaz.</li>
+ *   <li>Topic'in partition sayısı azalırsa geçersiz kalan atamalar yeniden yapılır.</li>
+ *   <li>Anahtarsız kayıtlar atama yapılmadan en az yüklü partition'a gider.</li>
+ * </ul>
+ * </p>
+ *
+ * <p>Kafka her {@code KafkaProducer} için yeni bir partitioner nesnesi oluşturur ve
+ * {@link KafkaProducerService} gönderim hatalarından sonra producer'ı yeniden yaratır. Bu yüzden
+ * atamalar partitioner nesnesinde değil, topic'e göre anahtarlanmış sınıf düzeyindeki bir
+ * tabloda tutulur; producer yeniden yaratıldığında ve {@link #close()} çağrıldığında korunur.
+ * Atamalar yalnızca bellekte tutulduğundan uygulama (JVM) yeniden başladığında bir rate farklı
+ * bir partition'a düşebilir; sıralama yalnızca bu sınırda, henüz tüketilmemiş eski kayıtlar
+ * için bozulabilir.</p>
+ *
+ * @author Ali Kerem Kol
+ * @version 1.0
+ * @since 2025-06-07
+ */
+public class StickyLeastLoadedPartitioner implements Partitioner {
+
+    /** Topic → atamalar; producer nesnelerinden bağımsızdır, JVM ömrü boyunca yaşar */
+    private static final Map<String, TopicLoad> TOPICS = new ConcurrentHashMap<>();
+
+    @Override
+    public void configure(Map<String, ?> configs) {
+    }
+
+    @Override
+    public int partition(String topic, Object key, byte[] keyBytes, Object value, byte[] valueBytes, Cluster cluster) {
+        int partitionCount = cluster.partitionCountForTopic(topic);
+        int bytes = valueBytes != null ? valueBytes.length : 0;
+        return TOPICS.computeIfAbsent(topic, t -> new TopicLoad()).assign(key, partitionCount, bytes);
+    }
+
+    /**
+     * Atamalar bir sonraki producer tarafından kullanılmak üzere korunur.
+     */
+    @Override
+    public void close() {
+    }
+
+    /**
+     * Tek bir topic'in anahtar atamaları ve partition başına gönderilen byte'ları.
+     */
+    private static final class TopicLoad {
+        private final Map<Object, Integer> assignments = new HashMap<>();
+        private long[] bytesPerPartition = new long[0];
+
+        synchronized int assign(Object key, int partitionCount, int bytes) {
+            if (partitionCount <= 0) return 0;
+            if (bytesPerPartition.length != partitionCount) {
+                long[] resized = new long[partitionCount];
+                System.arraycopy(bytesPerPartition, 0, resized, 0, Math.min(partitionCount, bytesPerPartition.length));
+                bytesPerPartition = resized;
+            }
+
+            Integer partition = key != null ? assignments.get(key) : null;
+            if (partition == null || partition >= partitionCount) {
+                partition = leastLoaded();
+                if (key != null) assignments.put(key, partition);
+            }
+
+            bytesPerPartition[partition] += bytes;
+            return partition;
+        }
+
+        private int leastLoaded() {
+            int best = 0;
+            for (int p = 1; p < bytesPerPartition.length; p++) {
+                if (bytesPerPartition[p] < bytesPerPartition[best]) best = p;
+            }
+            return best;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.mydomain.main.kafka;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@code TopicMetrics}, {@link KafkaProducerService}'in tek bir topic için tuttuğu gönderim
+ * sayaçlarıdır. Sayaçlar producer callback thread'inden ve worker thread'inden kilitsiz
+ * güncellenir; değerler uygulama ömrü boyunca birikir.
+ *
+ * <p>Tutulan değerler:
+ * <ul>
+ *   <li>Onaylanan ve başarısız olan kayıt sayısı.</li>
+ *   <li>Başarısız olup yeniden deneme kuyruğu dolu olduğu için kaybolan rate sayısı.</li>
+ *   <li>Onaylanan kayıtların toplam değer byte'ı.</li>
+ *   <li>send() çağrısından broker onayına kadar geçen toplam süre; ortalama onay süresi
+ *       buradan hesaplanır.</li>
+ * </ul>
+ * </p>
+ *
+ * @author Ali Kerem Kol
+ * @version 1.0
+ * @since 2025-06-07
+ */
+public class TopicMetrics {
+
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+    private final LongAdder ackNanos = new LongAdder();
+
+    void recordSent(int valueBytes, long elapsedNanos) {
+        sent.increment();
+        bytes.add(valueBytes);
+        ackNanos.add(elapsedNanos);
+    }
+
+    void recordFailed() {
+        failed.increment();
+    }
+
+    void recordDropped() {
+        dropped.increment();
+    }
+
+    /**
+     * @return Onaylanan kayıt sayısı
+     */
+    public long getSent() {
+        return sent.sum();
+    }
+
+    /**
+     * @return Başarısız olan kayıt sayısı
+     */
+    public long getFailed() {
+        return failed.sum();
+    }
+
+    /**
+     * @return Başarısız olduktan sonra yeniden deneme kuyruğuna da alınamadığı için kaybolan rate sayısı
+     */
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * @return Onaylanan kayıtların toplam değer byte'ı
+     */
+    public long getBytes() {
+        return bytes.sum();
+    }
+
+    /**
+     * @return Ortalama onay süresi (milisaniye), henüz kayıt onaylanmadıysa 0
+     */
+    public double getAvgAckMs() {
+        long count = sent.sum();
+        return count == 0 ? 0.0 : ackNanos.sum() / 1e6 / count;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "sent=%d failed=%d dropped=%d bytes=%d avgAckMs=%.2f",
+                getSent(), getFailed(), getDropped(), getBytes(), getAvgAckMs());
+    }
+}
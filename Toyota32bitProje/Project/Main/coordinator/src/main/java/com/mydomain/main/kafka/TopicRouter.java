@@ -0,0 +1,170 @@
+package com.mydomain.main.kafka;
+
+import com.mydomain.main.config.ConfigReader;
+import com.mydomain.main.exception.ConfigLoadException;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * {@code TopicRouter}, hesaplanan kurların hangi Kafka topic'ine ve partition'ına
+ * gönderileceğini `kafka.routing` kurallarına göre belirler.
+ *
+ * <p>Hizmetin temel işleyişi:
+ * <ul>
+ *   <li>Kurallar konfigürasyondaki sırayla denenir; rate adıyla tam eşleşen ilk kuralın
+ *       `pattern` (Java regex) değeri kazanır.</li>
+ *   <li>Kuralda `topic` yoksa varsayılan `topicName`, `partition` yoksa producer'ın
+ *       partitioner'ı kullanılır.</li>
+ *   <li>Hiçbir kural eşleşmezse rate varsayılan topic'e gider.</li>
+ *   <li>Rate adı başına sonuç önbelleğe alınır; gönderim yolunda regex çalıştırılmaz.</li>
+ * </ul>
+ * </p>
+ *
+ * <p>Örnek:
+ * <pre>
+ * "routing": [
+ *   { "pattern": "USDTRY", "topic": "rates-usd", "partition": 0 },
+ *   { "pattern": ".*TRY",  "topic": "rates-try" }
+ * ]
+ * </pre>
+ * </p>
+ *
+ * @author Ali Kerem Kol
+ * @version 1.0
+ * @since 2025-06-07
+ */
+public class TopicRouter {
+
+    /** Kuralda partition belirtilmediğinde kullanılan değer */
+    public static final int ANY_PARTITION = -1;
+
+    private final String defaultTopic;
+    private final List<Rule> rules;
+    private final Route defaultRoute;
+    private final Map<String, Route> cache = new ConcurrentHashMap<>();
+
+    /**
+     * @param defaultTopic Hiçbir kural eşleşmediğinde veya kuralda topic yoksa kullanılacak topic
+     * @param routing `kafka.routing` kural dizisi, null olabilir
+     * @throws ConfigLoadException Bir kuralda `pattern` eksik veya geçersizse, ya da partition negatifse
+     */
+    public TopicRouter(String defaultTopic, JSONArray routing) {
+        this.defaultTopic = defaultTopic;
+        this.defaultRoute = new Route(defaultTopic, ANY_PARTITION);
+        this.rules = new ArrayList<>();
+
+        if (routing == null) return;
+        for (int i = 0; i < routing.length(); i++) {
+            JSONObject rule = routing.getJSONObject(i);
+            String pattern = rule.optString("pattern", "");
+            if (pattern.isBlank()) {
+                throw new ConfigLoadException("Kafka routing rule #" + i + " has no 'pattern'");
+            }
+            int partition = rule.optInt("partition", ANY_PARTITION);
+            if (rule.has("partition") && partition < 0) {
+                throw new ConfigLoadException("Kafka routing rule #" + i + " has a negative partition: " + partition);
+            }
+            try {
+                rules.add(new Rule(Pattern.compile(pattern),
+                        new Route(rule.optString("topic", defaultTopic), partition)));
+            } catch (PatternSyntaxException e) {
+                throw new ConfigLoadException("Kafka routing rule #" + i + " has an invalid pattern: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * `kafka.topicName` ve `kafka.routing` konfigürasyonundan bir yönlendirici oluşturur.
+     *
+     * @return Konfigürasyona göre oluşturulmuş yönlendirici
+     * @throws ConfigLoadException `initConfigs` çağrılmadıysa veya bir kural geçersizse
+     */
+    public static TopicRouter fromConfig() {
+        return new TopicRouter(ConfigReader.getKafkaTopicName(), ConfigReader.getKafkaRoutingRules());
+    }
+
+    /**
+     * @param rateName Rate adı
+     * @return Rate'in gönderileceği topic ve partition
+     */
+    public Route route(String rateName) {
+        if (rules.isEmpty()) return defaultRoute;
+        return cache.computeIfAbsent(rateName, this::resolve);
+    }
+
+    private Route resolve(String rateName) {
+        for (Rule rule : rules) {
+            if (rule.pattern.matcher(rateName).matches()) return rule.route;
+        }
+        return defaultRoute;
+    }
+
+    /**
+     * @return Varsayılan topic ve kurallarda geçen tüm topic'ler
+     */
+    public Set<String> topics() {
+        Set<String> topics = new LinkedHashSet<>();
+        topics.add(defaultTopic);
+        for (Rule rule : rules) topics.add(rule.route.topic());
+        return Collections.unmodifiableSet(topics);
+    }
+
+    /**
+     * @return Tanımlı kural sayısı
+     */
+    public int ruleCount() {
+        return rules.size();
+    }
+
+    /**
+     * Bir rate'in hedefi: topic ve isteğe bağlı sabit partition.
+     */
+    public static final class Route {
+        private final String topic;
+        private final int partition;
+
+        Route(String topic, int partition) {
+            this.topic = topic;
+            this.partition = partition;
+        }
+
+        /**
+         * @return Hedef topic
+         */
+        public String topic() {
+            return topic;
+        }
+
+        /**
+         * @return Sabit partition, partitioner karar verecekse {@value TopicRouter#ANY_PARTITION}
+         */
+        public int partition() {
+            return partition;
+        }
+
+        @Override
+        public String toString() {
+            return partition == ANY_PARTITION ? topic : topic + "[" + partition + "]";
+        }
+    }
+
+    private static final class Rule {
+        final Pattern pattern;
+        final Route route;
+
+        Rule(Pattern pattern, Route route) {
+            this.pattern = pattern;
+            this.route = route;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.mydomain.main.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 /**
@@ -13,6 +14,7 @@ import com.fasterxml.jackson.annotation.JsonProperty;
  * <ul>
  *   <li>Veri akışında bir kurun kimliğini (`rateName`) ve detaylarını (`fields`) saklar.</li>
  *   <li>Durum bilgisi (`status`) ile kurun geçerliliğini ve güncellenme durumunu izler.</li>
+ *   <li>Hesaplanan kurlarda girdilerin tazeliğini (`freshnessMs`) taşır; ham kurlarda boştur.</li>
  *   <li>Deep copy destekli constructor ile nesne kopyalama sağlar.</li>
  * </ul>
  * </p>
@@ -33,6 +35,10 @@ public class Rate {
     /** Kuranın aktiflik ve güncellenmişlik durumu */
     private RateStatus status;
 
+    /** Hesaplanan kurun en eski girdisinin yaşı (ms); ham kurlarda null */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long freshnessMs;
+
     /**
      * Boş yapıcı metot.
      * Jackson veya diğer serileştirme kütüphaneleri için gereklidir.
@@ -79,6 +85,7 @@ public class Rate {
         this.rateName = other.rateName;
         this.fields = new RateFields(other.fields);   // deep copy
         this.status = new RateStatus(other.status);   // deep copy
+        this.freshnessMs = other.freshnessMs;
     }
 
     /**
@@ -135,6 +142,24 @@ public class Rate {
         this.status = status;
     }
 
+    /**
+     * Hesaplanan kurun tazelik metriğini döner.
+     *
+     * @return En eski girdinin hesaplama anındaki yaşı (ms), ham kurlarda null
+     */
+    public Long getFreshnessMs() {
+        return freshnessMs;
+    }
+
+    /**
+     * Hesaplanan kurun tazelik metriğini ayarlar.
+     *
+     * @param freshnessMs En eski girdinin yaşı (ms)
+     */
+    public void setFreshnessMs(Long freshnessMs) {
+        this.freshnessMs = freshnessMs;
+    }
+
     /**
      * Nesnenin okunabilir dize temsili.
      *
@@ -146,6 +171,7 @@ public class Rate {
                 "rateName='" + rateName + '\'' +
                 ", fields=" + fields +
                 ", status=" + status +
+                (freshnessMs != null ? ", freshnessMs=" + freshnessMs : "") +
                 '}';
     }
 
@@ -134,11 +134,10 @@ public class RedisService {
         try (Jedis jedis = jedisPool.getResource()) {
             boolean isFirst = jedis.llen(key) == 0;
 
-            if (!isFirst) {
-                Rate last = deserialize(jedis.lindex(key, 0));
-                if (!filterService.applyAllFilters(platform, rateName, last, rate, null)) {
-                    return -1;
-                }
+            // İlk veride de filtreler çalışır; böylece kabul edilen her tick geçmişe kaydedilir
+            Rate last = isFirst ? null : deserialize(jedis.lindex(key, 0));
+            if (!filterService.applyAllFilters(platform, rateName, last, rate)) {
+                return -1;
             }
 
             jedis.lpush(key, serialize(rate));
@@ -0,0 +1,122 @@
+package com.mydomain.main.filter;
+
+import com.mydomain.main.model.Rate;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * {@link FilterService#applyBatch}'in partideki her tick'i kendinden önce kabul edilen
+ * tick'lerin durumuyla değerlendirdiğini ve sonucun tick'lerin tek tek verilmesiyle aynı
+ * olduğunu doğrular.
+ */
+class FilterServiceTest {
+
+    private static final String PLATFORM = "PF1";
+    private static final String RATE = "USDTRY";
+    private static final long TIMESTAMP = 1_749_291_330_000L;
+
+    @Test
+    void batchSeesTicksAcceptedEarlierInTheBatch() {
+        FilterService service = service(StepFilter.class);
+        RateBatch batch = batch(10.0, 10.8, 11.6, 12.4);
+        BitSet accepted = new BitSet();
+
+        int count = service.applyBatch(PLATFORM, RATE, batch, accepted);
+
+        // Her adım bir öncekine göre eşiğin altında; parti başındaki duruma göre son ikisi reddedilirdi
+        assertEquals(4, count);
+        assertEquals(bits(0, 1, 2, 3), accepted);
+    }
+
+    @Test
+    void rejectedTickDoesNotBecomeLast() {
+        FilterService service = service(StepFilter.class);
+        BitSet accepted = new BitSet();
+
+        service.applyBatch(PLATFORM, RATE, batch(10.0, 20.0, 10.5), accepted);
+
+        assertEquals(bits(0, 2), accepted);
+    }
+
+    @Test
+    void batchMatchesPerTickPath() {
+        double[] bids = {10.0, 10.9, 12.5, 11.7, 11.0, 30.0, 11.5, 12.3, 13.2};
+        for (Class<?> filter : new Class<?>[]{StepFilter.class, PlainStepFilter.class}) {
+            FilterService perTick = service(filter);
+            BitSet expected = new BitSet();
+            Rate last = null;
+            for (int i = 0; i < bids.length; i++) {
+                Rate candidate = new Rate(RATE, bids[i], bids[i] + 0.1, TIMESTAMP + i);
+                if (perTick.applyAllFilters(PLATFORM, RATE, last, candidate)) {
+                    expected.set(i);
+                    last = candidate;
+                }
+            }
+
+            BitSet accepted = new BitSet();
+            service(filter).applyBatch(PLATFORM, RATE, batch(bids), accepted);
+
+            assertEquals(expected, accepted, filter.getSimpleName());
+        }
+    }
+
+    private static FilterService service(Class<?> filter) {
+        JSONObject json = new JSONObject()
+                .put("step", new JSONObject()
+                        .put("className", filter.getName())
+                        .put("platforms", new JSONObject().put(PLATFORM, new JSONObject().put("rates", List.of(RATE)))));
+        return new FilterService(json, 16, 0, 0);
+    }
+
+    private static RateBatch batch(double... bids) {
+        RateBatch batch = new RateBatch(2);
+        for (int i = 0; i < bids.length; i++) {
+            batch.add(bids[i], bids[i] + 0.1, TIMESTAMP + i);
+        }
+        return batch;
+    }
+
+    private static BitSet bits(int... indexes) {
+        BitSet bits = new BitSet();
+        for (int i : indexes) bits.set(i);
+        return bits;
+    }
+
+    /** Son kabul edilen bid'den 1.0'dan fazla uzaklaşan tick'i reddeder */
+    public static class StepFilter implements IBatchRateFilter {
+        @Override
+        public boolean acceptTick(String platformName, String rateName, double bid, double ask, long timestamp, RateHistoryView history) {
+            return history.size() == 0 || Math.abs(bid - history.bid(0)) <= 1.0;
+        }
+
+        @Override
+        public boolean shouldAccept(String platformName, String rateName, Rate last, Rate candidate, RateHistoryView history) {
+            return last == null || Math.abs(candidate.getFields().getBid() - last.getFields().getBid()) <= 1.0;
+        }
+
+        @Override
+        public void setPlatformAssignments(Map<String, Set<String>> assignment) {
+        }
+    }
+
+    /** {@link StepFilter}'ın toplu arayüzü olmayan hali; partide `shouldAccept` yolunu kullanır */
+    public static class PlainStepFilter implements IRateFilter {
+        private final StepFilter delegate = new StepFilter();
+
+        @Override
+        public boolean shouldAccept(String platformName, String rateName, Rate last, Rate candidate, RateHistoryView history) {
+            return delegate.shouldAccept(platformName, rateName, last, candidate, history);
+        }
+
+        @Override
+        public void setPlatformAssignments(Map<String, Set<String>> assignment) {
+        }
+    }
+}
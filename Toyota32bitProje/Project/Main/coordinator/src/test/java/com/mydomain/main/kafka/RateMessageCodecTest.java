@@ -0,0 +1,168 @@
+package com.mydomain.main.kafka;
+
+import com.mydomain.main.model.Rate;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link RateMessageCodec} binary v1 ve snapshot v2 biçimlerinin consumer'ların beklediği
+ * düzende yazıldığını ve sınırların korunduğunu doğrular.
+ */
+class RateMessageCodecTest {
+
+    private static final long TIMESTAMP = 1_749_291_330_123L;
+
+    @Test
+    void binaryRoundTrip() {
+        Rate rate = new Rate("PF1_USDTRY", 32.1234, 32.5678, TIMESTAMP);
+
+        byte[] message = RateMessageCodec.encodeBinary(rate);
+        Rate decoded = RateMessageCodec.decodeBinary(message);
+
+        assertEquals(RateMessageCodec.BINARY_HEADER_SIZE + "PF1_USDTRY".length(), message.length);
+        assertEquals(RateMessageCodec.BINARY_MAGIC, message[0]);
+        assertEquals(RateMessageCodec.BINARY_VERSION, message[1]);
+        assertEquals(rate.getRateName(), decoded.getRateName());
+        assertEquals(rate.getFields().getBid(), decoded.getFields().getBid());
+        assertEquals(rate.getFields().getAsk(), decoded.getFields().getAsk());
+        assertEquals(TIMESTAMP, decoded.getFields().getTimestamp());
+        assertNull(decoded.getFreshnessMs());
+    }
+
+    @Test
+    void binaryWritesEpochNanos() {
+        byte[] message = RateMessageCodec.encodeBinary(new Rate("X", 1.0, 2.0, TIMESTAMP));
+
+        assertEquals(TIMESTAMP * 1_000_000L, ByteBuffer.wrap(message, 18, 8).getLong());
+    }
+
+    @Test
+    void binaryKeepsUtf8Names() {
+        Rate decoded = RateMessageCodec.decodeBinary(RateMessageCodec.encodeBinary(new Rate("ŞÇĞ_ÜÖİ", 1.0, 2.0, TIMESTAMP)));
+
+        assertEquals("ŞÇĞ_ÜÖİ", decoded.getRateName());
+    }
+
+    @Test
+    void binaryNameLengthLimit() {
+        Rate longest = new Rate("A".repeat(255), 1.0, 2.0, TIMESTAMP);
+        Rate tooLong = new Rate("A".repeat(256), 1.0, 2.0, TIMESTAMP);
+        // 128 iki byte'lık karakter: 128 karakter ama 256 byte
+        Rate tooLongUtf8 = new Rate("Ş".repeat(128), 1.0, 2.0, TIMESTAMP);
+
+        assertTrue(RateMessageCodec.fitsBinary(longest));
+        assertEquals(longest.getRateName(), RateMessageCodec.decodeBinary(RateMessageCodec.encodeBinary(longest)).getRateName());
+        assertFalse(RateMessageCodec.fitsBinary(tooLong));
+        assertFalse(RateMessageCodec.fitsBinary(tooLongUtf8));
+        assertThrows(IllegalArgumentException.class, () -> RateMessageCodec.encodeBinary(tooLong));
+        assertThrows(IllegalArgumentException.class, () -> RateMessageCodec.encodeBinary(tooLongUtf8));
+    }
+
+    @Test
+    void decodeBinaryRejectsMalformedMessages() {
+        byte[] message = RateMessageCodec.encodeBinary(new Rate("EURUSD", 1.0, 2.0, TIMESTAMP));
+
+        byte[] truncated = new byte[message.length - 1];
+        System.arraycopy(message, 0, truncated, 0, truncated.length);
+        byte[] wrongVersion = message.clone();
+        wrongVersion[1] = 2;
+
+        assertThrows(IllegalArgumentException.class, () -> RateMessageCodec.decodeBinary(truncated));
+        assertThrows(IllegalArgumentException.class, () -> RateMessageCodec.decodeBinary(wrongVersion));
+        assertThrows(IllegalArgumentException.class, () -> RateMessageCodec.decodeBinary(new byte[3]));
+    }
+
+    @Test
+    void encodeRejectsUnknownFormat() {
+        Rate rate = new Rate("EURUSD", 1.0, 2.0, TIMESTAMP);
+
+        assertArrayEquals(RateMessageCodec.encodeBinary(rate), RateMessageCodec.encode(rate, RateMessageCodec.FORMAT_BINARY));
+        assertArrayEquals(RateMessageCodec.encodePipe(rate), RateMessageCodec.encode(rate, RateMessageCodec.FORMAT_PIPE));
+        assertThrows(IllegalArgumentException.class, () -> RateMessageCodec.encode(rate, "json"));
+    }
+
+    @Test
+    void pipeUsesRateTimestamp() {
+        byte[] message = RateMessageCodec.encodePipe(new Rate("EURUSD", 1.5, 2.25, TIMESTAMP));
+
+        assertEquals("EURUSD|1.500000|2.250000|2025-06-07T10:15:30.123Z", new String(message, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void snapshotRoundTrip() {
+        Rate calculated = new Rate("USDTRY", 32.15, 32.25, TIMESTAMP + 5);
+        calculated.setFreshnessMs(120L);
+        List<Rate> rates = List.of(
+                new Rate("PF1_USDTRY", 32.1, 32.2, TIMESTAMP),
+                calculated,
+                new Rate("ŞÇĞ", 1.0, 2.0, TIMESTAMP + 7));
+
+        byte[] message = RateMessageCodec.encodeSnapshot(42L, TIMESTAMP + 7, rates);
+
+        ByteBuffer buf = ByteBuffer.wrap(message);
+        assertEquals(RateMessageCodec.SNAPSHOT_MAGIC, buf.get());
+        assertEquals(RateMessageCodec.SNAPSHOT_VERSION, buf.get());
+        assertEquals(42L, buf.getLong());
+        assertEquals((TIMESTAMP + 7) * 1_000_000L, buf.getLong());
+        assertEquals(rates.size(), buf.getShort() & 0xFFFF);
+        for (Rate rate : rates) {
+            assertEquals(rate.getFields().getBid(), buf.getDouble());
+            assertEquals(rate.getFields().getAsk(), buf.getDouble());
+            assertEquals(rate.getFields().getTimestamp() * 1_000_000L, buf.getLong());
+            assertEquals(rate.getFreshnessMs() != null ? rate.getFreshnessMs() : RateMessageCodec.NO_FRESHNESS, buf.getLong());
+            byte[] name = new byte[buf.get() & 0xFF];
+            buf.get(name);
+            assertEquals(rate.getRateName(), new String(name, StandardCharsets.UTF_8));
+        }
+        assertFalse(buf.hasRemaining());
+    }
+
+    @Test
+    void snapshotCarriesFreshnessPerRate() {
+        Rate fresh = new Rate("EURUSD", 1.0, 2.0, TIMESTAMP);
+        fresh.setFreshnessMs(0L);
+        Rate stale = new Rate("USDTRY", 1.0, 2.0, TIMESTAMP);
+        stale.setFreshnessMs(4_500L);
+
+        byte[] message = RateMessageCodec.encodeSnapshot(1L, TIMESTAMP, List.of(fresh, stale, new Rate("GBPUSD", 1.0, 2.0, TIMESTAMP)));
+
+        int entry = RateMessageCodec.SNAPSHOT_ENTRY_SIZE + "EURUSD".length();
+        int freshnessOffset = RateMessageCodec.SNAPSHOT_HEADER_SIZE + 24;
+        assertEquals(0L, ByteBuffer.wrap(message, freshnessOffset, 8).getLong());
+        assertEquals(4_500L, ByteBuffer.wrap(message, freshnessOffset + entry, 8).getLong());
+        assertEquals(RateMessageCodec.NO_FRESHNESS, ByteBuffer.wrap(message, freshnessOffset + 2 * entry, 8).getLong());
+    }
+
+    @Test
+    void snapshotSizeLimits() {
+        Rate rate = new Rate("X", 1.0, 2.0, TIMESTAMP);
+        List<Rate> max = new ArrayList<>(Collections.nCopies(RateMessageCodec.MAX_SNAPSHOT_RATES, rate));
+
+        byte[] message = RateMessageCodec.encodeSnapshot(1L, TIMESTAMP, max);
+        assertEquals(RateMessageCodec.MAX_SNAPSHOT_RATES, ByteBuffer.wrap(message, 18, 2).getShort() & 0xFFFF);
+
+        max.add(rate);
+        assertThrows(IllegalArgumentException.class, () -> RateMessageCodec.encodeSnapshot(1L, TIMESTAMP, max));
+        assertThrows(IllegalArgumentException.class, () -> RateMessageCodec.encodeSnapshot(1L, TIMESTAMP,
+                List.of(new Rate("A".repeat(256), 1.0, 2.0, TIMESTAMP))));
+    }
+
+    @Test
+    void emptySnapshotIsHeaderOnly() {
+        byte[] message = RateMessageCodec.encodeSnapshot(7L, TIMESTAMP, List.of());
+
+        assertEquals(RateMessageCodec.SNAPSHOT_HEADER_SIZE, message.length);
+    }
+}
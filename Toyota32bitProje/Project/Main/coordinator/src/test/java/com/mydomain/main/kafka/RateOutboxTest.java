@@ -0,0 +1,202 @@
+package com.mydomain.main.kafka;
+
+import com.mydomain.main.model.Rate;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link RateOutbox}'ın sıra, commit/rewind ve yeniden açılışta kurtarma davranışını doğrular.
+ */
+class RateOutboxTest {
+
+    /** Tek bir en büyük kaydı alabilen en küçük kapasitenin biraz üstü */
+    private static final long SMALL_CAPACITY = 300;
+    /** "EURUSD" adlı bir kaydın boyutu: 4 byte uzunluk + 8 byte tazelik + 27 byte başlık + 6 byte ad */
+    private static final int RECORD_SIZE = 45;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void pollsInAppendOrder() throws IOException {
+        RateOutbox outbox = RateOutbox.open(dir.resolve("outbox.dat"), 4096, false);
+        for (int i = 0; i < 5; i++) {
+            assertTrue(outbox.append(rate("R" + i, i)));
+        }
+
+        List<Rate> first = outbox.poll(3);
+        List<Rate> second = outbox.poll(10);
+
+        assertEquals(List.of("R0", "R1", "R2"), names(first));
+        assertEquals(List.of("R3", "R4"), names(second));
+        assertEquals(2.0, first.get(2).getFields().getBid());
+        assertEquals(0, outbox.getPendingRecords());
+        assertEquals(0, outbox.getDrainedCount(), "polled rates count as drained only after commit");
+        outbox.commit();
+        assertEquals(5, outbox.getDrainedCount());
+    }
+
+    @Test
+    void rewindRedeliversUncommittedRates() throws IOException {
+        RateOutbox outbox = RateOutbox.open(dir.resolve("outbox.dat"), 4096, false);
+        for (int i = 0; i < 4; i++) {
+            outbox.append(rate("R" + i, i));
+        }
+
+        outbox.poll(2);
+        outbox.commit();
+        outbox.poll(2);
+        outbox.rewind();
+
+        assertEquals(2, outbox.getPendingRecords());
+        assertEquals(2, outbox.getDrainedCount());
+        assertEquals(List.of("R2", "R3"), names(outbox.poll(10)));
+        outbox.commit();
+        assertEquals(4, outbox.getDrainedCount());
+    }
+
+    @Test
+    void keepsFreshnessAcrossReopen() throws IOException {
+        Path path = dir.resolve("outbox.dat");
+        RateOutbox outbox = RateOutbox.open(path, 4096, false);
+        Rate fresh = rate("USDTRY", 1);
+        fresh.setFreshnessMs(250L);
+        outbox.append(fresh);
+        outbox.append(rate("EURUSD", 2));
+
+        List<Rate> rates = RateOutbox.open(path, 4096, false).poll(10);
+
+        assertEquals(250L, rates.get(0).getFreshnessMs());
+        assertNull(rates.get(1).getFreshnessMs());
+    }
+
+    @Test
+    void reopenRecoversUncommittedRates() throws IOException {
+        Path path = dir.resolve("outbox.dat");
+        RateOutbox outbox = RateOutbox.open(path, 4096, true);
+        for (int i = 0; i < 4; i++) {
+            outbox.append(rate("R" + i, i));
+        }
+        outbox.poll(1);
+        outbox.commit();
+        outbox.poll(2); // commit edilmeden "çöker"
+
+        RateOutbox reopened = RateOutbox.open(path, 4096, false);
+
+        assertEquals(3, reopened.getPendingRecords());
+        assertEquals(List.of("R1", "R2", "R3"), names(reopened.poll(10)));
+    }
+
+    @Test
+    void reopenDropsTornTrailingRecord() throws IOException {
+        Path path = dir.resolve("outbox.dat");
+        RateOutbox outbox = RateOutbox.open(path, 4096, false);
+        outbox.append(rate("EURUSD", 1));
+        outbox.append(rate("EURUSD", 2));
+        outbox.commit();
+
+        // Yazma konumunu son kaydın ortasına çek: yarım yazılmış kayıt
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(8).putLong(0, 2L * RECORD_SIZE - 5), 24);
+        }
+
+        RateOutbox reopened = RateOutbox.open(path, 4096, false);
+
+        assertEquals(1, reopened.getPendingRecords());
+        List<Rate> rates = reopened.poll(10);
+        assertEquals(1, rates.size());
+        assertEquals(1.0, rates.get(0).getFields().getBid());
+        assertTrue(reopened.append(rate("EURUSD", 3)));
+        assertEquals(List.of("EURUSD"), names(reopened.poll(10)));
+    }
+
+    @Test
+    void reopenWithUnknownHeaderStartsEmpty() throws IOException {
+        Path path = dir.resolve("outbox.dat");
+        Files.write(path, new byte[64]);
+
+        RateOutbox outbox = RateOutbox.open(path, 4096, false);
+
+        assertEquals(0, outbox.getPendingRecords());
+        assertTrue(outbox.poll(10).isEmpty());
+    }
+
+    @Test
+    void reopenKeepsFileCapacity() throws IOException {
+        Path path = dir.resolve("outbox.dat");
+        RateOutbox outbox = RateOutbox.open(path, 4096, false);
+        outbox.append(rate("EURUSD", 1));
+
+        RateOutbox reopened = RateOutbox.open(path, 8192, false);
+
+        assertEquals(4096, reopened.getCapacity());
+        assertEquals(1, reopened.getPendingRecords());
+    }
+
+    @Test
+    void rejectsWhenFullUntilCommit() throws IOException {
+        RateOutbox outbox = RateOutbox.open(dir.resolve("outbox.dat"), SMALL_CAPACITY, false);
+        int fits = (int) (SMALL_CAPACITY / RECORD_SIZE);
+        for (int i = 0; i < fits; i++) {
+            assertTrue(outbox.append(rate("EURUSD", i)));
+        }
+
+        assertFalse(outbox.append(rate("EURUSD", fits)));
+        assertEquals(1, outbox.getDroppedCount());
+
+        outbox.poll(2);
+        assertFalse(outbox.append(rate("EURUSD", fits)), "polled but uncommitted space must not be reused");
+        outbox.commit();
+        assertTrue(outbox.append(rate("EURUSD", fits)));
+    }
+
+    @Test
+    void wrapsAroundTheRing() throws IOException {
+        Path path = dir.resolve("outbox.dat");
+        RateOutbox outbox = RateOutbox.open(path, SMALL_CAPACITY, false);
+        int fits = (int) (SMALL_CAPACITY / RECORD_SIZE);
+        for (int i = 0; i < fits; i++) {
+            outbox.append(rate("EURUSD", i));
+        }
+        outbox.poll(3);
+        outbox.commit();
+        for (int i = fits; i < fits + 3; i++) {
+            assertTrue(outbox.append(rate("EURUSD", i)));
+        }
+
+        RateOutbox reopened = RateOutbox.open(path, SMALL_CAPACITY, false);
+        List<Rate> rates = reopened.poll(100);
+
+        assertEquals(fits, rates.size());
+        for (int i = 0; i < rates.size(); i++) {
+            assertEquals(3.0 + i, rates.get(i).getFields().getBid());
+        }
+    }
+
+    @Test
+    void rejectsCapacitySmallerThanOneRecord() {
+        assertThrows(IllegalArgumentException.class, () -> RateOutbox.open(dir.resolve("outbox.dat"), 64, false));
+    }
+
+    private static Rate rate(String name, int i) {
+        return new Rate(name, i, i + 0.5, 1_749_291_330_000L + i);
+    }
+
+    private static List<String> names(List<Rate> rates) {
+        return rates.stream().map(Rate::getRateName).toList();
+    }
+}